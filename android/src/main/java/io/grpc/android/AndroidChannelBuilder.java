@@ -276,6 +276,11 @@ public final class AndroidChannelBuilder extends ForwardingChannelBuilder<Androi
       delegate.notifyWhenStateChanged(source, callback);
     }
 
+    @Override
+    public void warmUp(Runnable callback) {
+      delegate.warmUp(callback);
+    }
+
     @Override
     public void resetConnectBackoff() {
       delegate.resetConnectBackoff();
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc;
+
+import static com.google.common.base.Charsets.US_ASCII;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups in received {@link Metadata}, the way a chain of server interceptors does them.
+ */
+@State(Scope.Benchmark)
+public class MetadataBenchmark {
+
+  @Param({"2", "8", "20"})
+  public int headerCount;
+
+  @Param({"1", "4", "20"})
+  public int lookupCount;
+
+  private byte[][] serialized;
+  private Metadata.Key<String>[] keys;
+  private Metadata.Key<String> missingKey;
+
+  /**
+   * Javadoc.
+   */
+  @Setup
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public void setUp() {
+    serialized = new byte[headerCount * 2][];
+    keys = new Metadata.Key[headerCount];
+    for (int i = 0; i < headerCount; i++) {
+      keys[i] = Metadata.Key.of("x-header-" + i, Metadata.ASCII_STRING_MARSHALLER);
+      serialized[i * 2] = ("x-header-" + i).getBytes(US_ASCII);
+      serialized[i * 2 + 1] = ("value-" + i).getBytes(US_ASCII);
+    }
+    missingKey = Metadata.Key.of("x-missing", Metadata.ASCII_STRING_MARSHALLER);
+  }
+
+  /**
+   * Receives the headers and looks up {@code lookupCount} values, some of them missing.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void receiveAndGet(Blackhole bh) {
+    Metadata headers = InternalMetadata.newMetadata(serialized.clone());
+    for (int i = 0; i < lookupCount; i++) {
+      if (i % 4 == 3) {
+        bh.consume(headers.get(missingKey));
+      } else {
+        bh.consume(headers.get(keys[(i * 7) % headerCount]));
+      }
+    }
+  }
+
+  /**
+   * Receives the headers and checks {@code lookupCount} times whether they contain a key.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void receiveAndContainsKey(Blackhole bh) {
+    Metadata headers = InternalMetadata.newMetadata(serialized.clone());
+    for (int i = 0; i < lookupCount; i++) {
+      bh.consume(headers.containsKey(keys[headerCount - 1]));
+    }
+  }
+}
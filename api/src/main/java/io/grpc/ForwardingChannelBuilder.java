@@ -150,6 +150,18 @@ public abstract class ForwardingChannelBuilder<T extends ForwardingChannelBuilde
     return thisT();
   }
 
+  @Override
+  public T keepConnectionsWarm(boolean enable) {
+    delegate().keepConnectionsWarm(enable);
+    return thisT();
+  }
+
+  @Override
+  public T maxConnectionsPerSubchannel(int maxConnections, int streamsPerConnection) {
+    delegate().maxConnectionsPerSubchannel(maxConnections, streamsPerConnection);
+    return thisT();
+  }
+
   @Override
   public T maxInboundMessageSize(int max) {
     delegate().maxInboundMessageSize(max);
@@ -16,6 +16,7 @@
 
 package io.grpc;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -34,6 +35,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -48,6 +51,8 @@ import javax.net.ssl.SSLSession;
 public final class InternalChannelz {
   private static final Logger log = Logger.getLogger(InternalChannelz.class.getName());
   private static final InternalChannelz INSTANCE = new InternalChannelz();
+  // Enough to not lose changes between scrapes a few seconds apart on a busy server
+  private static final int DEFAULT_CHANGE_LOG_CAPACITY = 4096;
 
   private final ConcurrentNavigableMap<Long, InternalInstrumented<ServerStats>> servers
       = new ConcurrentSkipListMap<>();
@@ -60,6 +65,7 @@ public final class InternalChannelz {
       = new ConcurrentHashMap<>();
   private final ConcurrentMap<Long, ServerSocketMap> perServerSockets
       = new ConcurrentHashMap<>();
+  private final ChangeLog changeLog;
 
   // A convenience class to avoid deeply nested types.
   private static final class ServerSocketMap
@@ -69,6 +75,12 @@ public final class InternalChannelz {
 
   @VisibleForTesting
   public InternalChannelz() {
+    this(DEFAULT_CHANGE_LOG_CAPACITY);
+  }
+
+  @VisibleForTesting
+  InternalChannelz(int changeLogCapacity) {
+    changeLog = new ChangeLog(changeLogCapacity);
   }
 
   public static InternalChannelz instance() {
@@ -80,25 +92,30 @@ public final class InternalChannelz {
     ServerSocketMap prev = perServerSockets.put(id(server), new ServerSocketMap());
     assert prev == null;
     add(servers, server);
+    changeLog.record(EntityType.SERVER, id(server), true);
   }
 
   /** Adds a subchannel. */
   public void addSubchannel(InternalInstrumented<ChannelStats> subchannel) {
     add(subchannels, subchannel);
+    changeLog.record(EntityType.SUBCHANNEL, id(subchannel), true);
   }
 
   /** Adds a root channel. */
   public void addRootChannel(InternalInstrumented<ChannelStats> rootChannel) {
     add(rootChannels, rootChannel);
+    changeLog.record(EntityType.ROOT_CHANNEL, id(rootChannel), true);
   }
 
   /** Adds a socket. */
   public void addClientSocket(InternalInstrumented<SocketStats> socket) {
     add(otherSockets, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), true);
   }
 
   public void addListenSocket(InternalInstrumented<SocketStats> socket) {
     add(otherSockets, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), true);
   }
 
   /** Adds a server socket. */
@@ -107,6 +124,7 @@ public final class InternalChannelz {
     ServerSocketMap serverSockets = perServerSockets.get(id(server));
     assert serverSockets != null;
     add(serverSockets, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), true);
   }
 
   /** Removes a server. */
@@ -115,22 +133,27 @@ public final class InternalChannelz {
     ServerSocketMap prev = perServerSockets.remove(id(server));
     assert prev != null;
     assert prev.isEmpty();
+    changeLog.record(EntityType.SERVER, id(server), false);
   }
 
   public void removeSubchannel(InternalInstrumented<ChannelStats> subchannel) {
     remove(subchannels, subchannel);
+    changeLog.record(EntityType.SUBCHANNEL, id(subchannel), false);
   }
 
   public void removeRootChannel(InternalInstrumented<ChannelStats> channel) {
     remove(rootChannels, channel);
+    changeLog.record(EntityType.ROOT_CHANNEL, id(channel), false);
   }
 
   public void removeClientSocket(InternalInstrumented<SocketStats> socket) {
     remove(otherSockets, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), false);
   }
 
   public void removeListenSocket(InternalInstrumented<SocketStats> socket) {
     remove(otherSockets, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), false);
   }
 
   /** Removes a server socket. */
@@ -139,6 +162,26 @@ public final class InternalChannelz {
     ServerSocketMap socketsOfServer = perServerSockets.get(id(server));
     assert socketsOfServer != null;
     remove(socketsOfServer, socket);
+    changeLog.record(EntityType.SOCKET, id(socket), false);
+  }
+
+  /**
+   * Returns the generation of the last recorded change. A scraper starting from scratch reads it
+   * before a full scrape, then polls {@link #getChanges} from it.
+   */
+  public long getGeneration() {
+    return changeLog.generation();
+  }
+
+  /**
+   * Returns the entities added or removed after {@code fromGeneration}, in order, at most {@code
+   * maxChanges} of them. Only the recent changes are kept, if some changes after {@code
+   * fromGeneration} are lost the list is {@link ChangeList#truncated truncated} and the caller must
+   * do a full scrape. Changes concurrent to a full scrape may be returned again, so they should be
+   * applied idempotently.
+   */
+  public ChangeList getChanges(long fromGeneration, int maxChanges) {
+    return changeLog.since(fromGeneration, maxChanges);
   }
 
   /** Returns a {@link RootChannelList}. */
@@ -255,6 +298,111 @@ public final class InternalChannelz {
     return map.containsKey(id.getId());
   }
 
+  /**
+   * A lossy log of the recent changes. Recording is lock-free: the generation is allocated first,
+   * then the change is published in its slot of the ring. Readers stop at the first slot not
+   * published yet, and detect overwritten slots by their generation.
+   */
+  private static final class ChangeLog {
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+
+    ChangeLog(int capacity) {
+      checkArgument(
+          capacity > 0 && (capacity & (capacity - 1)) == 0,
+          "capacity must be a positive power of 2: %s", capacity);
+      ring = new AtomicReferenceArray<>(capacity);
+      mask = capacity - 1;
+    }
+
+    long generation() {
+      return generation.get();
+    }
+
+    void record(EntityType type, long id, boolean added) {
+      long gen = generation.incrementAndGet();
+      ring.set((int) gen & mask, new Change(gen, type, id, added));
+    }
+
+    ChangeList since(long fromGeneration, int maxChanges) {
+      long current = generation.get();
+      checkArgument(
+          fromGeneration >= 0 && fromGeneration <= current,
+          "invalid generation: %s", fromGeneration);
+      if (current - fromGeneration > ring.length()) {
+        return new ChangeList(Collections.<Change>emptyList(), current, true);
+      }
+      List<Change> changes =
+          new ArrayList<>(Math.min(maxChanges, (int) (current - fromGeneration)));
+      long gen = fromGeneration;
+      while (gen < current && changes.size() < maxChanges) {
+        Change change = ring.get((int) (gen + 1) & mask);
+        if (change == null || change.generation <= gen) {
+          // not published yet
+          break;
+        }
+        if (change.generation > gen + 1) {
+          // overwritten while reading
+          return new ChangeList(Collections.<Change>emptyList(), current, true);
+        }
+        changes.add(change);
+        gen++;
+      }
+      return new ChangeList(changes, gen, false);
+    }
+  }
+
+  /** The type of a channelz entity. */
+  public enum EntityType {
+    SERVER,
+    ROOT_CHANNEL,
+    SUBCHANNEL,
+    SOCKET
+  }
+
+  /** An entity added or removed. */
+  @Immutable
+  public static final class Change {
+    public final long generation;
+    public final EntityType type;
+    public final long id;
+    public final boolean added;
+
+    /** Creates an instance. */
+    public Change(long generation, EntityType type, long id, boolean added) {
+      this.generation = generation;
+      this.type = checkNotNull(type, "type");
+      this.id = id;
+      this.added = added;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("generation", generation)
+          .add("type", type)
+          .add("id", id)
+          .add("added", added)
+          .toString();
+    }
+  }
+
+  public static final class ChangeList {
+    public final List<Change> changes;
+    /** The generation to pass to the next {@link #getChanges} call. */
+    public final long generation;
+    /** If true, some changes were lost and {@link #changes} is empty. */
+    public final boolean truncated;
+
+    /** Creates an instance. */
+    public ChangeList(List<Change> changes, long generation, boolean truncated) {
+      this.changes = checkNotNull(changes);
+      this.generation = generation;
+      this.truncated = truncated;
+    }
+  }
+
   public static final class RootChannelList {
     public final List<InternalInstrumented<ChannelStats>> channels;
     public final boolean end;
@@ -20,6 +20,7 @@ import com.google.common.io.BaseEncoding;
 import io.grpc.Metadata.AsciiMarshaller;
 import io.grpc.Metadata.BinaryStreamMarshaller;
 import java.nio.charset.Charset;
+import javax.annotation.Nullable;
 
 /**
  * Internal {@link Metadata} accessor. This is intended for use by io.grpc.internal, and the
@@ -124,4 +125,15 @@ public final class InternalMetadata {
   public static Metadata newMetadataWithParsedValues(int usedNames, Object[] namesAndValues) {
     return new Metadata(usedNames, namesAndValues);
   }
+
+  /**
+   * Returns the HTTP/2 form of the value at {@code index} if it was merged from a {@link
+   * PreEncodedMetadata}, or {@code null} if the transport has to encode it itself. The index is
+   * the one of the value's entry in {@link #serialize}, divided by two.
+   */
+  @Internal
+  @Nullable
+  public static byte[] preEncodedHttp2Value(Metadata md, int index) {
+    return md.preEncodedHttp2Value(index);
+  }
 }
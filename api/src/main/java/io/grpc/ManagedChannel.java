@@ -110,6 +110,25 @@ public abstract class ManagedChannel extends Channel {
     throw new UnsupportedOperationException("Not implemented");
   }
 
+  /**
+   * Connects the channel ahead of its first RPC. The channel exits idle mode, resolves its target
+   * and connects all the subchannels its load balancer creates, including the transport security
+   * handshakes, instead of waiting for an RPC to need them. The channel doesn't enter idle mode
+   * before the warmup completes.
+   *
+   * <p>The {@code callback} is run once, in the same executor that runs Call listeners, when the
+   * channel leaves the IDLE and CONNECTING states: typically when it becomes READY, but also when
+   * it fails to connect or is shut down. Use {@link #getState getState(false)} to tell them apart.
+   *
+   * @param callback the one-off callback run when the warmup completes
+   * @throws UnsupportedOperationException if not supported by implementation
+   * @since 1.37.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4359")
+  public void warmUp(Runnable callback) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
   /**
    * For subchannels that are in TRANSIENT_FAILURE state, short-circuit the backoff timer and make
    * them reconnect immediately. May also attempt to invoke {@link NameResolver#refresh}.
@@ -298,6 +298,55 @@ public abstract class ManagedChannelBuilder<T extends ManagedChannelBuilder<T>>
   @ExperimentalApi("https://github.com/grpc/grpc-java/issues/2022")
   public abstract T idleTimeout(long value, TimeUnit unit);
 
+  /**
+   * Sets whether the channel keeps its connections established once it has connected, for
+   * latency-sensitive clients that can't afford to reconnect when an RPC arrives after a quiet
+   * period. When enabled, the channel never enters idle mode on its own, which makes {@link
+   * #idleTimeout idleTimeout()} ineffective, and it reconnects the subchannels whose connection
+   * went away, for instance because the server closed it when it was unused, without waiting for
+   * an RPC to need them. Defaults to {@code false}.
+   *
+   * <p>A subchannel whose connection was closed soon after it was established reconnects after a
+   * backoff, like after a connection failure, rather than right away.
+   *
+   * <p>When subchannels may open several connections, see {@link #maxConnectionsPerSubchannel},
+   * each connected subchannel opens all of them right away instead of as the calls need them, and
+   * replaces the ones that are lost after a backoff.
+   *
+   * <p>The channel still connects on its first RPC: use {@link ManagedChannel#warmUp} to connect
+   * it ahead of time.
+   *
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.37.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4359")
+  public T keepConnectionsWarm(boolean enable) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Lets each subchannel open up to {@code maxConnections} connections to its backend, for
+   * backends receiving more concurrent calls than one connection serves well, because of the
+   * server's limit on concurrent streams or because a single connection is handled by a single
+   * thread. A subchannel opens an additional connection when each of its connections has {@code
+   * streamsPerConnection} calls or more in progress, and starts new calls on the connection with
+   * the fewest calls in progress. Once all the connections are open, calls keep being spread across
+   * them regardless of {@code streamsPerConnection}.
+   *
+   * <p>Additional connections are closed when the subchannel loses its first connection for good,
+   * for instance when it enters idle mode. Defaults to a single connection per subchannel.
+   *
+   * @param maxConnections the maximum number of connections of a subchannel, positive
+   * @param streamsPerConnection the number of calls in progress on every connection above which
+   *     another connection is opened, positive
+   * @throws UnsupportedOperationException if unsupported
+   * @since 1.37.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1771")
+  public T maxConnectionsPerSubchannel(int maxConnections, int streamsPerConnection) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Sets the maximum message size allowed to be received on the channel. If not called,
    * defaults to 4 MiB. The default provides protection to clients who haven't considered the
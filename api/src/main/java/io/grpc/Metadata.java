@@ -110,6 +110,15 @@ public final class Metadata {
 
   static final BaseEncoding BASE64_ENCODING_OMIT_PADDING = BaseEncoding.base64().omitPadding();
 
+  // Lookups use an index of the names once the metadata has this many entries...
+  @VisibleForTesting
+  static final int INDEX_MIN_SIZE = 8;
+  // ...and this many lookups were done.
+  @VisibleForTesting
+  static final int INDEX_MIN_LOOKUPS = 4;
+
+  private static final byte[] BINARY_HEADER_SUFFIX_BYTES = BINARY_HEADER_SUFFIX.getBytes(US_ASCII);
+
   /**
    * Constructor called by the transport layer when it receives binary metadata. Metadata will
    * mutate the passed in array.
@@ -147,6 +156,18 @@ public final class Metadata {
   private Object[] namesAndValues;
   // The unscaled number of headers present.
   private int size;
+  // Index of the names, built by lookups once there are enough entries and lookups, and kept up to
+  // date by appends. Lookups of small metadata scan the entries instead. Dropped when entries are
+  // removed. Volatile, as concurrent reads of metadata that isn't modified may both build it.
+  @Nullable
+  private volatile NameIndex nameIndex;
+  // Racy, a lost increment only delays the index.
+  private int unindexedLookups;
+  // The last parsed value of the entries read with a key of immutable values, along with that key.
+  // Set by reads without synchronization, which is benign since a ParsedValue is immutable and a
+  // lost value is parsed again. Dropped when entries are removed.
+  @Nullable
+  private ParsedValue[] parsedValues;
 
   private byte[] name(int i) {
     return (byte[]) namesAndValues[i * 2];
@@ -176,6 +197,8 @@ public final class Metadata {
     Object value = value(i);
     if (value instanceof byte[]) {
       return (byte[]) value;
+    } else if (value instanceof PreEncodedValue) {
+      return ((PreEncodedValue) value).serialized;
     } else {
       return ((LazyValue<?>) value).toBytes();
     }
@@ -185,20 +208,120 @@ public final class Metadata {
     Object value = value(i);
     if (value instanceof byte[]) {
       return value;
+    } else if (value instanceof PreEncodedValue) {
+      return ((PreEncodedValue) value).serialized;
     } else {
       return ((LazyValue<?>) value).toStream();
     }
   }
 
   private <T> T valueAsT(int i, Key<T> key) {
+    if (!key.parsesImmutableValues()) {
+      return parseValue(i, key);
+    }
+    ParsedValue[] parsed = parsedValues;
+    if (parsed != null && i < parsed.length) {
+      ParsedValue cached = parsed[i];
+      if (cached != null && cached.key == key) {
+        @SuppressWarnings("unchecked")
+        T value = (T) cached.value;
+        return value;
+      }
+    }
+    T value = parseValue(i, key);
+    if (parsed == null || i >= parsed.length) {
+      parsed = parsed == null ? new ParsedValue[cap() / 2] : Arrays.copyOf(parsed, cap() / 2);
+      parsedValues = parsed;
+    }
+    parsed[i] = new ParsedValue(key, value);
+    return value;
+  }
+
+  private <T> T parseValue(int i, Key<T> key) {
     Object value = value(i);
     if (value instanceof byte[]) {
       return key.parseBytes((byte[]) value);
+    } else if (value instanceof PreEncodedValue) {
+      return key.parseBytes(((PreEncodedValue) value).serialized);
     } else {
       return ((LazyValue<?>) value).toObject(key);
     }
   }
 
+  /** Returns the index of the first entry with the name of {@code key}, or -1 if there is none. */
+  private int firstIndexOf(Key<?> key) {
+    NameIndex index = nameIndex();
+    if (index != null) {
+      return index.first(key.asciiName(), key.asciiNameHash());
+    }
+    for (int i = 0; i < size; i++) {
+      if (bytesEqual(key.asciiName(), name(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns the index of the last entry with the name of {@code key}, or -1 if there is none. */
+  private int lastIndexOf(Key<?> key) {
+    NameIndex index = nameIndex();
+    if (index != null) {
+      return index.last(key.asciiName(), key.asciiNameHash());
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      if (bytesEqual(key.asciiName(), name(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the names, building it if there are enough entries and lookups, or null
+   * if the entries should be scanned. The index is only built from a complete snapshot of the
+   * entries, so a concurrent read either sees it complete or doesn't see it.
+   */
+  @Nullable
+  private NameIndex nameIndex() {
+    NameIndex index = nameIndex;
+    if (index == null && size >= INDEX_MIN_SIZE) {
+      if (unindexedLookups < INDEX_MIN_LOOKUPS) {
+        unindexedLookups++;
+      } else {
+        index = new NameIndex(this);
+        nameIndex = index;
+      }
+    }
+    return index;
+  }
+
+  @VisibleForTesting
+  boolean isIndexed() {
+    return nameIndex != null;
+  }
+
+  /** Adds the entries from {@code first} on, which were just appended, to the index if any. */
+  private void indexAppended(int first) {
+    NameIndex index = nameIndex;
+    if (index == null) {
+      return;
+    }
+    for (int i = first; i < size; i++) {
+      if (!index.add(name(i), i)) {
+        // Full, it is rebuilt bigger by a later lookup.
+        nameIndex = null;
+        return;
+      }
+    }
+  }
+
+  /** Drops the index and the parsed values, which refer to entries by their position. */
+  private void entriesMoved() {
+    nameIndex = null;
+    unindexedLookups = 0;
+    parsedValues = null;
+  }
+
   private int cap() {
     return namesAndValues != null ? namesAndValues.length : 0;
   }
@@ -228,12 +351,7 @@ public final class Metadata {
    * prefer calling them directly and checking the return value against {@code null}.
    */
   public boolean containsKey(Key<?> key) {
-    for (int i = 0; i < size; i++) {
-      if (bytesEqual(key.asciiName(), name(i))) {
-        return true;
-      }
-    }
-    return false;
+    return firstIndexOf(key) >= 0;
   }
 
   /**
@@ -243,12 +361,8 @@ public final class Metadata {
    */
   @Nullable
   public <T> T get(Key<T> key) {
-    for (int i = size - 1; i >= 0; i--) {
-      if (bytesEqual(key.asciiName(), name(i))) {
-        return valueAsT(i, key);
-      }
-    }
-    return null;
+    int i = lastIndexOf(key);
+    return i >= 0 ? valueAsT(i, key) : null;
   }
 
   private final class IterableAt<T> implements Iterable<T> {
@@ -304,12 +418,8 @@ public final class Metadata {
    */
   @Nullable
   public <T> Iterable<T> getAll(final Key<T> key) {
-    for (int i = 0; i < size; i++) {
-      if (bytesEqual(key.asciiName(), name(i))) {
-        return new IterableAt<>(key, i);
-      }
-    }
-    return null;
+    int i = firstIndexOf(key);
+    return i >= 0 ? new IterableAt<>(key, i) : null;
   }
 
   /**
@@ -347,6 +457,7 @@ public final class Metadata {
       value(size, key.toBytes(value));
     }
     size++;
+    indexAppended(size - 1);
   }
 
   private void maybeExpand() {
@@ -390,6 +501,7 @@ public final class Metadata {
       size -= 1;
       name(size, null);
       value(size, (byte[]) null);
+      entriesMoved();
       return true;
     }
     return false;
@@ -416,7 +528,10 @@ public final class Metadata {
     int newSize = writeIdx;
     // Multiply by two since namesAndValues is interleaved.
     Arrays.fill(namesAndValues, writeIdx * 2, len(), null);
-    size = newSize;
+    if (newSize != size) {
+      size = newSize;
+      entriesMoved();
+    }
     return ret;
   }
 
@@ -442,7 +557,10 @@ public final class Metadata {
     int newSize = writeIdx;
     // Multiply by two since namesAndValues is interleaved.
     Arrays.fill(namesAndValues, writeIdx * 2, len(), null);
-    size = newSize;
+    if (newSize != size) {
+      size = newSize;
+      entriesMoved();
+    }
   }
 
   /**
@@ -506,11 +624,72 @@ public final class Metadata {
       return;
     }
     int remaining = cap() - len();
-    if (isEmpty() || remaining < other.len()) {
+    if (isEmpty()
+        || remaining < other.len()
+        || (namesAndValues instanceof byte[][] && !(other.namesAndValues instanceof byte[][]))) {
+      // An array of byte[] can't hold the parsed or pre-encoded values of other.
       expand(len() + other.len());
     }
     System.arraycopy(other.namesAndValues, 0, namesAndValues, len(), other.len());
     size += other.size;
+    indexAppended(size - other.size);
+  }
+
+  /**
+   * Returns a copy of this metadata, with each value serialized and converted to its HTTP/2 form
+   * once, so that the copy can be merged into many outbound headers without doing it again.
+   *
+   * @throws IllegalArgumentException if an ASCII value contains characters that are not allowed in
+   *     a header value
+   */
+  Metadata preEncodedCopy() {
+    Object[] preEncoded = new Object[len()];
+    for (int i = 0; i < size; i++) {
+      byte[] name = name(i);
+      byte[] serialized = valueAsBytes(i);
+      byte[] http2Value;
+      if (endsWith(name, BINARY_HEADER_SUFFIX_BYTES)) {
+        http2Value = BASE64_ENCODING_OMIT_PADDING.encode(serialized).getBytes(US_ASCII);
+      } else {
+        for (byte b : serialized) {
+          if (b < 32 || b > 126) {
+            throw new IllegalArgumentException(
+                "Metadata key=" + new String(name, US_ASCII) + ", value="
+                    + Arrays.toString(serialized) + " contains invalid ASCII characters");
+          }
+        }
+        http2Value = serialized;
+      }
+      preEncoded[i * 2] = name;
+      preEncoded[i * 2 + 1] = new PreEncodedValue(serialized, http2Value);
+    }
+    return new Metadata(size, preEncoded);
+  }
+
+  /**
+   * Returns the HTTP/2 form of the i-th value if it comes from a {@link #preEncodedCopy}, or
+   * {@code null} otherwise.
+   */
+  @Nullable
+  byte[] preEncodedHttp2Value(int i) {
+    Object value = value(i);
+    if (value instanceof PreEncodedValue) {
+      return ((PreEncodedValue) value).http2Value;
+    }
+    return null;
+  }
+
+  private static boolean endsWith(byte[] subject, byte[] suffix) {
+    int start = subject.length - suffix.length;
+    if (start < 0) {
+      return false;
+    }
+    for (int i = start; i < subject.length; i++) {
+      if (subject[i] != suffix[i - start]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -534,6 +713,7 @@ public final class Metadata {
         name(size, other.name(i));
         value(size, other.value(i));
         size++;
+        indexAppended(size - 1);
       }
     }
   }
@@ -713,6 +893,7 @@ public final class Metadata {
 
     private final String name;
     private final byte[] nameBytes;
+    private final int nameBytesHash;
     private final Object marshaller;
 
     private static BitSet generateValidTChars() {
@@ -749,6 +930,7 @@ public final class Metadata {
       this.originalName = checkNotNull(name, "name");
       this.name = validateName(this.originalName.toLowerCase(Locale.ROOT), pseudo);
       this.nameBytes = this.name.getBytes(US_ASCII);
+      this.nameBytesHash = Arrays.hashCode(nameBytes);
       this.marshaller = marshaller;
     }
 
@@ -779,6 +961,11 @@ public final class Metadata {
       return nameBytes;
     }
 
+    /** Returns the hash code of {@link #asciiName} computed by {@link Arrays#hashCode(byte[])}. */
+    int asciiNameHash() {
+      return nameBytesHash;
+    }
+
     /**
      * Returns true if the two objects are both Keys, and their names match (case insensitive).
      */
@@ -828,6 +1015,14 @@ public final class Metadata {
       return false;
     }
 
+    /**
+     * Returns whether the values parsed by this key are immutable, so that a parsed value can be
+     * returned again by later reads instead of parsing it each time.
+     */
+    boolean parsesImmutableValues() {
+      return false;
+    }
+
     /**
      * Gets this keys (implementation-specific) marshaller, or null if the
      * marshaller is not of the given type.
@@ -951,6 +1146,103 @@ public final class Metadata {
     }
   }
 
+  /** A parsed value, along with the key it was parsed with. */
+  private static final class ParsedValue {
+    final Key<?> key;
+    @Nullable
+    final Object value;
+
+    ParsedValue(Key<?> key, @Nullable Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Open addressing hash table from the names of the entries to the positions of the first and
+   * last entries with that name. It stays at most half full, and refuses new names beyond that.
+   */
+  private static final class NameIndex {
+    private final byte[][] names;
+    private final int[] firsts;
+    private final int[] lasts;
+    private int distinctNames;
+
+    NameIndex(Metadata md) {
+      // A power of 2, at least twice the number of entries
+      int capacity = Integer.highestOneBit(md.size * 4);
+      names = new byte[capacity][];
+      firsts = new int[capacity];
+      lasts = new int[capacity];
+      for (int i = 0; i < md.size; i++) {
+        boolean added = add(md.name(i), i);
+        assert added;
+      }
+    }
+
+    boolean add(byte[] name, int i) {
+      int mask = names.length - 1;
+      for (int slot = spread(Arrays.hashCode(name)) & mask; ; slot = (slot + 1) & mask) {
+        byte[] slotName = names[slot];
+        if (slotName == null) {
+          if ((distinctNames + 1) * 2 > names.length) {
+            return false;
+          }
+          names[slot] = name;
+          firsts[slot] = i;
+          lasts[slot] = i;
+          distinctNames++;
+          return true;
+        }
+        if (slotName == name || Arrays.equals(slotName, name)) {
+          lasts[slot] = i;
+          return true;
+        }
+      }
+    }
+
+    int first(byte[] name, int hash) {
+      int slot = slotOf(name, hash);
+      return slot >= 0 ? firsts[slot] : -1;
+    }
+
+    int last(byte[] name, int hash) {
+      int slot = slotOf(name, hash);
+      return slot >= 0 ? lasts[slot] : -1;
+    }
+
+    private int slotOf(byte[] name, int hash) {
+      int mask = names.length - 1;
+      for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+        byte[] slotName = names[slot];
+        if (slotName == null) {
+          return -1;
+        }
+        if (slotName == name || Arrays.equals(slotName, name)) {
+          return slot;
+        }
+      }
+    }
+
+    private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+    }
+  }
+
+  /**
+   * A value serialized ahead of time, along with its HTTP/2 form: Base64 for binary headers, the
+   * serialized bytes themselves for ASCII headers. Neither array is ever modified.
+   */
+  static final class PreEncodedValue {
+    final byte[] serialized;
+    final byte[] http2Value;
+
+    PreEncodedValue(byte[] serialized, byte[] http2Value) {
+      this.serialized = serialized;
+      this.http2Value = http2Value;
+    }
+  }
+
   private static class AsciiKey<T> extends Key<T> {
     private final AsciiMarshaller<T> marshaller;
 
@@ -974,6 +1266,11 @@ public final class Metadata {
     T parseBytes(byte[] serialized) {
       return marshaller.parseAsciiString(new String(serialized, US_ASCII));
     }
+
+    @Override
+    boolean parsesImmutableValues() {
+      return marshaller == ASCII_STRING_MARSHALLER;
+    }
   }
 
   private static final class TrustedAsciiKey<T> extends Key<T> {
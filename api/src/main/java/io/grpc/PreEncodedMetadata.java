@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable snapshot of {@link Metadata}, whose values are serialized and converted to their
+ * HTTP/2 form once when the snapshot is created. It is intended for the headers sent unchanged
+ * with many calls, like authentication tokens or routing headers: merging it into the headers of a
+ * call copies references only, and the transport doesn't serialize, validate or Base64-encode its
+ * values again.
+ *
+ * <p>Values read back from headers the snapshot was merged into are parsed from the serialized
+ * bytes with the marshaller of the key used to read them, like for received headers.
+ */
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/4691")
+@Immutable
+public final class PreEncodedMetadata {
+  private final Metadata metadata;
+
+  private PreEncodedMetadata(Metadata metadata) {
+    this.metadata = metadata;
+  }
+
+  /**
+   * Creates a snapshot of the current entries of {@code metadata}. Later changes to {@code
+   * metadata} are not reflected in the snapshot.
+   *
+   * @throws IllegalArgumentException if the value of an ASCII header contains characters not
+   *     listed in the class comment of {@link Metadata.AsciiMarshaller}
+   */
+  public static PreEncodedMetadata create(Metadata metadata) {
+    return new PreEncodedMetadata(checkNotNull(metadata, "metadata").preEncodedCopy());
+  }
+
+  /**
+   * Adds all the entries of this snapshot to the end of {@code headers}, as {@link
+   * Metadata#merge(Metadata)} does.
+   */
+  public void mergeInto(Metadata headers) {
+    headers.merge(metadata);
+  }
+
+  @Override
+  public String toString() {
+    return "PreEncoded" + metadata;
+  }
+}
@@ -28,7 +28,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.grpc.InternalChannelz.Change;
+import io.grpc.InternalChannelz.ChangeList;
 import io.grpc.InternalChannelz.ChannelStats;
+import io.grpc.InternalChannelz.EntityType;
 import io.grpc.InternalChannelz.RootChannelList;
 import io.grpc.InternalChannelz.ServerList;
 import io.grpc.InternalChannelz.ServerSocketsList;
@@ -293,6 +296,74 @@ public final class InternalChannelzTest {
     assertEquals("TLS_NULL_WITH_NULL_NULL", tls.cipherSuiteStandardName);
   }
 
+  @Test
+  public void getChanges() {
+    long start = channelz.getGeneration();
+    InternalInstrumented<ServerStats> server = create();
+    InternalInstrumented<SocketStats> socket = create();
+    channelz.addServer(server);
+    channelz.addServerSocket(server, socket);
+    channelz.removeServerSocket(server, socket);
+
+    ChangeList changes = channelz.getChanges(start, /*maxChanges=*/ 10);
+    assertFalse(changes.truncated);
+    assertEquals(start + 3, changes.generation);
+    assertThat(changes.changes).hasSize(3);
+    assertChange(changes.changes.get(0), EntityType.SERVER, id(server), true);
+    assertChange(changes.changes.get(1), EntityType.SOCKET, id(socket), true);
+    assertChange(changes.changes.get(2), EntityType.SOCKET, id(socket), false);
+
+    changes = channelz.getChanges(changes.generation, /*maxChanges=*/ 10);
+    assertFalse(changes.truncated);
+    assertEquals(start + 3, changes.generation);
+    assertThat(changes.changes).isEmpty();
+  }
+
+  @Test
+  public void getChanges_paginate() {
+    InternalInstrumented<ChannelStats> root1 = create();
+    InternalInstrumented<ChannelStats> root2 = create();
+    channelz.addRootChannel(root1);
+    channelz.addRootChannel(root2);
+
+    ChangeList page1 = channelz.getChanges(/*fromGeneration=*/ 0, /*maxChanges=*/ 1);
+    assertFalse(page1.truncated);
+    assertThat(page1.changes).hasSize(1);
+    assertChange(page1.changes.get(0), EntityType.ROOT_CHANNEL, id(root1), true);
+
+    ChangeList page2 = channelz.getChanges(page1.generation, /*maxChanges=*/ 1);
+    assertThat(page2.changes).hasSize(1);
+    assertChange(page2.changes.get(0), EntityType.ROOT_CHANNEL, id(root2), true);
+    assertEquals(channelz.getGeneration(), page2.generation);
+  }
+
+  @Test
+  public void getChanges_truncated() {
+    InternalChannelz channelz = new InternalChannelz(/*changeLogCapacity=*/ 2);
+    long start = channelz.getGeneration();
+    for (int i = 0; i < 3; i++) {
+      channelz.addSubchannel(InternalChannelzTest.<ChannelStats>create());
+    }
+
+    ChangeList changes = channelz.getChanges(start, /*maxChanges=*/ 10);
+    assertTrue(changes.truncated);
+    assertThat(changes.changes).isEmpty();
+    assertEquals(channelz.getGeneration(), changes.generation);
+
+    InternalInstrumented<ChannelStats> subchannel = create();
+    channelz.addSubchannel(subchannel);
+    changes = channelz.getChanges(changes.generation, /*maxChanges=*/ 10);
+    assertFalse(changes.truncated);
+    assertThat(changes.changes).hasSize(1);
+    assertChange(changes.changes.get(0), EntityType.SUBCHANNEL, id(subchannel), true);
+  }
+
+  private static void assertChange(Change change, EntityType type, long id, boolean added) {
+    assertEquals(type, change.type);
+    assertEquals(id, change.id);
+    assertEquals(added, change.added);
+  }
+
   private void assertEmptyServerSocketsPage(long serverId, long socketId) {
     ServerSocketsList emptyPage
         = channelz.getServerSockets(serverId, socketId, /*maxPageSize=*/ 1);
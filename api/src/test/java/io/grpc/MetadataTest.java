@@ -479,6 +479,158 @@ public class MetadataTest {
     assertSame(anotherSalmon, h2.get(KEY_IMMUTABLE));
   }
 
+  @Test
+  public void get_parsesValueEachTime() {
+    CountingFishMarshaller marshaller = new CountingFishMarshaller();
+    Metadata.Key<Fish> key = Metadata.Key.of("test-bin", marshaller);
+    Metadata h = new Metadata(KEY.asciiName(), LANCE_BYTES);
+
+    Fish fish = h.get(key);
+    assertEquals(new Fish(LANCE), fish);
+    assertTrue(h.containsKey(key));
+    assertEquals(1, marshaller.parseCount);
+
+    // Values may be mutable, so each read returns its own instance
+    assertNotSame(fish, h.get(key));
+    assertNotSame(fish, h.getAll(key).iterator().next());
+    assertEquals(3, marshaller.parseCount);
+  }
+
+  @Test
+  public void get_cachesImmutableValues() {
+    Metadata.Key<String> key = Metadata.Key.of("test", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata h = new Metadata(key.asciiName(), "value".getBytes(US_ASCII));
+
+    String value = h.get(key);
+    assertEquals("value", value);
+    assertSame(value, h.get(key));
+    assertSame(value, h.getAll(key).iterator().next());
+
+    // Another key with the same name parses the value with its own marshaller
+    Metadata.Key<String> otherKey = Metadata.Key.of("test", Metadata.ASCII_STRING_MARSHALLER);
+    assertEquals("value", h.get(otherKey));
+    assertNotSame(value, h.get(otherKey));
+  }
+
+  @Test
+  public void get_followsRemovals() {
+    Metadata h = new Metadata();
+    h.put(KEY, new Fish("cat"));
+    h.put(KEY, new Fish(LANCE));
+    assertEquals(new Fish(LANCE), h.get(KEY));
+
+    assertTrue(h.remove(KEY, new Fish(LANCE)));
+    assertEquals(new Fish("cat"), h.get(KEY));
+    h.put(KEY, new Fish("dog"));
+    assertEquals(new Fish("dog"), h.get(KEY));
+  }
+
+  @Test
+  public void indexedLookups() {
+    Metadata h = new Metadata();
+    for (int i = 0; i < Metadata.INDEX_MIN_SIZE; i++) {
+      h.put(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER), "value-" + i);
+    }
+    Metadata.Key<String> key3 = Metadata.Key.of("key-3", Metadata.ASCII_STRING_MARSHALLER);
+    Metadata.Key<String> missing = Metadata.Key.of("missing", Metadata.ASCII_STRING_MARSHALLER);
+    for (int i = 0; i < Metadata.INDEX_MIN_LOOKUPS; i++) {
+      assertFalse(h.isIndexed());
+      assertEquals("value-3", h.get(key3));
+    }
+
+    // Indexed from now on
+    assertTrue(h.containsKey(key3));
+    assertTrue(h.isIndexed());
+    assertFalse(h.containsKey(missing));
+    assertNull(h.get(missing));
+    assertNull(h.getAll(missing));
+    h.put(key3, "another");
+    h.put(missing, "found");
+    assertEquals("another", h.get(key3));
+    assertEquals(Arrays.asList("value-3", "another"), Lists.newArrayList(h.getAll(key3)));
+    assertEquals("found", h.get(missing));
+
+    Metadata.Key<String> key0 = Metadata.Key.of("key-0", Metadata.ASCII_STRING_MARSHALLER);
+    h.discardAll(key0);
+    assertFalse(h.isIndexed());
+    assertNull(h.get(key0));
+    assertEquals("another", h.get(key3));
+    assertEquals(Arrays.asList("value-3", "another"), Lists.newArrayList(h.getAll(key3)));
+
+    // Removing entries until there are too few for an index falls back to scanning
+    for (int i = 1; i < Metadata.INDEX_MIN_SIZE; i++) {
+      if (i != 3) {
+        h.discardAll(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER));
+      }
+    }
+    for (int i = 0; i < Metadata.INDEX_MIN_LOOKUPS * 2; i++) {
+      assertEquals("another", h.get(key3));
+    }
+    assertFalse(h.isIndexed());
+    assertEquals("found", h.get(missing));
+    assertNull(h.get(key0));
+  }
+
+  @Test
+  public void indexedLookups_fromTransport() {
+    byte[][] namesAndValues = new byte[Metadata.INDEX_MIN_SIZE * 2][];
+    for (int i = 0; i < Metadata.INDEX_MIN_SIZE; i++) {
+      namesAndValues[i * 2] = ("key-" + i).getBytes(US_ASCII);
+      namesAndValues[i * 2 + 1] = ("value-" + i).getBytes(US_ASCII);
+    }
+    Metadata h = new Metadata(namesAndValues);
+    // Not indexed until looked up enough
+    assertFalse(h.isIndexed());
+
+    for (int i = 0; i < Metadata.INDEX_MIN_SIZE; i++) {
+      assertEquals(
+          "value-" + i,
+          h.get(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER)));
+    }
+    assertFalse(h.containsKey(Metadata.Key.of("missing", Metadata.ASCII_STRING_MARSHALLER)));
+    assertTrue(h.isIndexed());
+  }
+
+  @Test
+  public void indexedLookups_indexOutgrown() {
+    Metadata h = new Metadata();
+    for (int i = 0; i < Metadata.INDEX_MIN_SIZE; i++) {
+      h.put(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER), "value-" + i);
+    }
+    Metadata.Key<String> key0 = Metadata.Key.of("key-0", Metadata.ASCII_STRING_MARSHALLER);
+    for (int i = 0; i <= Metadata.INDEX_MIN_LOOKUPS; i++) {
+      assertEquals("value-0", h.get(key0));
+    }
+    assertTrue(h.isIndexed());
+
+    Metadata other = new Metadata();
+    for (int i = Metadata.INDEX_MIN_SIZE; i < Metadata.INDEX_MIN_SIZE * 10; i++) {
+      other.put(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER), "value-" + i);
+    }
+    h.merge(other);
+
+    for (int i = 0; i < Metadata.INDEX_MIN_SIZE * 10; i++) {
+      assertEquals(
+          "value-" + i,
+          h.get(Metadata.Key.of("key-" + i, Metadata.ASCII_STRING_MARSHALLER)));
+    }
+  }
+
+  private static final class CountingFishMarshaller implements Metadata.BinaryMarshaller<Fish> {
+    int parseCount;
+
+    @Override
+    public byte[] toBytes(Fish fish) {
+      return FISH_MARSHALLER.toBytes(fish);
+    }
+
+    @Override
+    public Fish parseBytes(byte[] serialized) {
+      parseCount++;
+      return FISH_MARSHALLER.parseBytes(serialized);
+    }
+  }
+
   private static final class Fish {
     private String name;
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc;
+
+import static com.google.common.base.Charsets.US_ASCII;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link PreEncodedMetadata}. */
+@RunWith(JUnit4.class)
+public class PreEncodedMetadataTest {
+  private static final Metadata.Key<String> ASCII_KEY =
+      Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+  private static final Metadata.Key<byte[]> BINARY_KEY =
+      Metadata.Key.of("routing-bin", Metadata.BINARY_BYTE_MARSHALLER);
+
+  @Test
+  public void mergeInto_valuesReadable() {
+    Metadata metadata = new Metadata();
+    metadata.put(ASCII_KEY, "Bearer token");
+    metadata.put(BINARY_KEY, new byte[] {0, 1, 2});
+    PreEncodedMetadata preEncoded = PreEncodedMetadata.create(metadata);
+
+    Metadata headers = new Metadata();
+    headers.put(ASCII_KEY, "other");
+    preEncoded.mergeInto(headers);
+
+    assertThat(headers.getAll(ASCII_KEY)).containsExactly("other", "Bearer token").inOrder();
+    assertArrayEquals(new byte[] {0, 1, 2}, headers.get(BINARY_KEY));
+    assertThat(headers.toString()).contains("routing-bin=AAEC");
+  }
+
+  @Test
+  public void mergeInto_http2ValuesEncodedOnce() {
+    Metadata metadata = new Metadata();
+    metadata.put(ASCII_KEY, "Bearer token");
+    metadata.put(BINARY_KEY, new byte[] {0, 1, 2});
+    PreEncodedMetadata preEncoded = PreEncodedMetadata.create(metadata);
+
+    Metadata headers1 = new Metadata();
+    preEncoded.mergeInto(headers1);
+    Metadata headers2 = new Metadata();
+    preEncoded.mergeInto(headers2);
+
+    assertArrayEquals("Bearer token".getBytes(US_ASCII), headers1.preEncodedHttp2Value(0));
+    assertArrayEquals("AAEC".getBytes(US_ASCII), headers1.preEncodedHttp2Value(1));
+    assertSame(headers1.preEncodedHttp2Value(1), headers2.preEncodedHttp2Value(1));
+  }
+
+  @Test
+  public void create_isSnapshot() {
+    Metadata metadata = new Metadata();
+    metadata.put(ASCII_KEY, "Bearer token");
+    PreEncodedMetadata preEncoded = PreEncodedMetadata.create(metadata);
+    metadata.put(ASCII_KEY, "later");
+
+    Metadata headers = new Metadata();
+    preEncoded.mergeInto(headers);
+    headers.removeAll(ASCII_KEY);
+    Metadata headers2 = new Metadata();
+    preEncoded.mergeInto(headers2);
+
+    assertThat(headers2.getAll(ASCII_KEY)).containsExactly("Bearer token");
+  }
+
+  @Test
+  public void create_invalidAsciiValue() {
+    Metadata metadata = new Metadata();
+    metadata.put(ASCII_KEY, "line\nbreak");
+    try {
+      PreEncodedMetadata.create(metadata);
+      fail("Should have thrown");
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().contains("authorization");
+    }
+  }
+
+  @Test
+  public void mergeInto_byteArrayBackedHeaders() {
+    Metadata metadata = new Metadata();
+    metadata.put(ASCII_KEY, "Bearer token");
+    PreEncodedMetadata preEncoded = PreEncodedMetadata.create(metadata);
+    // Received headers are backed by a byte[][], which can't hold the pre-encoded values even
+    // when it has room for them.
+    Metadata headers = new Metadata(
+        1, new byte[][] {"a".getBytes(US_ASCII), "b".getBytes(US_ASCII), null, null});
+
+    preEncoded.mergeInto(headers);
+
+    assertEquals("Bearer token", headers.get(ASCII_KEY));
+    assertNull(headers.preEncodedHttp2Value(0));
+    assertArrayEquals("Bearer token".getBytes(US_ASCII), headers.preEncodedHttp2Value(1));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import io.grpc.Context;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.benchmarks.qps.AsyncServer;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Messages per second received by a blocking iterator over a server stream of small messages.
+ */
+@State(Scope.Benchmark)
+public class BlockingServerStreamingBenchmark {
+  public enum Transport {
+    INPROCESS, NETTY
+  }
+
+  @Param({"INPROCESS", "NETTY"})
+  public Transport transport;
+
+  @Param({"1", "16", "64"})
+  public int prefetch;
+
+  private ManagedChannel channel;
+  private Server server;
+  private Context.CancellableContext context;
+  private Iterator<SimpleResponse> responses;
+
+  /**
+   * Starts a never-ending server stream.
+   */
+  @Setup
+  public void setUp() throws Exception {
+    ServerBuilder<?> serverBuilder;
+    ManagedChannelBuilder<?> channelBuilder;
+    switch (transport) {
+      case INPROCESS:
+      {
+        String name = "bench" + Math.random();
+        serverBuilder = InProcessServerBuilder.forName(name);
+        channelBuilder = InProcessChannelBuilder.forName(name);
+        break;
+      }
+      case NETTY:
+      {
+        InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
+        serverBuilder = NettyServerBuilder.forAddress(address, InsecureServerCredentials.create());
+        channelBuilder = NettyChannelBuilder.forAddress(address)
+            .negotiationType(NegotiationType.PLAINTEXT);
+        break;
+      }
+      default:
+        throw new Exception("Unknown transport: " + transport);
+    }
+    server = serverBuilder
+        .addService(new AsyncServer.BenchmarkServiceImpl())
+        .build()
+        .start();
+    channel = channelBuilder.build();
+    BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub =
+        BenchmarkServiceGrpc.newBlockingStub(channel).withServerStreamingPrefetch(prefetch);
+    SimpleRequest request = SimpleRequest.newBuilder().setResponseSize(16).build();
+    context = Context.current().withCancellation();
+    Context previous = context.attach();
+    try {
+      responses = stub.streamingFromServer(request);
+    } finally {
+      context.detach(previous);
+    }
+  }
+
+  /**
+   * Stops the stream, the channel and the server.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    context.cancel(null);
+    channel.shutdownNow();
+    server.shutdownNow();
+    if (!channel.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down channel");
+    }
+    if (!server.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down server");
+    }
+  }
+
+  /**
+   * Receives the next message of the stream.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public SimpleResponse next() {
+    return responses.next();
+  }
+}
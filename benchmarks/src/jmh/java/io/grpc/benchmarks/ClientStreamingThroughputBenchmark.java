@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.grpc.stub.StreamObservers;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Messages per second received by a client-streaming service implemented with the stub layer,
+ * depending on how many messages it requests ahead with {@link
+ * ServerCallStreamObserver#setInboundPrefetch}.
+ */
+@State(Scope.Benchmark)
+public class ClientStreamingThroughputBenchmark {
+  private static final int MESSAGES_PER_CALL = 1000;
+
+  @Param({"1", "16", "64"})
+  public int inboundPrefetch;
+
+  private ManagedChannel channel;
+  private Server server;
+  private BenchmarkServiceGrpc.BenchmarkServiceStub stub;
+  private final SimpleRequest request = SimpleRequest.newBuilder().setResponseSize(0).build();
+
+  /**
+   * Starts a server counting the messages of client-streaming calls.
+   */
+  @Setup
+  public void setUp() throws Exception {
+    InetSocketAddress address = new InetSocketAddress("localhost", pickUnusedPort());
+    server = NettyServerBuilder.forAddress(address, InsecureServerCredentials.create())
+        .addService(new BenchmarkServiceGrpc.BenchmarkServiceImplBase() {
+          @Override
+          public StreamObserver<SimpleRequest> streamingFromClient(
+              final StreamObserver<SimpleResponse> responseObserver) {
+            ((ServerCallStreamObserver<SimpleResponse>) responseObserver)
+                .setInboundPrefetch(inboundPrefetch);
+            return new StreamObserver<SimpleRequest>() {
+              @Override
+              public void onNext(SimpleRequest value) {}
+
+              @Override
+              public void onError(Throwable t) {}
+
+              @Override
+              public void onCompleted() {
+                responseObserver.onNext(SimpleResponse.getDefaultInstance());
+                responseObserver.onCompleted();
+              }
+            };
+          }
+        })
+        .build()
+        .start();
+    channel = NettyChannelBuilder.forAddress(address)
+        .negotiationType(NegotiationType.PLAINTEXT)
+        .build();
+    stub = BenchmarkServiceGrpc.newStub(channel);
+  }
+
+  /**
+   * Stops the channel and the server.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdownNow();
+    server.shutdownNow();
+    if (!channel.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down channel");
+    }
+    if (!server.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down server");
+    }
+  }
+
+  /**
+   * Sends a client stream of small messages as fast as flow control permits, and waits for the
+   * response.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(MESSAGES_PER_CALL)
+  public void clientStreaming() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    stub.streamingFromClient(new ClientResponseObserver<SimpleRequest, SimpleResponse>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<SimpleRequest> requestStream) {
+        StreamObservers.copyWithFlowControl(
+            Collections.nCopies(MESSAGES_PER_CALL, request), requestStream);
+      }
+
+      @Override
+      public void onNext(SimpleResponse value) {}
+
+      @Override
+      public void onError(Throwable t) {
+        latch.countDown();
+      }
+
+      @Override
+      public void onCompleted() {
+        latch.countDown();
+      }
+    });
+    if (!latch.await(10, TimeUnit.SECONDS)) {
+      throw new Exception("call did not complete");
+    }
+  }
+}
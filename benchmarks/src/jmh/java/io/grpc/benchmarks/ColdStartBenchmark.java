@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.benchmarks;
+
+import static io.grpc.benchmarks.Utils.pickUnusedPort;
+
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.benchmarks.proto.BenchmarkServiceGrpc;
+import io.grpc.benchmarks.proto.Messages.SimpleRequest;
+import io.grpc.benchmarks.proto.Messages.SimpleResponse;
+import io.grpc.benchmarks.qps.AsyncServer;
+import io.grpc.netty.NegotiationType;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.NettyServerBuilder;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Latency of the first RPC of a new channel, with and without {@link ManagedChannel#warmUp}.
+ */
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+
+  @Param({"false", "true"})
+  public boolean warmUp;
+
+  private InetSocketAddress address;
+  private Server server;
+  private ManagedChannel channel;
+  private BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub;
+
+  /**
+   * Starts the server shared by all the channels.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    address = new InetSocketAddress("localhost", pickUnusedPort());
+    server = NettyServerBuilder.forAddress(address, InsecureServerCredentials.create())
+        .addService(new AsyncServer.BenchmarkServiceImpl())
+        .build()
+        .start();
+  }
+
+  /**
+   * Creates a new channel, and waits for it to be connected if {@code warmUp} is set.
+   */
+  @Setup(Level.Invocation)
+  public void createChannel() throws Exception {
+    channel = NettyChannelBuilder.forAddress(address)
+        .negotiationType(NegotiationType.PLAINTEXT)
+        .build();
+    stub = BenchmarkServiceGrpc.newBlockingStub(channel);
+    if (warmUp) {
+      final CountDownLatch latch = new CountDownLatch(1);
+      channel.warmUp(new Runnable() {
+        @Override
+        public void run() {
+          latch.countDown();
+        }
+      });
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new Exception("channel did not warm up");
+      }
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void shutdownChannel() throws Exception {
+    channel.shutdownNow();
+    if (!channel.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down channel");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    server.shutdownNow();
+    if (!server.awaitTermination(1, TimeUnit.SECONDS)) {
+      throw new Exception("failed to shut down server");
+    }
+  }
+
+  /**
+   * Time until the first RPC of the channel completes.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public SimpleResponse firstUnaryCall() {
+    return stub.unaryCall(SimpleRequest.getDefaultInstance());
+  }
+}
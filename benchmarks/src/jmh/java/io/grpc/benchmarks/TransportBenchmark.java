@@ -47,6 +47,8 @@ import io.netty.channel.ServerChannel;
 import io.netty.channel.local.LocalAddress;
 import io.netty.channel.local.LocalChannel;
 import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import java.io.File;
 import java.net.InetSocketAddress;
 import java.util.Iterator;
 import java.util.concurrent.Future;
@@ -67,7 +69,7 @@ import org.openjdk.jmh.annotations.Threads;
 @State(Scope.Benchmark)
 public class TransportBenchmark {
   public enum Transport {
-    INPROCESS, NETTY, NETTY_LOCAL, NETTY_EPOLL, OKHTTP
+    INPROCESS, NETTY, NETTY_LOCAL, NETTY_EPOLL, NETTY_UNIX_DOMAIN_SOCKET, OKHTTP
   }
 
   @Param({"INPROCESS", "NETTY", "OKHTTP"})
@@ -80,6 +82,7 @@ public class TransportBenchmark {
   private BenchmarkServiceGrpc.BenchmarkServiceBlockingStub stub;
   private BenchmarkServiceGrpc.BenchmarkServiceStub asyncStub;
   private EventLoopGroup groupToShutdown;
+  private File socketFileToDelete;
 
   @Setup
   public void setUp() throws Exception {
@@ -143,6 +146,18 @@ public class TransportBenchmark {
         groupToShutdown = group;
         break;
       }
+      case NETTY_UNIX_DOMAIN_SOCKET:
+      {
+        // Only available on linux, compare with NETTY_EPOLL for loopback TCP
+        File socketFile = File.createTempFile("bench", ".sock");
+        socketFile.delete();
+        serverBuilder = NettyServerBuilder.forAddress(
+            new DomainSocketAddress(socketFile.getAbsolutePath()), serverCreds);
+        channelBuilder = NettyChannelBuilder.forTarget("unix://" + socketFile.getAbsolutePath())
+            .negotiationType(NegotiationType.PLAINTEXT);
+        socketFileToDelete = socketFile;
+        break;
+      }
       case OKHTTP:
       {
         int port = pickUnusedPort();
@@ -192,6 +207,9 @@ public class TransportBenchmark {
         throw new Exception("failed to shut down event loop group.");
       }
     }
+    if (socketFileToDelete != null) {
+      socketFileToDelete.delete();
+    }
   }
 
   private static final SimpleRequest UNARY_CALL_1024_REQUEST = SimpleRequest.newBuilder()
@@ -206,6 +224,17 @@ public class TransportBenchmark {
     return stub.unaryCall(UNARY_CALL_1024_REQUEST);
   }
 
+  /**
+   * Concurrent small unary calls on the same transport, exposing the contention between streams
+   * when they are created and closed.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @Threads(8)
+  public SimpleResponse unaryCallsContendedThroughput() {
+    return stub.unaryCall(SimpleRequest.getDefaultInstance());
+  }
+
   private static final int BYTE_THROUGHPUT_RESPONSE_SIZE = 1048576;
   private static final SimpleRequest BYTE_THROUGHPUT_REQUEST = SimpleRequest.newBuilder()
       .setResponseSize(BYTE_THROUGHPUT_RESPONSE_SIZE)
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.census;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.opencensus.trace.Tracing;
+import io.opencensus.trace.config.TraceParams;
+import io.opencensus.trace.samplers.Samplers;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the tracing overhead of a unary call, client and server side, when the calls are not
+ * sampled.
+ */
+@State(Scope.Benchmark)
+public class CensusTracingModuleBenchmark {
+
+  @Param({"true", "false"})
+  public boolean recordUnsampledEvents;
+
+  private final MethodDescriptor<Void, Void> method =
+      MethodDescriptor.<Void, Void>newBuilder()
+          .setType(MethodDescriptor.MethodType.UNARY)
+          .setFullMethodName("service/method")
+          .setRequestMarshaller(new NoopMarshaller())
+          .setResponseMarshaller(new NoopMarshaller())
+          .build();
+  private final ClientStreamTracer.StreamInfo streamInfo =
+      ClientStreamTracer.StreamInfo.newBuilder().setCallOptions(CallOptions.DEFAULT).build();
+  private CensusTracingModule tracingModule;
+  private Metadata serverHeaders;
+
+  /**
+   * Never samples, so that the benchmark measures the cost of the unsampled calls. The server
+   * headers carry a span context as propagated by a client.
+   */
+  @Setup
+  public void setUp() {
+    TraceParams params = Tracing.getTraceConfig().getActiveTraceParams();
+    Tracing.getTraceConfig().updateActiveTraceParams(
+        params.toBuilder().setSampler(Samplers.neverSample()).build());
+    tracingModule = new CensusTracingModule(
+        Tracing.getTracer(),
+        Tracing.getPropagationComponent().getBinaryFormat(),
+        recordUnsampledEvents);
+    serverHeaders = new Metadata();
+    tracingModule.newClientCallTracer(null, method)
+        .newClientStreamTracer(streamInfo, serverHeaders);
+  }
+
+  /**
+   * A unary call on the client side.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Metadata clientCall() {
+    CensusTracingModule.ClientCallTracer callTracer =
+        tracingModule.newClientCallTracer(null, method);
+    Metadata headers = new Metadata();
+    ClientStreamTracer streamTracer = callTracer.newClientStreamTracer(streamInfo, headers);
+    streamTracer.outboundMessage(0);
+    streamTracer.outboundMessageSent(0, 100, 100);
+    streamTracer.inboundMessage(0);
+    streamTracer.inboundMessageRead(0, 100, 100);
+    streamTracer.streamClosed(Status.OK);
+    callTracer.callEnded(Status.OK);
+    return headers;
+  }
+
+  /**
+   * A unary call on the server side.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ServerStreamTracer serverCall() {
+    ServerStreamTracer streamTracer = tracingModule.getServerTracerFactory()
+        .newServerStreamTracer(method.getFullMethodName(), serverHeaders);
+    streamTracer.inboundMessage(0);
+    streamTracer.inboundMessageRead(0, 100, 100);
+    streamTracer.outboundMessage(0);
+    streamTracer.outboundMessageSent(0, 100, 100);
+    streamTracer.streamClosed(Status.OK);
+    return streamTracer;
+  }
+
+  private static final class NoopMarshaller implements MethodDescriptor.Marshaller<Void> {
+    @Override
+    public InputStream stream(Void value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Void parse(InputStream stream) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -85,16 +85,39 @@ final class CensusTracingModule {
     streamClosedUpdater = tmpStreamClosedUpdater;
   }
 
+  private static final ClientStreamTracer NOOP_CLIENT_TRACER = new ClientStreamTracer() {};
+
   private final Tracer censusTracer;
+  private final BinaryFormat censusPropagationBinaryFormat;
+  private final boolean recordUnsampledEvents;
   @VisibleForTesting
   final Metadata.Key<SpanContext> tracingHeader;
+  // Same header as tracingHeader, used to put the span context already encoded.
+  private final Metadata.Key<byte[]> encodedTracingHeader =
+      Metadata.Key.of("grpc-trace-bin", Metadata.BINARY_BYTE_MARSHALLER);
   private final TracingClientInterceptor clientInterceptor = new TracingClientInterceptor();
   private final ServerTracerFactory serverTracerFactory = new ServerTracerFactory();
 
   CensusTracingModule(
       Tracer censusTracer, final BinaryFormat censusPropagationBinaryFormat) {
+    this(censusTracer, censusPropagationBinaryFormat, true);
+  }
+
+  /**
+   * Creates the module.
+   *
+   * @param recordUnsampledEvents if {@code false}, the spans not sampled by the sampler don't
+   *     record events, and no message event is built for them. Spans of the methods sampled to
+   *     local tracing still record events. This makes the unsampled calls much cheaper, but
+   *     their spans are no longer visible in the local span store.
+   */
+  CensusTracingModule(
+      Tracer censusTracer, final BinaryFormat censusPropagationBinaryFormat,
+      boolean recordUnsampledEvents) {
     this.censusTracer = checkNotNull(censusTracer, "censusTracer");
-    checkNotNull(censusPropagationBinaryFormat, "censusPropagationBinaryFormat");
+    this.censusPropagationBinaryFormat =
+        checkNotNull(censusPropagationBinaryFormat, "censusPropagationBinaryFormat");
+    this.recordUnsampledEvents = recordUnsampledEvents;
     this.tracingHeader =
         Metadata.Key.of("grpc-trace-bin", new Metadata.BinaryMarshaller<SpanContext>() {
             @Override
@@ -221,12 +244,24 @@ final class CensusTracingModule {
     span.addMessageEvent(eventBuilder.build());
   }
 
+  /**
+   * Returns {@code true} if the message events should be recorded to the span. When unsampled
+   * spans are not recording, it avoids building the events the span would drop anyway.
+   */
+  private boolean shouldRecordMessageEvents(Span span) {
+    return recordUnsampledEvents || span.getOptions().contains(Span.Options.RECORD_EVENTS);
+  }
+
   @VisibleForTesting
   final class ClientCallTracer extends ClientStreamTracer.Factory {
     volatile int callEnded;
 
     private final boolean isSampledToLocalTracing;
     private final Span span;
+    private final boolean recordMessageEvents;
+    // The span context encoded once, shared by all the attempts of the call.
+    @Nullable
+    private volatile byte[] encodedSpanContext;
 
     ClientCallTracer(@Nullable Span parentSpan, MethodDescriptor<?, ?> method) {
       checkNotNull(method, "method");
@@ -236,16 +271,26 @@ final class CensusTracingModule {
               .spanBuilderWithExplicitParent(
                   generateTraceSpanName(false, method.getFullMethodName()),
                   parentSpan)
-              .setRecordEvents(true)
+              .setRecordEvents(recordUnsampledEvents || isSampledToLocalTracing)
               .startSpan();
+      this.recordMessageEvents = shouldRecordMessageEvents(span);
     }
 
     @Override
     public ClientStreamTracer newClientStreamTracer(
         ClientStreamTracer.StreamInfo info, Metadata headers) {
       if (span != BlankSpan.INSTANCE) {
+        byte[] encoded = encodedSpanContext;
+        if (encoded == null) {
+          // racing attempts may both encode, which is harmless
+          encoded = censusPropagationBinaryFormat.toByteArray(span.getContext());
+          encodedSpanContext = encoded;
+        }
         headers.discardAll(tracingHeader);
-        headers.put(tracingHeader, span.getContext());
+        headers.put(encodedTracingHeader, encoded);
+      }
+      if (!recordMessageEvents) {
+        return NOOP_CLIENT_TRACER;
       }
       return new ClientTracer(span);
     }
@@ -296,7 +341,9 @@ final class CensusTracingModule {
 
   private final class ServerTracer extends ServerStreamTracer {
     private final Span span;
+    private final boolean alwaysRecordMessageEvents;
     volatile boolean isSampledToLocalTracing;
+    volatile boolean callStarted;
     volatile int streamClosed;
 
     ServerTracer(String fullMethodName, @Nullable SpanContext remoteSpan) {
@@ -306,13 +353,26 @@ final class CensusTracingModule {
               .spanBuilderWithRemoteParent(
                   generateTraceSpanName(true, fullMethodName),
                   remoteSpan)
+              // whether the method is sampled to local tracing is only known once the call
+              // started, so the span must be able to record events until then
               .setRecordEvents(true)
               .startSpan();
+      this.alwaysRecordMessageEvents =
+          recordUnsampledEvents || span.getContext().getTraceOptions().isSampled();
     }
 
     @Override
     public void serverCallStarted(ServerCallInfo<?, ?> callInfo) {
       isSampledToLocalTracing = callInfo.getMethodDescriptor().isSampledToLocalTracing();
+      callStarted = true;
+    }
+
+    /**
+     * Like on the client, the events are recorded for sampled spans and for methods sampled to
+     * local tracing. Until the call started the method is unknown, and the events are recorded.
+     */
+    private boolean shouldRecordMessageEvents() {
+      return alwaysRecordMessageEvents || !callStarted || isSampledToLocalTracing;
     }
 
     /**
@@ -347,6 +407,9 @@ final class CensusTracingModule {
     @Override
     public void outboundMessageSent(
         int seqNo, long optionalWireSize, long optionalUncompressedSize) {
+      if (!shouldRecordMessageEvents()) {
+        return;
+      }
       recordMessageEvent(
           span, MessageEvent.Type.SENT, seqNo, optionalWireSize, optionalUncompressedSize);
     }
@@ -354,6 +417,9 @@ final class CensusTracingModule {
     @Override
     public void inboundMessageRead(
         int seqNo, long optionalWireSize, long optionalUncompressedSize) {
+      if (!shouldRecordMessageEvents()) {
+        return;
+      }
       recordMessageEvent(
           span, MessageEvent.Type.RECEIVED, seqNo, optionalWireSize, optionalUncompressedSize);
     }
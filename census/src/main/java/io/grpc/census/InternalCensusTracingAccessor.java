@@ -27,6 +27,9 @@ import io.opencensus.trace.Tracing;
  */
 @Internal
 public final class InternalCensusTracingAccessor {
+  // When false, the unsampled spans don't record events, which saves building the message events.
+  private static final boolean recordUnsampledEvents = !Boolean.parseBoolean(
+      System.getProperty("io.grpc.census.CensusTracingModule.skip_unsampled_events", "false"));
 
   // Prevent instantiation.
   private InternalCensusTracingAccessor() {
@@ -39,7 +42,8 @@ public final class InternalCensusTracingAccessor {
     CensusTracingModule censusTracing =
         new CensusTracingModule(
             Tracing.getTracer(),
-            Tracing.getPropagationComponent().getBinaryFormat());
+            Tracing.getPropagationComponent().getBinaryFormat(),
+            recordUnsampledEvents);
     return censusTracing.getClientInterceptor();
   }
 
@@ -50,7 +54,8 @@ public final class InternalCensusTracingAccessor {
     CensusTracingModule censusTracing =
         new CensusTracingModule(
             Tracing.getTracer(),
-            Tracing.getPropagationComponent().getBinaryFormat());
+            Tracing.getPropagationComponent().getBinaryFormat(),
+            recordUnsampledEvents);
     return censusTracing.getServerTracerFactory();
   }
 }
@@ -836,6 +836,92 @@ public class CensusModulesTest {
     assertThat(headers.keys()).isNotEmpty();
   }
 
+  @Test
+  public void traceHeaders_encodedOncePerCall() throws Exception {
+    CensusTracingModule.ClientCallTracer callTracer =
+        censusTracing.newClientCallTracer(fakeClientParentSpan, method);
+    Metadata headers1 = new Metadata();
+    Metadata headers2 = new Metadata();
+
+    callTracer.newClientStreamTracer(STREAM_INFO, headers1);
+    callTracer.newClientStreamTracer(STREAM_INFO, headers2);
+
+    verify(mockTracingPropagationHandler).toByteArray(same(fakeClientSpanContext));
+    verifyNoMoreInteractions(mockTracingPropagationHandler);
+    assertTrue(headers1.containsKey(censusTracing.tracingHeader));
+    assertTrue(headers2.containsKey(censusTracing.tracingHeader));
+  }
+
+  @Test
+  public void clientTracing_unsampledEventsNotRecorded() {
+    censusTracing = new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    CensusTracingModule.ClientCallTracer callTracer =
+        censusTracing.newClientCallTracer(fakeClientParentSpan, method);
+    Metadata headers = new Metadata();
+    ClientStreamTracer clientStreamTracer = callTracer.newClientStreamTracer(STREAM_INFO, headers);
+    verify(spyClientSpanBuilder).setRecordEvents(eq(false));
+    // the span context is still propagated, the server may sample the call
+    assertTrue(headers.containsKey(censusTracing.tracingHeader));
+
+    clientStreamTracer.outboundMessageSent(0, 882, -1);
+    clientStreamTracer.inboundMessageRead(0, 255, 90);
+    clientStreamTracer.streamClosed(Status.OK);
+    callTracer.callEnded(Status.OK);
+
+    verify(spyClientSpan, never()).addMessageEvent(any(MessageEvent.class));
+    verify(spyClientSpan).end(
+        EndSpanOptions.builder()
+            .setStatus(io.opencensus.trace.Status.OK)
+            .setSampleToLocalSpanStore(false)
+            .build());
+  }
+
+  @Test
+  public void clientTracing_unsampledEventsNotRecorded_sampledToLocalTracing() {
+    censusTracing = new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    censusTracing.newClientCallTracer(fakeClientParentSpan, sampledMethod);
+
+    verify(spyClientSpanBuilder).setRecordEvents(eq(true));
+  }
+
+  @Test
+  public void serverTracing_unsampledEventsNotRecorded() {
+    censusTracing = new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    ServerStreamTracer serverStreamTracer =
+        censusTracing.getServerTracerFactory().newServerStreamTracer(
+            method.getFullMethodName(), new Metadata());
+    serverStreamTracer.serverCallStarted(new CallInfo<>(method, Attributes.EMPTY, null));
+
+    serverStreamTracer.outboundMessageSent(0, 882, -1);
+    serverStreamTracer.inboundMessageRead(0, 255, 90);
+    serverStreamTracer.streamClosed(Status.OK);
+
+    verify(spyServerSpan, never()).addMessageEvent(any(MessageEvent.class));
+    verify(spyServerSpan).end(any(EndSpanOptions.class));
+  }
+
+  @Test
+  public void serverTracing_unsampledEventsNotRecorded_sampledToLocalTracing() {
+    censusTracing = new CensusTracingModule(tracer, mockTracingPropagationHandler, false);
+    ServerStreamTracer serverStreamTracer =
+        censusTracing.getServerTracerFactory().newServerStreamTracer(
+            sampledMethod.getFullMethodName(), new Metadata());
+    verify(spyServerSpanBuilder).setRecordEvents(eq(true));
+    // the method is not known yet
+    serverStreamTracer.inboundMessageRead(0, 255, 90);
+    serverStreamTracer.serverCallStarted(new CallInfo<>(sampledMethod, Attributes.EMPTY, null));
+
+    serverStreamTracer.outboundMessageSent(0, 882, -1);
+    serverStreamTracer.streamClosed(Status.OK);
+
+    verify(spyServerSpan, times(2)).addMessageEvent(any(MessageEvent.class));
+    verify(spyServerSpan).end(
+        EndSpanOptions.builder()
+            .setStatus(io.opencensus.trace.Status.OK)
+            .setSampleToLocalSpanStore(true)
+            .build());
+  }
+
   @Test
   public void traceHeaders_missingCensusImpl_notPropagateSpanContext()
       throws Exception {
@@ -18,10 +18,13 @@ package io.grpc.internal;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import io.grpc.InternalChannelz;
+import io.grpc.InternalChannelz.ChangeList;
 import io.grpc.InternalChannelz.ServerStats;
 import io.grpc.InternalChannelz.SocketStats;
 import io.grpc.InternalInstrumented;
 import io.grpc.InternalLogId;
+import io.grpc.InternalWithLogId;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -51,6 +54,9 @@ public class ChannelzBenchmark {
   public InternalInstrumented<SocketStats> serverSocketToAdd;
   public InternalInstrumented<SocketStats> serverSocketToRemove;
 
+  // Generation before the last 100 changes, as seen by an incremental scraper
+  public long scrapedGeneration;
+
   /**
    * Javadoc.
    */
@@ -68,6 +74,7 @@ public class ChannelzBenchmark {
     channelz.addServerSocket(serverForServerSocket, serverSocketToRemove);
 
     populate(preexisting);
+    scrapedGeneration = Math.max(0, channelz.getGeneration() - 100);
 
     serverToAdd = create();
     serverSocketToAdd = create();
@@ -130,6 +137,35 @@ public class ChannelzBenchmark {
     channelz.removeServerSocket(serverForServerSocket, serverSocketToRemove);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ChangeList getChanges() {
+    return channelz.getChanges(scrapedGeneration, 100);
+  }
+
+  /**
+   * Full scrape of the sockets of a server by pages of 100, for comparison with {@link
+   * #getChanges}.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int getServerSocketsAllPages() {
+    long serverId = serverForServerSocket.getLogId().getId();
+    long fromId = 0;
+    int count = 0;
+    while (true) {
+      InternalChannelz.ServerSocketsList page = channelz.getServerSockets(serverId, fromId, 100);
+      List<InternalWithLogId> sockets = page.sockets;
+      count += sockets.size();
+      if (page.end) {
+        return count;
+      }
+      fromId = sockets.get(sockets.size() - 1).getLogId().getId() + 1;
+    }
+  }
+
   private static <T> InternalInstrumented<T> create() {
     return new InternalInstrumented<T>() {
       final InternalLogId id = InternalLogId.allocate(getClass(), "fake-tag");
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.InternalChannelz.SocketStats;
+import io.grpc.InternalLogId;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reprocessing of the streams queued in a {@link DelayedClientTransport} when a new picker is
+ * provided, either releasing all of them to a transport or keeping all of them pending.
+ */
+@State(Scope.Benchmark)
+public class DelayedClientTransportBenchmark {
+
+  @Param({"1000", "10000"})
+  public int pendingStreamCount;
+
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final PickResult readyPickResult = PickResult.withSubchannel(new ReadySubchannel());
+  private final SubchannelPicker readyPicker = new SubchannelPicker() {
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      return readyPickResult;
+    }
+  };
+  private final SubchannelPicker bufferingPicker = new SubchannelPicker() {
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      return PickResult.withNoResult();
+    }
+  };
+  private DelayedClientTransport delayedTransport;
+
+  /**
+   * Queues {@code pendingStreamCount} started streams.
+   */
+  @Setup(Level.Invocation)
+  public void setUp() {
+    delayedTransport =
+        new DelayedClientTransport(MoreExecutors.directExecutor(), syncContext);
+    delayedTransport.start(new ManagedClientTransport.Listener() {
+      @Override
+      public void transportShutdown(Status s) {}
+
+      @Override
+      public void transportTerminated() {}
+
+      @Override
+      public void transportReady() {}
+
+      @Override
+      public void transportInUse(boolean inUse) {}
+    });
+    MethodDescriptor<Void, Void> method = TestMethodDescriptors.voidMethod();
+    for (int i = 0; i < pendingStreamCount; i++) {
+      ClientStream stream = delayedTransport.newStream(method, new Metadata(), CallOptions.DEFAULT);
+      stream.start(new NoopListener());
+    }
+  }
+
+  /**
+   * Releases all the pending streams to a ready transport.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean releaseAll() {
+    delayedTransport.reprocess(readyPicker);
+    return delayedTransport.hasPendingStreams();
+  }
+
+  /**
+   * Picks again for all the pending streams, which stay pending.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public boolean keepAllPending() {
+    delayedTransport.reprocess(bufferingPicker);
+    return delayedTransport.hasPendingStreams();
+  }
+
+  private static final class NoopListener implements ClientStreamListener {
+    @Override
+    public void messagesAvailable(MessageProducer producer) {}
+
+    @Override
+    public void onReady() {}
+
+    @Override
+    public void headersRead(Metadata headers) {}
+
+    @Override
+    public void closed(Status status, Metadata trailers) {}
+
+    @Override
+    public void closed(Status status, RpcProgress rpcProgress, Metadata trailers) {}
+  }
+
+  private static final class ReadyTransport implements ClientTransport {
+    static final ReadyTransport INSTANCE = new ReadyTransport();
+
+    private final InternalLogId logId = InternalLogId.allocate(ReadyTransport.class, null);
+
+    @Override
+    public ClientStream newStream(
+        MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions) {
+      return new NoopClientStream();
+    }
+
+    @Override
+    public void ping(PingCallback callback, Executor executor) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public InternalLogId getLogId() {
+      return logId;
+    }
+
+    @Override
+    public ListenableFuture<SocketStats> getStats() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class ReadySubchannel extends Subchannel {
+    private static final TransportProvider TRANSPORT_PROVIDER = new TransportProvider() {
+      @Override
+      public ClientTransport obtainActiveTransport() {
+        return ReadyTransport.INSTANCE;
+      }
+    };
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public void requestConnection() {}
+
+    @Override
+    public Attributes getAttributes() {
+      return Attributes.EMPTY;
+    }
+
+    @Override
+    public Object getInternalSubchannel() {
+      return TRANSPORT_PROVIDER;
+    }
+  }
+}
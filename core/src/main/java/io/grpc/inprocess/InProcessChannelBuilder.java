@@ -42,6 +42,10 @@ import javax.annotation.Nullable;
  *
  * <p>The channel is intended to be fully-featured, high performance, and useful in testing.
  *
+ * <p>Messages are never serialized: the {@link java.io.InputStream} returned by the marshaller is
+ * handed as is to the marshaller of the other side. Marshallers recognizing their own streams can
+ * thus pass immutable messages by reference, as the protobuf marshallers do.
+ *
  * <p>For usage examples, see {@link InProcessServerBuilder}.
  */
 @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1783")
@@ -99,6 +99,10 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
   @GuardedBy("this")
   private final Set<InProcessStream> streams = Collections.newSetFromMap(
           new IdentityHashMap<InProcessStream, Boolean>());
+  // Number of streams whose streamCreated() is running. The transport does not terminate before
+  // they return, even if the streams were closed meanwhile.
+  @GuardedBy("this")
+  private int pendingStreamCreations;
   @GuardedBy("this")
   private List<ServerStreamTracer.Factory> serverStreamTracerFactories;
   private final Attributes attributes;
@@ -203,8 +207,16 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
   }
 
   @Override
-  public synchronized ClientStream newStream(
+  public ClientStream newStream(
       final MethodDescriptor<?, ?> method, final Metadata headers, final CallOptions callOptions) {
+    // The transport lock is only held to read the state, so that concurrent streams don't contend
+    // on it while creating their tracers.
+    Status shutdownStatus;
+    List<ServerStreamTracer.Factory> tracerFactories;
+    synchronized (this) {
+      shutdownStatus = this.shutdownStatus;
+      tracerFactories = serverStreamTracerFactories;
+    }
     if (shutdownStatus != null) {
       return failedClientStream(
           StatsTraceContext.newClientContext(callOptions, attributes, headers), shutdownStatus);
@@ -230,7 +242,8 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
       }
     }
 
-    return new InProcessStream(method, headers, callOptions, authority).clientStream;
+    return new InProcessStream(method, headers, callOptions, authority, tracerFactories)
+        .clientStream;
   }
 
   private ClientStream failedClientStream(
@@ -273,7 +286,7 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
     }
     shutdownStatus = reason;
     notifyShutdown(reason);
-    if (streams.isEmpty()) {
+    if (streams.isEmpty() && pendingStreamCreations == 0) {
       notifyTerminated();
     }
   }
@@ -376,13 +389,13 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
 
     private InProcessStream(
         MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions,
-        String authority) {
+        String authority, List<ServerStreamTracer.Factory> serverStreamTracerFactories) {
       this.method = checkNotNull(method, "method");
       this.headers = checkNotNull(headers, "headers");
       this.callOptions = checkNotNull(callOptions, "callOptions");
       this.authority = authority;
       this.clientStream = new InProcessClientStream(callOptions, headers);
-      this.serverStream = new InProcessServerStream(method, headers);
+      this.serverStream = new InProcessServerStream(method, headers, serverStreamTracerFactories);
     }
 
     // Can be called multiple times due to races on both client and server closing at same time.
@@ -393,13 +406,22 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
           inUseState.updateObjectInUse(this, false);
         }
         if (streams.isEmpty() && justRemovedAnElement) {
-          if (shutdown) {
+          if (shutdown && pendingStreamCreations == 0) {
             notifyTerminated();
           }
         }
       }
     }
 
+    private void streamCreationFinished() {
+      synchronized (InProcessTransport.this) {
+        pendingStreamCreations--;
+        if (streams.isEmpty() && pendingStreamCreations == 0 && shutdown) {
+          notifyTerminated();
+        }
+      }
+    }
+
     private class InProcessServerStream implements ServerStream {
       final StatsTraceContext statsTraceCtx;
       @GuardedBy("this")
@@ -419,7 +441,9 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
       @GuardedBy("this")
       private int outboundSeqNo;
 
-      InProcessServerStream(MethodDescriptor<?, ?> method, Metadata headers) {
+      InProcessServerStream(
+          MethodDescriptor<?, ?> method, Metadata headers,
+          List<ServerStreamTracer.Factory> serverStreamTracerFactories) {
         statsTraceCtx = StatsTraceContext.newServerContext(
             serverStreamTracerFactories, method.getFullMethodName(), headers);
       }
@@ -665,6 +689,13 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
           new ArrayDeque<>();
       @GuardedBy("this")
       private boolean serverNotifyHalfClose;
+      // Whether serverTransportListener.streamCreated() returned. The server may only be notified
+      // that the stream closed afterwards, when it is ready to handle the notification.
+      @GuardedBy("this")
+      private boolean serverStreamCreated;
+      // Set when the stream is cancelled while the server is creating it.
+      @GuardedBy("this")
+      private Status serverNotifyClosedStatus;
       // Only is intended to prevent double-close when server closes.
       @GuardedBy("this")
       private boolean closed;
@@ -680,6 +711,13 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
         this.serverStreamListener = listener;
       }
 
+      private synchronized void onServerStreamCreated() {
+        serverStreamCreated = true;
+        if (serverNotifyClosedStatus != null) {
+          serverStreamListener.closed(serverNotifyClosedStatus);
+        }
+      }
+
       @Override
       public void request(int numMessages) {
         boolean onReady = serverStream.clientRequested(numMessages);
@@ -780,7 +818,12 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
           }
         }
         serverStream.statsTraceCtx.streamClosed(serverTracerStatus);
-        serverStreamListener.closed(serverListenerStatus);
+        if (!serverStreamCreated) {
+          // The server is still creating the stream, it is notified once streamCreated() returns
+          serverNotifyClosedStatus = serverListenerStatus;
+        } else {
+          serverStreamListener.closed(serverListenerStatus);
+        }
         return true;
       }
 
@@ -811,11 +854,18 @@ final class InProcessTransport implements ServerTransport, ConnectionClientTrans
         synchronized (InProcessTransport.this) {
           statsTraceCtx.clientOutboundHeaders();
           streams.add(InProcessTransport.InProcessStream.this);
+          pendingStreamCreations++;
           if (GrpcUtil.shouldBeCountedForInUse(callOptions)) {
             inUseState.updateObjectInUse(InProcessTransport.InProcessStream.this, true);
           }
-          serverTransportListener.streamCreated(serverStream, method.getFullMethodName(), headers);
         }
+        // Outside of the transport lock, so that streams are created concurrently. The stream may
+        // be cancelled by shutdownNow() meanwhile, which is delivered once streamCreated()
+        // returned, after the server queued the creation of its call. The transport terminates
+        // only after that too.
+        serverTransportListener.streamCreated(serverStream, method.getFullMethodName(), headers);
+        onServerStreamCreated();
+        streamCreationFinished();
       }
 
       @Override
@@ -78,6 +78,11 @@ abstract class ForwardingManagedChannel extends ManagedChannel {
     delegate.notifyWhenStateChanged(source, callback);
   }
 
+  @Override
+  public void warmUp(Runnable callback) {
+    delegate.warmUp(callback);
+  }
+
   @Override
   public void resetConnectBackoff() {
     delegate.resetConnectBackoff();
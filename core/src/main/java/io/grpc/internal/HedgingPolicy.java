@@ -31,15 +31,27 @@ final class HedgingPolicy {
   final int maxAttempts;
   final long hedgingDelayNanos;
   final Set<Code> nonFatalStatusCodes;
+  /**
+   * If positive, the hedges are delayed by this percentile of the recent latencies of the method,
+   * and {@link #hedgingDelayNanos} is the maximum delay.
+   */
+  final double hedgingDelayPercentile;
+
+  HedgingPolicy(int maxAttempts, long hedgingDelayNanos, Set<Code> nonFatalStatusCodes) {
+    this(maxAttempts, hedgingDelayNanos, nonFatalStatusCodes, 0);
+  }
 
   /**
    * The caller is supposed to have validated the arguments and handled throwing exception or
    * logging warnings already, so we avoid repeating args check here.
    */
-  HedgingPolicy(int maxAttempts, long hedgingDelayNanos, Set<Code> nonFatalStatusCodes) {
+  HedgingPolicy(
+      int maxAttempts, long hedgingDelayNanos, Set<Code> nonFatalStatusCodes,
+      double hedgingDelayPercentile) {
     this.maxAttempts = maxAttempts;
     this.hedgingDelayNanos = hedgingDelayNanos;
     this.nonFatalStatusCodes = ImmutableSet.copyOf(nonFatalStatusCodes);
+    this.hedgingDelayPercentile = hedgingDelayPercentile;
   }
 
   @Override
@@ -53,12 +65,14 @@ final class HedgingPolicy {
     HedgingPolicy that = (HedgingPolicy) other;
     return maxAttempts == that.maxAttempts
         && hedgingDelayNanos == that.hedgingDelayNanos
-        && Objects.equal(nonFatalStatusCodes, that.nonFatalStatusCodes);
+        && Objects.equal(nonFatalStatusCodes, that.nonFatalStatusCodes)
+        && Double.compare(hedgingDelayPercentile, that.hedgingDelayPercentile) == 0;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(maxAttempts, hedgingDelayNanos, nonFatalStatusCodes);
+    return Objects.hashCode(
+        maxAttempts, hedgingDelayNanos, nonFatalStatusCodes, hedgingDelayPercentile);
   }
 
   @Override
@@ -67,6 +81,7 @@ final class HedgingPolicy {
         .add("maxAttempts", maxAttempts)
         .add("hedgingDelayNanos", hedgingDelayNanos)
         .add("nonFatalStatusCodes", nonFatalStatusCodes)
+        .add("hedgingDelayPercentile", hedgingDelayPercentile)
         .toString();
   }
 }
@@ -50,11 +50,14 @@ import io.grpc.SynchronizationContext;
 import io.grpc.SynchronizationContext.ScheduledHandle;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -75,6 +78,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   private final CallTracer callsTracer;
   private final ChannelTracer channelTracer;
   private final ChannelLogger channelLogger;
+  private final int maxConnections;
+  private final int streamsPerConnection;
+  private final int warmConnections;
 
   /**
    * All field must be mutated in the syncContext.
@@ -149,6 +155,28 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   @Nullable
   private volatile ManagedClientTransport activeTransport;
 
+  /**
+   * The additional connections to the address of {@link #activeTransport} that are ready, sharing
+   * the new outgoing requests with it. Replaced rather than modified. Empty unless READY.
+   */
+  private volatile CallTracingTransport[] extraTransports = new CallTracingTransport[0];
+
+  /** The additional connections that are not ready yet. */
+  private final Collection<ConnectionClientTransport> pendingExtraTransports = new ArrayList<>();
+
+  /** Whether a task to start an additional connection has been scheduled. */
+  private final AtomicBoolean extraTransportRequested = new AtomicBoolean();
+
+  /**
+   * The policy to control back off between the replacements of lost warm connections. Reset when
+   * the subchannel leaves READY.
+   */
+  @Nullable
+  private BackoffPolicy warmConnectionPolicy;
+
+  @Nullable
+  private ScheduledHandle warmConnectionTask;
+
   private volatile ConnectivityStateInfo state = ConnectivityStateInfo.forNonError(IDLE);
 
   private Status shutdownReason;
@@ -158,7 +186,8 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       ClientTransportFactory transportFactory, ScheduledExecutorService scheduledExecutor,
       Supplier<Stopwatch> stopwatchSupplier, SynchronizationContext syncContext, Callback callback,
       InternalChannelz channelz, CallTracer callsTracer, ChannelTracer channelTracer,
-      InternalLogId logId, ChannelLogger channelLogger) {
+      InternalLogId logId, ChannelLogger channelLogger, int maxConnections,
+      int streamsPerConnection, int warmConnections) {
     Preconditions.checkNotNull(addressGroups, "addressGroups");
     Preconditions.checkArgument(!addressGroups.isEmpty(), "addressGroups is empty");
     checkListHasNoNulls(addressGroups, "addressGroups contains null entry");
@@ -179,6 +208,12 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     this.channelTracer = Preconditions.checkNotNull(channelTracer, "channelTracer");
     this.logId = Preconditions.checkNotNull(logId, "logId");
     this.channelLogger = Preconditions.checkNotNull(channelLogger, "channelLogger");
+    Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive");
+    Preconditions.checkArgument(
+        streamsPerConnection > 0, "streamsPerConnection must be positive");
+    this.maxConnections = maxConnections;
+    this.streamsPerConnection = streamsPerConnection;
+    this.warmConnections = Math.min(warmConnections, maxConnections);
   }
 
   ChannelLogger getChannelLogger() {
@@ -189,6 +224,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   public ClientTransport obtainActiveTransport() {
     ClientTransport savedTransport = activeTransport;
     if (savedTransport != null) {
+      if (maxConnections > 1) {
+        return leastLoadedTransport((CallTracingTransport) savedTransport);
+      }
       return savedTransport;
     }
     syncContext.execute(new Runnable() {
@@ -204,6 +242,40 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     return null;
   }
 
+  /**
+   * Returns the connection with the fewest streams in progress among the active one and the
+   * additional ones, and opens another connection if they all have {@link #streamsPerConnection}
+   * streams or more.
+   */
+  private ClientTransport leastLoadedTransport(CallTracingTransport active) {
+    CallTracingTransport leastLoaded = active;
+    int leastStreams = active.getActiveStreams();
+    CallTracingTransport[] extras = extraTransports;
+    for (CallTracingTransport extra : extras) {
+      int streams = extra.getActiveStreams();
+      if (streams < leastStreams) {
+        leastLoaded = extra;
+        leastStreams = streams;
+      }
+    }
+    if (leastStreams >= streamsPerConnection
+        && extras.length + 1 < maxConnections
+        && extraTransportRequested.compareAndSet(false, true)) {
+      syncContext.execute(new Runnable() {
+        @Override
+        public void run() {
+          extraTransportRequested.set(false);
+          if (state.getState() == READY
+              && extraTransports.length + pendingExtraTransports.size() + 1 < maxConnections) {
+            channelLogger.log(ChannelLogLevel.INFO, "Opening an additional connection");
+            pendingExtraTransports.add(startTransport());
+          }
+        }
+      });
+    }
+    return leastLoaded;
+  }
+
   /**
    * Returns a READY transport if there is any, without trying to connect.
    */
@@ -227,6 +299,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     if (addressIndex.isAtBeginning()) {
       connectingTimer.reset().start();
     }
+    pendingTransport = startTransport();
+  }
+
+  /** Starts a transport to the current address. */
+  private ConnectionClientTransport startTransport() {
     SocketAddress address = addressIndex.getCurrentAddress();
 
     HttpConnectProxiedSocketAddress proxiedAddr = null;
@@ -247,19 +324,89 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     TransportLogger transportLogger = new TransportLogger();
     // In case the transport logs in the constructor, use the subchannel logId
     transportLogger.logId = getLogId();
-    ConnectionClientTransport transport =
+    CallTracingTransport transport =
         new CallTracingTransport(
             transportFactory
                 .newClientTransport(address, options, transportLogger), callsTracer);
     transportLogger.logId = transport.getLogId();
     channelz.addClientSocket(transport);
-    pendingTransport = transport;
     transports.add(transport);
     Runnable runnable = transport.start(new TransportListener(transport, address));
     if (runnable != null) {
       syncContext.executeLater(runnable);
     }
     channelLogger.log(ChannelLogLevel.INFO, "Started transport {0}", transportLogger.logId);
+    return transport;
+  }
+
+  /**
+   * Opens additional connections until there are {@link #warmConnections} connections, counting the
+   * ones not ready yet, so that they are ready before the streams need them.
+   */
+  private void openWarmConnections() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    while (state.getState() == READY
+        && extraTransports.length + pendingExtraTransports.size() + 1 < warmConnections) {
+      channelLogger.log(ChannelLogLevel.INFO, "Opening an additional warm connection");
+      pendingExtraTransports.add(startTransport());
+    }
+  }
+
+  /**
+   * Replaces a lost additional connection after a backoff, if the connections are kept warm. The
+   * backoff keeps a server closing the connections as soon as they are made from getting a tight
+   * reconnect loop.
+   */
+  private void scheduleWarmConnection() {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (warmConnections <= 1 || warmConnectionTask != null) {
+      return;
+    }
+    if (warmConnectionPolicy == null) {
+      warmConnectionPolicy = backoffPolicyProvider.get();
+    }
+    long delayNanos = warmConnectionPolicy.nextBackoffNanos();
+    channelLogger.log(
+        ChannelLogLevel.DEBUG,
+        "Replacing a lost warm connection after {0} ns", delayNanos);
+
+    class OpenWarmConnections implements Runnable {
+      @Override
+      public void run() {
+        warmConnectionTask = null;
+        openWarmConnections();
+      }
+    }
+
+    warmConnectionTask = syncContext.schedule(
+        new OpenWarmConnections(), delayNanos, TimeUnit.NANOSECONDS, scheduledExecutor);
+  }
+
+  /**
+   * Shuts down the additional connections, which only serve the address of the active transport.
+   */
+  private void shutdownExtraTransports(Status reason) {
+    syncContext.throwIfNotInThisSynchronizationContext();
+
+    if (warmConnectionTask != null) {
+      warmConnectionTask.cancel();
+      warmConnectionTask = null;
+    }
+    warmConnectionPolicy = null;
+
+    CallTracingTransport[] savedExtraTransports = extraTransports;
+    List<ConnectionClientTransport> savedPendingExtraTransports =
+        new ArrayList<>(pendingExtraTransports);
+    extraTransports = new CallTracingTransport[0];
+    pendingExtraTransports.clear();
+    for (ManagedClientTransport transport : savedExtraTransports) {
+      transport.shutdown(reason);
+    }
+    for (ManagedClientTransport transport : savedPendingExtraTransports) {
+      transport.shutdown(reason);
+    }
   }
 
   /**
@@ -355,6 +502,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             if (state.getState() == READY) {
               savedTransport = activeTransport;
               activeTransport = null;
+              shutdownExtraTransports(
+                  Status.UNAVAILABLE.withDescription(
+                      "InternalSubchannel closed additional transport due to address change"));
               addressIndex.reset();
               gotoNonErrorState(IDLE);
             } else {
@@ -414,6 +564,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         savedPendingTransport = pendingTransport;
         activeTransport = null;
         pendingTransport = null;
+        shutdownExtraTransports(reason);
         gotoNonErrorState(SHUTDOWN);
         addressIndex.reset();
         if (transports.isEmpty()) {
@@ -523,6 +674,24 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
     return state.getState();
   }
 
+  private static CallTracingTransport[] append(
+      CallTracingTransport[] transports, CallTracingTransport transport) {
+    CallTracingTransport[] result = Arrays.copyOf(transports, transports.length + 1);
+    result[transports.length] = transport;
+    return result;
+  }
+
+  private static CallTracingTransport[] remove(
+      CallTracingTransport[] transports, ClientTransport transport) {
+    List<CallTracingTransport> result = new ArrayList<>(Arrays.asList(transports));
+    result.remove(transport);
+    return result.toArray(new CallTracingTransport[0]);
+  }
+
+  private static boolean contains(CallTracingTransport[] transports, ClientTransport transport) {
+    return Arrays.asList(transports).contains(transport);
+  }
+
   private static void checkListHasNoNulls(List<?> list, String msg) {
     for (Object item : list) {
       Preconditions.checkNotNull(item, msg);
@@ -556,6 +725,9 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             activeTransport = transport;
             pendingTransport = null;
             gotoNonErrorState(READY);
+            openWarmConnections();
+          } else if (pendingExtraTransports.remove(transport)) {
+            extraTransports = append(extraTransports, (CallTracingTransport) transport);
           }
         }
       });
@@ -578,9 +750,25 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             return;
           }
           if (activeTransport == transport) {
+            CallTracingTransport[] extras = extraTransports;
+            if (extras.length > 0) {
+              // An additional connection to the same address takes over, staying READY
+              activeTransport = extras[0];
+              extraTransports = remove(extras, extras[0]);
+              scheduleWarmConnection();
+              return;
+            }
             activeTransport = null;
+            shutdownExtraTransports(s);
             addressIndex.reset();
             gotoNonErrorState(IDLE);
+          } else if (contains(extraTransports, transport)) {
+            extraTransports = remove(extraTransports, transport);
+            scheduleWarmConnection();
+          } else if (pendingExtraTransports.remove(transport)) {
+            // Failing to add a connection doesn't affect the state, nor trigger backoff of the
+            // subchannel
+            scheduleWarmConnection();
           } else if (pendingTransport == transport) {
             Preconditions.checkState(state.getState() == CONNECTING,
                 "Expected state is CONNECTING, actual state is %s", state.getState());
@@ -654,6 +842,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
   static final class CallTracingTransport extends ForwardingConnectionClientTransport {
     private final ConnectionClientTransport delegate;
     private final CallTracer callTracer;
+    private final AtomicInteger activeStreams = new AtomicInteger();
 
     private CallTracingTransport(ConnectionClientTransport delegate, CallTracer callTracer) {
       this.delegate = delegate;
@@ -665,6 +854,11 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
       return delegate;
     }
 
+    /** Returns the number of streams started and not closed yet. */
+    int getActiveStreams() {
+      return activeStreams.get();
+    }
+
     @Override
     public ClientStream newStream(
         MethodDescriptor<?, ?> method, Metadata headers, CallOptions callOptions) {
@@ -678,6 +872,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
         @Override
         public void start(final ClientStreamListener listener) {
           callTracer.reportCallStarted();
+          activeStreams.incrementAndGet();
           super.start(new ForwardingClientStreamListener() {
             @Override
             protected ClientStreamListener delegate() {
@@ -686,6 +881,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
 
             @Override
             public void closed(Status status, Metadata trailers) {
+              activeStreams.decrementAndGet();
               callTracer.reportCallEnded(status.isOk());
               super.closed(status, trailers);
             }
@@ -693,6 +889,7 @@ final class InternalSubchannel implements InternalInstrumented<ChannelStats>, Tr
             @Override
             public void closed(
                 Status status, RpcProgress rpcProgress, Metadata trailers) {
+              activeStreams.decrementAndGet();
               callTracer.reportCallEnded(status.isOk());
               super.closed(status, rpcProgress, trailers);
             }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A lock-free histogram with log-linear buckets: every power of two range is split into {@link
+ * #SUB_BUCKET_COUNT} linear buckets, so the relative error of a recorded value is bounded by
+ * 1/{@value #SUB_BUCKET_COUNT}. The buckets are striped by thread to reduce contention between
+ * writers, a stripe is only allocated when a value is first recorded in it, so a histogram written
+ * by few threads stays small. Reads don't block writers, so the counts read while values are
+ * recorded may be off by the in-flight records.
+ */
+@ThreadSafe
+public final class LogLinearHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  @VisibleForTesting
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  // values at or above 2^(MAX_EXPONENT + 1) are recorded in the last bucket
+  private static final int MAX_EXPONENT = 40;
+  public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+  // the sum of the values follows the bucket counts in each stripe
+  private static final int SUM_INDEX = BUCKET_COUNT;
+
+  private final int stripeMask;
+  private final AtomicReferenceArray<AtomicLongArray> stripes;
+
+  /** Creates a histogram with {@code stripes} stripes, which must be a power of 2. */
+  public LogLinearHistogram(int stripes) {
+    checkArgument(
+        stripes > 0 && (stripes & (stripes - 1)) == 0,
+        "stripes must be a positive power of 2: %s", stripes);
+    this.stripeMask = stripes - 1;
+    this.stripes = new AtomicReferenceArray<>(stripes);
+  }
+
+  /** Records a non negative value, negative values are recorded as zero. */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    AtomicLongArray stripe = getStripe((int) Thread.currentThread().getId() & stripeMask);
+    stripe.getAndIncrement(bucketIndex(value));
+    stripe.getAndAdd(SUM_INDEX, value);
+  }
+
+  private AtomicLongArray getStripe(int index) {
+    AtomicLongArray stripe = stripes.get(index);
+    if (stripe == null) {
+      stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_COUNT + 1));
+      stripe = stripes.get(index);
+    }
+    return stripe;
+  }
+
+  /**
+   * Halves the counts and the sum, so that the older values weigh less than the recent ones. The
+   * values recorded concurrently may be halved too or lost, which is fine for an estimate.
+   */
+  public void decay() {
+    for (int i = 0; i < stripes.length(); i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe == null) {
+        continue;
+      }
+      for (int index = 0; index <= SUM_INDEX; index++) {
+        stripe.set(index, stripe.get(index) >> 1);
+      }
+    }
+  }
+
+  /** Returns the merged bucket counts of all the stripes. */
+  public long[] getBucketCounts() {
+    long[] merged = new long[BUCKET_COUNT];
+    for (int i = 0; i < stripes.length(); i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe == null) {
+        continue;
+      }
+      for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+        merged[bucket] += stripe.get(bucket);
+      }
+    }
+    return merged;
+  }
+
+  /** Returns the sum of the recorded values. */
+  public long getSum() {
+    long sum = 0;
+    for (int i = 0; i < stripes.length(); i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe != null) {
+        sum += stripe.get(SUM_INDEX);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the estimated value at the quantile, between 0 and 1, of the values counted in {@code
+   * bucketCounts}. The estimate is the largest value of the bucket containing the quantile, or 0 if
+   * there is no value.
+   */
+  public static long getValueAtQuantile(long[] bucketCounts, double quantile) {
+    checkArgument(quantile >= 0 && quantile <= 1, "quantile must be in [0, 1]: %s", quantile);
+    long count = 0;
+    for (long bucketCount : bucketCounts) {
+      count += bucketCount;
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(quantile * count);
+    long seen = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      seen += bucketCounts[i];
+      if (seen >= rank && seen > 0) {
+        return bucketUpperBound(i) - 1;
+      }
+    }
+    return bucketUpperBound(bucketCounts.length - 1);
+  }
+
+  @VisibleForTesting
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKET_COUNT - 1;
+    }
+    int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + mantissa;
+  }
+
+  /** Returns the smallest value recorded in the bucket. */
+  public static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+    long mantissa = index % SUB_BUCKET_COUNT;
+    return (SUB_BUCKET_COUNT + mantissa) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  /** Returns the smallest value recorded in the next bucket, or {@link Long#MAX_VALUE}. */
+  public static long bucketUpperBound(int index) {
+    if (index == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return bucketLowerBound(index + 1);
+  }
+}
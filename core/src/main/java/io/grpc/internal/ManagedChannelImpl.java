@@ -19,6 +19,8 @@ package io.grpc.internal;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.grpc.ConnectivityState.CONNECTING;
 import static io.grpc.ConnectivityState.IDLE;
 import static io.grpc.ConnectivityState.SHUTDOWN;
 import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
@@ -84,6 +86,7 @@ import io.grpc.internal.ManagedChannelImplBuilder.FixedPortProvider;
 import io.grpc.internal.ManagedChannelServiceConfig.MethodInfo;
 import io.grpc.internal.ManagedChannelServiceConfig.ServiceConfigConvertedSelector;
 import io.grpc.internal.RetriableStream.ChannelBufferMeter;
+import io.grpc.internal.RetriableStream.HedgingDelayTracker;
 import io.grpc.internal.RetriableStream.Throttle;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -96,6 +99,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -129,6 +134,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
 
   static final long SUBCHANNEL_SHUTDOWN_DELAY_SECONDS = 5;
 
+  // A warm subchannel reconnects right away if its connection was READY for this long, and after
+  // a backoff otherwise, so that a server closing connections as they are made is not flooded.
+  static final long WARM_CONNECTION_STABLE_SECONDS = 10;
+
   @VisibleForTesting
   static final Status SHUTDOWN_NOW_STATUS =
       Status.UNAVAILABLE.withDescription("Channel shutdownNow invoked");
@@ -194,6 +203,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
   private final Supplier<Stopwatch> stopwatchSupplier;
   /** The timout before entering idle mode. */
   private final long idleTimeoutMillis;
+  /** Whether subchannels reconnect as soon as they lose their connection. */
+  private final boolean keepConnectionsWarm;
+  private final int maxConnectionsPerSubchannel;
+  private final int streamsPerConnection;
 
   private final ConnectivityStateManager channelStateManager = new ConnectivityStateManager();
   private final BackoffPolicy.Provider backoffPolicyProvider;
@@ -224,6 +237,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
   // Must be accessed from the syncContext
   private boolean panicMode;
 
+  // Number of warmUp() calls that have not completed yet. Must be accessed from the syncContext.
+  private int pendingWarmUps;
+
   // Must be mutated from syncContext
   // If any monitoring hook to be added later needs to get a snapshot of this Set, we could
   // switch to a ConcurrentHashMap.
@@ -288,6 +304,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
 
   // One instance per channel.
   private final ChannelBufferMeter channelBufferUsed = new ChannelBufferMeter();
+  // Latencies of the methods with an adaptive hedging delay, by full method name.
+  private final ConcurrentMap<String, HedgingDelayTracker> hedgingDelayTrackers =
+      new ConcurrentHashMap<>();
 
   private final long perRpcBufferLimit;
   private final long channelBufferLimit;
@@ -422,11 +441,16 @@ final class ManagedChannelImpl extends ManagedChannel implements
     delayedTransport.reprocess(null);
     channelLogger.log(ChannelLogLevel.INFO, "Entering IDLE state");
     channelStateManager.gotoState(IDLE);
-    if (inUseStateAggregator.isInUse()) {
+    if (inUseStateAggregator.isInUse() || keepConnectionsWarm) {
       exitIdleMode();
     }
   }
 
+  // Must be run from syncContext
+  private boolean shouldConnectEagerly() {
+    return (keepConnectionsWarm || pendingWarmUps > 0) && !shutdown.get();
+  }
+
   // Must be run from syncContext
   private void cancelIdleTimer(boolean permanent) {
     idleTimer.cancel(permanent);
@@ -541,6 +565,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
         MethodInfo methodInfo = callOptions.getOption(MethodInfo.KEY);
         final RetryPolicy retryPolicy = methodInfo == null ? null : methodInfo.retryPolicy;
         final HedgingPolicy hedgingPolicy = methodInfo == null ? null : methodInfo.hedgingPolicy;
+        final HedgingDelayTracker hedgingDelayTracker =
+            hedgingPolicy != null && hedgingPolicy.hedgingDelayPercentile > 0
+                ? getHedgingDelayTracker(method.getFullMethodName()) : null;
         final class RetryStream<ReqT> extends RetriableStream<ReqT> {
           @SuppressWarnings("unchecked")
           RetryStream() {
@@ -554,7 +581,8 @@ final class ManagedChannelImpl extends ManagedChannel implements
                 transportFactory.getScheduledExecutorService(),
                 retryPolicy,
                 hedgingPolicy,
-                throttle);
+                throttle,
+                hedgingDelayTracker);
           }
 
           @Override
@@ -588,6 +616,19 @@ final class ManagedChannelImpl extends ManagedChannel implements
 
   private final ClientStreamProvider transportProvider = new ChannelStreamProvider();
 
+  @VisibleForTesting
+  HedgingDelayTracker getHedgingDelayTracker(String fullMethodName) {
+    HedgingDelayTracker tracker = hedgingDelayTrackers.get(fullMethodName);
+    if (tracker == null) {
+      tracker = new HedgingDelayTracker(stopwatchSupplier);
+      HedgingDelayTracker existing = hedgingDelayTrackers.putIfAbsent(fullMethodName, tracker);
+      if (existing != null) {
+        tracker = existing;
+      }
+    }
+    return tracker;
+  }
+
   private final Rescheduler idleTimer;
 
   ManagedChannelImpl(
@@ -678,8 +719,11 @@ final class ManagedChannelImpl extends ManagedChannel implements
     }
     this.interceptorChannel = ClientInterceptors.intercept(channel, interceptors);
     this.stopwatchSupplier = checkNotNull(stopwatchSupplier, "stopwatchSupplier");
-    if (builder.idleTimeoutMillis == IDLE_TIMEOUT_MILLIS_DISABLE) {
-      this.idleTimeoutMillis = builder.idleTimeoutMillis;
+    this.keepConnectionsWarm = builder.keepConnectionsWarm;
+    this.maxConnectionsPerSubchannel = builder.maxConnectionsPerSubchannel;
+    this.streamsPerConnection = builder.streamsPerConnection;
+    if (keepConnectionsWarm || builder.idleTimeoutMillis == IDLE_TIMEOUT_MILLIS_DISABLE) {
+      this.idleTimeoutMillis = IDLE_TIMEOUT_MILLIS_DISABLE;
     } else {
       checkArgument(
           builder.idleTimeoutMillis
@@ -1290,6 +1334,51 @@ final class ManagedChannelImpl extends ManagedChannel implements
     syncContext.execute(new NotifyStateChanged());
   }
 
+  @Override
+  public void warmUp(final Runnable callback) {
+    checkNotNull(callback, "callback");
+    final class WarmUp implements Runnable {
+      @Override
+      public void run() {
+        pendingWarmUps++;
+        // Keeps the channel out of idle mode until the warmup completes
+        inUseStateAggregator.updateObjectInUse(this, true);
+        if (!shutdown.get()) {
+          exitIdleMode();
+          if (subchannelPicker != null) {
+            subchannelPicker.requestConnection();
+          }
+          if (lbHelper != null) {
+            lbHelper.lb.requestConnection();
+          }
+          // Subchannels created later are connected as soon as they start
+          for (InternalSubchannel subchannel : subchannels) {
+            subchannel.obtainActiveTransport();
+          }
+        }
+        awaitStateChange();
+      }
+
+      void awaitStateChange() {
+        ConnectivityState state = channelStateManager.getState();
+        if (state == IDLE || state == CONNECTING) {
+          channelStateManager.notifyWhenStateChanged(new Runnable() {
+            @Override
+            public void run() {
+              awaitStateChange();
+            }
+          }, directExecutor(), state);
+          return;
+        }
+        pendingWarmUps--;
+        inUseStateAggregator.updateObjectInUse(this, false);
+        executor.execute(callback);
+      }
+    }
+
+    syncContext.execute(new WarmUp());
+  }
+
   @Override
   public void resetConnectBackoff() {
     final class ResetConnectBackoff implements Runnable {
@@ -1514,7 +1603,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
           callTracerFactory.create(),
           subchannelTracer,
           subchannelLogId,
-          subchannelLogger);
+          subchannelLogger,
+          /* maxConnections= */ 1,
+          Integer.MAX_VALUE,
+          /* warmConnections= */ 1);
       oobChannelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child Subchannel created")
           .setSeverity(ChannelTrace.Event.Severity.CT_INFO)
@@ -1904,6 +1996,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
       checkState(!terminating, "Channel is being terminated");
       started = true;
       final class ManagedInternalSubchannelCallback extends InternalSubchannel.Callback {
+        final Stopwatch readyStopwatch = stopwatchSupplier.get();
+        BackoffPolicy warmReconnectPolicy;
+        ScheduledHandle warmReconnectTask;
+
         // All callbacks are run in syncContext
         @Override
         void onTerminated(InternalSubchannel is) {
@@ -1917,6 +2013,45 @@ final class ManagedChannelImpl extends ManagedChannel implements
           handleInternalSubchannelState(newState);
           checkState(listener != null, "listener is null");
           listener.onSubchannelState(newState);
+          if (newState.getState() == READY) {
+            readyStopwatch.reset().start();
+          } else if (newState.getState() == IDLE && !shutdown && shouldConnectEagerly()) {
+            reconnectWarm(is);
+          }
+        }
+
+        private void reconnectWarm(final InternalSubchannel is) {
+          boolean stable = readyStopwatch.isRunning()
+              && readyStopwatch.elapsed(TimeUnit.SECONDS) >= WARM_CONNECTION_STABLE_SECONDS;
+          readyStopwatch.reset();
+          if (stable) {
+            warmReconnectPolicy = null;
+            is.obtainActiveTransport();
+            return;
+          }
+          if (warmReconnectTask != null && warmReconnectTask.isPending()) {
+            return;
+          }
+          if (warmReconnectPolicy == null) {
+            warmReconnectPolicy = backoffPolicyProvider.get();
+          }
+          long delayNanos = warmReconnectPolicy.nextBackoffNanos();
+          subchannelLogger.log(
+              ChannelLogLevel.DEBUG,
+              "Connection closed soon after READY. Will reconnect after {0} ns", delayNanos);
+
+          final class WarmReconnect implements Runnable {
+            @Override
+            public void run() {
+              if (!shutdown && shouldConnectEagerly()) {
+                is.obtainActiveTransport();
+              }
+            }
+          }
+
+          warmReconnectTask = syncContext.schedule(
+              new LogExceptionRunnable(new WarmReconnect()), delayNanos, TimeUnit.NANOSECONDS,
+              transportFactory.getScheduledExecutorService());
         }
 
         @Override
@@ -1944,7 +2079,10 @@ final class ManagedChannelImpl extends ManagedChannel implements
           callTracerFactory.create(),
           subchannelTracer,
           subchannelLogId,
-          subchannelLogger);
+          subchannelLogger,
+          maxConnectionsPerSubchannel,
+          streamsPerConnection,
+          keepConnectionsWarm ? maxConnectionsPerSubchannel : 1);
 
       channelTracer.reportEvent(new ChannelTrace.Event.Builder()
           .setDescription("Child Subchannel started")
@@ -1956,6 +2094,9 @@ final class ManagedChannelImpl extends ManagedChannel implements
       this.subchannel = internalSubchannel;
       channelz.addSubchannel(internalSubchannel);
       subchannels.add(internalSubchannel);
+      if (shouldConnectEagerly()) {
+        internalSubchannel.obtainActiveTransport();
+      }
     }
 
     @Override
@@ -135,6 +135,11 @@ public final class ManagedChannelImplBuilder
 
   long idleTimeoutMillis = IDLE_MODE_DEFAULT_TIMEOUT_MILLIS;
 
+  boolean keepConnectionsWarm;
+
+  int maxConnectionsPerSubchannel = 1;
+  int streamsPerConnection = Integer.MAX_VALUE;
+
   int maxRetryAttempts = 5;
   int maxHedgedAttempts = 5;
   long retryBufferSize = DEFAULT_RETRY_BUFFER_SIZE_IN_BYTES;
@@ -406,6 +411,24 @@ public final class ManagedChannelImplBuilder
     return this;
   }
 
+  @Override
+  public ManagedChannelImplBuilder keepConnectionsWarm(boolean enable) {
+    this.keepConnectionsWarm = enable;
+    return this;
+  }
+
+  @Override
+  public ManagedChannelImplBuilder maxConnectionsPerSubchannel(
+      int maxConnections, int streamsPerConnection) {
+    checkArgument(maxConnections > 0, "maxConnections must be positive: %s", maxConnections);
+    checkArgument(
+        streamsPerConnection > 0, "streamsPerConnection must be positive: %s",
+        streamsPerConnection);
+    this.maxConnectionsPerSubchannel = maxConnections;
+    this.streamsPerConnection = streamsPerConnection;
+    return this;
+  }
+
   @Override
   public ManagedChannelImplBuilder maxRetryAttempts(int maxRetryAttempts) {
     this.maxRetryAttempts = maxRetryAttempts;
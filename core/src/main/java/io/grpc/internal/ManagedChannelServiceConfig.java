@@ -373,9 +373,20 @@ final class ManagedChannelServiceConfig {
       checkArgument(
           hedgingDelayNanos >= 0, "hedgingDelay must not be negative: %s", hedgingDelayNanos);
 
+      double hedgingDelayPercentile = 0;
+      Double percentile = ServiceConfigUtil.getHedgingDelayPercentileFromHedgingPolicy(
+          hedgingPolicy);
+      if (percentile != null) {
+        checkArgument(
+            percentile > 0 && percentile < 100,
+            "hedgingDelayPercentile must be in (0, 100): %s", percentile);
+        hedgingDelayPercentile = percentile;
+      }
+
       return new HedgingPolicy(
           maxAttempts, hedgingDelayNanos,
-          ServiceConfigUtil.getNonFatalStatusCodesFromHedgingPolicy(hedgingPolicy));
+          ServiceConfigUtil.getNonFatalStatusCodesFromHedgingPolicy(hedgingPolicy),
+          hedgingDelayPercentile);
     }
   }
 
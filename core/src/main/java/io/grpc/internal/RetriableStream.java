@@ -22,6 +22,9 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.io.ByteStreams;
 import io.grpc.Attributes;
 import io.grpc.ClientStreamTracer;
 import io.grpc.Compressor;
@@ -30,6 +33,7 @@ import io.grpc.DecompressorRegistry;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -80,6 +84,14 @@ abstract class RetriableStream<ReqT> implements ClientStream {
   private final long channelBufferLimit;
   @Nullable
   private final Throttle throttle;
+  @Nullable
+  private final HedgingDelayTracker hedgingDelayTracker;
+  // Measures the latency of the call, from the start of its first attempt, when the hedging delay
+  // is adaptive
+  @Nullable
+  private Stopwatch callStopwatch;
+  // Only accessed by the listener of the winning substream, or by cancel() if it committed first
+  private boolean responseLatencyRecorded;
   @GuardedBy("lock")
   private final InsightBuilder closedSubstreamsInsight = new InsightBuilder();
 
@@ -110,6 +122,22 @@ abstract class RetriableStream<ReqT> implements ClientStream {
       Executor callExecutor, ScheduledExecutorService scheduledExecutorService,
       @Nullable RetryPolicy retryPolicy, @Nullable HedgingPolicy hedgingPolicy,
       @Nullable Throttle throttle) {
+    this(
+        method, headers, channelBufferUsed, perRpcBufferLimit, channelBufferLimit, callExecutor,
+        scheduledExecutorService, retryPolicy, hedgingPolicy, throttle, null);
+  }
+
+  /**
+   * Creates a stream. If {@code hedgingDelayTracker} is not null and the hedging policy has a
+   * {@link HedgingPolicy#hedgingDelayPercentile}, the hedges are delayed by the latency percentile
+   * tracked by the tracker, bounded by the delay of the policy.
+   */
+  RetriableStream(
+      MethodDescriptor<ReqT, ?> method, Metadata headers,
+      ChannelBufferMeter channelBufferUsed, long perRpcBufferLimit, long channelBufferLimit,
+      Executor callExecutor, ScheduledExecutorService scheduledExecutorService,
+      @Nullable RetryPolicy retryPolicy, @Nullable HedgingPolicy hedgingPolicy,
+      @Nullable Throttle throttle, @Nullable HedgingDelayTracker hedgingDelayTracker) {
     this.method = method;
     this.channelBufferUsed = channelBufferUsed;
     this.perRpcBufferLimit = perRpcBufferLimit;
@@ -127,6 +155,8 @@ abstract class RetriableStream<ReqT> implements ClientStream {
         "Should not provide both retryPolicy and hedgingPolicy");
     this.isHedging = hedgingPolicy != null;
     this.throttle = throttle;
+    this.hedgingDelayTracker =
+        isHedging && hedgingPolicy.hedgingDelayPercentile > 0 ? hedgingDelayTracker : null;
   }
 
   @SuppressWarnings("GuardedBy")
@@ -220,6 +250,34 @@ abstract class RetriableStream<ReqT> implements ClientStream {
     return sub;
   }
 
+  /**
+   * Records the latency of the call once its winning attempt received the headers, or once the
+   * call closed without them, which includes the failed and timed out calls. Recording only the
+   * responses would leave the slowest calls out and lower the percentile. The calls cancelled by
+   * the application are left out, their latency says nothing of the server. Measuring from the
+   * start of the call and not of the winning attempt keeps the hedges that win from lowering the
+   * delay of the next hedges. Also counts the call as won by a hedge if the winning attempt is one.
+   */
+  private void recordResponseLatency(Substream winningSubstream, Status status) {
+    if (hedgingDelayTracker != null && !responseLatencyRecorded) {
+      responseLatencyRecorded = true;
+      if (winningSubstream.previousAttemptCount > 0) {
+        hedgingDelayTracker.recordHedgeWin();
+      }
+      if (status.getCode() != Status.Code.CANCELLED) {
+        hedgingDelayTracker.recordResponse(callStopwatch);
+      }
+    }
+  }
+
+  private long hedgingDelayNanos() {
+    if (hedgingDelayTracker == null) {
+      return hedgingPolicy.hedgingDelayNanos;
+    }
+    return hedgingDelayTracker.getDelayNanos(
+        hedgingPolicy.hedgingDelayPercentile, hedgingPolicy.hedgingDelayNanos);
+  }
+
   /**
    * Creates a new physical ClientStream that represents a retry/hedging attempt. The returned
    * Client stream is not yet started.
@@ -321,6 +379,9 @@ abstract class RetriableStream<ReqT> implements ClientStream {
       state.buffer.add(new StartEntry());
     }
 
+    if (hedgingDelayTracker != null) {
+      callStopwatch = hedgingDelayTracker.startCall();
+    }
     Substream substream = createSubstream(0);
     if (isHedging) {
       FutureCanceller scheduledHedgingRef = null;
@@ -337,7 +398,7 @@ abstract class RetriableStream<ReqT> implements ClientStream {
         scheduledHedgingRef.setFuture(
             scheduledExecutorService.schedule(
                 new HedgingRunnable(scheduledHedgingRef),
-                hedgingPolicy.hedgingDelayNanos,
+                hedgingDelayNanos(),
                 TimeUnit.NANOSECONDS));
       }
     }
@@ -424,11 +485,14 @@ abstract class RetriableStream<ReqT> implements ClientStream {
                 newSubstream.stream.cancel(Status.CANCELLED.withDescription("Unneeded hedging"));
                 return;
               }
+              if (hedgingDelayTracker != null) {
+                hedgingDelayTracker.recordHedge();
+              }
               if (future != null) {
                 future.setFuture(
                     scheduledExecutorService.schedule(
                         new HedgingRunnable(future),
-                        hedgingPolicy.hedgingDelayNanos,
+                        hedgingDelayNanos(),
                         TimeUnit.NANOSECONDS));
               }
               drain(newSubstream);
@@ -444,6 +508,9 @@ abstract class RetriableStream<ReqT> implements ClientStream {
     Runnable runnable = commit(noopSubstream);
 
     if (runnable != null) {
+      if (callStopwatch != null) {
+        recordResponseLatency(noopSubstream, reason);
+      }
       masterListener.closed(reason, new Metadata());
       runnable.run();
       return;
@@ -487,15 +554,50 @@ abstract class RetriableStream<ReqT> implements ClientStream {
     }
 
     class SendMessageEntry implements BufferEntry {
+      // An attempt is usually the only one, so the first attempt to write the message streams it
+      // directly, even when hedging. The message is only serialized when another attempt replays
+      // it, and that copy is shared by the later attempts and released with the buffer once
+      // committed. Hedges may write concurrently, hence the flag is claimed atomically.
+      final AtomicBoolean streamedDirectly = new AtomicBoolean();
+      @Nullable
+      volatile byte[] serialized;
+
       @Override
       public void runWith(Substream substream) {
-        substream.stream.writeMessage(method.streamRequest(message));
+        if (streamedDirectly.compareAndSet(false, true)) {
+          substream.stream.writeMessage(method.streamRequest(message));
+          return;
+        }
+        byte[] bytes = serialized;
+        if (bytes == null) {
+          // concurrent hedges may both serialize, which is harmless
+          bytes = serializeRequest(message);
+          serialized = bytes;
+        }
+        substream.stream.writeMessage(
+            ReadableBuffers.openStream(ReadableBuffers.wrap(bytes), true));
       }
     }
 
     delayOrExecute(new SendMessageEntry());
   }
 
+  private byte[] serializeRequest(ReqT message) {
+    try {
+      InputStream stream = method.streamRequest(message);
+      try {
+        return ByteStreams.toByteArray(stream);
+      } finally {
+        stream.close();
+      }
+    } catch (IOException e) {
+      throw Status.INTERNAL
+          .withDescription("Failed to serialize message")
+          .withCause(e)
+          .asRuntimeException();
+    }
+  }
+
   @Override
   public final void request(final int numMessages) {
     State savedState = state;
@@ -755,6 +857,7 @@ abstract class RetriableStream<ReqT> implements ClientStream {
     public void headersRead(Metadata headers) {
       commitAndRun(substream);
       if (state.winningSubstream == substream) {
+        recordResponseLatency(substream, Status.OK);
         masterListener.headersRead(headers);
         if (throttle != null) {
           throttle.onSuccess();
@@ -779,6 +882,7 @@ abstract class RetriableStream<ReqT> implements ClientStream {
       if (substream.bufferLimitExceeded) {
         commitAndRun(substream);
         if (state.winningSubstream == substream) {
+          recordResponseLatency(substream, status);
           masterListener.closed(status, trailers);
         }
         return;
@@ -884,6 +988,7 @@ abstract class RetriableStream<ReqT> implements ClientStream {
 
       commitAndRun(substream);
       if (state.winningSubstream == substream) {
+        recordResponseLatency(substream, status);
         masterListener.closed(status, trailers);
       }
     }
@@ -1274,6 +1379,102 @@ abstract class RetriableStream<ReqT> implements ClientStream {
     }
   }
 
+  /**
+   * Tracks the latency of the hedged calls of a method, from the start of the call until the
+   * response of the winning attempt or the end of the call if it failed first, to delay the hedges
+   * by a percentile of it. The latencies are counted in a {@link LogLinearHistogram}, so the
+   * percentile is approximated within 1/8, and the counts are halved periodically so that the
+   * percentile follows the latency changes. It also counts the calls, the hedges and the calls won
+   * by a hedge, whose ratios are the hedge rate and the hedge win rate. There should be a single
+   * instance for each method of a channel.
+   */
+  static final class HedgingDelayTracker {
+    // the configured delay is used until enough latencies are known
+    @VisibleForTesting
+    static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_INTERVAL = 16;
+    private static final int DECAY_INTERVAL = 1024;
+
+    private final Supplier<Stopwatch> stopwatchSupplier;
+    private final LogLinearHistogram latencyMicros = new LogLinearHistogram(1);
+    private final AtomicLong samples = new AtomicLong();
+    private final LongCounter calls = LongCounterFactory.create();
+    private final LongCounter hedges = LongCounterFactory.create();
+    private final LongCounter hedgeWins = LongCounterFactory.create();
+    private volatile Estimate estimate = new Estimate(0, 0, 0);
+
+    HedgingDelayTracker(Supplier<Stopwatch> stopwatchSupplier) {
+      this.stopwatchSupplier = checkNotNull(stopwatchSupplier, "stopwatchSupplier");
+    }
+
+    Stopwatch startCall() {
+      calls.add(1);
+      return stopwatchSupplier.get().start();
+    }
+
+    void recordHedge() {
+      hedges.add(1);
+    }
+
+    /** Records a call whose winning attempt was a hedge and not the first attempt. */
+    void recordHedgeWin() {
+      hedgeWins.add(1);
+    }
+
+    void recordResponse(Stopwatch callStopwatch) {
+      latencyMicros.record(callStopwatch.elapsed(TimeUnit.MICROSECONDS));
+      if (samples.incrementAndGet() % DECAY_INTERVAL == 0) {
+        latencyMicros.decay();
+      }
+    }
+
+    /** Returns the number of hedged calls started. */
+    long getCallCount() {
+      return calls.value();
+    }
+
+    /** Returns the number of hedges sent, not counting the first attempt of each call. */
+    long getHedgeCount() {
+      return hedges.value();
+    }
+
+    /** Returns the number of calls whose winning attempt was a hedge. */
+    long getHedgeWinCount() {
+      return hedgeWins.value();
+    }
+
+    /**
+     * Returns the delay of the next hedge, the {@code percentile} of the tracked latencies bounded
+     * by {@code maxDelayNanos}.
+     */
+    long getDelayNanos(double percentile, long maxDelayNanos) {
+      long count = samples.get();
+      if (count < MIN_SAMPLES) {
+        return maxDelayNanos;
+      }
+      Estimate current = estimate;
+      if (current.percentile != percentile || count - current.samples >= RECOMPUTE_INTERVAL) {
+        long micros = LogLinearHistogram.getValueAtQuantile(
+            latencyMicros.getBucketCounts(), percentile / 100);
+        current = new Estimate(percentile, count, TimeUnit.MICROSECONDS.toNanos(micros));
+        estimate = current;
+      }
+      return Math.min(current.delayNanos, maxDelayNanos);
+    }
+
+    private static final class Estimate {
+      final double percentile;
+      final long samples;
+      final long delayNanos;
+
+      Estimate(double percentile, long samples, long delayNanos) {
+        this.percentile = percentile;
+        this.samples = samples;
+        this.delayNanos = delayNanos;
+      }
+    }
+  }
+
   /**
    * Used for retry throttling.
    */
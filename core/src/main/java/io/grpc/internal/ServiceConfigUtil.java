@@ -193,6 +193,11 @@ public final class ServiceConfigUtil {
     return JsonUtil.getStringAsDuration(hedgingPolicy, "hedgingDelay");
   }
 
+  @Nullable
+  static Double getHedgingDelayPercentileFromHedgingPolicy(Map<String, ?> hedgingPolicy) {
+    return JsonUtil.getNumber(hedgingPolicy, "hedgingDelayPercentile");
+  }
+
   static Set<Status.Code> getNonFatalStatusCodesFromHedgingPolicy(Map<String, ?> hedgingPolicy) {
     String nonFatalStatusCodesKey = "nonFatalStatusCodes";
     Set<Status.Code> codes = getListOfStatusCodesAsSet(hedgingPolicy, nonFatalStatusCodesKey);
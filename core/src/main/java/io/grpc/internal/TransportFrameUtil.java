@@ -42,7 +42,8 @@ public final class TransportFrameUtil {
 
   /**
    * Transform the given headers to a format where only spec-compliant ASCII characters are allowed.
-   * Binary header values are encoded by Base64 in the result.  It is safe to modify the returned
+   * Binary header values are encoded by Base64 in the result, except the values merged from a
+   * {@link io.grpc.PreEncodedMetadata} which are used as is.  It is safe to modify the returned
    * array, but not to modify any of the underlying byte arrays.
    *
    * @return the interleaved keys and values.
@@ -57,7 +58,13 @@ public final class TransportFrameUtil {
     for (int i = 0; i < serializedHeaders.length; i += 2) {
       byte[] key = serializedHeaders[i];
       byte[] value = serializedHeaders[i + 1];
-      if (endsWith(key, binaryHeaderSuffixBytes)) {
+      byte[] preEncodedValue = InternalMetadata.preEncodedHttp2Value(headers, i / 2);
+      if (preEncodedValue != null) {
+        // Already encoded and validated by PreEncodedMetadata.
+        serializedHeaders[k] = key;
+        serializedHeaders[k + 1] = preEncodedValue;
+        k += 2;
+      } else if (endsWith(key, binaryHeaderSuffixBytes)) {
         // Binary header.
         serializedHeaders[k] = key;
         serializedHeaders[k + 1]
@@ -17,11 +17,17 @@
 package io.grpc.inprocess;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
 
+import io.grpc.Attributes;
 import io.grpc.CallOptions;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.Server;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
@@ -30,13 +36,32 @@ import io.grpc.ServerStreamTracer;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.internal.AbstractTransportTest;
+import io.grpc.internal.ClientStream;
+import io.grpc.internal.ClientStreamListener;
+import io.grpc.internal.FixedObjectPool;
 import io.grpc.internal.GrpcUtil;
 import io.grpc.internal.InternalServer;
 import io.grpc.internal.ManagedClientTransport;
+import io.grpc.internal.ServerListener;
+import io.grpc.internal.ServerStream;
+import io.grpc.internal.ServerStreamListener;
+import io.grpc.internal.ServerTransport;
+import io.grpc.internal.ServerTransportListener;
 import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
 import io.grpc.testing.TestMethodDescriptors;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -131,4 +156,168 @@ public class InProcessTransportTest extends AbstractTransportTest {
       assertEquals(s.getCause(), e.getCause());
     }
   }
+
+  @Test
+  public void messagesPassedByReference() throws Exception {
+    server = null;
+    String serverName = "server_by_reference";
+    MethodDescriptor<Object, Object> method = MethodDescriptor.<Object, Object>newBuilder()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName("service_foo/method")
+        .setRequestMarshaller(new ReferenceMarshaller())
+        .setResponseMarshaller(new ReferenceMarshaller())
+        .build();
+    ServerServiceDefinition definition = ServerServiceDefinition.builder("service_foo")
+        .addMethod(method, ServerCalls.asyncUnaryCall(
+            new ServerCalls.UnaryMethod<Object, Object>() {
+              @Override
+              public void invoke(Object request, StreamObserver<Object> responseObserver) {
+                responseObserver.onNext(request);
+                responseObserver.onCompleted();
+              }
+            }))
+        .build();
+    Server echoServer = InProcessServerBuilder
+        .forName(serverName)
+        .addService(definition)
+        .directExecutor()
+        .build()
+        .start();
+    grpcCleanupRule.register(echoServer);
+    ManagedChannel channel = InProcessChannelBuilder.forName(serverName).build();
+    grpcCleanupRule.register(channel);
+
+    Object request = new Object();
+    assertSame(
+        request, ClientCalls.blockingUnaryCall(channel, method, CallOptions.DEFAULT, request));
+  }
+
+  @Test
+  public void shutdownNowWhileServerCreatesStream_cancellationDelivered() throws Exception {
+    server = null;
+    String serverName = "server_shutdown_now";
+    final AtomicReference<InProcessTransport> transportRef = new AtomicReference<>();
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    ServerServiceDefinition definition = ServerServiceDefinition.builder("service_foo")
+        .addMethod(TestMethodDescriptors.voidMethod(), new ServerCallHandler<Void, Void>() {
+          @Override
+          public ServerCall.Listener<Void> startCall(
+              ServerCall<Void, Void> call, Metadata headers) {
+            return new ServerCall.Listener<Void>() {
+              @Override
+              public void onCancel() {
+                cancelled.countDown();
+              }
+            };
+          }
+        })
+        .build();
+    // Forces shutdownNow() to run in the middle of streamCreated(), before the server set its
+    // listener, which is the window a concurrent shutdownNow() may hit.
+    ServerStreamTracer.Factory shutdownNowTracerFactory = new ServerStreamTracer.Factory() {
+      @Override
+      public ServerStreamTracer newServerStreamTracer(String fullMethodName, Metadata headers) {
+        return new ServerStreamTracer() {
+          @Override
+          public Context filterContext(Context context) {
+            transportRef.get().shutdownNow(Status.UNAVAILABLE.withDescription("shutdownNow"));
+            return context;
+          }
+        };
+      }
+    };
+    Server shutdownNowServer = InProcessServerBuilder
+        .forName(serverName)
+        .addService(definition)
+        .addStreamTracerFactory(shutdownNowTracerFactory)
+        .directExecutor()
+        .build()
+        .start();
+    grpcCleanupRule.register(shutdownNowServer);
+    InProcessTransport transport = new InProcessTransport(
+        serverName, GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE, AUTHORITY, USER_AGENT,
+        Attributes.EMPTY, false);
+    transportRef.set(transport);
+    Runnable start = transport.start(mock(ManagedClientTransport.Listener.class));
+    if (start != null) {
+      start.run();
+    }
+
+    ClientStream stream = transport.newStream(
+        TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT);
+    stream.start(mock(ClientStreamListener.class));
+
+    assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shutdownNowWhileServerCreatesStream_terminatedAfterStreamCreated() {
+    final AtomicReference<InProcessTransport> transportRef = new AtomicReference<>();
+    final List<String> events = new ArrayList<>();
+    ServerListener serverListener = new ServerListener() {
+      @Override
+      public ServerTransportListener transportCreated(ServerTransport transport) {
+        return new ServerTransportListener() {
+          @Override
+          public void streamCreated(ServerStream stream, String method, Metadata headers) {
+            stream.setListener(mock(ServerStreamListener.class));
+            transportRef.get().shutdownNow(Status.UNAVAILABLE.withDescription("shutdownNow"));
+            events.add("streamCreated");
+          }
+
+          @Override
+          public Attributes transportReady(Attributes attributes) {
+            return attributes;
+          }
+
+          @Override
+          public void transportTerminated() {
+            events.add("transportTerminated");
+          }
+        };
+      }
+
+      @Override
+      public void serverShutdown() {}
+    };
+    InProcessTransport transport = new InProcessTransport(
+        "server_terminated", GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE, AUTHORITY, USER_AGENT,
+        Attributes.EMPTY,
+        new FixedObjectPool<>(mock(ScheduledExecutorService.class)),
+        Collections.<ServerStreamTracer.Factory>emptyList(),
+        serverListener);
+    transportRef.set(transport);
+    Runnable start = transport.start(mock(ManagedClientTransport.Listener.class));
+    if (start != null) {
+      start.run();
+    }
+
+    ClientStream stream = transport.newStream(
+        TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT);
+    stream.start(mock(ClientStreamListener.class));
+
+    assertEquals(Arrays.asList("streamCreated", "transportTerminated"), events);
+  }
+
+  /** Hands messages over by reference, fails if they are actually serialized. */
+  private static final class ReferenceMarshaller implements MethodDescriptor.Marshaller<Object> {
+    @Override
+    public InputStream stream(Object value) {
+      return new ReferenceInputStream(value);
+    }
+
+    @Override
+    public Object parse(InputStream stream) {
+      return ((ReferenceInputStream) stream).value;
+    }
+  }
+
+  private static final class ReferenceInputStream extends ByteArrayInputStream {
+    final Object value;
+
+    ReferenceInputStream(Object value) {
+      super(new byte[0]);
+      this.value = value;
+    }
+  }
 }
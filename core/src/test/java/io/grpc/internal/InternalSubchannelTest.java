@@ -41,17 +41,21 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Iterables;
 import io.grpc.Attributes;
+import io.grpc.CallOptions;
 import io.grpc.ConnectivityStateInfo;
 import io.grpc.EquivalentAddressGroup;
 import io.grpc.InternalChannelz;
 import io.grpc.InternalLogId;
 import io.grpc.InternalWithLogId;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.SynchronizationContext;
 import io.grpc.internal.InternalSubchannel.CallTracingTransport;
 import io.grpc.internal.InternalSubchannel.Index;
 import io.grpc.internal.InternalSubchannel.TransportLogger;
 import io.grpc.internal.TestUtils.MockClientTransportInfo;
+import io.grpc.testing.TestMethodDescriptors;
 import java.net.SocketAddress;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -139,6 +143,9 @@ public class InternalSubchannelTest {
 
   private InternalSubchannel internalSubchannel;
   private BlockingQueue<MockClientTransportInfo> transports;
+  private int maxConnections = 1;
+  private int streamsPerConnection = Integer.MAX_VALUE;
+  private int warmConnections = 1;
 
   @Before public void setUp() {
     when(mockBackoffPolicyProvider.get())
@@ -920,6 +927,184 @@ public class InternalSubchannelTest {
     verify(transportInfo.transport, never()).shutdownNow(any(Status.class));
   }
 
+  @Test
+  public void extraConnections_openedWhenStreamsReachThreshold() {
+    maxConnections = 2;
+    streamsPerConnection = 1;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+    startStream(internalSubchannel.obtainActiveTransport());
+    verify(t0.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    assertNull(transports.poll());
+
+    // t0 reached the threshold
+    startStream(internalSubchannel.obtainActiveTransport());
+    verify(t0.transport, times(2)).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    MockClientTransportInfo t1 = transports.poll();
+    assertNotNull(t1);
+    t1.listener.transportReady();
+    assertNoCallbackInvoke();
+
+    // Streams go to the least loaded connection, and no more connections are opened
+    startStream(internalSubchannel.obtainActiveTransport());
+    verify(t1.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    startStream(internalSubchannel.obtainActiveTransport());
+    startStream(internalSubchannel.obtainActiveTransport());
+    assertNull(transports.poll());
+
+    internalSubchannel.shutdown(SHUTDOWN_REASON);
+    verify(t0.transport).shutdown(same(SHUTDOWN_REASON));
+    verify(t1.transport).shutdown(same(SHUTDOWN_REASON));
+    assertExactCallbackInvokes("onStateChange:SHUTDOWN");
+  }
+
+  @Test
+  public void extraConnections_takeOverWhenActiveTransportShutsDown() {
+    maxConnections = 2;
+    streamsPerConnection = 1;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    startStream(internalSubchannel.obtainActiveTransport());
+    startStream(internalSubchannel.obtainActiveTransport());
+    MockClientTransportInfo t1 = transports.poll();
+    t1.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNoCallbackInvoke();
+    startStream(internalSubchannel.obtainActiveTransport());
+    verify(t1.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    assertExactCallbackInvokes("onStateChange:IDLE");
+  }
+
+  @Test
+  public void extraConnections_pendingOneClosedWhenActiveTransportShutsDown() {
+    maxConnections = 2;
+    streamsPerConnection = 1;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    startStream(internalSubchannel.obtainActiveTransport());
+    startStream(internalSubchannel.obtainActiveTransport());
+    MockClientTransportInfo t1 = transports.poll();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    assertExactCallbackInvokes("onStateChange:IDLE");
+    verify(t1.transport).shutdown(same(Status.UNAVAILABLE));
+  }
+
+  @Test
+  public void warmConnections_openedWhenReady() {
+    maxConnections = 3;
+    warmConnections = 3;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    assertNull(transports.poll());
+    t0.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+
+    // Opened without waiting for streams
+    MockClientTransportInfo t1 = transports.poll();
+    MockClientTransportInfo t2 = transports.poll();
+    assertNotNull(t1);
+    assertNotNull(t2);
+    assertNull(transports.poll());
+    t1.listener.transportReady();
+    t2.listener.transportReady();
+    assertNoCallbackInvoke();
+
+    // Streams are spread across them
+    startStream(internalSubchannel.obtainActiveTransport());
+    startStream(internalSubchannel.obtainActiveTransport());
+    startStream(internalSubchannel.obtainActiveTransport());
+    verify(t0.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    verify(t1.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    verify(t2.transport).newStream(
+        any(MethodDescriptor.class), any(Metadata.class), any(CallOptions.class));
+    assertNull(transports.poll());
+  }
+
+  @Test
+  public void warmConnections_lostOnesReplacedAfterBackoff() {
+    maxConnections = 2;
+    warmConnections = 2;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    MockClientTransportInfo t1 = transports.poll();
+    t1.listener.transportReady();
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    assertNull(transports.poll());
+    fakeClock.forwardNanos(9);
+    assertNull(transports.poll());
+    fakeClock.forwardNanos(1);
+    MockClientTransportInfo t2 = transports.poll();
+    assertNotNull(t2);
+
+    // Failing to connect backs off further
+    t2.listener.transportShutdown(Status.UNAVAILABLE);
+    fakeClock.forwardNanos(99);
+    assertNull(transports.poll());
+    fakeClock.forwardNanos(1);
+    MockClientTransportInfo t3 = transports.poll();
+    assertNotNull(t3);
+    t3.listener.transportReady();
+    assertNoCallbackInvoke();
+    verify(mockBackoffPolicyProvider).get();
+  }
+
+  @Test
+  public void warmConnections_notReplacedOnceIdle() {
+    maxConnections = 2;
+    warmConnections = 2;
+    SocketAddress addr = mock(SocketAddress.class);
+    createInternalSubchannel(addr);
+
+    internalSubchannel.obtainActiveTransport();
+    MockClientTransportInfo t0 = transports.poll();
+    t0.listener.transportReady();
+    MockClientTransportInfo t1 = transports.poll();
+    t1.listener.transportReady();
+    t1.listener.transportShutdown(Status.UNAVAILABLE);
+    assertExactCallbackInvokes("onStateChange:CONNECTING", "onStateChange:READY");
+    assertEquals(1, fakeClock.numPendingTasks());
+
+    t0.listener.transportShutdown(Status.UNAVAILABLE);
+    assertExactCallbackInvokes("onStateChange:IDLE");
+    assertEquals(0, fakeClock.numPendingTasks());
+    fakeClock.forwardTime(1, TimeUnit.MINUTES);
+    assertNull(transports.poll());
+  }
+
   @Test
   public void shutdownBeforeTransportCreated() throws Exception {
     SocketAddress addr = mock(SocketAddress.class);
@@ -1338,6 +1523,12 @@ public class InternalSubchannelTest {
     assertThat(index.getCurrentAddress()).isSameInstanceAs(addr2);
   }
 
+  private static void startStream(ClientTransport transport) {
+    transport
+        .newStream(TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT)
+        .start(mock(ClientStreamListener.class));
+  }
+
   /** Create ClientTransportOptions. Should not be reused if it may be mutated. */
   private ClientTransportFactory.ClientTransportOptions createClientTransportOptions() {
     return new ClientTransportFactory.ClientTransportOptions()
@@ -1360,7 +1551,10 @@ public class InternalSubchannelTest {
         channelz, CallTracer.getDefaultFactory().create(),
         subchannelTracer,
         logId,
-        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()));
+        new ChannelLoggerImpl(subchannelTracer, fakeClock.getTimeProvider()),
+        maxConnections,
+        streamsPerConnection,
+        warmConnections);
   }
 
   private void assertNoCallbackInvoke() {
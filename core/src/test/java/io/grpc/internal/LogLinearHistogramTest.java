@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link LogLinearHistogram}. */
+@RunWith(JUnit4.class)
+public class LogLinearHistogramTest {
+
+  @Test
+  public void bucketIndex_smallValuesAreExact() {
+    for (int i = 0; i < LogLinearHistogram.SUB_BUCKET_COUNT; i++) {
+      assertThat(LogLinearHistogram.bucketIndex(i)).isEqualTo(i);
+      assertThat(LogLinearHistogram.bucketLowerBound(i)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void bucketIndex_boundsContainValue() {
+    for (long value = 0; value < 1_000_000; value = value * 3 / 2 + 1) {
+      int index = LogLinearHistogram.bucketIndex(value);
+      assertThat(LogLinearHistogram.bucketLowerBound(index)).isAtMost(value);
+      assertThat(LogLinearHistogram.bucketUpperBound(index)).isGreaterThan(value);
+    }
+  }
+
+  @Test
+  public void bucketIndex_relativeErrorBounded() {
+    for (int index = LogLinearHistogram.SUB_BUCKET_COUNT;
+        index < LogLinearHistogram.BUCKET_COUNT - 1;
+        index++) {
+      long lower = LogLinearHistogram.bucketLowerBound(index);
+      long upper = LogLinearHistogram.bucketUpperBound(index);
+      assertThat((double) (upper - lower) / lower)
+          .isAtMost(1.0 / LogLinearHistogram.SUB_BUCKET_COUNT);
+      assertThat(LogLinearHistogram.bucketIndex(lower)).isEqualTo(index);
+      assertThat(LogLinearHistogram.bucketIndex(upper - 1)).isEqualTo(index);
+    }
+  }
+
+  @Test
+  public void bucketIndex_hugeValuesInLastBucket() {
+    assertThat(LogLinearHistogram.bucketIndex(Long.MAX_VALUE))
+        .isEqualTo(LogLinearHistogram.BUCKET_COUNT - 1);
+    assertThat(LogLinearHistogram.bucketUpperBound(LogLinearHistogram.BUCKET_COUNT - 1))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void counts() {
+    LogLinearHistogram histogram = new LogLinearHistogram(4);
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    histogram.record(-1);
+
+    long[] counts = histogram.getBucketCounts();
+    assertThat(count(counts)).isEqualTo(101);
+    assertThat(histogram.getSum()).isEqualTo(5050);
+    assertThat(counts[0]).isEqualTo(1);
+    assertThat(LogLinearHistogram.getValueAtQuantile(counts, 0)).isEqualTo(0);
+    long median = LogLinearHistogram.getValueAtQuantile(counts, 0.5);
+    assertThat(median).isAtLeast(50);
+    assertThat(median).isAtMost(50 + 50 / LogLinearHistogram.SUB_BUCKET_COUNT);
+    assertThat(LogLinearHistogram.getValueAtQuantile(counts, 1)).isAtLeast(100);
+  }
+
+  @Test
+  public void getValueAtQuantile_noValue() {
+    long[] counts = new long[LogLinearHistogram.BUCKET_COUNT];
+    assertThat(LogLinearHistogram.getValueAtQuantile(counts, 0.5)).isEqualTo(0);
+  }
+
+  @Test
+  public void decay() {
+    LogLinearHistogram histogram = new LogLinearHistogram(1);
+    for (int i = 0; i < 4; i++) {
+      histogram.record(10);
+    }
+    histogram.record(1000);
+
+    histogram.decay();
+
+    long[] counts = histogram.getBucketCounts();
+    assertThat(counts[LogLinearHistogram.bucketIndex(10)]).isEqualTo(2);
+    assertThat(counts[LogLinearHistogram.bucketIndex(1000)]).isEqualTo(0);
+    assertThat(histogram.getSum()).isEqualTo(520);
+  }
+
+  @Test
+  public void concurrentRecords() throws Exception {
+    final LogLinearHistogram histogram = new LogLinearHistogram(2);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10_000; i++) {
+            histogram.record(i);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(count(histogram.getBucketCounts())).isEqualTo(40_000);
+    assertThat(histogram.getSum()).isEqualTo(4L * 10_000 * 9_999 / 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void stripesMustBePowerOfTwo() {
+    new LogLinearHistogram(3);
+  }
+
+  private static long count(long[] bucketCounts) {
+    long count = 0;
+    for (long bucketCount : bucketCounts) {
+      count += bucketCount;
+    }
+    return count;
+  }
+}
@@ -506,6 +506,22 @@ public class ManagedChannelImplBuilderTest {
     assertEquals(3456L, builder.perRpcBufferLimit);
   }
 
+  @Test
+  public void maxConnectionsPerSubchannel() {
+    assertEquals(1, builder.maxConnectionsPerSubchannel);
+    assertEquals(Integer.MAX_VALUE, builder.streamsPerConnection);
+
+    builder.maxConnectionsPerSubchannel(4, 100);
+    assertEquals(4, builder.maxConnectionsPerSubchannel);
+    assertEquals(100, builder.streamsPerConnection);
+  }
+
+  @Test
+  public void maxConnectionsPerSubchannelInvalidArg() {
+    thrown.expect(IllegalArgumentException.class);
+    builder.maxConnectionsPerSubchannel(0, 100);
+  }
+
   @Test
   public void retryBufferSizeInvalidArg() {
     thrown.expect(IllegalArgumentException.class);
@@ -2898,6 +2898,141 @@ public class ManagedChannelImplTest {
     assertEquals(initialRefreshCount + 1, resolver.refreshCalled);
   }
 
+  @Test
+  public void warmUp_connectsSubchannelsAndRunsCallbackWhenReady() {
+    final AtomicBoolean warm = new AtomicBoolean();
+    Runnable onWarm = new Runnable() {
+      @Override
+      public void run() {
+        warm.set(true);
+      }
+    };
+    requestConnection = false;
+    createChannel();
+    verify(mockLoadBalancerProvider, never()).newLoadBalancer(any(Helper.class));
+
+    channel.warmUp(onWarm);
+    ArgumentCaptor<Helper> helperCaptor = ArgumentCaptor.forClass(null);
+    verify(mockLoadBalancerProvider).newLoadBalancer(helperCaptor.capture());
+    helper = helperCaptor.getValue();
+    verify(mockLoadBalancer).requestConnection();
+
+    // Subchannels connect without being asked to while the warmup is pending
+    createSubchannelSafely(helper, addressGroup, Attributes.EMPTY, subchannelStateListener);
+    verify(mockTransportFactory)
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+
+    updateBalancingStateSafely(helper, CONNECTING, mockPicker);
+    executor.runDueTasks();
+    assertFalse(warm.get());
+
+    transports.poll().listener.transportReady();
+    updateBalancingStateSafely(helper, READY, mockPicker);
+    executor.runDueTasks();
+    assertTrue(warm.get());
+
+    // Once warm, subchannels connect when asked to again
+    createSubchannelSafely(helper, addressGroup, Attributes.EMPTY, subchannelStateListener);
+    verify(mockTransportFactory)
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+  }
+
+  @Test
+  public void warmUp_runsCallbackOnShutdown() {
+    final AtomicBoolean warm = new AtomicBoolean();
+    Runnable onWarm = new Runnable() {
+      @Override
+      public void run() {
+        warm.set(true);
+      }
+    };
+    createChannel();
+
+    channel.warmUp(onWarm);
+    executor.runDueTasks();
+    assertFalse(warm.get());
+
+    channel.shutdown();
+    executor.runDueTasks();
+    assertTrue(warm.get());
+  }
+
+  @Test
+  public void keepConnectionsWarm_reconnectsIdleSubchannel() {
+    channelBuilder.keepConnectionsWarm(true);
+    createChannel();
+
+    createSubchannelSafely(helper, addressGroup, Attributes.EMPTY, subchannelStateListener);
+    verify(mockTransportFactory)
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+    MockClientTransportInfo transportInfo = transports.poll();
+    transportInfo.listener.transportReady();
+    timer.forwardTime(ManagedChannelImpl.WARM_CONNECTION_STABLE_SECONDS, TimeUnit.SECONDS);
+
+    // The server closes the unused connection
+    transportInfo.listener.transportShutdown(Status.UNAVAILABLE);
+    transportInfo.listener.transportTerminated();
+
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+  }
+
+  @Test
+  public void keepConnectionsWarm_backsOffWhenConnectionClosedSoon() {
+    channelBuilder.keepConnectionsWarm(true);
+    createChannel();
+
+    createSubchannelSafely(helper, addressGroup, Attributes.EMPTY, subchannelStateListener);
+    MockClientTransportInfo transportInfo = transports.poll();
+    transportInfo.listener.transportReady();
+
+    // The server closes each connection as soon as it is made
+    transportInfo.listener.transportShutdown(Status.UNAVAILABLE);
+    transportInfo.listener.transportTerminated();
+    timer.forwardNanos(RECONNECT_BACKOFF_INTERVAL_NANOS - 1);
+    verify(mockTransportFactory, times(1))
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+    timer.forwardNanos(1);
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+
+    transportInfo = transports.poll();
+    transportInfo.listener.transportReady();
+    transportInfo.listener.transportShutdown(Status.UNAVAILABLE);
+    transportInfo.listener.transportTerminated();
+    timer.forwardNanos(RECONNECT_BACKOFF_INTERVAL_NANOS * 2 - 1);
+    verify(mockTransportFactory, times(2))
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+    timer.forwardNanos(1);
+    verify(mockTransportFactory, times(3))
+        .newClientTransport(
+            any(SocketAddress.class), any(ClientTransportOptions.class), any(ChannelLogger.class));
+  }
+
+  @Test
+  public void keepConnectionsWarm_disablesIdleTimeout() {
+    channelBuilder.idleTimeout(2, TimeUnit.SECONDS);
+    channelBuilder.keepConnectionsWarm(true);
+    requestConnection = false;
+    createChannel();
+
+    channel.getState(true);
+    ArgumentCaptor<Helper> helperCaptor = ArgumentCaptor.forClass(null);
+    verify(mockLoadBalancerProvider).newLoadBalancer(helperCaptor.capture());
+    helper = helperCaptor.getValue();
+    updateBalancingStateSafely(helper, READY, mockPicker);
+
+    assertEquals(0, timer.numPendingTasks());
+    assertEquals(READY, channel.getState(false));
+  }
+
   @Test
   public void resetConnectBackoff() {
     // Start with a name resolution failure to trigger backoff attempts
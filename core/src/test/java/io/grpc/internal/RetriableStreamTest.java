@@ -35,13 +35,17 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.grpc.ClientStreamTracer;
 import io.grpc.Codec;
@@ -54,6 +58,7 @@ import io.grpc.Status;
 import io.grpc.Status.Code;
 import io.grpc.StringMarshaller;
 import io.grpc.internal.RetriableStream.ChannelBufferMeter;
+import io.grpc.internal.RetriableStream.HedgingDelayTracker;
 import io.grpc.internal.RetriableStream.Throttle;
 import io.grpc.internal.StreamListener.MessageProducer;
 import java.io.InputStream;
@@ -147,12 +152,30 @@ public class RetriableStreamTest {
         @Nullable RetryPolicy retryPolicy,
         @Nullable HedgingPolicy hedgingPolicy,
         @Nullable Throttle throttle) {
+      this(
+          method, headers, channelBufferUsed, perRpcBufferLimit, channelBufferLimit, callExecutor,
+          scheduledExecutorService,
+          retryPolicy,
+          hedgingPolicy,
+          throttle,
+          null);
+    }
+
+    RecordedRetriableStream(MethodDescriptor<String, ?> method, Metadata headers,
+        ChannelBufferMeter channelBufferUsed, long perRpcBufferLimit, long channelBufferLimit,
+        Executor callExecutor,
+        ScheduledExecutorService scheduledExecutorService,
+        @Nullable RetryPolicy retryPolicy,
+        @Nullable HedgingPolicy hedgingPolicy,
+        @Nullable Throttle throttle,
+        @Nullable HedgingDelayTracker hedgingDelayTracker) {
       super(
           method, headers, channelBufferUsed, perRpcBufferLimit, channelBufferLimit, callExecutor,
           scheduledExecutorService,
           retryPolicy,
           hedgingPolicy,
-          throttle);
+          throttle,
+          hedgingDelayTracker);
     }
 
     @Override
@@ -1254,6 +1277,152 @@ public class RetriableStreamTest {
     assertFalse(throttle.isAboveThreshold());
   }
 
+  @Test
+  public void hedgingDelayTracker() {
+    HedgingDelayTracker tracker = new HedgingDelayTracker(fakeClock.getStopwatchSupplier());
+    long maxDelayNanos = TimeUnit.SECONDS.toNanos(10);
+    for (int i = 0; i < HedgingDelayTracker.MIN_SAMPLES - 1; i++) {
+      recordLatency(tracker, 10);
+    }
+    // not enough samples
+    assertEquals(maxDelayNanos, tracker.getDelayNanos(95, maxDelayNanos));
+
+    recordLatency(tracker, 2000);
+    long p95 = tracker.getDelayNanos(95, maxDelayNanos);
+    assertThat(p95).isAtLeast(TimeUnit.MILLISECONDS.toNanos(10));
+    assertThat(p95).isAtMost(TimeUnit.MILLISECONDS.toNanos(10) * 9 / 8);
+    long p99 = tracker.getDelayNanos(99, maxDelayNanos);
+    assertThat(p99).isAtLeast(TimeUnit.MILLISECONDS.toNanos(2000));
+    assertThat(p99).isAtMost(TimeUnit.MILLISECONDS.toNanos(2000) * 9 / 8);
+    // bounded by the configured delay
+    assertEquals(
+        TimeUnit.SECONDS.toNanos(1), tracker.getDelayNanos(99, TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  private void recordLatency(HedgingDelayTracker tracker, long millis) {
+    Stopwatch stopwatch = tracker.startCall();
+    fakeClock.forwardTime(millis, TimeUnit.MILLISECONDS);
+    tracker.recordResponse(stopwatch);
+  }
+
+  @Test
+  public void hedging_adaptiveDelay() {
+    HedgingDelayTracker tracker = new HedgingDelayTracker(fakeClock.getStopwatchSupplier());
+    for (int i = 0; i < HedgingDelayTracker.MIN_SAMPLES; i++) {
+      recordLatency(tracker, 1000);
+    }
+    HedgingPolicy adaptivePolicy = new HedgingPolicy(
+        MAX_ATTEMPTS,
+        TimeUnit.SECONDS.toNanos(HEDGING_DELAY_IN_SECONDS),
+        ImmutableSet.of(NON_FATAL_STATUS_CODE_1, NON_FATAL_STATUS_CODE_2),
+        95);
+    RetriableStream<String> hedgingStream = new RecordedRetriableStream(
+        method, new Metadata(), channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), null,
+        adaptivePolicy, null, tracker);
+    ClientStream mockStream1 = mock(ClientStream.class);
+    ClientStream mockStream2 = mock(ClientStream.class);
+    doReturn(mockStream1).when(retriableStreamRecorder).newSubstream(0);
+    doReturn(mockStream2).when(retriableStreamRecorder).newSubstream(1);
+
+    hedgingStream.start(masterListener);
+
+    // hedged at the 95th percentile, about 1s, instead of the configured delay
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    verify(retriableStreamRecorder, never()).newSubstream(1);
+    fakeClock.forwardTime(200, TimeUnit.MILLISECONDS);
+    verify(retriableStreamRecorder).newSubstream(1);
+
+    // the hedge wins
+    ArgumentCaptor<ClientStreamListener> sublistenerCaptor2 =
+        ArgumentCaptor.forClass(ClientStreamListener.class);
+    verify(mockStream2).start(sublistenerCaptor2.capture());
+    sublistenerCaptor2.getValue().headersRead(new Metadata());
+    verify(masterListener).headersRead(any(Metadata.class));
+    verify(mockStream1).cancel(any(Status.class));
+    // the latency of the call is recorded, not the one of the winning hedge
+    assertThat(tracker.getDelayNanos(1, TimeUnit.SECONDS.toNanos(10)))
+        .isAtLeast(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertEquals(HedgingDelayTracker.MIN_SAMPLES + 1, tracker.getCallCount());
+    assertEquals(1, tracker.getHedgeCount());
+    assertEquals(1, tracker.getHedgeWinCount());
+
+    hedgingStream.cancel(Status.CANCELLED);
+  }
+
+  @Test
+  public void hedging_adaptiveDelay_trailersOnlyResponseRecorded() {
+    HedgingDelayTracker tracker = new HedgingDelayTracker(fakeClock.getStopwatchSupplier());
+    for (int i = 0; i < HedgingDelayTracker.MIN_SAMPLES - 1; i++) {
+      recordLatency(tracker, 1000);
+    }
+    HedgingPolicy adaptivePolicy = new HedgingPolicy(
+        MAX_ATTEMPTS,
+        TimeUnit.SECONDS.toNanos(HEDGING_DELAY_IN_SECONDS),
+        ImmutableSet.of(NON_FATAL_STATUS_CODE_1, NON_FATAL_STATUS_CODE_2),
+        95);
+    RetriableStream<String> hedgingStream = new RecordedRetriableStream(
+        method, new Metadata(), channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), null,
+        adaptivePolicy, null, tracker);
+    ClientStream mockStream1 = mock(ClientStream.class);
+    doReturn(mockStream1).when(retriableStreamRecorder).newSubstream(0);
+    long maxDelayNanos = TimeUnit.SECONDS.toNanos(10);
+    assertEquals(maxDelayNanos, tracker.getDelayNanos(95, maxDelayNanos));
+
+    hedgingStream.start(masterListener);
+    ArgumentCaptor<ClientStreamListener> sublistenerCaptor1 =
+        ArgumentCaptor.forClass(ClientStreamListener.class);
+    verify(mockStream1).start(sublistenerCaptor1.capture());
+    fakeClock.forwardTime(500, TimeUnit.MILLISECONDS);
+    sublistenerCaptor1.getValue().closed(Status.fromCode(FATAL_STATUS_CODE), new Metadata());
+
+    verify(masterListener).closed(any(Status.class), any(Metadata.class));
+    // enough samples now
+    long p1 = tracker.getDelayNanos(1, maxDelayNanos);
+    assertThat(p1).isAtLeast(TimeUnit.MILLISECONDS.toNanos(500));
+    assertThat(p1).isLessThan(TimeUnit.MILLISECONDS.toNanos(1000));
+  }
+
+  @Test
+  public void hedging_adaptiveDelay_timedOutCallRecorded() {
+    HedgingDelayTracker tracker = new HedgingDelayTracker(fakeClock.getStopwatchSupplier());
+    for (int i = 0; i < HedgingDelayTracker.MIN_SAMPLES - 1; i++) {
+      recordLatency(tracker, 100);
+    }
+    HedgingPolicy adaptivePolicy = new HedgingPolicy(
+        MAX_ATTEMPTS,
+        TimeUnit.SECONDS.toNanos(HEDGING_DELAY_IN_SECONDS),
+        ImmutableSet.of(NON_FATAL_STATUS_CODE_1, NON_FATAL_STATUS_CODE_2),
+        99);
+    long maxDelayNanos = TimeUnit.SECONDS.toNanos(10);
+
+    // cancelled by the application, not recorded
+    RetriableStream<String> cancelledStream = new RecordedRetriableStream(
+        method, new Metadata(), channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), null,
+        adaptivePolicy, null, tracker);
+    doReturn(mock(ClientStream.class)).when(retriableStreamRecorder).newSubstream(anyInt());
+    cancelledStream.start(masterListener);
+    fakeClock.forwardTime(50, TimeUnit.MILLISECONDS);
+    cancelledStream.cancel(Status.CANCELLED);
+    assertEquals(maxDelayNanos, tracker.getDelayNanos(99, maxDelayNanos));
+
+    // timed out before any response, recorded
+    RetriableStream<String> timedOutStream = new RecordedRetriableStream(
+        method, new Metadata(), channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), null,
+        adaptivePolicy, null, tracker);
+    timedOutStream.start(masterListener);
+    fakeClock.forwardTime(2, TimeUnit.SECONDS);
+    timedOutStream.cancel(Status.DEADLINE_EXCEEDED);
+
+    long p99 = tracker.getDelayNanos(99, maxDelayNanos);
+    assertThat(p99).isAtLeast(TimeUnit.SECONDS.toNanos(2));
+    assertThat(p99).isLessThan(maxDelayNanos);
+    assertEquals(0, tracker.getHedgeWinCount());
+  }
+
   @Test
   public void throttledStream_FailWithRetriableStatusCode_WithoutPushback() {
     Throttle throttle = new Throttle(4f, 0.8f);
@@ -1825,6 +1994,85 @@ public class RetriableStreamTest {
         "[closed=[UNAVAILABLE, INTERNAL], committed=[remote_addr=2.2.2.2:81]]");
   }
 
+  @Test
+  public void retry_messageSerializedOnceForReplays() throws Exception {
+    StringMarshaller marshaller = spy(new StringMarshaller());
+    RetriableStream<String> retriableStream = new RecordedRetriableStream(
+        method.toBuilder().setRequestMarshaller(marshaller).build(), new Metadata(),
+        channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), RETRY_POLICY,
+        null, null);
+    ClientStream mockStream1 = mock(ClientStream.class);
+    ClientStream mockStream2 = mock(ClientStream.class);
+    ClientStream mockStream3 = mock(ClientStream.class);
+    doReturn(mockStream1).when(retriableStreamRecorder).newSubstream(0);
+    doReturn(mockStream2).when(retriableStreamRecorder).newSubstream(1);
+    doReturn(mockStream3).when(retriableStreamRecorder).newSubstream(2);
+
+    retriableStream.start(masterListener);
+    retriableStream.sendMessage("msg");
+    verify(marshaller).stream("msg");
+    assertEquals("msg", readWrittenMessage(mockStream1));
+
+    // two retries
+    ArgumentCaptor<ClientStreamListener> sublistenerCaptor1 =
+        ArgumentCaptor.forClass(ClientStreamListener.class);
+    verify(mockStream1).start(sublistenerCaptor1.capture());
+    sublistenerCaptor1.getValue().closed(Status.fromCode(RETRIABLE_STATUS_CODE_1), new Metadata());
+    fakeClock.forwardTime((long) (INITIAL_BACKOFF_IN_SECONDS * FAKE_RANDOM), TimeUnit.SECONDS);
+    ArgumentCaptor<ClientStreamListener> sublistenerCaptor2 =
+        ArgumentCaptor.forClass(ClientStreamListener.class);
+    verify(mockStream2).start(sublistenerCaptor2.capture());
+    sublistenerCaptor2.getValue().closed(Status.fromCode(RETRIABLE_STATUS_CODE_1), new Metadata());
+    fakeClock.forwardTime(
+        (long) (INITIAL_BACKOFF_IN_SECONDS * BACKOFF_MULTIPLIER * FAKE_RANDOM), TimeUnit.SECONDS);
+
+    assertEquals("msg", readWrittenMessage(mockStream2));
+    assertEquals("msg", readWrittenMessage(mockStream3));
+    // once for the first attempt, once for all the replays
+    verify(marshaller, times(2)).stream("msg");
+
+    retriableStream.cancel(Status.CANCELLED);
+  }
+
+  @Test
+  public void hedging_messageSerializedOnce() throws Exception {
+    StringMarshaller marshaller = spy(new StringMarshaller());
+    RetriableStream<String> hedgingStream = new RecordedRetriableStream(
+        method.toBuilder().setRequestMarshaller(marshaller).build(), new Metadata(),
+        channelBufferUsed, PER_RPC_BUFFER_LIMIT, CHANNEL_BUFFER_LIMIT,
+        MoreExecutors.directExecutor(), fakeClock.getScheduledExecutorService(), null,
+        HEDGING_POLICY, null);
+    ClientStream mockStream1 = mock(ClientStream.class);
+    ClientStream mockStream2 = mock(ClientStream.class);
+    ClientStream mockStream3 = mock(ClientStream.class);
+    doReturn(mockStream1).when(retriableStreamRecorder).newSubstream(0);
+    doReturn(mockStream2).when(retriableStreamRecorder).newSubstream(1);
+    doReturn(mockStream3).when(retriableStreamRecorder).newSubstream(2);
+
+    hedgingStream.start(masterListener);
+    hedgingStream.sendMessage("msg");
+    // the first attempt streams the message directly, nothing is serialized yet
+    verify(marshaller).stream("msg");
+    assertEquals("msg", readWrittenMessage(mockStream1));
+
+    fakeClock.forwardTime(HEDGING_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+    fakeClock.forwardTime(HEDGING_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+
+    assertEquals("msg", readWrittenMessage(mockStream2));
+    assertEquals("msg", readWrittenMessage(mockStream3));
+    // once for the first attempt, once for all the hedges
+    verify(marshaller, times(2)).stream("msg");
+
+    hedgingStream.cancel(Status.CANCELLED);
+  }
+
+  private static String readWrittenMessage(ClientStream mockStream) throws Exception {
+    ArgumentCaptor<InputStream> messageCaptor = ArgumentCaptor.forClass(InputStream.class);
+    verify(mockStream).writeMessage(messageCaptor.capture());
+    return new String(ByteStreams.toByteArray(messageCaptor.getValue()), Charsets.UTF_8);
+  }
+
   @Test
   public void hedging_maxAttempts() {
     ClientStream mockStream1 = mock(ClientStream.class);
@@ -23,6 +23,7 @@ import static io.grpc.Metadata.BINARY_BYTE_MARSHALLER;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -31,6 +32,7 @@ import com.google.common.io.BaseEncoding;
 import io.grpc.InternalMetadata;
 import io.grpc.Metadata;
 import io.grpc.Metadata.BinaryMarshaller;
+import io.grpc.PreEncodedMetadata;
 import java.util.Arrays;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -86,6 +88,27 @@ public class TransportFrameUtilTest {
     }
   }
 
+  @Test
+  public void toHttp2Headers_preEncoded() {
+    Metadata extraHeaders = new Metadata();
+    extraHeaders.put(BINARY_STRING, NONCOMPLIANT_ASCII_STRING);
+    PreEncodedMetadata preEncoded = PreEncodedMetadata.create(extraHeaders);
+    Metadata headers = new Metadata();
+    headers.put(PLAIN_STRING, COMPLIANT_ASCII_STRING);
+    preEncoded.mergeInto(headers);
+
+    byte[][] http2Headers = TransportFrameUtil.toHttp2Headers(headers);
+    byte[][] http2Headers2 = TransportFrameUtil.toHttp2Headers(headers);
+
+    assertEquals(4, http2Headers.length);
+    assertContains(http2Headers, "plainstring".getBytes(US_ASCII),
+        COMPLIANT_ASCII_STRING.getBytes(US_ASCII));
+    assertContains(http2Headers, "string-bin".getBytes(US_ASCII),
+        base64Encode(NONCOMPLIANT_ASCII_STRING.getBytes(US_ASCII)));
+    // Encoded once, when the PreEncodedMetadata was created
+    assertSame(http2Headers[3], http2Headers2[3]);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void binaryHeaderWithoutSuffix() {
     Metadata.Key.of("plainstring", UTF8_STRING_MARSHALLER);
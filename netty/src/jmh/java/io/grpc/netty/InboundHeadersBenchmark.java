@@ -21,6 +21,7 @@ import static io.grpc.netty.Utils.TE_TRAILERS;
 
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2RequestHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ResponseHeaders;
+import io.grpc.netty.GrpcHttp2HeadersUtils.HeaderInterner;
 import io.netty.handler.codec.http2.DefaultHttp2Headers;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.util.AsciiString;
@@ -42,10 +43,41 @@ public class InboundHeadersBenchmark {
 
   private static AsciiString[] requestHeaders;
   private static AsciiString[] responseHeaders;
+  // The same headers, as slices of larger arrays like the HPACK decoder returns Huffman encoded
+  // strings
+  private static AsciiString[] slicedRequestHeaders;
+  private static AsciiString[] slicedResponseHeaders;
+  // A custom header with a different value for each request, like a request id. There are more
+  // values than the interner can remember, so they are all seen as new.
+  private static final int UNIQUE_VALUE_COUNT = 4096;
+  private static AsciiString[] slicedUniqueHeader;
+
+  // Per connection in the transport, so per thread here
+  private final HeaderInterner interner = new HeaderInterner();
+  private int uniqueValueIndex;
 
   static {
     setupRequestHeaders();
     setupResponseHeaders();
+    slicedRequestHeaders = slice(requestHeaders);
+    slicedResponseHeaders = slice(responseHeaders);
+    AsciiString[] uniqueHeader = new AsciiString[UNIQUE_VALUE_COUNT * 2];
+    for (int i = 0; i < UNIQUE_VALUE_COUNT; i++) {
+      uniqueHeader[i * 2] = AsciiString.of("custom-id");
+      uniqueHeader[i * 2 + 1] =
+          AsciiString.of(String.format("%016x", i * 0x9E3779B97F4A7C15L));
+    }
+    slicedUniqueHeader = slice(uniqueHeader);
+  }
+
+  private static AsciiString[] slice(AsciiString[] headers) {
+    AsciiString[] sliced = new AsciiString[headers.length];
+    for (int i = 0; i < headers.length; i++) {
+      byte[] bytes = new byte[headers[i].length() + 8];
+      System.arraycopy(headers[i].array(), headers[i].arrayOffset(), bytes, 0, headers[i].length());
+      sliced[i] = new AsciiString(bytes, 0, headers[i].length(), false);
+    }
+    return sliced;
   }
 
   // Headers taken from the gRPC spec.
@@ -121,10 +153,83 @@ public class InboundHeadersBenchmark {
     clientHandler(bh, new DefaultHttp2Headers(true, 2));
   }
 
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_sliced(Blackhole bh) {
+    serverHandler(bh, new GrpcHttp2RequestHeaders(4), slicedRequestHeaders);
+  }
+
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_slicedInterned(Blackhole bh) {
+    serverHandler(bh, new GrpcHttp2RequestHeaders(4, interner), slicedRequestHeaders);
+  }
+
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_clientHandler_sliced(Blackhole bh) {
+    clientHandler(bh, new GrpcHttp2ResponseHeaders(2), slicedResponseHeaders);
+  }
+
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_clientHandler_slicedInterned(Blackhole bh) {
+    clientHandler(bh, new GrpcHttp2ResponseHeaders(2, interner), slicedResponseHeaders);
+  }
+
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_slicedUniqueValue(Blackhole bh) {
+    serverHandlerWithUniqueValue(bh, new GrpcHttp2RequestHeaders(5));
+  }
+
+  /**
+   * Checkstyle.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void grpcHeaders_serverHandler_slicedInternedUniqueValue(Blackhole bh) {
+    serverHandlerWithUniqueValue(bh, new GrpcHttp2RequestHeaders(5, interner));
+  }
+
+  private void serverHandlerWithUniqueValue(Blackhole bh, Http2Headers headers) {
+    int i = uniqueValueIndex;
+    uniqueValueIndex = (i + 1) % UNIQUE_VALUE_COUNT;
+    bh.consume(headers.add(slicedUniqueHeader[i * 2], slicedUniqueHeader[i * 2 + 1]));
+    serverHandler(bh, headers, slicedRequestHeaders);
+  }
+
   @CompilerControl(CompilerControl.Mode.INLINE)
   private static void serverHandler(Blackhole bh, Http2Headers headers) {
-    for (int i = 0; i < requestHeaders.length; i += 2) {
-      bh.consume(headers.add(requestHeaders[i], requestHeaders[i + 1]));
+    serverHandler(bh, headers, requestHeaders);
+  }
+
+  @CompilerControl(CompilerControl.Mode.INLINE)
+  private static void serverHandler(
+      Blackhole bh, Http2Headers headers, AsciiString[] namesAndValues) {
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      bh.consume(headers.add(namesAndValues[i], namesAndValues[i + 1]));
     }
 
     // Sequence of headers accessed in NettyServerHandler
@@ -139,10 +244,16 @@ public class InboundHeadersBenchmark {
 
   @CompilerControl(CompilerControl.Mode.INLINE)
   private static void clientHandler(Blackhole bh, Http2Headers headers) {
+    clientHandler(bh, headers, responseHeaders);
+  }
+
+  @CompilerControl(CompilerControl.Mode.INLINE)
+  private static void clientHandler(
+      Blackhole bh, Http2Headers headers, AsciiString[] namesAndValues) {
     // NettyClientHandler does not directly access headers, but convert to Metadata immediately.
 
-    bh.consume(headers.add(responseHeaders[0], responseHeaders[1]));
-    bh.consume(headers.add(responseHeaders[2], responseHeaders[3]));
+    bh.consume(headers.add(namesAndValues[0], namesAndValues[1]));
+    bh.consume(headers.add(namesAndValues[2], namesAndValues[3]));
 
     bh.consume(Utils.convertHeaders(headers));
   }
@@ -18,6 +18,7 @@ package io.grpc.netty;
 
 import io.grpc.Metadata;
 import io.grpc.Metadata.AsciiMarshaller;
+import io.grpc.PreEncodedMetadata;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
@@ -56,11 +57,19 @@ public class OutboundHeadersBenchmark {
   };
 
   private final Metadata metadata = new Metadata();
+  // The static headers of a typical client, attached to each call.
+  private final Metadata extraHeaders = new Metadata();
+  private PreEncodedMetadata preEncodedExtraHeaders;
   private final AsciiString scheme = new AsciiString("https");
   private final AsciiString defaultPath = new AsciiString("/Service.MethodMethodMethod");
   private final AsciiString authority = new AsciiString("authority.googleapis.bogus");
   private final AsciiString userAgent = new AsciiString("grpc-java-netty");
   private final Http2HeadersEncoder headersEncoder = new DefaultHttp2HeadersEncoder();
+  private final Http2HeadersEncoder huffmanHeadersEncoder =
+      HpackConfig.DEFAULT.withHuffmanThreshold(0).newHeadersEncoder();
+  private final Http2HeadersEncoder binaryNotIndexedHeadersEncoder =
+      HpackConfig.DEFAULT.withIndexBinaryHeaders(false).newHeadersEncoder();
+  private final Http2HeadersEncoder largeTableHeadersEncoder = new DefaultHttp2HeadersEncoder();
   private final ByteBuf scratchBuffer = UnpooledByteBufAllocator.DEFAULT.buffer(4096);
 
   @Setup
@@ -68,6 +77,17 @@ public class OutboundHeadersBenchmark {
     for (int i = 0; i < headerCount; i++) {
       metadata.put(Metadata.Key.of("key-" + i, keyMarshaller), UUID.randomUUID().toString());
     }
+    for (int i = 0; i < 8; i++) {
+      extraHeaders.put(
+          Metadata.Key.of("x-static-" + i, keyMarshaller), UUID.randomUUID().toString());
+    }
+    extraHeaders.put(
+        Metadata.Key.of("x-auth-bin", Metadata.BINARY_BYTE_MARSHALLER), new byte[256]);
+    extraHeaders.put(
+        Metadata.Key.of("x-routing-bin", Metadata.BINARY_BYTE_MARSHALLER), new byte[64]);
+    preEncodedExtraHeaders = PreEncodedMetadata.create(extraHeaders);
+    // As if the server advertised a larger header table size
+    largeTableHeadersEncoder.configuration().maxHeaderTableSize(64 * 1024);
   }
 
   @Benchmark
@@ -99,4 +119,82 @@ public class OutboundHeadersBenchmark {
     headersEncoder.encodeHeaders(1, headers, scratchBuffer);
     return scratchBuffer;
   }
+
+  /**
+   * Attaches 10 static headers to the headers of a call, as {@code MetadataUtils} does, and
+   * converts them.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Http2Headers convertClientHeaders_attached() {
+    Metadata headers = new Metadata();
+    headers.merge(extraHeaders);
+    return Utils.convertClientHeaders(headers, scheme, defaultPath, authority, Utils.HTTP_METHOD,
+        userAgent);
+  }
+
+  /**
+   * Same as {@link #convertClientHeaders_attached}, with the static headers pre-encoded.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public Http2Headers convertClientHeaders_attachedPreEncoded() {
+    Metadata headers = new Metadata();
+    preEncodedExtraHeaders.mergeInto(headers);
+    return Utils.convertClientHeaders(headers, scheme, defaultPath, authority, Utils.HTTP_METHOD,
+        userAgent);
+  }
+
+  /**
+   * Same as {@link #encodeClientHeaders}, Huffman-encoding all the values.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuf encodeClientHeaders_huffman() throws Exception {
+    return encodeClientHeaders(metadata, huffmanHeadersEncoder);
+  }
+
+  /**
+   * Same as {@link #encodeClientHeaders}, with a 64 KiB header table.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuf encodeClientHeaders_largeHeaderTable() throws Exception {
+    return encodeClientHeaders(metadata, largeTableHeadersEncoder);
+  }
+
+  /**
+   * Encodes the static headers of a typical client, including binary headers.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuf encodeClientHeaders_binary() throws Exception {
+    return encodeClientHeaders(extraHeaders, headersEncoder);
+  }
+
+  /**
+   * Same as {@link #encodeClientHeaders_binary}, without adding the binary headers to the header
+   * table.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public ByteBuf encodeClientHeaders_binaryNotIndexed() throws Exception {
+    return encodeClientHeaders(extraHeaders, binaryNotIndexedHeadersEncoder);
+  }
+
+  private ByteBuf encodeClientHeaders(Metadata metadata, Http2HeadersEncoder encoder)
+      throws Exception {
+    scratchBuffer.clear();
+    Http2Headers headers =
+        Utils.convertClientHeaders(metadata, scheme, defaultPath, authority, Utils.HTTP_METHOD,
+            userAgent);
+    encoder.encodeHeaders(1, headers, scratchBuffer);
+    return scratchBuffer;
+  }
 }
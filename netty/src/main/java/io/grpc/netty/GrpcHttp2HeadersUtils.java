@@ -38,6 +38,7 @@ import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
 import static io.netty.handler.codec.http2.Http2Exception.connectionError;
 import static io.netty.util.AsciiString.isUpperCase;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.BaseEncoding;
 import io.grpc.Metadata;
 import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
@@ -46,13 +47,21 @@ import io.netty.util.AsciiString;
 import io.netty.util.internal.PlatformDependent;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * A headers utils providing custom gRPC implementations of {@link DefaultHttp2HeadersDecoder}.
  */
 class GrpcHttp2HeadersUtils {
   static final class GrpcHttp2ServerHeadersDecoder extends DefaultHttp2HeadersDecoder {
+    // The decoder is used by a single connection, so the interner is confined to its event loop
+    private final HeaderInterner interner = new HeaderInterner();
 
     GrpcHttp2ServerHeadersDecoder(long maxHeaderListSize) {
       super(true, maxHeaderListSize);
@@ -60,11 +69,13 @@ class GrpcHttp2HeadersUtils {
 
     @Override
     protected GrpcHttp2InboundHeaders newHeaders() {
-      return new GrpcHttp2RequestHeaders(numberOfHeadersGuess());
+      return new GrpcHttp2RequestHeaders(numberOfHeadersGuess(), interner);
     }
   }
 
   static final class GrpcHttp2ClientHeadersDecoder extends DefaultHttp2HeadersDecoder {
+    // The decoder is used by a single connection, so the interner is confined to its event loop
+    private final HeaderInterner interner = new HeaderInterner();
 
     GrpcHttp2ClientHeadersDecoder(long maxHeaderListSize) {
       super(true, maxHeaderListSize);
@@ -72,7 +83,120 @@ class GrpcHttp2HeadersUtils {
 
     @Override
     protected GrpcHttp2InboundHeaders newHeaders() {
-      return new GrpcHttp2ResponseHeaders(numberOfHeadersGuess());
+      return new GrpcHttp2ResponseHeaders(numberOfHeadersGuess(), interner);
+    }
+  }
+
+  /**
+   * Provides the bytes of decoded header names and values to {@link Metadata} without copying them
+   * for every stream. The HPACK decoder returns Huffman encoded strings as slices of larger arrays,
+   * including the ones it then reuses from its dynamic table, so each stream would copy them again.
+   * Well-known names and values map to shared constants, and other short strings are kept in a
+   * small LRU cache, which covers the custom headers repeated by the streams of a connection. Names
+   * are cached when first seen. Values are only cached when seen again, so that values unique to a
+   * stream, like request ids, neither pay for a cache entry nor evict the repeated values, and the
+   * values of headers known to vary per stream, like grpc-timeout, are never cached. The returned
+   * arrays are shared, so they must never be modified.
+   *
+   * <p>Not thread-safe, an instance is confined to a connection.
+   */
+  static final class HeaderInterner {
+    @VisibleForTesting
+    static final int MAX_CACHED_LENGTH = 128;
+    @VisibleForTesting
+    static final int MAX_CACHED_ENTRIES = 64;
+    // power of 2, the number of values remembered as seen once
+    private static final int SEEN_VALUES = 256;
+    private static final Map<AsciiString, byte[]> WELL_KNOWN = wellKnown(
+        // names
+        "content-type", "te", "user-agent", "grpc-encoding", "grpc-accept-encoding",
+        "grpc-timeout", "grpc-status", "grpc-message", "grpc-previous-rpc-attempts",
+        "grpc-retry-pushback-ms", "grpc-trace-bin", "grpc-tags-bin", "authorization",
+        "content-encoding", "accept-encoding", "x-request-id", "traceparent",
+        // values
+        "application/grpc", "application/grpc+proto", "trailers", "gzip", "identity", "deflate",
+        "identity,deflate,gzip", "gzip,deflate", "0", "1", "2", "4", "5", "8", "13", "14");
+    // names of the headers whose values usually differ for each stream
+    private static final Set<byte[]> VARYING_VALUE_NAMES = identitySet(
+        "grpc-timeout", "grpc-message", "authorization", "x-request-id", "traceparent");
+
+    @SuppressWarnings("serial")
+    private final Map<AsciiString, byte[]> cache =
+        new LinkedHashMap<AsciiString, byte[]>(MAX_CACHED_ENTRIES * 2, .75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<AsciiString, byte[]> eldest) {
+            return size() > MAX_CACHED_ENTRIES;
+          }
+        };
+    // hash codes of values seen once, indexed by their low bits
+    private final int[] seenValueHashes = new int[SEEN_VALUES];
+
+    private static Map<AsciiString, byte[]> wellKnown(String... strings) {
+      Map<AsciiString, byte[]> wellKnown = new HashMap<>(strings.length * 2);
+      for (String string : strings) {
+        byte[] bytes = string.getBytes(US_ASCII);
+        wellKnown.put(new AsciiString(bytes, false), bytes);
+      }
+      return Collections.unmodifiableMap(wellKnown);
+    }
+
+    private static Set<byte[]> identitySet(String... names) {
+      Set<byte[]> set = Collections.newSetFromMap(new IdentityHashMap<byte[], Boolean>());
+      for (String name : names) {
+        set.add(WELL_KNOWN.get(AsciiString.of(name)));
+      }
+      return Collections.unmodifiableSet(set);
+    }
+
+    byte[] name(AsciiString name) {
+      if (name.isEntireArrayUsed()) {
+        return name.array();
+      }
+      byte[] bytes = WELL_KNOWN.get(name);
+      if (bytes != null) {
+        return bytes;
+      }
+      if (name.length() > MAX_CACHED_LENGTH) {
+        return name.toByteArray();
+      }
+      bytes = cache.get(name);
+      if (bytes == null) {
+        bytes = cache(name);
+      }
+      return bytes;
+    }
+
+    /** Returns the bytes of the value of a header, whose name was returned by {@link #name}. */
+    byte[] value(byte[] name, AsciiString value) {
+      if (value.isEntireArrayUsed()) {
+        return value.array();
+      }
+      byte[] bytes = WELL_KNOWN.get(value);
+      if (bytes != null) {
+        return bytes;
+      }
+      if (value.length() > MAX_CACHED_LENGTH || VARYING_VALUE_NAMES.contains(name)) {
+        return value.toByteArray();
+      }
+      bytes = cache.get(value);
+      if (bytes != null) {
+        return bytes;
+      }
+      int hash = value.hashCode();
+      int index = hash & (SEEN_VALUES - 1);
+      if (seenValueHashes[index] != hash) {
+        // first seen, or forgotten since
+        seenValueHashes[index] = hash;
+        return value.toByteArray();
+      }
+      return cache(value);
+    }
+
+    private byte[] cache(AsciiString str) {
+      byte[] bytes = str.toByteArray();
+      // Keyed by a copy, so that the cache doesn't retain the array the string is a slice of
+      cache.put(new AsciiString(bytes, false), bytes);
+      return bytes;
     }
   }
 
@@ -91,22 +215,25 @@ class GrpcHttp2HeadersUtils {
     private static final AsciiString binaryHeaderSuffix =
         new AsciiString(Metadata.BINARY_HEADER_SUFFIX.getBytes(US_ASCII));
 
+    @Nullable
+    private final HeaderInterner interner;
     private byte[][] namesAndValues;
     private AsciiString[] values;
     private int namesAndValuesIdx;
 
-    GrpcHttp2InboundHeaders(int numHeadersGuess) {
+    GrpcHttp2InboundHeaders(int numHeadersGuess, @Nullable HeaderInterner interner) {
       checkArgument(numHeadersGuess > 0, "numHeadersGuess needs to be positive: %s",
           numHeadersGuess);
+      this.interner = interner;
       namesAndValues = new byte[numHeadersGuess * 2][];
       values = new AsciiString[numHeadersGuess];
     }
 
     protected Http2Headers add(AsciiString name, AsciiString value) {
-      byte[] nameBytes = bytes(name);
+      byte[] nameBytes = interner != null ? interner.name(name) : bytes(name);
       byte[] valueBytes;
       if (!name.endsWith(binaryHeaderSuffix)) {
-        valueBytes = bytes(value);
+        valueBytes = interner != null ? interner.value(nameBytes, value) : bytes(value);
         addHeader(value, nameBytes, valueBytes);
         return this;
       }
@@ -287,7 +414,11 @@ class GrpcHttp2HeadersUtils {
     private AsciiString te;
 
     GrpcHttp2RequestHeaders(int numHeadersGuess) {
-      super(numHeadersGuess);
+      this(numHeadersGuess, null);
+    }
+
+    GrpcHttp2RequestHeaders(int numHeadersGuess, @Nullable HeaderInterner interner) {
+      super(numHeadersGuess, interner);
     }
 
     @Override
@@ -442,7 +573,11 @@ class GrpcHttp2HeadersUtils {
   static final class GrpcHttp2ResponseHeaders extends GrpcHttp2InboundHeaders {
 
     GrpcHttp2ResponseHeaders(int numHeadersGuess) {
-      super(numHeadersGuess);
+      this(numHeadersGuess, null);
+    }
+
+    GrpcHttp2ResponseHeaders(int numHeadersGuess, @Nullable HeaderInterner interner) {
+      super(numHeadersGuess, interner);
     }
 
     @Override
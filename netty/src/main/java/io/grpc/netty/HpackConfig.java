@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_HEADER_TABLE_SIZE;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import io.grpc.Metadata;
+import io.netty.handler.codec.http2.DefaultHttp2FrameWriter;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2FrameWriter;
+import io.netty.handler.codec.http2.Http2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.AsciiString;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * HPACK settings of a transport: the size of the dynamic table used to decode received headers,
+ * and how sent headers are encoded.
+ */
+@Immutable
+final class HpackConfig {
+  /** Netty's default, values shorter than that are never Huffman-encoded. */
+  static final int DEFAULT_HUFFMAN_THRESHOLD = 512;
+  // Netty's default
+  private static final int DYNAMIC_TABLE_ARRAY_SIZE_HINT = 16;
+
+  static final HpackConfig DEFAULT =
+      new HpackConfig(DEFAULT_HEADER_TABLE_SIZE, DEFAULT_HUFFMAN_THRESHOLD, true);
+
+  private static final Http2HeadersEncoder.SensitivityDetector BINARY_HEADERS_SENSITIVE =
+      new Http2HeadersEncoder.SensitivityDetector() {
+        @Override
+        public boolean isSensitive(CharSequence name, CharSequence value) {
+          return isBinaryHeader(name);
+        }
+      };
+
+  private final int headerTableSize;
+  private final int huffmanThreshold;
+  private final boolean indexBinaryHeaders;
+
+  HpackConfig(int headerTableSize, int huffmanThreshold, boolean indexBinaryHeaders) {
+    checkArgument(headerTableSize >= 0, "headerTableSize must be >= 0");
+    checkArgument(huffmanThreshold >= 0, "huffmanThreshold must be >= 0");
+    this.headerTableSize = headerTableSize;
+    this.huffmanThreshold = huffmanThreshold;
+    this.indexBinaryHeaders = indexBinaryHeaders;
+  }
+
+  HpackConfig withHeaderTableSize(int headerTableSize) {
+    return new HpackConfig(headerTableSize, huffmanThreshold, indexBinaryHeaders);
+  }
+
+  HpackConfig withHuffmanThreshold(int huffmanThreshold) {
+    return new HpackConfig(headerTableSize, huffmanThreshold, indexBinaryHeaders);
+  }
+
+  HpackConfig withIndexBinaryHeaders(boolean indexBinaryHeaders) {
+    return new HpackConfig(headerTableSize, huffmanThreshold, indexBinaryHeaders);
+  }
+
+  /** Creates a frame writer encoding the headers according to this config. */
+  Http2FrameWriter newFrameWriter() {
+    if (huffmanThreshold == DEFAULT_HUFFMAN_THRESHOLD && indexBinaryHeaders) {
+      return new DefaultHttp2FrameWriter();
+    }
+    return new DefaultHttp2FrameWriter(newHeadersEncoder());
+  }
+
+  @VisibleForTesting
+  Http2HeadersEncoder newHeadersEncoder() {
+    return new DefaultHttp2HeadersEncoder(
+        indexBinaryHeaders ? Http2HeadersEncoder.NEVER_SENSITIVE : BINARY_HEADERS_SENSITIVE,
+        false,
+        DYNAMIC_TABLE_ARRAY_SIZE_HINT,
+        huffmanThreshold);
+  }
+
+  /** Advertises the size of the dynamic table in the settings, if it isn't the default. */
+  void applyTo(Http2Settings settings) {
+    if (headerTableSize != DEFAULT_HEADER_TABLE_SIZE) {
+      settings.headerTableSize(headerTableSize);
+    }
+  }
+
+  @VisibleForTesting
+  static boolean isBinaryHeader(CharSequence name) {
+    int suffixLength = Metadata.BINARY_HEADER_SUFFIX.length();
+    return name.length() >= suffixLength
+        && AsciiString.regionMatches(
+            name, false, name.length() - suffixLength,
+            Metadata.BINARY_HEADER_SUFFIX, 0, suffixLength);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("headerTableSize", headerTableSize)
+        .add("huffmanThreshold", huffmanThreshold)
+        .add("indexBinaryHeaders", indexBinaryHeaders)
+        .toString();
+  }
+}
@@ -81,6 +81,10 @@ public final class NettyChannelBuilder extends
 
   private static final ChannelFactory<? extends Channel> DEFAULT_CHANNEL_FACTORY =
       new ReflectiveChannelFactory<>(Utils.DEFAULT_CLIENT_CHANNEL_TYPE);
+  @Nullable
+  private static final ChannelFactory<? extends Channel> DOMAIN_CHANNEL_FACTORY =
+      Utils.EPOLL_DOMAIN_CLIENT_CHANNEL_TYPE == null
+          ? null : new ReflectiveChannelFactory<>(Utils.EPOLL_DOMAIN_CLIENT_CHANNEL_TYPE);
   private static final ObjectPool<? extends EventLoopGroup> DEFAULT_EVENT_LOOP_GROUP_POOL =
       SharedResourcePool.forResource(Utils.DEFAULT_WORKER_EVENT_LOOP_GROUP);
 
@@ -101,6 +105,7 @@ public final class NettyChannelBuilder extends
   private int flowControlWindow = DEFAULT_FLOW_CONTROL_WINDOW;
   private int maxInboundMessageSize = GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
   private int maxHeaderListSize = GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
+  private HpackConfig hpackConfig = HpackConfig.DEFAULT;
   private long keepAliveTimeNanos = KEEPALIVE_TIME_NANOS_DISABLED;
   private long keepAliveTimeoutNanos = DEFAULT_KEEPALIVE_TIMEOUT_NANOS;
   private boolean keepAliveWithoutCalls;
@@ -225,7 +230,9 @@ public final class NettyChannelBuilder extends
 
   /**
    * Specifies the channel type to use, by default we use {@code EpollSocketChannel} if available,
-   * otherwise using {@link NioSocketChannel}.
+   * otherwise using {@link NioSocketChannel}. When Epoll is available, {@code
+   * EpollDomainSocketChannel} is used by default for domain socket addresses, such as those of
+   * {@code unix:} targets.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link Channel} implementation has no no-args constructor.
@@ -387,6 +394,57 @@ public final class NettyChannelBuilder extends
     return this;
   }
 
+  /**
+   * Sets the size of the HPACK dynamic table used to decode the headers received, as defined for
+   * <a href="http://httpwg.org/specs/rfc7540.html#rfc.section.6.5.2">
+   * HTTP/2's SETTINGS_HEADER_TABLE_SIZE</a>. A larger table lets the server refer to more of the
+   * headers it sent before, like large authentication headers repeated in every call, at the cost
+   * of memory per connection. Zero disables the dynamic table. The default is 4 KiB.
+   *
+   * @param bytes the size of the dynamic table for received headers
+   * @return this
+   * @throws IllegalArgumentException if bytes is negative
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyChannelBuilder headerTableSize(int bytes) {
+    checkArgument(bytes >= 0, "headerTableSize must be >= 0: %s", bytes);
+    hpackConfig = hpackConfig.withHeaderTableSize(bytes);
+    return this;
+  }
+
+  /**
+   * Sets the minimum length of the header values the channel Huffman-encodes. Shorter values are
+   * sent as is, saving the CPU to compute their encoding. Longer values are Huffman-encoded only if
+   * that makes them shorter. {@code Integer.MAX_VALUE} disables Huffman encoding, which is useful
+   * when most of the headers are high-entropy, like Base64 encoded binary headers, and rarely
+   * shrink. The default is 512 bytes.
+   *
+   * @param bytes the minimum length of the Huffman-encoded header values
+   * @return this
+   * @throws IllegalArgumentException if bytes is negative
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyChannelBuilder huffmanEncodingThreshold(int bytes) {
+    checkArgument(bytes >= 0, "huffmanEncodingThreshold must be >= 0: %s", bytes);
+    hpackConfig = hpackConfig.withHuffmanThreshold(bytes);
+    return this;
+  }
+
+  /**
+   * Sets whether the binary headers (ending with {@code "-bin"}) the channel sends may be added to
+   * the HPACK dynamic table. Binary values, like serialized trace contexts, often differ in each
+   * call: adding them to the table only evicts the entries of other headers that could have been
+   * reused. If {@code false}, binary headers are sent as never indexed literals. The default is
+   * {@code true}.
+   *
+   * @return this
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyChannelBuilder indexBinaryHeaders(boolean enable) {
+    hpackConfig = hpackConfig.withIndexBinaryHeaders(enable);
+    return this;
+  }
+
   /**
    * Equivalent to using {@link #negotiationType(NegotiationType)} with {@code PLAINTEXT}.
    */
@@ -501,8 +559,8 @@ public final class NettyChannelBuilder extends
     return new NettyTransportFactory(
         negotiator, channelFactory, channelOptions,
         eventLoopGroupPool, autoFlowControl, flowControlWindow, maxInboundMessageSize,
-        maxHeaderListSize, keepAliveTimeNanos, keepAliveTimeoutNanos, keepAliveWithoutCalls,
-        transportTracerFactory, localSocketPicker, useGetForSafeMethods);
+        maxHeaderListSize, hpackConfig, keepAliveTimeNanos, keepAliveTimeoutNanos,
+        keepAliveWithoutCalls, transportTracerFactory, localSocketPicker, useGetForSafeMethods);
   }
 
   @VisibleForTesting
@@ -628,6 +686,7 @@ public final class NettyChannelBuilder extends
     private final int flowControlWindow;
     private final int maxMessageSize;
     private final int maxHeaderListSize;
+    private final HpackConfig hpackConfig;
     private final long keepAliveTimeNanos;
     private final AtomicBackoff keepAliveBackoff;
     private final long keepAliveTimeoutNanos;
@@ -643,9 +702,9 @@ public final class NettyChannelBuilder extends
         ChannelFactory<? extends Channel> channelFactory,
         Map<ChannelOption<?>, ?> channelOptions, ObjectPool<? extends EventLoopGroup> groupPool,
         boolean autoFlowControl, int flowControlWindow, int maxMessageSize, int maxHeaderListSize,
-        long keepAliveTimeNanos, long keepAliveTimeoutNanos, boolean keepAliveWithoutCalls,
-        TransportTracer.Factory transportTracerFactory, LocalSocketPicker localSocketPicker,
-        boolean useGetForSafeMethods) {
+        HpackConfig hpackConfig, long keepAliveTimeNanos, long keepAliveTimeoutNanos,
+        boolean keepAliveWithoutCalls, TransportTracer.Factory transportTracerFactory,
+        LocalSocketPicker localSocketPicker, boolean useGetForSafeMethods) {
       this.protocolNegotiator = checkNotNull(protocolNegotiator, "protocolNegotiator");
       this.channelFactory = channelFactory;
       this.channelOptions = new HashMap<ChannelOption<?>, Object>(channelOptions);
@@ -655,6 +714,7 @@ public final class NettyChannelBuilder extends
       this.flowControlWindow = flowControlWindow;
       this.maxMessageSize = maxMessageSize;
       this.maxHeaderListSize = maxHeaderListSize;
+      this.hpackConfig = hpackConfig;
       this.keepAliveTimeNanos = keepAliveTimeNanos;
       this.keepAliveBackoff = new AtomicBackoff("keepalive time nanos", keepAliveTimeNanos);
       this.keepAliveTimeoutNanos = keepAliveTimeoutNanos;
@@ -689,12 +749,20 @@ public final class NettyChannelBuilder extends
         }
       };
 
+      ChannelFactory<? extends Channel> localChannelFactory = channelFactory;
+      if (localChannelFactory == DEFAULT_CHANNEL_FACTORY
+          && Utils.isDomainSocketAddress(serverAddress)) {
+        // The default event loop group is Epoll if domain sockets are available
+        localChannelFactory = DOMAIN_CHANNEL_FACTORY;
+      }
+
       // TODO(carl-mastrangelo): Pass channelLogger in.
       NettyClientTransport transport = new NettyClientTransport(
-          serverAddress, channelFactory, channelOptions, group,
+          serverAddress, localChannelFactory, channelOptions, group,
           localNegotiator, autoFlowControl, flowControlWindow,
-          maxMessageSize, maxHeaderListSize, keepAliveTimeNanosState.get(), keepAliveTimeoutNanos,
-          keepAliveWithoutCalls, options.getAuthority(), options.getUserAgent(),
+          maxMessageSize, maxHeaderListSize, hpackConfig, keepAliveTimeNanosState.get(),
+          keepAliveTimeoutNanos, keepAliveWithoutCalls, options.getAuthority(),
+          options.getUserAgent(),
           tooManyPingsRunnable, transportTracerFactory.create(), options.getEagAttributes(),
           localSocketPicker, channelLogger, useGetForSafeMethods);
       return transport;
@@ -714,9 +782,9 @@ public final class NettyChannelBuilder extends
       }
       ClientTransportFactory factory = new NettyTransportFactory(
           result.negotiator.newNegotiator(), channelFactory, channelOptions, groupPool,
-          autoFlowControl, flowControlWindow, maxMessageSize, maxHeaderListSize, keepAliveTimeNanos,
-          keepAliveTimeoutNanos, keepAliveWithoutCalls, transportTracerFactory,  localSocketPicker,
-          useGetForSafeMethods);
+          autoFlowControl, flowControlWindow, maxMessageSize, maxHeaderListSize, hpackConfig,
+          keepAliveTimeNanos, keepAliveTimeoutNanos, keepAliveWithoutCalls, transportTracerFactory,
+          localSocketPicker, useGetForSafeMethods);
       return new SwapChannelCredentialsResult(factory, result.callCredentials);
     }
 
@@ -92,6 +92,7 @@ class NettyServer implements InternalServer, InternalWithLogId {
   private final int flowControlWindow;
   private final int maxMessageSize;
   private final int maxHeaderListSize;
+  private final HpackConfig hpackConfig;
   private final long keepAliveTimeInNanos;
   private final long keepAliveTimeoutInNanos;
   private final long maxConnectionIdleInNanos;
@@ -122,7 +123,7 @@ class NettyServer implements InternalServer, InternalWithLogId {
       List<? extends ServerStreamTracer.Factory> streamTracerFactories,
       TransportTracer.Factory transportTracerFactory,
       int maxStreamsPerConnection, boolean autoFlowControl, int flowControlWindow,
-      int maxMessageSize, int maxHeaderListSize,
+      int maxMessageSize, int maxHeaderListSize, HpackConfig hpackConfig,
       long keepAliveTimeInNanos, long keepAliveTimeoutInNanos,
       long maxConnectionIdleInNanos,
       long maxConnectionAgeInNanos, long maxConnectionAgeGraceInNanos,
@@ -149,6 +150,7 @@ class NettyServer implements InternalServer, InternalWithLogId {
     this.flowControlWindow = flowControlWindow;
     this.maxMessageSize = maxMessageSize;
     this.maxHeaderListSize = maxHeaderListSize;
+    this.hpackConfig = checkNotNull(hpackConfig, "hpackConfig");
     this.keepAliveTimeInNanos = keepAliveTimeInNanos;
     this.keepAliveTimeoutInNanos = keepAliveTimeoutInNanos;
     this.maxConnectionIdleInNanos = maxConnectionIdleInNanos;
@@ -250,6 +252,7 @@ class NettyServer implements InternalServer, InternalWithLogId {
                 flowControlWindow,
                 maxMessageSize,
                 maxHeaderListSize,
+                hpackConfig,
                 keepAliveTimeInNanos,
                 keepAliveTimeoutInNanos,
                 maxConnectionIdleInNanos,
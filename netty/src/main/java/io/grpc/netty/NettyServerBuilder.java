@@ -105,6 +105,7 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
   private int flowControlWindow = DEFAULT_FLOW_CONTROL_WINDOW;
   private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
   private int maxHeaderListSize = GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
+  private HpackConfig hpackConfig = HpackConfig.DEFAULT;
   private long keepAliveTimeInNanos = DEFAULT_SERVER_KEEPALIVE_TIME_NANOS;
   private long keepAliveTimeoutInNanos = DEFAULT_SERVER_KEEPALIVE_TIMEOUT_NANOS;
   private long maxConnectionIdleInNanos = MAX_CONNECTION_IDLE_NANOS_DISABLED;
@@ -205,7 +206,9 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
 
   /**
    * Specifies the channel type to use, by default we use {@code EpollServerSocketChannel} if
-   * available, otherwise using {@link NioServerSocketChannel}.
+   * available, otherwise using {@link NioServerSocketChannel}. When Epoll is available and all the
+   * listen addresses are domain socket addresses, {@code EpollServerDomainSocketChannel} is used by
+   * default.
    *
    * <p>You either use this or {@link #channelFactory(io.netty.channel.ChannelFactory)} if your
    * {@link ServerChannel} implementation has no no-args constructor.
@@ -480,6 +483,57 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     return this;
   }
 
+  /**
+   * Sets the size of the HPACK dynamic table used to decode the headers received, as defined for
+   * <a href="http://httpwg.org/specs/rfc7540.html#rfc.section.6.5.2">
+   * HTTP/2's SETTINGS_HEADER_TABLE_SIZE</a>. A larger table lets the clients refer to more of the
+   * headers it sent before, like large authentication headers repeated in every call, at the cost
+   * of memory per connection. Zero disables the dynamic table. The default is 4 KiB.
+   *
+   * @param bytes the size of the dynamic table for received headers
+   * @return this
+   * @throws IllegalArgumentException if bytes is negative
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyServerBuilder headerTableSize(int bytes) {
+    checkArgument(bytes >= 0, "headerTableSize must be >= 0: %s", bytes);
+    hpackConfig = hpackConfig.withHeaderTableSize(bytes);
+    return this;
+  }
+
+  /**
+   * Sets the minimum length of the header values the server Huffman-encodes. Shorter values are
+   * sent as is, saving the CPU to compute their encoding. Longer values are Huffman-encoded only if
+   * that makes them shorter. {@code Integer.MAX_VALUE} disables Huffman encoding, which is useful
+   * when most of the headers are high-entropy, like Base64 encoded binary headers, and rarely
+   * shrink. The default is 512 bytes.
+   *
+   * @param bytes the minimum length of the Huffman-encoded header values
+   * @return this
+   * @throws IllegalArgumentException if bytes is negative
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyServerBuilder huffmanEncodingThreshold(int bytes) {
+    checkArgument(bytes >= 0, "huffmanEncodingThreshold must be >= 0: %s", bytes);
+    hpackConfig = hpackConfig.withHuffmanThreshold(bytes);
+    return this;
+  }
+
+  /**
+   * Sets whether the binary headers (ending with {@code "-bin"}) the server sends may be added to
+   * the HPACK dynamic table. Binary values, like serialized trace contexts, often differ in each
+   * call: adding them to the table only evicts the entries of other headers that could have been
+   * reused. If {@code false}, binary headers are sent as never indexed literals. The default is
+   * {@code true}.
+   *
+   * @return this
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1784")
+  public NettyServerBuilder indexBinaryHeaders(boolean enable) {
+    hpackConfig = hpackConfig.withIndexBinaryHeaders(enable);
+    return this;
+  }
+
   /**
    * Sets a custom keepalive time, the delay time for sending next keepalive ping. An unreasonably
    * small value might be increased, and {@code Long.MAX_VALUE} nano seconds or an unreasonably
@@ -629,17 +683,33 @@ public final class NettyServerBuilder extends AbstractServerImplBuilder<NettySer
     ProtocolNegotiator negotiator = protocolNegotiatorFactory.newNegotiator(
         this.serverImplBuilder.getExecutorPool());
 
+    ChannelFactory<? extends ServerChannel> channelFactory = this.channelFactory;
+    if (channelFactory == Utils.DEFAULT_SERVER_CHANNEL_FACTORY
+        && allDomainSocketAddresses(listenAddresses)) {
+      // The default event loop groups are Epoll if domain sockets are available
+      channelFactory = Utils.EPOLL_DOMAIN_SERVER_CHANNEL_FACTORY;
+    }
+
     return new NettyServer(
         listenAddresses, channelFactory, channelOptions, childChannelOptions,
         bossEventLoopGroupPool, workerEventLoopGroupPool, forceHeapBuffer, negotiator,
         streamTracerFactories, transportTracerFactory, maxConcurrentCallsPerConnection,
-        autoFlowControl, flowControlWindow, maxMessageSize, maxHeaderListSize,
+        autoFlowControl, flowControlWindow, maxMessageSize, maxHeaderListSize, hpackConfig,
         keepAliveTimeInNanos, keepAliveTimeoutInNanos,
         maxConnectionIdleInNanos, maxConnectionAgeInNanos,
         maxConnectionAgeGraceInNanos, permitKeepAliveWithoutCalls, permitKeepAliveTimeInNanos,
         eagAttributes, this.serverImplBuilder.getChannelz());
   }
 
+  private static boolean allDomainSocketAddresses(List<SocketAddress> addresses) {
+    for (SocketAddress address : addresses) {
+      if (!Utils.isDomainSocketAddress(address)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @VisibleForTesting
   void assertEventLoopsAndChannelType() {
     boolean allProvided = channelFactory != Utils.DEFAULT_SERVER_CHANNEL_FACTORY
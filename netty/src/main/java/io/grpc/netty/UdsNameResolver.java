@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import java.util.Collections;
+
+/**
+ * Resolves a {@code "unix"} target to the domain socket address of its path. The address never
+ * changes, so it is only resolved once.
+ */
+final class UdsNameResolver extends NameResolver {
+  // As for other transports, the authority of a domain socket is the local host
+  private static final String AUTHORITY = "localhost";
+
+  private final String path;
+  private Listener2 listener;
+
+  UdsNameResolver(String path) {
+    this.path = checkNotNull(path, "path");
+  }
+
+  @Override
+  public String getServiceAuthority() {
+    return AUTHORITY;
+  }
+
+  @Override
+  public void start(Listener2 listener) {
+    checkState(this.listener == null, "already started");
+    this.listener = checkNotNull(listener, "listener");
+    resolve();
+  }
+
+  @Override
+  public void refresh() {
+    checkState(listener != null, "not started");
+    resolve();
+  }
+
+  private void resolve() {
+    EquivalentAddressGroup addressGroup =
+        new EquivalentAddressGroup(Utils.newDomainSocketAddress(path));
+    listener.onResult(
+        ResolutionResult.newBuilder()
+            .setAddresses(Collections.singletonList(addressGroup))
+            .build());
+  }
+
+  @Override
+  public void shutdown() {}
+}
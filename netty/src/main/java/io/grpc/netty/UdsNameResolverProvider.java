@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.grpc.Internal;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import java.net.URI;
+
+/**
+ * A provider for {@link UdsNameResolver}, resolving {@code "unix"} targets to the Unix domain
+ * socket at their path. The path is either absolute, as in {@code "unix:///tmp/sidecar.sock"} or
+ * {@code "unix:/tmp/sidecar.sock"}, or relative to the working directory, as in {@code
+ * "unix:sidecar.sock"}. Netty channels connect to domain sockets using Epoll, so the provider is
+ * only available where Epoll is.
+ */
+@Internal
+public final class UdsNameResolverProvider extends NameResolverProvider {
+  private static final String SCHEME = "unix";
+
+  @Override
+  public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+    if (!SCHEME.equals(targetUri.getScheme())) {
+      return null;
+    }
+    String path;
+    if (targetUri.isOpaque()) {
+      path = targetUri.getSchemeSpecificPart();
+    } else {
+      checkArgument(
+          targetUri.getAuthority() == null || targetUri.getAuthority().isEmpty(),
+          "the authority of the target (%s) must be empty", targetUri);
+      path = targetUri.getPath();
+    }
+    checkArgument(path != null && !path.isEmpty(), "the target (%s) has no path", targetUri);
+    return new UdsNameResolver(path);
+  }
+
+  @Override
+  public String getDefaultScheme() {
+    return SCHEME;
+  }
+
+  @Override
+  protected boolean isAvailable() {
+    return Utils.isDomainSocketAvailable();
+  }
+
+  @Override
+  protected int priority() {
+    return 3;
+  }
+}
@@ -54,6 +54,7 @@ import io.netty.util.NettyRuntime;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.UnresolvedAddressException;
 import java.util.Map;
@@ -100,6 +101,15 @@ class Utils {
 
   public static final ChannelFactory<? extends ServerChannel> DEFAULT_SERVER_CHANNEL_FACTORY;
   public static final Class<? extends Channel> DEFAULT_CLIENT_CHANNEL_TYPE;
+  /** The client channel type for domain socket addresses, {@code null} if Epoll is unavailable. */
+  @Nullable
+  public static final Class<? extends Channel> EPOLL_DOMAIN_CLIENT_CHANNEL_TYPE;
+  /** The server channel factory for domain socket addresses, {@code null} without Epoll. */
+  @Nullable
+  public static final ChannelFactory<? extends ServerChannel> EPOLL_DOMAIN_SERVER_CHANNEL_FACTORY;
+
+  @Nullable
+  private static final Constructor<? extends SocketAddress> DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR;
 
   @Nullable
   private static final Constructor<? extends EventLoopGroup> EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR;
@@ -109,6 +119,10 @@ class Utils {
     if (isEpollAvailable()) {
       DEFAULT_CLIENT_CHANNEL_TYPE = epollChannelType();
       DEFAULT_SERVER_CHANNEL_FACTORY = new ReflectiveChannelFactory<>(epollServerChannelType());
+      EPOLL_DOMAIN_CLIENT_CHANNEL_TYPE = epollDomainChannelType();
+      EPOLL_DOMAIN_SERVER_CHANNEL_FACTORY =
+          new ReflectiveChannelFactory<>(epollServerDomainChannelType());
+      DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR = domainSocketAddressConstructor();
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = epollEventLoopGroupConstructor();
       DEFAULT_BOSS_EVENT_LOOP_GROUP
         = new DefaultEventLoopGroupResource(1, "grpc-default-boss-ELG", EventLoopGroupType.EPOLL);
@@ -118,6 +132,9 @@ class Utils {
       logger.log(Level.FINE, "Epoll is not available, using Nio.", getEpollUnavailabilityCause());
       DEFAULT_SERVER_CHANNEL_FACTORY = nioServerChannelFactory();
       DEFAULT_CLIENT_CHANNEL_TYPE = NioSocketChannel.class;
+      EPOLL_DOMAIN_CLIENT_CHANNEL_TYPE = null;
+      EPOLL_DOMAIN_SERVER_CHANNEL_FACTORY = null;
+      DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR = null;
       DEFAULT_BOSS_EVENT_LOOP_GROUP = NIO_BOSS_EVENT_LOOP_GROUP;
       DEFAULT_WORKER_EVENT_LOOP_GROUP = NIO_WORKER_EVENT_LOOP_GROUP;
       EPOLL_EVENT_LOOP_GROUP_CONSTRUCTOR = null;
@@ -348,6 +365,61 @@ class Utils {
     }
   }
 
+  // Must call when epoll is available
+  private static Class<? extends Channel> epollDomainChannelType() {
+    try {
+      return Class
+          .forName("io.netty.channel.epoll.EpollDomainSocketChannel").asSubclass(Channel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load EpollDomainSocketChannel", e);
+    }
+  }
+
+  // Must call when epoll is available
+  private static Class<? extends ServerChannel> epollServerDomainChannelType() {
+    try {
+      return Class
+          .forName("io.netty.channel.epoll.EpollServerDomainSocketChannel")
+          .asSubclass(ServerChannel.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load EpollServerDomainSocketChannel", e);
+    }
+  }
+
+  // Must call when epoll is available
+  private static Constructor<? extends SocketAddress> domainSocketAddressConstructor() {
+    try {
+      return Class
+          .forName("io.netty.channel.unix.DomainSocketAddress").asSubclass(SocketAddress.class)
+          .getConstructor(String.class);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException("Cannot load DomainSocketAddress", e);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException("DomainSocketAddress constructor not found", e);
+    }
+  }
+
+  /** Returns whether domain socket addresses and channels are available. */
+  static boolean isDomainSocketAvailable() {
+    return DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR != null;
+  }
+
+  /** Returns whether the address is a domain socket address usable with the Epoll channels. */
+  static boolean isDomainSocketAddress(SocketAddress address) {
+    return DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR != null
+        && DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR.getDeclaringClass().isInstance(address);
+  }
+
+  /** Creates a domain socket address for the path, must be called when they are available. */
+  static SocketAddress newDomainSocketAddress(String path) {
+    checkState(DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR != null, "Epoll is not available");
+    try {
+      return DOMAIN_SOCKET_ADDRESS_CONSTRUCTOR.newInstance(path);
+    } catch (Exception e) {
+      throw new RuntimeException("Cannot create DomainSocketAddress", e);
+    }
+  }
+
   private static EventLoopGroup createEpollEventLoopGroup(
       int parallelism,
       ThreadFactory threadFactory) {
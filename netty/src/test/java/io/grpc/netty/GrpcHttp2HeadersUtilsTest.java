@@ -16,21 +16,28 @@
 
 package io.grpc.netty;
 
+import static com.google.common.base.Charsets.US_ASCII;
 import static io.grpc.Metadata.BINARY_BYTE_MARSHALLER;
 import static io.grpc.internal.GrpcUtil.DEFAULT_MAX_HEADER_LIST_SIZE;
 import static io.netty.util.AsciiString.of;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.io.BaseEncoding;
 import io.grpc.Metadata;
 import io.grpc.Metadata.Key;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ClientHeadersDecoder;
+import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2InboundHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2RequestHeaders;
 import io.grpc.netty.GrpcHttp2HeadersUtils.GrpcHttp2ServerHeadersDecoder;
+import io.grpc.netty.GrpcHttp2HeadersUtils.HeaderInterner;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http2.DefaultHttp2Headers;
@@ -156,6 +163,121 @@ public class GrpcHttp2HeadersUtilsTest {
         values));
   }
 
+  @Test
+  public void headerInterner_wellKnown() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] name = interner.name(slice("content-type"));
+    byte[] bytes = interner.value(name, slice("application/grpc"));
+    assertArrayEquals("application/grpc".getBytes(US_ASCII), bytes);
+    assertSame(name, new HeaderInterner().name(slice("content-type")));
+    assertSame(bytes, new HeaderInterner().value(name, slice("application/grpc")));
+  }
+
+  @Test
+  public void headerInterner_namesCached() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] bytes = interner.name(slice("custom-name"));
+    assertArrayEquals("custom-name".getBytes(US_ASCII), bytes);
+    assertSame(bytes, interner.name(slice("custom-name")));
+    // not shared by connections
+    assertNotSame(bytes, new HeaderInterner().name(slice("custom-name")));
+
+    String tooLong = Strings.repeat("a", HeaderInterner.MAX_CACHED_LENGTH + 1);
+    assertNotSame(interner.name(slice(tooLong)), interner.name(slice(tooLong)));
+  }
+
+  @Test
+  public void headerInterner_valuesCachedWhenSeenAgain() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] name = interner.name(slice("custom-name"));
+    byte[] first = interner.value(name, slice("custom-value"));
+    assertArrayEquals("custom-value".getBytes(US_ASCII), first);
+    byte[] second = interner.value(name, slice("custom-value"));
+    assertNotSame(first, second);
+    assertSame(second, interner.value(name, slice("custom-value")));
+  }
+
+  @Test
+  public void headerInterner_uniqueValuesNotCached() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] name = interner.name(slice("custom-name"));
+    byte[] repeatedFirst = interner.value(name, slice("repeated-value"));
+    byte[] repeated = interner.value(name, slice("repeated-value"));
+    assertNotSame(repeatedFirst, repeated);
+    for (int i = 0; i < HeaderInterner.MAX_CACHED_ENTRIES * 2; i++) {
+      interner.value(name, slice("unique-value-" + i));
+    }
+    // the unique values didn't evict the repeated one
+    assertSame(repeated, interner.value(name, slice("repeated-value")));
+  }
+
+  @Test
+  public void headerInterner_varyingHeaderValuesNotCached() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] name = interner.name(slice("grpc-timeout"));
+    byte[] first = interner.value(name, slice("100m"));
+    byte[] second = interner.value(name, slice("100m"));
+    assertNotSame(first, second);
+    assertNotSame(second, interner.value(name, slice("100m")));
+  }
+
+  @Test
+  public void headerInterner_leastRecentlyUsedEvicted() {
+    HeaderInterner interner = new HeaderInterner();
+    byte[] first = interner.name(slice("name-first"));
+    byte[] second = interner.name(slice("name-second"));
+    for (int i = 0; i < HeaderInterner.MAX_CACHED_ENTRIES - 1; i++) {
+      interner.name(slice("name-" + i));
+      assertSame(second, interner.name(slice("name-second")));
+    }
+    assertNotSame(first, interner.name(slice("name-first")));
+    assertSame(second, interner.name(slice("name-second")));
+  }
+
+  @Test
+  public void headerInterner_unslicedNotCopied() {
+    AsciiString value = AsciiString.of("custom-value");
+    HeaderInterner interner = new HeaderInterner();
+    assertSame(value.array(), interner.value(interner.name(slice("custom-name")), value));
+    AsciiString name = AsciiString.of("custom-name");
+    assertSame(name.array(), interner.name(name));
+  }
+
+  @Test
+  public void decode_repeatedHeadersShared() throws Http2Exception {
+    GrpcHttp2ServerHeadersDecoder decoder =
+        new GrpcHttp2ServerHeadersDecoder(DEFAULT_MAX_HEADER_LIST_SIZE);
+    // Huffman encodes the strings, which are then decoded as slices
+    Http2HeadersEncoder encoder = new DefaultHttp2HeadersEncoder(NEVER_SENSITIVE);
+
+    Http2Headers headers = new DefaultHttp2Headers(false);
+    headers.add(of(":scheme"), of("https")).add(of(":method"), of("POST"))
+        .add(of(":path"), of("/service/method")).add(of(":authority"), of("foo.grpc.io"))
+        .add(of("te"), of("trailers")).add(of("custom"), of("a-repeated-custom-value"));
+    encodedHeaders = Unpooled.buffer();
+    encoder.encodeHeaders(1, headers, encodedHeaders);
+    decoder.decodeHeaders(1, encodedHeaders);
+    // custom values are only cached once seen again
+    encodedHeaders.clear();
+    encoder.encodeHeaders(3, headers, encodedHeaders);
+    GrpcHttp2InboundHeaders decoded1 =
+        (GrpcHttp2InboundHeaders) decoder.decodeHeaders(3, encodedHeaders);
+    encodedHeaders.clear();
+    encoder.encodeHeaders(5, headers, encodedHeaders);
+    GrpcHttp2InboundHeaders decoded2 =
+        (GrpcHttp2InboundHeaders) decoder.decodeHeaders(5, encodedHeaders);
+
+    assertEquals(decoded1.numHeaders(), decoded2.numHeaders());
+    for (int i = 0; i < decoded1.numHeaders() * 2; i++) {
+      assertSame(decoded1.namesAndValues()[i], decoded2.namesAndValues()[i]);
+    }
+  }
+
+  private static AsciiString slice(String str) {
+    byte[] bytes = ("[" + str + "]").getBytes(US_ASCII);
+    return new AsciiString(bytes, 1, str.length(), false);
+  }
+
   private static void assertContainsKeyAndValue(String str, CharSequence key, CharSequence value) {
     assertThat(str, containsString(key.toString()));
     assertThat(str, containsString(value.toString()));
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http2.DefaultHttp2Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.handler.codec.http2.Http2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.util.AsciiString;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link HpackConfig}. */
+@RunWith(JUnit4.class)
+public class HpackConfigTest {
+  // Bits 0001xxxx of a literal header field never indexed, 01xxxxxx of one with incremental
+  // indexing, see RFC 7541 section 6.2.
+  private static final int NEVER_INDEXED_MASK = 0xf0;
+  private static final int NEVER_INDEXED = 0x10;
+  private static final int INCREMENTAL_INDEXING_MASK = 0xc0;
+  private static final int INCREMENTAL_INDEXING = 0x40;
+
+  @Test
+  public void isBinaryHeader() {
+    assertTrue(HpackConfig.isBinaryHeader("grpc-trace-bin"));
+    assertTrue(HpackConfig.isBinaryHeader(new AsciiString("grpc-trace-bin")));
+    assertTrue(HpackConfig.isBinaryHeader("-bin"));
+    assertFalse(HpackConfig.isBinaryHeader("bin"));
+    assertFalse(HpackConfig.isBinaryHeader("authorization"));
+    assertFalse(HpackConfig.isBinaryHeader("x-bin-value"));
+  }
+
+  @Test
+  public void applyTo_defaultHeaderTableSizeNotAdvertised() {
+    Http2Settings settings = new Http2Settings();
+    HpackConfig.DEFAULT.applyTo(settings);
+
+    assertNull(settings.headerTableSize());
+  }
+
+  @Test
+  public void applyTo_headerTableSize() {
+    Http2Settings settings = new Http2Settings();
+    HpackConfig.DEFAULT.withHeaderTableSize(65536).applyTo(settings);
+
+    assertThat(settings.headerTableSize()).isEqualTo(65536L);
+  }
+
+  @Test
+  public void binaryHeadersIndexedByDefault() throws Exception {
+    ByteBuf encoded = encode(HpackConfig.DEFAULT, "x-trace-bin", "AAECAwQF");
+    try {
+      assertThat(encoded.getUnsignedByte(0) & INCREMENTAL_INDEXING_MASK)
+          .isEqualTo(INCREMENTAL_INDEXING);
+    } finally {
+      encoded.release();
+    }
+  }
+
+  @Test
+  public void binaryHeadersNotIndexed() throws Exception {
+    HpackConfig config = HpackConfig.DEFAULT.withIndexBinaryHeaders(false);
+    ByteBuf binary = encode(config, "x-trace-bin", "AAECAwQF");
+    ByteBuf ascii = encode(config, "x-trace", "abc");
+    try {
+      assertThat(binary.getUnsignedByte(0) & NEVER_INDEXED_MASK).isEqualTo(NEVER_INDEXED);
+      assertThat(ascii.getUnsignedByte(0) & INCREMENTAL_INDEXING_MASK)
+          .isEqualTo(INCREMENTAL_INDEXING);
+    } finally {
+      binary.release();
+      ascii.release();
+    }
+  }
+
+  @Test
+  public void huffmanThreshold() throws Exception {
+    // 'a' is 5 bits long in the Huffman code
+    String value = Strings.repeat("a", 100);
+    ByteBuf huffman = encode(HpackConfig.DEFAULT.withHuffmanThreshold(0), "x-value", value);
+    ByteBuf raw = encode(HpackConfig.DEFAULT, "x-value", value);
+    try {
+      assertThat(huffman.readableBytes()).isLessThan(raw.readableBytes());
+      assertThat(raw.readableBytes()).isGreaterThan(value.length());
+    } finally {
+      huffman.release();
+      raw.release();
+    }
+  }
+
+  private static ByteBuf encode(HpackConfig config, String name, String value) throws Exception {
+    Http2HeadersEncoder encoder = config.newHeadersEncoder();
+    Http2Headers headers = new DefaultHttp2Headers().add(name, value);
+    ByteBuf out = Unpooled.buffer();
+    encoder.encodeHeaders(3, headers, out);
+    return out;
+  }
+}
@@ -229,6 +229,24 @@ public class NettyChannelBuilderTest {
     builder.keepAliveTimeout(-1L, TimeUnit.HOURS);
   }
 
+  @Test
+  public void negativeHeaderTableSize() {
+    NettyChannelBuilder builder = NettyChannelBuilder.forTarget("fakeTarget");
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("headerTableSize must be >= 0");
+    builder.headerTableSize(-1);
+  }
+
+  @Test
+  public void negativeHuffmanEncodingThreshold() {
+    NettyChannelBuilder builder = NettyChannelBuilder.forTarget("fakeTarget");
+
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("huffmanEncodingThreshold must be >= 0");
+    builder.huffmanEncodingThreshold(-1);
+  }
+
   @Test
   public void assertEventLoopAndChannelType_onlyGroupProvided() {
     NettyChannelBuilder builder = NettyChannelBuilder.forTarget("fakeTarget");
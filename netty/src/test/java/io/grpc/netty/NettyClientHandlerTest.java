@@ -871,6 +871,7 @@ public class NettyClientHandlerTest extends NettyHandlerTestBase<NettyClientHand
         false,
         flowControlWindow,
         maxHeaderListSize,
+        HpackConfig.DEFAULT,
         stopwatchSupplier,
         tooManyPingsRunnable,
         transportTracer,
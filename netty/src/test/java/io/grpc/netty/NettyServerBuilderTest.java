@@ -100,6 +100,22 @@ public class NettyServerBuilderTest {
     builder.maxInboundMetadataSize(0);
   }
 
+  @Test
+  public void failIfHeaderTableSizeNegative() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("headerTableSize must be >= 0");
+
+    builder.headerTableSize(-1);
+  }
+
+  @Test
+  public void failIfHuffmanEncodingThresholdNegative() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("huffmanEncodingThreshold must be >= 0");
+
+    builder.huffmanEncodingThreshold(-1);
+  }
+
   @Test
   public void failIfMaxConnectionIdleNegative() {
     thrown.expect(IllegalArgumentException.class);
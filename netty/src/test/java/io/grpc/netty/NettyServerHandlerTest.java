@@ -1119,6 +1119,7 @@ public class NettyServerHandlerTest extends NettyHandlerTestBase<NettyServerHand
         autoFlowControl,
         flowControlWindow,
         maxHeaderListSize,
+        HpackConfig.DEFAULT,
         DEFAULT_MAX_MESSAGE_SIZE,
         keepAliveTimeInNanos,
         keepAliveTimeoutInNanos,
@@ -146,6 +146,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -196,6 +197,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -269,6 +271,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -330,6 +333,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -404,6 +408,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -451,6 +456,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
@@ -594,6 +600,7 @@ public class NettyServerTest {
         1, // ignore
         1, // ignore
         1, // ignore
+        HpackConfig.DEFAULT,
         1, // ignore
         1, 1, // ignore
         1, 1, // ignore
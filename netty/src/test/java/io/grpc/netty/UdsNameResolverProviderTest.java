@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.netty;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.InternalServiceProviders;
+import io.grpc.ManagedChannel;
+import io.grpc.NameResolver;
+import io.grpc.NameResolver.ResolutionResult;
+import io.grpc.NameResolverProvider;
+import io.grpc.ProxyDetector;
+import io.grpc.Server;
+import io.grpc.SynchronizationContext;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.protobuf.SimpleRequest;
+import io.grpc.testing.protobuf.SimpleResponse;
+import io.grpc.testing.protobuf.SimpleServiceGrpc;
+import java.io.File;
+import java.net.SocketAddress;
+import java.net.URI;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+
+/** Unit tests for {@link UdsNameResolverProvider}. */
+@RunWith(JUnit4.class)
+public class UdsNameResolverProviderTest {
+  @Rule
+  public final GrpcCleanupRule grpcCleanupRule = new GrpcCleanupRule();
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final UdsNameResolverProvider provider = new UdsNameResolverProvider();
+  private final NameResolver.Args args = NameResolver.Args.newBuilder()
+      .setDefaultPort(443)
+      .setProxyDetector(mock(ProxyDetector.class))
+      .setSynchronizationContext(new SynchronizationContext(
+          new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+              throw new AssertionError(e);
+            }
+          }))
+      .setServiceConfigParser(mock(NameResolver.ServiceConfigParser.class))
+      .build();
+
+  @Before
+  public void setUp() {
+    Assume.assumeTrue(Utils.isDomainSocketAvailable());
+  }
+
+  @Test
+  public void provided() {
+    for (NameResolverProvider current
+        : InternalServiceProviders.getCandidatesViaServiceLoader(
+            NameResolverProvider.class, getClass().getClassLoader())) {
+      if (current instanceof UdsNameResolverProvider) {
+        return;
+      }
+    }
+    fail("ServiceLoader unable to load UdsNameResolverProvider");
+  }
+
+  @Test
+  public void otherScheme() {
+    assertNull(provider.newNameResolver(URI.create("dns:///localhost"), args));
+  }
+
+  @Test
+  public void absolutePath() {
+    assertEquals("/tmp/sidecar.sock", resolve("unix:///tmp/sidecar.sock").toString());
+    assertEquals("/tmp/sidecar.sock", resolve("unix:/tmp/sidecar.sock").toString());
+  }
+
+  @Test
+  public void relativePath() {
+    assertEquals("sidecar.sock", resolve("unix:sidecar.sock").toString());
+  }
+
+  @Test
+  public void authorityNotAllowed() {
+    try {
+      provider.newNameResolver(URI.create("unix://host/tmp/sidecar.sock"), args);
+      fail("expected exception");
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessageThat().contains("authority");
+    }
+  }
+
+  @Test
+  public void unaryCall() throws Exception {
+    String path = new File(tempFolder.getRoot(), "test.sock").getAbsolutePath();
+    Server server = NettyServerBuilder.forAddress(Utils.newDomainSocketAddress(path))
+        .addService(new SimpleServiceGrpc.SimpleServiceImplBase() {
+          @Override
+          public void unaryRpc(SimpleRequest req, StreamObserver<SimpleResponse> respOb) {
+            respOb.onNext(SimpleResponse.getDefaultInstance());
+            respOb.onCompleted();
+          }
+        })
+        .build()
+        .start();
+    grpcCleanupRule.register(server);
+    ManagedChannel channel = NettyChannelBuilder.forTarget("unix://" + path)
+        .usePlaintext()
+        .build();
+    grpcCleanupRule.register(channel);
+
+    assertEquals(
+        SimpleResponse.getDefaultInstance(),
+        SimpleServiceGrpc.newBlockingStub(channel).unaryRpc(SimpleRequest.getDefaultInstance()));
+  }
+
+  private SocketAddress resolve(String target) {
+    NameResolver resolver = provider.newNameResolver(URI.create(target), args);
+    assertEquals("localhost", resolver.getServiceAuthority());
+    NameResolver.Listener2 listener = mock(NameResolver.Listener2.class);
+    resolver.start(listener);
+    ArgumentCaptor<ResolutionResult> resultCaptor = ArgumentCaptor.forClass(ResolutionResult.class);
+    verify(listener).onResult(resultCaptor.capture());
+    EquivalentAddressGroup addressGroup = resultCaptor.getValue().getAddresses().get(0);
+    assertThat(addressGroup.getAddresses()).hasSize(1);
+    assertThat(Utils.isDomainSocketAddress(addressGroup.getAddresses().get(0))).isTrue();
+    resolver.shutdown();
+    return addressGroup.getAddresses().get(0);
+  }
+}
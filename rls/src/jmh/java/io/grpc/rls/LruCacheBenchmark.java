@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.rls;
+
+import io.grpc.internal.TimeProvider;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the read throughput of the RLS cache, which is on the path of every pick made by the
+ * RLS picker, across multiple threads.
+ */
+@State(Scope.Benchmark)
+public class LruCacheBenchmark {
+
+  @Param({"LINKED_HASH", "CONCURRENT"})
+  public CacheType cacheType;
+
+  // Number of distinct route lookup keys
+  @Param({"100", "10000"})
+  public int keys;
+
+  private ScheduledExecutorService ses;
+  private LruCache<Integer, Long> cache;
+
+  /**
+   * Populates the cache with non expiring entries.
+   */
+  @Setup
+  public void setUp() {
+    ses = Executors.newSingleThreadScheduledExecutor();
+    switch (cacheType) {
+      case LINKED_HASH:
+        cache = new LinkedHashLruCache<Integer, Long>(
+            keys, null, 1, TimeUnit.MINUTES, ses, TimeProvider.SYSTEM_TIME_PROVIDER) {
+          @Override
+          protected boolean isExpired(Integer key, Long value, long nowNanos) {
+            return value <= nowNanos;
+          }
+        };
+        break;
+      case CONCURRENT:
+        cache = new ConcurrentLruCache<Integer, Long>(
+            keys, null, 1, TimeUnit.MINUTES, ses, TimeProvider.SYSTEM_TIME_PROVIDER) {
+          @Override
+          protected boolean isExpired(Integer key, Long value, long nowNanos) {
+            return value <= nowNanos;
+          }
+        };
+        break;
+      default:
+        throw new AssertionError();
+    }
+    for (int i = 0; i < keys; i++) {
+      cache.cache(i, Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Releases the cleaner.
+   */
+  @TearDown
+  public void tearDown() {
+    cache.close();
+    ses.shutdownNow();
+  }
+
+  /**
+   * Cache hit from a single picking thread.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(1)
+  public Long read_1thread() {
+    return cache.read(ThreadLocalRandom.current().nextInt(keys));
+  }
+
+  /**
+   * Cache hit from 4 concurrently picking threads.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(4)
+  public Long read_4threads() {
+    return cache.read(ThreadLocalRandom.current().nextInt(keys));
+  }
+
+  /**
+   * Cache hit from 16 concurrently picking threads.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Threads(16)
+  public Long read_16threads() {
+    return cache.read(ThreadLocalRandom.current().nextInt(keys));
+  }
+
+  public enum CacheType {
+    LINKED_HASH,
+    CONCURRENT
+  }
+}
@@ -69,6 +69,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -94,11 +95,25 @@ final class CachingRlsLbClient {
   static boolean enableOobChannelDirectPath =
       Boolean.parseBoolean(System.getProperty(RLS_ENABLE_OOB_CHANNEL_DIRECTPATH_PROPERTY, "false"));
 
+  // System property to refresh frequently picked cache entries in the background before they
+  // become stale, by default proactive refresh is disabled.
+  private static final String RLS_ENABLE_PROACTIVE_REFRESH_PROPERTY =
+      "io.grpc.rls.CachingRlsLbClient.enable_proactive_refresh";
+  @VisibleForTesting
+  static boolean enableProactiveRefresh =
+      Boolean.parseBoolean(System.getProperty(RLS_ENABLE_PROACTIVE_REFRESH_PROPERTY, "false"));
+  // An entry picked at least this many times since the previous scan is refreshed proactively.
+  @VisibleForTesting
+  static final int PROACTIVE_REFRESH_MIN_ACCESS_COUNT = 2;
+  // The scan interval and how early before the stale time an entry is refreshed, as a fraction of
+  // the stale age.
+  private static final int PROACTIVE_REFRESH_WINDOW_DIVISOR = 5;
+
   // All cache status changes (pending, backoff, success) must be under this lock
   private final Object lock = new Object();
-  // LRU cache based on access order (BACKOFF and actual data will be here)
-  @GuardedBy("lock")
-  private final LinkedHashLruCache<RouteLookupRequest, CacheEntry> linkedHashLruCache;
+  // LRU cache based on access order (BACKOFF and actual data will be here). Reads don't need the
+  // lock, but any modification must be done under the lock.
+  private final ConcurrentLruCache<RouteLookupRequest, CacheEntry> lruCache;
   // any RPC on the fly will cached in this map
   @GuardedBy("lock")
   private final Map<RouteLookupRequest, PendingCacheEntry> pendingCallCache = new HashMap<>();
@@ -113,6 +128,10 @@ final class CachingRlsLbClient {
   private final long maxAgeNanos;
   private final long staleAgeNanos;
   private final long callTimeoutNanos;
+  private final long refreshAheadNanos;
+  @GuardedBy("lock")
+  @Nullable
+  private ScheduledHandle proactiveRefreshHandle;
 
   private final RlsLbHelper helper;
   private final ManagedChannel rlsChannel;
@@ -131,9 +150,10 @@ final class CachingRlsLbClient {
     maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(rlsConfig.getMaxAgeInMillis());
     staleAgeNanos = TimeUnit.MILLISECONDS.toNanos(rlsConfig.getStaleAgeInMillis());
     callTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(rlsConfig.getLookupServiceTimeoutInMillis());
+    refreshAheadNanos = staleAgeNanos / PROACTIVE_REFRESH_WINDOW_DIVISOR;
     timeProvider = checkNotNull(builder.timeProvider, "timeProvider");
     throttler = checkNotNull(builder.throttler, "throttler");
-    linkedHashLruCache =
+    lruCache =
         new RlsAsyncLruCache(
             rlsConfig.getCacheSizeBytes(),
             builder.evictionListener,
@@ -182,6 +202,11 @@ final class CachingRlsLbClient {
     refCountedChildPolicyWrapperFactory =
         new RefCountedChildPolicyWrapperFactory(
             childLbHelperProvider, new BackoffRefreshListener());
+    if (enableProactiveRefresh && refreshAheadNanos > 0) {
+      synchronized (lock) {
+        scheduleProactiveRefresh();
+      }
+    }
     logger.log(ChannelLogLevel.DEBUG, "CachingRlsLbClient created");
   }
 
@@ -243,9 +268,19 @@ final class CachingRlsLbClient {
    */
   @CheckReturnValue
   final CachedRouteLookupResponse get(final RouteLookupRequest request) {
+    // fast path for fresh cache hit, it is lock free since RlsPicker calls this for every RPC
+    CacheEntry freshEntry = lruCache.readIfNotExpired(request);
+    if (freshEntry instanceof DataCacheEntry) {
+      DataCacheEntry dataEntry = (DataCacheEntry) freshEntry;
+      if (!dataEntry.isStaled(timeProvider.currentTimeNanos())) {
+        logger.log(ChannelLogLevel.DEBUG, "Cache hit for the request");
+        dataEntry.recordAccess();
+        return CachedRouteLookupResponse.dataEntry(dataEntry);
+      }
+    }
     synchronized (lock) {
       final CacheEntry cacheEntry;
-      cacheEntry = linkedHashLruCache.read(request);
+      cacheEntry = lruCache.read(request);
       if (cacheEntry == null) {
         return handleNewRequest(request);
       }
@@ -254,6 +289,7 @@ final class CachingRlsLbClient {
         // cache hit, initiate async-refresh if entry is staled
         logger.log(ChannelLogLevel.DEBUG, "Cache hit for the request");
         DataCacheEntry dataEntry = ((DataCacheEntry) cacheEntry);
+        dataEntry.recordAccess();
         if (dataEntry.isStaled(timeProvider.currentTimeNanos())) {
           dataEntry.maybeRefresh();
         }
@@ -263,12 +299,59 @@ final class CachingRlsLbClient {
     }
   }
 
+  @GuardedBy("lock")
+  private void scheduleProactiveRefresh() {
+    proactiveRefreshHandle =
+        synchronizationContext.schedule(
+            new Runnable() {
+              @Override
+              public void run() {
+                proactivelyRefresh();
+              }
+            },
+            refreshAheadNanos,
+            TimeUnit.NANOSECONDS,
+            scheduledExecutorService);
+  }
+
+  /**
+   * Refreshes the data entries which are picked frequently and will become stale before the next
+   * scan, so that the RLS latency of their refresh is not on the data path. The refresh shares the
+   * pending call with a refresh triggered by a pick. Entries rarely picked are left to be refreshed
+   * by the next pick after they become stale.
+   */
+  private void proactivelyRefresh() {
+    synchronized (lock) {
+      if (proactiveRefreshHandle == null) {
+        // already closed
+        return;
+      }
+      long staleDeadline = timeProvider.currentTimeNanos() + refreshAheadNanos;
+      for (CacheEntry value : lruCache.values()) {
+        if (!(value instanceof DataCacheEntry)) {
+          continue;
+        }
+        DataCacheEntry dataEntry = (DataCacheEntry) value;
+        if (dataEntry.getAndResetAccessCount() >= PROACTIVE_REFRESH_MIN_ACCESS_COUNT
+            && dataEntry.isStaled(staleDeadline)) {
+          logger.log(ChannelLogLevel.DEBUG, "Proactively refreshing {0}", dataEntry.request);
+          dataEntry.maybeRefresh();
+        }
+      }
+      scheduleProactiveRefresh();
+    }
+  }
+
   /** Performs any pending maintenance operations needed by the cache. */
   void close() {
     logger.log(ChannelLogLevel.DEBUG, "CachingRlsLbClient closed");
     synchronized (lock) {
+      if (proactiveRefreshHandle != null) {
+        proactiveRefreshHandle.cancel();
+        proactiveRefreshHandle = null;
+      }
       // all childPolicyWrapper will be returned via AutoCleaningEvictionListener
-      linkedHashLruCache.close();
+      lruCache.close();
       // TODO(creamsoup) maybe cancel all pending requests
       pendingCallCache.clear();
       rlsChannel.shutdownNow();
@@ -298,12 +381,12 @@ final class CachingRlsLbClient {
         try {
           RouteLookupResponse response = asyncCall.get();
           DataCacheEntry dataEntry = new DataCacheEntry(request, response);
-          linkedHashLruCache.cache(request, dataEntry);
+          lruCache.cache(request, dataEntry);
           return CachedRouteLookupResponse.dataEntry(dataEntry);
         } catch (Exception e) {
           BackoffCacheEntry backoffEntry =
               new BackoffCacheEntry(request, Status.fromThrowable(e), backoffProvider.get());
-          linkedHashLruCache.cache(request, backoffEntry);
+          lruCache.cache(request, backoffEntry);
           return CachedRouteLookupResponse.backoffEntry(backoffEntry);
         }
       }
@@ -490,14 +573,21 @@ final class CachingRlsLbClient {
             ChannelLogLevel.DEBUG,
             "Transition to data cache: routeLookupResponse={0}",
             routeLookupResponse);
-        linkedHashLruCache.cache(request, new DataCacheEntry(request, routeLookupResponse));
+        lruCache.cache(request, new DataCacheEntry(request, routeLookupResponse));
       }
     }
 
     private void transitionToBackOff(Status status) {
       synchronized (lock) {
+        CacheEntry currentEntry = lruCache.read(request);
+        if (currentEntry instanceof DataCacheEntry
+            && !((DataCacheEntry) currentEntry).isStaled(timeProvider.currentTimeNanos())) {
+          // The failed call was a proactive refresh, the entry is still valid.
+          logger.log(ChannelLogLevel.DEBUG, "Proactive refresh failed: status={0}", status);
+          return;
+        }
         logger.log(ChannelLogLevel.DEBUG, "Transition to back off: status={0}", status);
-        linkedHashLruCache.cache(request, new BackoffCacheEntry(request, status, backoffPolicy));
+        lruCache.cache(request, new BackoffCacheEntry(request, status, backoffPolicy));
       }
     }
 
@@ -535,6 +625,8 @@ final class CachingRlsLbClient {
     private final long expireTime;
     private final long staleTime;
     private final ChildPolicyWrapper childPolicyWrapper;
+    // number of picks since the last proactive refresh scan
+    private final AtomicInteger accessCount = new AtomicInteger();
 
     DataCacheEntry(RouteLookupRequest request, final RouteLookupResponse response) {
       super(request);
@@ -598,18 +690,33 @@ final class CachingRlsLbClient {
           // async call returned finished future is most likely throttled
           try {
             RouteLookupResponse response = asyncCall.get();
-            linkedHashLruCache.cache(request, new DataCacheEntry(request, response));
+            lruCache.cache(request, new DataCacheEntry(request, response));
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
           } catch (Exception e) {
+            if (!isStaled(timeProvider.currentTimeNanos())) {
+              // A failed proactive refresh keeps serving the entry, which is still valid.
+              logger.log(ChannelLogLevel.DEBUG, "Proactive refresh failed: {0}", e);
+              return;
+            }
             BackoffCacheEntry backoffEntry =
                 new BackoffCacheEntry(request, Status.fromThrowable(e), backoffProvider.get());
-            linkedHashLruCache.cache(request, backoffEntry);
+            lruCache.cache(request, backoffEntry);
           }
         }
       }
     }
 
+    void recordAccess() {
+      if (enableProactiveRefresh) {
+        accessCount.incrementAndGet();
+      }
+    }
+
+    int getAndResetAccessCount() {
+      return accessCount.getAndSet(0);
+    }
+
     @Nullable
     ChildPolicyWrapper getChildPolicyWrapper() {
       return childPolicyWrapper;
@@ -700,15 +807,15 @@ final class CachingRlsLbClient {
         if (!call.isDone()) {
           PendingCacheEntry pendingEntry = new PendingCacheEntry(request, call, backoffPolicy);
           pendingCallCache.put(request, pendingEntry);
-          linkedHashLruCache.invalidate(request);
+          lruCache.invalidate(request);
         } else {
           try {
             RouteLookupResponse response = call.get();
-            linkedHashLruCache.cache(request, new DataCacheEntry(request, response));
+            lruCache.cache(request, new DataCacheEntry(request, response));
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
           } catch (Exception e) {
-            linkedHashLruCache.cache(
+            lruCache.cache(
                 request,
                 new BackoffCacheEntry(request, Status.fromThrowable(e), backoffPolicy));
           }
@@ -850,9 +957,9 @@ final class CachingRlsLbClient {
     }
   }
 
-  /** Implementation of {@link LinkedHashLruCache} for RLS. */
+  /** Implementation of {@link ConcurrentLruCache} for RLS. */
   private static final class RlsAsyncLruCache
-      extends LinkedHashLruCache<RouteLookupRequest, CacheEntry> {
+      extends ConcurrentLruCache<RouteLookupRequest, CacheEntry> {
 
     RlsAsyncLruCache(long maxEstimatedSizeBytes,
         @Nullable EvictionListener<RouteLookupRequest, CacheEntry> evictionListener,
@@ -898,7 +1005,7 @@ final class CachingRlsLbClient {
       if (prevState == ConnectivityState.TRANSIENT_FAILURE
           && newState == ConnectivityState.READY) {
         synchronized (lock) {
-          for (CacheEntry value : linkedHashLruCache.values()) {
+          for (CacheEntry value : lruCache.values()) {
             if (value instanceof BackoffCacheEntry) {
               ((BackoffCacheEntry) value).forceRefresh();
             }
@@ -0,0 +1,526 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.rls;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import io.grpc.internal.TimeProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A ConcurrentLruCache is an {@link LruCache} whose reads do not block. Entries live in a {@link
+ * ConcurrentHashMap}, and the access order used for size based eviction is maintained
+ * separately under an eviction lock. Reads only record the accessed entry in a lossy, striped
+ * read buffer; the buffer is replayed against the access order list by whichever thread next holds
+ * the eviction lock (a write, the periodic cleaner, or a reader that finds its buffer stripe
+ * filling up and manages to {@code tryLock}). Under heavy contention some accesses may be dropped,
+ * which only makes the LRU order approximate.
+ *
+ * <p>Like {@link LinkedHashLruCache}, when the cache reaches max capacity it first tries to remove
+ * an already expired entry before falling back to the least recently used one, and it proactively
+ * removes expired entries at the configured interval. {@link EvictionListener} is always called
+ * while holding the eviction lock, so it is called serially.
+ */
+@ThreadSafe
+abstract class ConcurrentLruCache<K, V> implements LruCache<K, V> {
+
+  // Must be a power of 2.
+  private static final int READ_BUFFER_STRIPES = 16;
+  // Must be a power of 2.
+  private static final int READ_BUFFER_SIZE = 32;
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  // Sentinel of the circular access order list, head.next is the eldest entry.
+  @GuardedBy("evictionLock")
+  private final Node<K, V> head = new Node<>(null, null, 0);
+  private final ReadBuffer<K, V>[] readBuffers;
+  private final PeriodicCleaner periodicCleaner;
+  private final TimeProvider timeProvider;
+  @Nullable
+  private final EvictionListener<K, V> evictionListener;
+  private final AtomicLong estimatedSizeBytes = new AtomicLong();
+  private volatile long estimatedMaxSizeBytes;
+
+  @SuppressWarnings("unchecked")
+  ConcurrentLruCache(
+      long estimatedMaxSizeBytes,
+      @Nullable EvictionListener<K, V> evictionListener,
+      int cleaningInterval,
+      TimeUnit cleaningIntervalUnit,
+      ScheduledExecutorService ses,
+      TimeProvider timeProvider) {
+    checkState(estimatedMaxSizeBytes > 0, "max estimated cache size should be positive");
+    this.estimatedMaxSizeBytes = estimatedMaxSizeBytes;
+    this.evictionListener = evictionListener;
+    this.timeProvider = checkNotNull(timeProvider, "timeProvider");
+    // rough estimate or minimum hashmap default
+    this.data =
+        new ConcurrentHashMap<>(Math.max((int) (estimatedMaxSizeBytes / 1000), 16));
+    head.prev = head;
+    head.next = head;
+    readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    for (int i = 0; i < READ_BUFFER_STRIPES; i++) {
+      readBuffers[i] = new ReadBuffer<>();
+    }
+    periodicCleaner = new PeriodicCleaner(ses, cleaningInterval, cleaningIntervalUnit).start();
+  }
+
+  /**
+   * Determines if the eldest entry should be kept or not when the cache size limit is reached. Note
+   * that LruCache is access level and the eldest is determined by access pattern.
+   */
+  @SuppressWarnings("unused")
+  protected boolean shouldInvalidateEldestEntry(K eldestKey, V eldestValue) {
+    return true;
+  }
+
+  /** Determines if the entry is already expired or not. */
+  protected abstract boolean isExpired(K key, V value, long nowNanos);
+
+  /**
+   * Returns estimated size of entry to keep track. If it always returns 1, the max size bytes
+   * behaves like max number of entry (default behavior).
+   */
+  @SuppressWarnings("unused")
+  protected int estimateSizeOf(K key, V value) {
+    return 1;
+  }
+
+  /** Updates size for given key if entry exists. It is useful if the cache value is mutated. */
+  public void updateEntrySize(K key) {
+    checkNotNull(key, "key");
+    evictionLock.lock();
+    try {
+      Node<K, V> node = data.get(key);
+      if (node == null) {
+        return;
+      }
+      int prevSize = node.size;
+      int newSize = estimateSizeOf(key, node.value);
+      node.size = newSize;
+      estimatedSizeBytes.addAndGet(newSize - prevSize);
+      evictIfNecessary(timeProvider.currentTimeNanos());
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns estimated cache size bytes. Each entry size is calculated by {@link
+   * #estimateSizeOf(java.lang.Object, java.lang.Object)}.
+   */
+  public long estimatedSizeBytes() {
+    return estimatedSizeBytes.get();
+  }
+
+  @Override
+  @Nullable
+  public final V cache(K key, V value) {
+    checkNotNull(key, "key");
+    checkNotNull(value, "value");
+    Node<K, V> node = new Node<>(key, value, estimateSizeOf(key, value));
+    Node<K, V> existing;
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      existing = data.put(key, node);
+      if (existing != null) {
+        remove(existing, EvictionType.REPLACED);
+      }
+      linkLast(node);
+      estimatedSizeBytes.addAndGet(node.size);
+      evictIfNecessary(timeProvider.currentTimeNanos());
+    } finally {
+      evictionLock.unlock();
+    }
+    return existing == null ? null : existing.value;
+  }
+
+  @Override
+  @Nullable
+  @CheckReturnValue
+  public final V read(K key) {
+    checkNotNull(key, "key");
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    if (isExpired(key, node.value, timeProvider.currentTimeNanos())) {
+      evictionLock.lock();
+      try {
+        if (data.remove(key, node)) {
+          remove(node, EvictionType.EXPIRED);
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+      return null;
+    }
+    recordRead(node);
+    return node.value;
+  }
+
+  /**
+   * Returns cached value for given key if exists and is not expired, otherwise {@code null}. Unlike
+   * {@link #read}, this never blocks nor evicts; an expired entry is left for the next {@link
+   * #read}, write or periodic cleanup to remove.
+   */
+  @Nullable
+  @CheckReturnValue
+  public final V readIfNotExpired(K key) {
+    checkNotNull(key, "key");
+    Node<K, V> node = data.get(key);
+    if (node == null || isExpired(key, node.value, timeProvider.currentTimeNanos())) {
+      return null;
+    }
+    recordRead(node);
+    return node.value;
+  }
+
+  @Override
+  @Nullable
+  public final V invalidate(K key) {
+    checkNotNull(key, "key");
+    evictionLock.lock();
+    try {
+      Node<K, V> existing = data.remove(key);
+      if (existing == null) {
+        return null;
+      }
+      remove(existing, EvictionType.EXPLICIT);
+      return existing.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public final void invalidateAll(Iterable<K> keys) {
+    checkNotNull(keys, "keys");
+    evictionLock.lock();
+    try {
+      for (K key : keys) {
+        Node<K, V> existing = data.remove(key);
+        if (existing != null) {
+          remove(existing, EvictionType.EXPLICIT);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  @CheckReturnValue
+  public final boolean hasCacheEntry(K key) {
+    // call read to filter already expired entry in the cache
+    return read(key) != null;
+  }
+
+  /** Returns shallow copied values in the cache. */
+  public final List<V> values() {
+    List<V> list = new ArrayList<>(data.size());
+    for (Node<K, V> node : data.values()) {
+      list.add(node.value);
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Resizes cache. If new size is smaller than current estimated size, it will free up space by
+   * removing expired entries and removing oldest entries by LRU order.
+   */
+  public final void resize(int newSizeBytes) {
+    long now = timeProvider.currentTimeNanos();
+    evictionLock.lock();
+    try {
+      this.estimatedMaxSizeBytes = newSizeBytes;
+      if (estimatedSizeBytes.get() <= newSizeBytes) {
+        // new size is larger no need to do cleanup
+        return;
+      }
+      drainReadBuffers();
+      cleanupExpiredEntries(Integer.MAX_VALUE, now);
+      while (head.next != head && estimatedMaxSizeBytes < estimatedSizeBytes.get()) {
+        Node<K, V> eldest = head.next;
+        data.remove(eldest.key, eldest);
+        remove(eldest, EvictionType.SIZE);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  @CheckReturnValue
+  public final int estimatedSize() {
+    return data.size();
+  }
+
+  @Override
+  public final void close() {
+    evictionLock.lock();
+    try {
+      periodicCleaner.stop();
+      doClose();
+      data.clear();
+      head.prev = head;
+      head.next = head;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  protected void doClose() {}
+
+  /** Drains the read buffers, so the access order reflects all recorded reads. */
+  @VisibleForTesting
+  final void cleanUp() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void recordRead(Node<K, V> node) {
+    ReadBuffer<K, V> buffer =
+        readBuffers[(int) Thread.currentThread().getId() & (READ_BUFFER_STRIPES - 1)];
+    long pending = buffer.record(node);
+    if (pending >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void drainReadBuffers() {
+    for (ReadBuffer<K, V> buffer : readBuffers) {
+      buffer.drainTo(this);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void onAccess(Node<K, V> node) {
+    // the node may have been removed after the read was recorded
+    if (node.next != null) {
+      unlink(node);
+      linkLast(node);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void evictIfNecessary(long now) {
+    while (estimatedSizeBytes.get() > estimatedMaxSizeBytes && head.next != head) {
+      // first, remove at most 1 expired entry
+      if (cleanupExpiredEntries(1, now)) {
+        continue;
+      }
+      // handles size based eviction if necessary no expired entry
+      Node<K, V> eldest = head.next;
+      if (!shouldInvalidateEldestEntry(eldest.key, eldest.value)) {
+        return;
+      }
+      data.remove(eldest.key, eldest);
+      remove(eldest, EvictionType.SIZE);
+    }
+  }
+
+  // maxExpiredEntries is by number of entries
+  @GuardedBy("evictionLock")
+  private boolean cleanupExpiredEntries(int maxExpiredEntries, long now) {
+    boolean removedAny = false;
+    Node<K, V> node = head.next;
+    while (node != head && maxExpiredEntries > 0) {
+      Node<K, V> next = node.next;
+      if (isExpired(node.key, node.value, now)) {
+        data.remove(node.key, node);
+        remove(node, EvictionType.EXPIRED);
+        removedAny = true;
+        maxExpiredEntries--;
+      }
+      node = next;
+    }
+    return removedAny;
+  }
+
+  private void cleanupExpiredEntries(long now) {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      cleanupExpiredEntries(Integer.MAX_VALUE, now);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Unlinks an entry already removed from {@link #data} and notifies the listener. */
+  @GuardedBy("evictionLock")
+  private void remove(Node<K, V> node, EvictionType cause) {
+    unlink(node);
+    estimatedSizeBytes.addAndGet(-1 * node.size);
+    if (evictionListener != null) {
+      evictionListener.onEviction(node.key, node.value, cause);
+    }
+  }
+
+  @GuardedBy("evictionLock")
+  private void linkLast(Node<K, V> node) {
+    node.prev = head.prev;
+    node.next = head;
+    head.prev.next = node;
+    head.prev = node;
+  }
+
+  @GuardedBy("evictionLock")
+  private void unlink(Node<K, V> node) {
+    if (node.next == null) {
+      return;
+    }
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+    node.prev = null;
+    node.next = null;
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    volatile int size;
+    // null when the node is not linked, guarded by evictionLock
+    Node<K, V> prev;
+    Node<K, V> next;
+
+    Node(K key, V value, int size) {
+      this.key = key;
+      this.value = value;
+      this.size = size;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("key", key)
+          .add("size", size)
+          .add("value", value)
+          .toString();
+    }
+  }
+
+  /**
+   * A bounded, lossy, multiple producer single consumer buffer of accessed nodes. Producers drop
+   * the access when the buffer is full instead of waiting for it to be drained.
+   */
+  private static final class ReadBuffer<K, V> {
+    private static final int MASK = READ_BUFFER_SIZE - 1;
+
+    private final AtomicReferenceArray<Node<K, V>> buffer =
+        new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writeCounter = new AtomicLong();
+    // only written while holding the eviction lock
+    private volatile long readCounter;
+
+    /** Records the access, returns the number of pending accesses in this buffer. */
+    long record(Node<K, V> node) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      long pending = tail - head;
+      if (pending >= READ_BUFFER_SIZE || !writeCounter.compareAndSet(tail, tail + 1)) {
+        // full or contended, dropping the access is fine since the LRU order is approximate
+        return pending;
+      }
+      buffer.lazySet((int) (tail & MASK), node);
+      return pending + 1;
+    }
+
+    void drainTo(ConcurrentLruCache<K, V> cache) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      for (; head < tail; head++) {
+        int index = (int) (head & MASK);
+        Node<K, V> node = buffer.get(index);
+        if (node == null) {
+          // the producer claimed the slot but didn't publish it yet
+          break;
+        }
+        buffer.lazySet(index, null);
+        cache.onAccess(node);
+      }
+      readCounter = head;
+    }
+  }
+
+  /** Periodically cleans up the expired entries. */
+  private final class PeriodicCleaner {
+
+    private final ScheduledExecutorService ses;
+    private final int interval;
+    private final TimeUnit intervalUnit;
+    private ScheduledFuture<?> scheduledFuture;
+
+    PeriodicCleaner(ScheduledExecutorService ses, int interval, TimeUnit intervalUnit) {
+      this.ses = checkNotNull(ses, "ses");
+      checkState(interval > 0, "interval must be positive");
+      this.interval = interval;
+      this.intervalUnit = checkNotNull(intervalUnit, "intervalUnit");
+    }
+
+    PeriodicCleaner start() {
+      checkState(scheduledFuture == null, "cleaning task can be started only once");
+      this.scheduledFuture =
+          ses.scheduleAtFixedRate(new CleaningTask(), interval, interval, intervalUnit);
+      return this;
+    }
+
+    void stop() {
+      if (scheduledFuture != null) {
+        scheduledFuture.cancel(false);
+        scheduledFuture = null;
+      }
+    }
+
+    private class CleaningTask implements Runnable {
+
+      @Override
+      public void run() {
+        cleanupExpiredEntries(timeProvider.currentTimeNanos());
+      }
+    }
+  }
+}
@@ -25,6 +25,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -145,6 +146,7 @@ public class CachingRlsLbClientTest {
 
   private CachingRlsLbClient rlsLbClient;
   private boolean existingEnableOobChannelDirectPath;
+  private boolean existingEnableProactiveRefresh;
   private Map<String, ?> rlsChannelServiceConfig;
   private String rlsChannelOverriddenAuthority;
 
@@ -152,6 +154,8 @@ public class CachingRlsLbClientTest {
   public void setUp() throws Exception {
     existingEnableOobChannelDirectPath = CachingRlsLbClient.enableOobChannelDirectPath;
     CachingRlsLbClient.enableOobChannelDirectPath = false;
+    existingEnableProactiveRefresh = CachingRlsLbClient.enableProactiveRefresh;
+    CachingRlsLbClient.enableProactiveRefresh = false;
   }
 
   private void setUpRlsLbClient() {
@@ -171,6 +175,7 @@ public class CachingRlsLbClientTest {
   public void tearDown() throws Exception {
     rlsLbClient.close();
     CachingRlsLbClient.enableOobChannelDirectPath = existingEnableOobChannelDirectPath;
+    CachingRlsLbClient.enableProactiveRefresh = existingEnableProactiveRefresh;
   }
 
   private CachedRouteLookupResponse getInSyncContext(
@@ -238,6 +243,101 @@ public class CachingRlsLbClientTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void get_proactiveRefresh_hotEntryRefreshedBeforeStale() throws Exception {
+    CachingRlsLbClient.enableProactiveRefresh = true;
+    setUpRlsLbClient();
+    RouteLookupRequest routeLookupRequest =
+        new RouteLookupRequest(
+            "bigtable.googleapis.com", "/foo/bar", "grpc", ImmutableMap.<String, String>of());
+    rlsServerImpl.setLookupTable(
+        ImmutableMap.of(
+            routeLookupRequest,
+            new RouteLookupResponse(ImmutableList.of("target"), "header")));
+
+    CachedRouteLookupResponse resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.isPending()).isTrue();
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    // right before the scan which sees the entry becoming stale, the entry is picked frequently
+    fakeTimeProvider.forwardTime(
+        ROUTE_LOOKUP_CONFIG.getStaleAgeInMillis() - 2 * SERVER_LATENCY_MILLIS,
+        TimeUnit.MILLISECONDS);
+    for (int i = 0; i < CachingRlsLbClient.PROACTIVE_REFRESH_MIN_ACCESS_COUNT; i++) {
+      resp = getInSyncContext(routeLookupRequest);
+      assertThat(resp.hasData()).isTrue();
+    }
+    verify(evictionListener, never())
+        .onEviction(eq(routeLookupRequest), any(CacheEntry.class), eq(EvictionType.REPLACED));
+
+    // background scan sends the refresh before the entry is staled
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    verify(evictionListener)
+        .onEviction(eq(routeLookupRequest), any(CacheEntry.class), eq(EvictionType.REPLACED));
+
+    resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.hasData()).isTrue();
+  }
+
+  @Test
+  public void get_proactiveRefresh_throttledRefreshKeepsEntry() throws Exception {
+    CachingRlsLbClient.enableProactiveRefresh = true;
+    setUpRlsLbClient();
+    RouteLookupRequest routeLookupRequest =
+        new RouteLookupRequest(
+            "bigtable.googleapis.com", "/foo/bar", "grpc", ImmutableMap.<String, String>of());
+    rlsServerImpl.setLookupTable(
+        ImmutableMap.of(
+            routeLookupRequest,
+            new RouteLookupResponse(ImmutableList.of("target"), "header")));
+
+    CachedRouteLookupResponse resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.isPending()).isTrue();
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+
+    fakeTimeProvider.forwardTime(
+        ROUTE_LOOKUP_CONFIG.getStaleAgeInMillis() - 2 * SERVER_LATENCY_MILLIS,
+        TimeUnit.MILLISECONDS);
+    for (int i = 0; i < CachingRlsLbClient.PROACTIVE_REFRESH_MIN_ACCESS_COUNT; i++) {
+      resp = getInSyncContext(routeLookupRequest);
+      assertThat(resp.hasData()).isTrue();
+    }
+
+    // the background refresh is throttled, the entry still valid is kept
+    fakeThrottler.nextResult = true;
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    verify(evictionListener, never())
+        .onEviction(eq(routeLookupRequest), any(CacheEntry.class), eq(EvictionType.REPLACED));
+    resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.hasData()).isTrue();
+  }
+
+  @Test
+  public void get_proactiveRefresh_coldEntryNotRefreshed() throws Exception {
+    CachingRlsLbClient.enableProactiveRefresh = true;
+    setUpRlsLbClient();
+    RouteLookupRequest routeLookupRequest =
+        new RouteLookupRequest(
+            "bigtable.googleapis.com", "/foo/bar", "grpc", ImmutableMap.<String, String>of());
+    rlsServerImpl.setLookupTable(
+        ImmutableMap.of(
+            routeLookupRequest,
+            new RouteLookupResponse(ImmutableList.of("target"), "header")));
+
+    CachedRouteLookupResponse resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.isPending()).isTrue();
+    fakeTimeProvider.forwardTime(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    resp = getInSyncContext(routeLookupRequest);
+    assertThat(resp.hasData()).isTrue();
+
+    fakeTimeProvider.forwardTime(ROUTE_LOOKUP_CONFIG.getStaleAgeInMillis(), TimeUnit.MILLISECONDS);
+
+    verify(evictionListener, never())
+        .onEviction(eq(routeLookupRequest), any(CacheEntry.class), eq(EvictionType.REPLACED));
+  }
+
   @Test
   public void rls_overDirectPath() throws Exception {
     CachingRlsLbClient.enableOobChannelDirectPath = true;
@@ -16,7 +16,13 @@
 
 package io.grpc.services;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.grpc.ExperimentalApi;
 import io.grpc.InternalChannelz;
 import io.grpc.InternalChannelz.ChannelStats;
@@ -43,14 +49,22 @@ import io.grpc.channelz.v1.GetSubchannelResponse;
 import io.grpc.channelz.v1.GetTopChannelsRequest;
 import io.grpc.channelz.v1.GetTopChannelsResponse;
 import io.grpc.stub.StreamObserver;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * The channelz service provides stats about a running gRPC process.
  */
 @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4206")
 public final class ChannelzService extends ChannelzGrpc.ChannelzImplBase {
+  // Bounds the memory used by the socket cache, the least recently used sockets are evicted
+  @VisibleForTesting
+  static final int MAX_CACHED_SOCKETS = 100_000;
+
   private final InternalChannelz channelz;
   private final int maxPageSize;
+  @Nullable
+  private final Cache<Long, GetSocketResponse> socketCache;
 
   /**
    * Creates an instance.
@@ -59,10 +73,39 @@ public final class ChannelzService extends ChannelzGrpc.ChannelzImplBase {
     return new ChannelzService(InternalChannelz.instance(), maxPageSize);
   }
 
+  /**
+   * Creates an instance reusing the stats of a socket for {@code socketStatsMaxAge}. Collecting the
+   * stats of a socket may need a round trip to its transport, so a scraper polling many sockets
+   * should use a max age close to its polling period.
+   */
+  public static ChannelzService newInstance(
+      int maxPageSize, long socketStatsMaxAge, TimeUnit unit) {
+    checkArgument(socketStatsMaxAge >= 0, "socketStatsMaxAge must be non negative");
+    return new ChannelzService(
+        InternalChannelz.instance(), maxPageSize, unit.toNanos(socketStatsMaxAge),
+        Ticker.systemTicker());
+  }
+
   @VisibleForTesting
   ChannelzService(InternalChannelz channelz, int maxPageSize) {
+    this(channelz, maxPageSize, 0, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  ChannelzService(
+      InternalChannelz channelz, int maxPageSize, long socketStatsMaxAgeNanos, Ticker ticker) {
     this.channelz = channelz;
     this.maxPageSize = maxPageSize;
+    checkNotNull(ticker, "ticker");
+    if (socketStatsMaxAgeNanos == 0) {
+      this.socketCache = null;
+    } else {
+      this.socketCache = CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_SOCKETS)
+          .expireAfterWrite(socketStatsMaxAgeNanos, TimeUnit.NANOSECONDS)
+          .ticker(ticker)
+          .build();
+    }
   }
 
   /** Returns top level channel aka {@link io.grpc.ManagedChannel}. */
@@ -189,19 +232,28 @@ public final class ChannelzService extends ChannelzGrpc.ChannelzImplBase {
       GetSocketRequest request, StreamObserver<GetSocketResponse> responseObserver) {
     InternalInstrumented<SocketStats> s = channelz.getSocket(request.getSocketId());
     if (s == null) {
+      if (socketCache != null) {
+        socketCache.invalidate(request.getSocketId());
+      }
       responseObserver.onError(
           Status.NOT_FOUND.withDescription("Can't find socket " + request.getSocketId())
               .asRuntimeException());
       return;
     }
 
-    GetSocketResponse resp;
-    try {
-      resp =
-          GetSocketResponse.newBuilder().setSocket(ChannelzProtoUtil.toSocket(s)).build();
-    } catch (StatusRuntimeException e) {
-      responseObserver.onError(e);
-      return;
+    GetSocketResponse resp = socketCache == null
+        ? null : socketCache.getIfPresent(request.getSocketId());
+    if (resp == null) {
+      try {
+        resp =
+            GetSocketResponse.newBuilder().setSocket(ChannelzProtoUtil.toSocket(s)).build();
+      } catch (StatusRuntimeException e) {
+        responseObserver.onError(e);
+        return;
+      }
+      if (socketCache != null) {
+        socketCache.put(request.getSocketId(), resp);
+      }
     }
 
     responseObserver.onNext(resp);
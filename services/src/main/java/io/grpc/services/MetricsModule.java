@@ -0,0 +1,345 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.services;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ExperimentalApi;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.grpc.internal.LogLinearHistogram;
+import io.grpc.services.MetricsSnapshot.HistogramSnapshot;
+import io.grpc.services.MetricsSnapshot.MethodSnapshot;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Collects per-method RPC metrics without any dependency on a stats library. Calls are observed
+ * through {@link ClientStreamTracer}s installed by {@link #getClientInterceptor()} and {@link
+ * ServerStreamTracer}s created by {@link #getServerTracerFactory()}. For each method it counts the
+ * started and finished calls, and keeps latency and message size distributions in log-linear
+ * histograms. The metrics are pulled with {@link #getSnapshot()} or exported by {@link
+ * MetricsService}.
+ *
+ * <p>On the server, a call is only attributed to its method once the method has been found in the
+ * registry, calls to unknown methods are aggregated under {@link #OTHER_METHODS}, so that clients
+ * can't choose the tracked names. To bound the memory, only the first {@link #MAX_METHODS} methods
+ * are tracked separately on each side, calls of the other methods are aggregated under {@link
+ * #OTHER_METHODS} too. A tracked method uses at most about 30 KB.
+ */
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/7929")
+@ThreadSafe
+public final class MetricsModule {
+  /** Maximum number of methods tracked separately by each of client and server side. */
+  public static final int MAX_METHODS = 100;
+  /** The method name under which calls of untracked methods are aggregated. */
+  public static final String OTHER_METHODS = "other";
+
+  private static final int MAX_STRIPES = 4;
+  private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+  private static final int CODE_COUNT = Status.Code.values().length;
+  private static final Comparator<MethodSnapshot> BY_METHOD_NAME =
+      new Comparator<MethodSnapshot>() {
+        @Override
+        public int compare(MethodSnapshot o1, MethodSnapshot o2) {
+          return o1.getFullMethodName().compareTo(o2.getFullMethodName());
+        }
+      };
+
+  private final Ticker ticker;
+  private final MethodMetricsMap clientMetrics = new MethodMetricsMap();
+  private final MethodMetricsMap serverMetrics = new MethodMetricsMap();
+  private final ClientInterceptor clientInterceptor = new MetricsClientInterceptor();
+  private final ServerStreamTracer.Factory serverTracerFactory = new ServerTracerFactory();
+
+  /** Creates a new module with empty metrics. */
+  public static MetricsModule create() {
+    return new MetricsModule(Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  MetricsModule(Ticker ticker) {
+    this.ticker = checkNotNull(ticker, "ticker");
+  }
+
+  /** Returns the interceptor recording the metrics of the calls made through the channel. */
+  public ClientInterceptor getClientInterceptor() {
+    return clientInterceptor;
+  }
+
+  /** Returns the factory to install on a server to record the metrics of the served calls. */
+  public ServerStreamTracer.Factory getServerTracerFactory() {
+    return serverTracerFactory;
+  }
+
+  /**
+   * Returns the current metrics. Taking a snapshot doesn't block the calls recording metrics
+   * concurrently, which may or may not be included in the snapshot.
+   */
+  public MetricsSnapshot getSnapshot() {
+    return new MetricsSnapshot(clientMetrics.snapshot(), serverMetrics.snapshot());
+  }
+
+  @VisibleForTesting
+  static int stripeCount(int processors) {
+    // power of 2, 2 times the processors rounded down to a power of 2, at most MAX_STRIPES
+    return Math.min(Integer.highestOneBit(Math.max(processors, 1)) * 2, MAX_STRIPES);
+  }
+
+  private static final class MethodMetricsMap {
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    private final MethodMetrics other = new MethodMetrics(OTHER_METHODS);
+
+    MethodMetrics get(String fullMethodName) {
+      MethodMetrics metrics = methods.get(fullMethodName);
+      if (metrics != null) {
+        return metrics;
+      }
+      if (methods.size() >= MAX_METHODS) {
+        return other;
+      }
+      metrics = new MethodMetrics(fullMethodName);
+      MethodMetrics existing = methods.putIfAbsent(fullMethodName, metrics);
+      return existing != null ? existing : metrics;
+    }
+
+    List<MethodSnapshot> snapshot() {
+      List<MethodSnapshot> snapshots = new ArrayList<>(methods.size() + 1);
+      for (Map.Entry<String, MethodMetrics> entry : methods.entrySet()) {
+        snapshots.add(entry.getValue().snapshot());
+      }
+      MethodSnapshot otherSnapshot = other.snapshot();
+      if (otherSnapshot.getStarted() > 0) {
+        snapshots.add(otherSnapshot);
+      }
+      Collections.sort(snapshots, BY_METHOD_NAME);
+      return snapshots;
+    }
+  }
+
+  /**
+   * Metrics of a single method, all the counters are striped by thread. The counters are allocated
+   * when the method is first seen, the histogram stripes when first written.
+   */
+  private static final class MethodMetrics {
+    // started count followed by finished count per status code for each stripe
+    private static final int COUNTERS_PER_STRIPE = 1 + CODE_COUNT;
+
+    final String fullMethodName;
+    final AtomicLongArray counters = new AtomicLongArray(STRIPES * COUNTERS_PER_STRIPE);
+    final LogLinearHistogram latencyMicros = new LogLinearHistogram(STRIPES);
+    final LogLinearHistogram requestBytes = new LogLinearHistogram(STRIPES);
+    final LogLinearHistogram responseBytes = new LogLinearHistogram(STRIPES);
+
+    MethodMetrics(String fullMethodName) {
+      this.fullMethodName = fullMethodName;
+    }
+
+    void recordStarted() {
+      counters.getAndIncrement(stripeOffset());
+    }
+
+    void recordFinished(
+        Status.Code code, long latencyNanos, long requestWireBytes, long responseWireBytes) {
+      counters.getAndIncrement(stripeOffset() + 1 + code.value());
+      latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+      requestBytes.record(requestWireBytes);
+      responseBytes.record(responseWireBytes);
+    }
+
+    MethodSnapshot snapshot() {
+      long started = 0;
+      long[] finished = new long[CODE_COUNT];
+      for (int stripe = 0; stripe < STRIPES; stripe++) {
+        int offset = stripe * COUNTERS_PER_STRIPE;
+        started += counters.get(offset);
+        for (int code = 0; code < CODE_COUNT; code++) {
+          finished[code] += counters.get(offset + 1 + code);
+        }
+      }
+      return new MethodSnapshot(
+          fullMethodName,
+          started,
+          finished,
+          snapshot(latencyMicros),
+          snapshot(requestBytes),
+          snapshot(responseBytes));
+    }
+
+    private static HistogramSnapshot snapshot(LogLinearHistogram histogram) {
+      long[] bucketCounts = histogram.getBucketCounts();
+      long count = 0;
+      for (long bucketCount : bucketCounts) {
+        count += bucketCount;
+      }
+      return new HistogramSnapshot(bucketCounts, count, histogram.getSum());
+    }
+
+    private static int stripeOffset() {
+      return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * COUNTERS_PER_STRIPE;
+    }
+  }
+
+  /**
+   * Tracks a client call across all its attempts. The wire sizes of the attempts are summed, the
+   * latency is measured from the start of the call until it is closed.
+   */
+  private final class CallTracer extends ClientStreamTracer.Factory {
+    private final MethodMetrics metrics;
+    private final long startNanos;
+    private final AtomicLong outboundWireSize = new AtomicLong();
+    private final AtomicLong inboundWireSize = new AtomicLong();
+    private final AtomicBoolean callEnded = new AtomicBoolean();
+
+    CallTracer(MethodMetrics metrics) {
+      this.metrics = metrics;
+      this.startNanos = ticker.read();
+      metrics.recordStarted();
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(
+        ClientStreamTracer.StreamInfo info, Metadata headers) {
+      return new ClientStreamTracer() {
+        @Override
+        public void outboundWireSize(long bytes) {
+          outboundWireSize.addAndGet(bytes);
+        }
+
+        @Override
+        public void inboundWireSize(long bytes) {
+          inboundWireSize.addAndGet(bytes);
+        }
+      };
+    }
+
+    void callEnded(Status status) {
+      if (callEnded.getAndSet(true)) {
+        return;
+      }
+      metrics.recordFinished(
+          status.getCode(),
+          ticker.read() - startNanos,
+          outboundWireSize.get(),
+          inboundWireSize.get());
+    }
+  }
+
+  private final class MetricsClientInterceptor implements ClientInterceptor {
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+      final CallTracer tracer = new CallTracer(clientMetrics.get(method.getFullMethodName()));
+      ClientCall<ReqT, RespT> call =
+          next.newCall(method, callOptions.withStreamTracerFactory(tracer));
+      return new SimpleForwardingClientCall<ReqT, RespT>(call) {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          delegate().start(
+              new SimpleForwardingClientCallListener<RespT>(responseListener) {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                  tracer.callEnded(status);
+                  super.onClose(status, trailers);
+                }
+              },
+              headers);
+        }
+      };
+    }
+  }
+
+  /**
+   * Tracks a server call. The method name of the stream comes from the client, so the call is only
+   * attributed to it in {@link #serverCallStarted}, once the method has been found in the registry.
+   */
+  private final class ServerTracer extends ServerStreamTracer {
+    private final long startNanos;
+    private final AtomicReference<MethodMetrics> metrics = new AtomicReference<>();
+    private final AtomicLong outboundWireSize = new AtomicLong();
+    private final AtomicLong inboundWireSize = new AtomicLong();
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    ServerTracer() {
+      this.startNanos = ticker.read();
+    }
+
+    @Override
+    public void serverCallStarted(ServerCallInfo<?, ?> callInfo) {
+      setMetrics(serverMetrics.get(callInfo.getMethodDescriptor().getFullMethodName()));
+    }
+
+    private void setMetrics(MethodMetrics methodMetrics) {
+      if (metrics.compareAndSet(null, methodMetrics)) {
+        methodMetrics.recordStarted();
+      }
+    }
+
+    @Override
+    public void outboundWireSize(long bytes) {
+      outboundWireSize.addAndGet(bytes);
+    }
+
+    @Override
+    public void inboundWireSize(long bytes) {
+      inboundWireSize.addAndGet(bytes);
+    }
+
+    @Override
+    public void streamClosed(Status status) {
+      if (streamClosed.getAndSet(true)) {
+        return;
+      }
+      // closed before the method was found, or the method doesn't exist
+      setMetrics(serverMetrics.other);
+      metrics.get().recordFinished(
+          status.getCode(),
+          ticker.read() - startNanos,
+          inboundWireSize.get(),
+          outboundWireSize.get());
+    }
+  }
+
+  private final class ServerTracerFactory extends ServerStreamTracer.Factory {
+    @Override
+    public ServerStreamTracer newServerStreamTracer(String fullMethodName, Metadata headers) {
+      return new ServerTracer();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.services;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.Empty;
+import com.google.protobuf.StringValue;
+import io.grpc.BindableService;
+import io.grpc.ExperimentalApi;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.services.MetricsSnapshot.HistogramSnapshot;
+import io.grpc.services.MetricsSnapshot.MethodSnapshot;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import java.util.List;
+
+/**
+ * An admin service exporting the metrics of a {@link MetricsModule} in the Prometheus text
+ * exposition format. The service has a single unary method, {@value #GET_METRICS_METHOD_NAME},
+ * taking a {@code google.protobuf.Empty} and returning the text in a {@code
+ * google.protobuf.StringValue}, so that it can be called without generated code.
+ */
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/7929")
+public final class MetricsService implements BindableService {
+  public static final String SERVICE_NAME = "grpc.metrics.v1alpha.Metrics";
+  public static final String GET_METRICS_METHOD_NAME = SERVICE_NAME + "/GetMetrics";
+
+  static final MethodDescriptor<Empty, StringValue> GET_METRICS_METHOD =
+      MethodDescriptor.<Empty, StringValue>newBuilder()
+          .setType(MethodDescriptor.MethodType.UNARY)
+          .setFullMethodName(GET_METRICS_METHOD_NAME)
+          .setRequestMarshaller(ProtoUtils.marshaller(Empty.getDefaultInstance()))
+          .setResponseMarshaller(ProtoUtils.marshaller(StringValue.getDefaultInstance()))
+          .build();
+
+  private final MetricsModule metricsModule;
+
+  /** Creates an instance exporting the metrics of the module. */
+  public static MetricsService newInstance(MetricsModule metricsModule) {
+    return new MetricsService(metricsModule);
+  }
+
+  private MetricsService(MetricsModule metricsModule) {
+    this.metricsModule = checkNotNull(metricsModule, "metricsModule");
+  }
+
+  @Override
+  public ServerServiceDefinition bindService() {
+    return ServerServiceDefinition.builder(SERVICE_NAME)
+        .addMethod(
+            GET_METRICS_METHOD,
+            ServerCalls.asyncUnaryCall(
+                new ServerCalls.UnaryMethod<Empty, StringValue>() {
+                  @Override
+                  public void invoke(Empty request, StreamObserver<StringValue> responseObserver) {
+                    getMetrics(responseObserver);
+                  }
+                }))
+        .build();
+  }
+
+  private void getMetrics(StreamObserver<StringValue> responseObserver) {
+    String text;
+    try {
+      text = toPrometheusText(metricsModule.getSnapshot());
+    } catch (RuntimeException e) {
+      responseObserver.onError(
+          Status.INTERNAL.withDescription("Failed to export metrics").withCause(e)
+              .asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(StringValue.newBuilder().setValue(text).build());
+    responseObserver.onCompleted();
+  }
+
+  @VisibleForTesting
+  static String toPrometheusText(MetricsSnapshot snapshot) {
+    StringBuilder sb = new StringBuilder();
+    appendSide(sb, "grpc_client", snapshot.getClientMethods());
+    appendSide(sb, "grpc_server", snapshot.getServerMethods());
+    return sb.toString();
+  }
+
+  private static void appendSide(StringBuilder sb, String prefix, List<MethodSnapshot> methods) {
+    if (methods.isEmpty()) {
+      return;
+    }
+    sb.append("# TYPE ").append(prefix).append("_started_total counter\n");
+    for (MethodSnapshot method : methods) {
+      sb.append(prefix).append("_started_total{method=\"");
+      appendLabelValue(sb, method.getFullMethodName());
+      sb.append("\"} ").append(method.getStarted()).append('\n');
+    }
+    sb.append("# TYPE ").append(prefix).append("_finished_total counter\n");
+    for (MethodSnapshot method : methods) {
+      for (Status.Code code : Status.Code.values()) {
+        long finished = method.getFinished(code);
+        if (finished == 0) {
+          continue;
+        }
+        sb.append(prefix).append("_finished_total{method=\"");
+        appendLabelValue(sb, method.getFullMethodName());
+        sb.append("\",code=\"").append(code).append("\"} ").append(finished).append('\n');
+      }
+    }
+    String latencyName = prefix + "_latency_microseconds";
+    sb.append("# TYPE ").append(latencyName).append(" histogram\n");
+    for (MethodSnapshot method : methods) {
+      appendHistogram(sb, latencyName, method.getFullMethodName(), method.getLatencyMicros());
+    }
+    String requestBytesName = prefix + "_request_bytes";
+    sb.append("# TYPE ").append(requestBytesName).append(" histogram\n");
+    for (MethodSnapshot method : methods) {
+      appendHistogram(sb, requestBytesName, method.getFullMethodName(), method.getRequestBytes());
+    }
+    String responseBytesName = prefix + "_response_bytes";
+    sb.append("# TYPE ").append(responseBytesName).append(" histogram\n");
+    for (MethodSnapshot method : methods) {
+      appendHistogram(
+          sb, responseBytesName, method.getFullMethodName(), method.getResponseBytes());
+    }
+  }
+
+  private static void appendHistogram(
+      StringBuilder sb, String name, String fullMethodName, HistogramSnapshot histogram) {
+    StringBuilder labelBuilder = new StringBuilder("method=\"");
+    appendLabelValue(labelBuilder, fullMethodName);
+    String label = labelBuilder.append('"').toString();
+    long cumulative = 0;
+    for (int i = 0; i < histogram.getBucketCount() - 1; i++) {
+      long count = histogram.getBucketCountAt(i);
+      if (count == 0) {
+        // empty buckets are omitted, the cumulative count of the next bucket covers them
+        continue;
+      }
+      cumulative += count;
+      // bucket upper bounds are exclusive, "le" is inclusive
+      sb.append(name).append("_bucket{").append(label).append(",le=\"")
+          .append(histogram.getBucketUpperBound(i) - 1).append("\"} ")
+          .append(cumulative).append('\n');
+    }
+    sb.append(name).append("_bucket{").append(label).append(",le=\"+Inf\"} ")
+        .append(histogram.getCount()).append('\n');
+    sb.append(name).append("_sum{").append(label).append("} ")
+        .append(histogram.getSum()).append('\n');
+    sb.append(name).append("_count{").append(label).append("} ")
+        .append(histogram.getCount()).append('\n');
+  }
+
+  /** Appends the value escaped as required by the text format in label values. */
+  private static void appendLabelValue(StringBuilder sb, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+  }
+}
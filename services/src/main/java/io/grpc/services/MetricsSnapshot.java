@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.services;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import io.grpc.ExperimentalApi;
+import io.grpc.Status;
+import io.grpc.internal.LogLinearHistogram;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A point in time view of the metrics collected by a {@link MetricsModule}. Counters and
+ * histograms are cumulative since the module was created.
+ */
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/7929")
+@Immutable
+public final class MetricsSnapshot {
+  private final List<MethodSnapshot> clientMethods;
+  private final List<MethodSnapshot> serverMethods;
+
+  MetricsSnapshot(List<MethodSnapshot> clientMethods, List<MethodSnapshot> serverMethods) {
+    this.clientMethods = Collections.unmodifiableList(clientMethods);
+    this.serverMethods = Collections.unmodifiableList(serverMethods);
+  }
+
+  /** Returns the metrics of the methods called by the clients, sorted by method name. */
+  public List<MethodSnapshot> getClientMethods() {
+    return clientMethods;
+  }
+
+  /** Returns the metrics of the methods served by the servers, sorted by method name. */
+  public List<MethodSnapshot> getServerMethods() {
+    return serverMethods;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("clientMethods", clientMethods)
+        .add("serverMethods", serverMethods)
+        .toString();
+  }
+
+  /** Metrics of a single method. */
+  @Immutable
+  public static final class MethodSnapshot {
+    private final String fullMethodName;
+    private final long started;
+    private final long[] finished;
+    private final HistogramSnapshot latencyMicros;
+    private final HistogramSnapshot requestBytes;
+    private final HistogramSnapshot responseBytes;
+
+    MethodSnapshot(
+        String fullMethodName,
+        long started,
+        long[] finished,
+        HistogramSnapshot latencyMicros,
+        HistogramSnapshot requestBytes,
+        HistogramSnapshot responseBytes) {
+      this.fullMethodName = checkNotNull(fullMethodName, "fullMethodName");
+      this.started = started;
+      this.finished = checkNotNull(finished, "finished");
+      this.latencyMicros = checkNotNull(latencyMicros, "latencyMicros");
+      this.requestBytes = checkNotNull(requestBytes, "requestBytes");
+      this.responseBytes = checkNotNull(responseBytes, "responseBytes");
+    }
+
+    /**
+     * Returns the full method name, or {@link MetricsModule#OTHER_METHODS} for the calls of the
+     * methods exceeding the number of methods tracked separately.
+     */
+    public String getFullMethodName() {
+      return fullMethodName;
+    }
+
+    /** Returns the number of started calls. */
+    public long getStarted() {
+      return started;
+    }
+
+    /** Returns the number of finished calls with the given status code. */
+    public long getFinished(Status.Code code) {
+      return finished[code.value()];
+    }
+
+    /** Returns the number of finished calls. */
+    public long getFinished() {
+      long total = 0;
+      for (long count : finished) {
+        total += count;
+      }
+      return total;
+    }
+
+    /** Returns the latency distribution of the finished calls, in microseconds. */
+    public HistogramSnapshot getLatencyMicros() {
+      return latencyMicros;
+    }
+
+    /** Returns the distribution of the total bytes sent by the client per call on the wire. */
+    public HistogramSnapshot getRequestBytes() {
+      return requestBytes;
+    }
+
+    /** Returns the distribution of the total bytes sent by the server per call on the wire. */
+    public HistogramSnapshot getResponseBytes() {
+      return responseBytes;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("fullMethodName", fullMethodName)
+          .add("started", started)
+          .add("finished", getFinished())
+          .add("latencyMicros", latencyMicros)
+          .toString();
+    }
+  }
+
+  /** A distribution of non negative values with log-linear buckets. */
+  @Immutable
+  public static final class HistogramSnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+
+    HistogramSnapshot(long[] bucketCounts, long count, long sum) {
+      this.bucketCounts = checkNotNull(bucketCounts, "bucketCounts");
+      this.count = count;
+      this.sum = sum;
+    }
+
+    /** Returns the number of recorded values. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Returns the sum of recorded values. */
+    public long getSum() {
+      return sum;
+    }
+
+    /** Returns the number of buckets, which is the same for all the histograms. */
+    public int getBucketCount() {
+      return bucketCounts.length;
+    }
+
+    /** Returns the number of recorded values in the bucket. */
+    public long getBucketCountAt(int index) {
+      return bucketCounts[index];
+    }
+
+    /** Returns the smallest value belonging to the bucket. */
+    public long getBucketLowerBound(int index) {
+      checkArgument(index >= 0 && index < bucketCounts.length, "invalid index: %s", index);
+      return LogLinearHistogram.bucketLowerBound(index);
+    }
+
+    /** Returns the smallest value belonging to the next bucket, exclusive bound of the bucket. */
+    public long getBucketUpperBound(int index) {
+      checkArgument(index >= 0 && index < bucketCounts.length, "invalid index: %s", index);
+      return LogLinearHistogram.bucketUpperBound(index);
+    }
+
+    /**
+     * Returns the estimated value at the quantile, between 0 and 1. The estimate is the upper bound
+     * of the bucket containing the quantile, or 0 if there is no recorded value.
+     */
+    public long getValueAtQuantile(double quantile) {
+      return LogLinearHistogram.getValueAtQuantile(bucketCounts, quantile);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("count", count)
+          .add("sum", sum)
+          .add("p50", getValueAtQuantile(0.5))
+          .add("p99", getValueAtQuantile(0.99))
+          .toString();
+    }
+  }
+}
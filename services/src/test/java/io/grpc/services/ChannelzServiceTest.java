@@ -18,6 +18,7 @@ package io.grpc.services;
 
 import static com.google.common.truth.Truth.assertWithMessage;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -35,11 +36,14 @@ import io.grpc.channelz.v1.GetSubchannelRequest;
 import io.grpc.channelz.v1.GetSubchannelResponse;
 import io.grpc.channelz.v1.GetTopChannelsRequest;
 import io.grpc.channelz.v1.GetTopChannelsResponse;
+import io.grpc.internal.FakeClock;
 import io.grpc.services.ChannelzTestHelper.TestChannel;
 import io.grpc.services.ChannelzTestHelper.TestServer;
 import io.grpc.services.ChannelzTestHelper.TestSocket;
 import io.grpc.stub.StreamObserver;
+import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -164,6 +168,37 @@ public class ChannelzServiceTest {
     assertSocketNotFound(socket.getLogId().getId());
   }
 
+  @Test
+  public void getSocket_cachedStats() throws Exception {
+    FakeClock fakeClock = new FakeClock();
+    service = new ChannelzService(
+        channelz, MAX_PAGE_SIZE, TimeUnit.SECONDS.toNanos(10), fakeClock.getTicker());
+    TestSocket socket = new TestSocket();
+    channelz.addClientSocket(socket);
+    GetSocketResponse first = GetSocketResponse
+        .newBuilder()
+        .setSocket(ChannelzProtoUtil.toSocket(socket))
+        .build();
+    assertEquals(first, getSocketHelper(socket.getLogId().getId()));
+
+    socket.remote = new InetSocketAddress("10.0.0.3", 1000);
+    fakeClock.forwardTime(9, TimeUnit.SECONDS);
+    assertEquals(first, getSocketHelper(socket.getLogId().getId()));
+
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    GetSocketResponse refreshed = getSocketHelper(socket.getLogId().getId());
+    assertEquals(
+        GetSocketResponse
+            .newBuilder()
+            .setSocket(ChannelzProtoUtil.toSocket(socket))
+            .build(),
+        refreshed);
+    assertNotEquals(first, refreshed);
+
+    channelz.removeClientSocket(socket);
+    assertSocketNotFound(socket.getLogId().getId());
+  }
+
   private GetTopChannelsResponse getTopChannelHelper(long startId) {
     @SuppressWarnings("unchecked")
     StreamObserver<GetTopChannelsResponse> observer = mock(StreamObserver.class);
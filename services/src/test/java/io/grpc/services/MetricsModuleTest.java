@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.services;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.protobuf.Empty;
+import com.google.protobuf.StringValue;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.FakeClock;
+import io.grpc.services.MetricsSnapshot.MethodSnapshot;
+import io.grpc.stub.ClientCalls;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.testing.TestMethodDescriptors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link MetricsModule} and {@link MetricsService}. */
+@RunWith(JUnit4.class)
+public class MetricsModuleTest {
+  @Rule
+  public final GrpcCleanupRule grpcCleanupRule = new GrpcCleanupRule();
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final MetricsModule module = new MetricsModule(fakeClock.getTicker());
+
+  @Test
+  public void serverTracer_recordsFinishedCall() {
+    ServerStreamTracer tracer = newServerTracer("service/method");
+    tracer.inboundWireSize(10);
+    tracer.inboundWireSize(20);
+    tracer.outboundWireSize(100);
+    fakeClock.forwardTime(3, TimeUnit.MILLISECONDS);
+    tracer.streamClosed(Status.UNAVAILABLE);
+    // closing again is a no-op
+    tracer.streamClosed(Status.OK);
+
+    MetricsSnapshot snapshot = module.getSnapshot();
+    assertThat(snapshot.getClientMethods()).isEmpty();
+    assertThat(snapshot.getServerMethods()).hasSize(1);
+    MethodSnapshot method = snapshot.getServerMethods().get(0);
+    assertThat(method.getFullMethodName()).isEqualTo("service/method");
+    assertThat(method.getStarted()).isEqualTo(1);
+    assertThat(method.getFinished()).isEqualTo(1);
+    assertThat(method.getFinished(Status.Code.UNAVAILABLE)).isEqualTo(1);
+    assertThat(method.getLatencyMicros().getSum()).isEqualTo(3000);
+    assertThat(method.getRequestBytes().getSum()).isEqualTo(30);
+    assertThat(method.getResponseBytes().getSum()).isEqualTo(100);
+  }
+
+  @Test
+  public void serverTracer_untrackedMethodsAggregated() {
+    for (int i = 0; i < MetricsModule.MAX_METHODS + 2; i++) {
+      newServerTracer("service/method" + i);
+    }
+
+    MetricsSnapshot snapshot = module.getSnapshot();
+    assertThat(snapshot.getServerMethods()).hasSize(MetricsModule.MAX_METHODS + 1);
+    long otherStarted = 0;
+    for (MethodSnapshot method : snapshot.getServerMethods()) {
+      if (method.getFullMethodName().equals(MetricsModule.OTHER_METHODS)) {
+        otherStarted = method.getStarted();
+      }
+    }
+    assertThat(otherStarted).isEqualTo(2);
+  }
+
+  @Test
+  public void serverTracer_unknownMethodAggregated() {
+    ServerStreamTracer tracer =
+        module.getServerTracerFactory().newServerStreamTracer("service/unknown", new Metadata());
+    tracer.streamClosed(Status.UNIMPLEMENTED);
+
+    MetricsSnapshot snapshot = module.getSnapshot();
+    assertThat(snapshot.getServerMethods()).hasSize(1);
+    MethodSnapshot method = snapshot.getServerMethods().get(0);
+    assertThat(method.getFullMethodName()).isEqualTo(MetricsModule.OTHER_METHODS);
+    assertThat(method.getStarted()).isEqualTo(1);
+    assertThat(method.getFinished(Status.Code.UNIMPLEMENTED)).isEqualTo(1);
+  }
+
+  @Test
+  public void clientInterceptor_andMetricsService() throws Exception {
+    String serverName = InProcessServerBuilder.generateName();
+    grpcCleanupRule.register(
+        InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(MetricsService.newInstance(module))
+            .build()
+            .start());
+    ManagedChannel channel =
+        grpcCleanupRule.register(
+            InProcessChannelBuilder.forName(serverName)
+                .directExecutor()
+                .intercept(module.getClientInterceptor())
+                .build());
+
+    ClientCalls.blockingUnaryCall(
+        channel, MetricsService.GET_METRICS_METHOD, CallOptions.DEFAULT,
+        Empty.getDefaultInstance());
+    StringValue text =
+        ClientCalls.blockingUnaryCall(
+            channel, MetricsService.GET_METRICS_METHOD, CallOptions.DEFAULT,
+            Empty.getDefaultInstance());
+
+    MetricsSnapshot snapshot = module.getSnapshot();
+    assertThat(snapshot.getClientMethods()).hasSize(1);
+    MethodSnapshot method = snapshot.getClientMethods().get(0);
+    assertThat(method.getFullMethodName()).isEqualTo(MetricsService.GET_METRICS_METHOD_NAME);
+    assertThat(method.getStarted()).isEqualTo(2);
+    assertThat(method.getFinished(Status.Code.OK)).isEqualTo(2);
+    assertThat(method.getResponseBytes().getCount()).isEqualTo(2);
+
+    // the second call exported the first one
+    assertThat(text.getValue()).contains(
+        "grpc_client_started_total{method=\"grpc.metrics.v1alpha.Metrics/GetMetrics\"} 2\n");
+    assertThat(text.getValue()).contains(
+        "grpc_client_finished_total{method=\"grpc.metrics.v1alpha.Metrics/GetMetrics\","
+            + "code=\"OK\"} 1\n");
+    assertThat(text.getValue()).contains(
+        "grpc_client_latency_microseconds_count{"
+            + "method=\"grpc.metrics.v1alpha.Metrics/GetMetrics\"} 1\n");
+  }
+
+  @Test
+  public void prometheusText_histogramBucketsAreCumulative() {
+    for (int i = 1; i <= 3; i++) {
+      ServerStreamTracer tracer = newServerTracer("service/method");
+      tracer.inboundWireSize(i);
+      tracer.streamClosed(Status.OK);
+    }
+
+    String text = MetricsService.toPrometheusText(module.getSnapshot());
+
+    String bucket = "grpc_server_request_bytes_bucket{method=\"service/method\",";
+    assertThat(text).contains(bucket + "le=\"1\"} 1\n");
+    assertThat(text).contains(bucket + "le=\"2\"} 2\n");
+    assertThat(text).contains(bucket + "le=\"3\"} 3\n");
+    assertThat(text).contains(bucket + "le=\"+Inf\"} 3\n");
+    assertThat(text).contains("grpc_server_request_bytes_sum{method=\"service/method\"} 6\n");
+  }
+
+  @Test
+  public void prometheusText_escapesLabelValues() {
+    newServerTracer("service/a\"b\\c\nd").streamClosed(Status.OK);
+
+    String text = MetricsService.toPrometheusText(module.getSnapshot());
+
+    assertThat(text).contains(
+        "grpc_server_started_total{method=\"service/a\\\"b\\\\c\\nd\"} 1\n");
+    assertThat(text).contains(
+        "grpc_server_request_bytes_count{method=\"service/a\\\"b\\\\c\\nd\"} 1\n");
+    // no line injected by the method name
+    for (String line : text.split("\n")) {
+      assertThat(line).matches("(# TYPE )?grpc_server_.*");
+    }
+  }
+
+  private ServerStreamTracer newServerTracer(String fullMethodName) {
+    final MethodDescriptor<Void, Void> method = TestMethodDescriptors.voidMethod().toBuilder()
+        .setFullMethodName(fullMethodName)
+        .build();
+    ServerStreamTracer tracer =
+        module.getServerTracerFactory().newServerStreamTracer(fullMethodName, new Metadata());
+    tracer.serverCallStarted(
+        new ServerStreamTracer.ServerCallInfo<Void, Void>() {
+          @Override
+          public MethodDescriptor<Void, Void> getMethodDescriptor() {
+            return method;
+          }
+
+          @Override
+          public Attributes getAttributes() {
+            return Attributes.EMPTY;
+          }
+
+          @Override
+          public String getAuthority() {
+            return null;
+          }
+        });
+    return tracer;
+  }
+}
@@ -16,8 +16,10 @@
 
 package io.grpc.stub;
 
+import com.google.common.base.Preconditions;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
+import io.grpc.ExperimentalApi;
 import io.grpc.stub.ClientCalls.StubType;
 import javax.annotation.CheckReturnValue;
 import javax.annotation.concurrent.ThreadSafe;
@@ -67,4 +69,22 @@ public abstract class AbstractBlockingStub<S extends AbstractBlockingStub<S>>
         : String.format("Expected AbstractBlockingStub, but got %s.", stub.getClass());
     return stub;
   }
+
+  /**
+   * Returns a new stub whose server-streaming calls request up to {@code messages} messages ahead
+   * of the returned iterator, instead of one. The messages are requested again in batches of half
+   * the window as the iterator consumes them, which saves thread wake-ups for streams of many small
+   * messages, at the cost of buffering up to {@code messages + 1} messages per call. The number
+   * of messages is capped at 1024.
+   *
+   * @param messages the number of messages to request ahead, positive
+   * @since 1.37.0
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1788")
+  public final S withServerStreamingPrefetch(int messages) {
+    Preconditions.checkArgument(messages > 0, "messages must be positive: %s", messages);
+    return withOption(
+        ClientCalls.BLOCKING_PREFETCH_OPTION,
+        Math.min(messages, ClientCalls.MAX_BLOCKING_PREFETCH));
+  }
 }
@@ -191,6 +191,9 @@ public final class ClientCalls {
    *
    * <p>The returned iterator may throw {@link StatusRuntimeException} on error.
    *
+   * <p>The call requests as many messages ahead of the iterator as set with {@link
+   * AbstractBlockingStub#withServerStreamingPrefetch}, a single one by default.
+   *
    * @return an iterator over the response stream.
    */
   // TODO(louiscryan): Not clear if we want to use this idiom for 'simple' stubs.
@@ -200,7 +203,8 @@ public final class ClientCalls {
     ClientCall<ReqT, RespT> call = channel.newCall(method,
         callOptions.withOption(ClientCalls.STUB_TYPE_OPTION, StubType.BLOCKING)
             .withExecutor(executor));
-    BlockingResponseStream<RespT> result = new BlockingResponseStream<>(call, executor);
+    BlockingResponseStream<RespT> result = new BlockingResponseStream<>(
+        call, executor, callOptions.getOption(BLOCKING_PREFETCH_OPTION));
     asyncUnaryRequestCall(call, req, result.listener());
     return result;
   }
@@ -577,25 +581,34 @@ public final class ClientCalls {
    */
   // TODO(ejona86): determine how to allow ClientCall.cancel() in case of application error.
   private static final class BlockingResponseStream<T> implements Iterator<T> {
-    // Due to flow control, only needs to hold up to 3 items: 2 for value, 1 for close.
-    // (2 for value, not 1, because of early request() in next())
-    private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(3);
+    // Due to flow control, only needs to hold up to prefetch + 2 items: prefetch + 1 for value,
+    // 1 for close. (prefetch + 1 for value, not prefetch, because of early request() in next())
+    private final BlockingQueue<Object> buffer;
     private final StartableListener<T> listener = new QueuingListener();
     private final ClientCall<?, T> call;
     /** May be null. */
     private final ThreadlessExecutor threadless;
+    private final int prefetch;
+    // The number of consumed messages after which they are requested again in a single batch.
+    private final int replenishThreshold;
     // Only accessed when iterating.
     private Object last;
+    // Only accessed when iterating. The number of consumed messages not requested again yet.
+    private int unrequested;
 
     // Non private to avoid synthetic class
     BlockingResponseStream(ClientCall<?, T> call) {
-      this(call, null);
+      this(call, null, 1);
     }
 
     // Non private to avoid synthetic class
-    BlockingResponseStream(ClientCall<?, T> call, ThreadlessExecutor threadless) {
+    BlockingResponseStream(ClientCall<?, T> call, ThreadlessExecutor threadless, int prefetch) {
+      Preconditions.checkArgument(prefetch > 0, "prefetch must be positive: %s", prefetch);
       this.call = call;
       this.threadless = threadless;
+      this.prefetch = Math.min(prefetch, MAX_BLOCKING_PREFETCH);
+      this.replenishThreshold = Math.max(1, this.prefetch / 2);
+      this.buffer = new ArrayBlockingQueue<>(this.prefetch + 2);
     }
 
     StartableListener<T> listener() {
@@ -656,8 +669,10 @@ public final class ClientCalls {
       // current one, which reduces latency for the next message. With MigratingThreadDeframer and
       // if the data has already been recieved, every other message can be delivered instantly. This
       // can be run after hasNext(), but just would be slower.
-      if (!(last instanceof StatusRuntimeException) && last != this) {
-        call.request(1);
+      if (!(last instanceof StatusRuntimeException) && last != this
+          && ++unrequested >= replenishThreshold) {
+        call.request(unrequested);
+        unrequested = 0;
       }
       if (!hasNext()) {
         throw new NoSuchElementException();
@@ -702,7 +717,7 @@ public final class ClientCalls {
 
       @Override
       void onStart() {
-        call.request(1);
+        call.request(prefetch);
       }
     }
   }
@@ -766,4 +781,17 @@ public final class ClientCalls {
    */
   static final CallOptions.Key<StubType> STUB_TYPE_OPTION =
       CallOptions.Key.create("internal-stub-type");
+
+  /**
+   * Internal {@link CallOptions.Key} for the number of messages blocking server-streaming calls
+   * request ahead of the application.
+   */
+  static final CallOptions.Key<Integer> BLOCKING_PREFETCH_OPTION =
+      CallOptions.Key.createWithDefault("internal-stub-blocking-prefetch", 1);
+
+  /**
+   * The largest number of messages blocking server-streaming calls request ahead, as each call
+   * allocates a buffer for that many messages.
+   */
+  static final int MAX_BLOCKING_PREFETCH = 1024;
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.stub;
+
+import com.google.common.base.Preconditions;
+import io.grpc.ExperimentalApi;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounds the number of inbound messages of a call that were received but not processed yet, for
+ * applications processing them asynchronously, like a Reactive Streams subscriber signaling its
+ * demand. The call requests {@code size} messages up front, and as the application reports
+ * processed messages, the window requests them again in batches of half the window instead of one
+ * at a time.
+ *
+ * <p>The automatic inbound flow control of the call must be disabled. A client can't request
+ * messages before its call is started, so it lets the call request the initial window and uses
+ * {@link #forInitialRequest}. For instance, for a client receiving a stream:
+ *
+ * <pre>
+ * public void beforeStart(ClientCallStreamObserver&lt;Req&gt; requestStream) {
+ *   requestStream.disableAutoRequestWithInitial(64);
+ *   window = InboundWindow.forInitialRequest(requestStream, 64);
+ * }
+ *
+ * public void onNext(Resp value) {
+ *   queue.add(value);
+ * }
+ *
+ * // In the thread consuming the queue
+ * process(queue.take());
+ * window.processed(1);
+ * </pre>
+ *
+ * <p>On servers, call {@link ServerCallStreamObserver#disableAutoRequest} and {@link #open} the
+ * window in the service method. The outbound direction is covered by {@link
+ * StreamObservers#copyWithFlowControl}, which produces values only while the call is ready.
+ */
+@ExperimentalApi("https://github.com/grpc/grpc-java/issues/1788")
+@ThreadSafe
+public final class InboundWindow {
+  private final CallStreamObserver<?> call;
+  private final int batchSize;
+  private final AtomicInteger unrequested = new AtomicInteger();
+
+  private InboundWindow(CallStreamObserver<?> call, int batchSize) {
+    this.call = call;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Requests {@code size} messages from {@code call}, whose automatic inbound flow control must be
+   * disabled, and returns the window to report processed messages to. The call must be started,
+   * like the call of a server method.
+   *
+   * @param call the client or server side of the call receiving messages
+   * @param size the maximum number of received messages not processed yet, positive
+   */
+  public static InboundWindow open(CallStreamObserver<?> call, int size) {
+    InboundWindow window = forInitialRequest(call, size);
+    call.request(size);
+    return window;
+  }
+
+  /**
+   * Returns the window to report processed messages to, for a call that requests the first
+   * {@code size} messages itself, like a client call set up with {@link
+   * ClientCallStreamObserver#disableAutoRequestWithInitial disableAutoRequestWithInitial(size)}.
+   * Unlike {@link #open}, this can be called before the call is started.
+   *
+   * @param call the client or server side of the call receiving messages
+   * @param size the maximum number of received messages not processed yet, positive
+   */
+  public static InboundWindow forInitialRequest(CallStreamObserver<?> call, int size) {
+    Preconditions.checkNotNull(call, "call");
+    Preconditions.checkArgument(size > 0, "size must be positive: %s", size);
+    return new InboundWindow(call, Math.max(1, size / 2));
+  }
+
+  /**
+   * Reports that {@code count} received messages have been processed, making room for as many
+   * messages. May be called from any thread.
+   */
+  public void processed(int count) {
+    Preconditions.checkArgument(count >= 0, "count must not be negative: %s", count);
+    if (unrequested.addAndGet(count) < batchSize) {
+      return;
+    }
+    int toRequest = unrequested.getAndSet(0);
+    if (toRequest > 0) {
+      call.request(toRequest);
+    }
+  }
+}
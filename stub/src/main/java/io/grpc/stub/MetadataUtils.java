@@ -27,6 +27,7 @@ import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
 import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
+import io.grpc.PreEncodedMetadata;
 import io.grpc.Status;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -59,6 +60,56 @@ public final class MetadataUtils {
     return new HeaderAttachingClientInterceptor(extraHeaders);
   }
 
+  /**
+   * Attaches a set of pre-encoded request headers to a stub. Unlike {@link #attachHeaders(
+   * AbstractStub, Metadata)}, the headers are not serialized again for each call.
+   *
+   * @param stub to bind the headers to.
+   * @param extraHeaders the headers to be passed by each call on the returned stub.
+   * @return an implementation of the stub with {@code extraHeaders} bound to each call.
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1789")
+  public static <T extends AbstractStub<T>> T attachHeaders(
+      T stub, PreEncodedMetadata extraHeaders) {
+    return stub.withInterceptors(newAttachHeadersInterceptor(extraHeaders));
+  }
+
+  /**
+   * Returns a client interceptor that attaches a set of pre-encoded headers to requests. Unlike
+   * {@link #newAttachHeadersInterceptor(Metadata)}, the headers are not serialized again for each
+   * call.
+   *
+   * @param extraHeaders the headers to be passed by each call that is processed by the returned
+   *                     interceptor
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/4691")
+  public static ClientInterceptor newAttachHeadersInterceptor(PreEncodedMetadata extraHeaders) {
+    return new PreEncodedHeaderAttachingClientInterceptor(extraHeaders);
+  }
+
+  private static final class PreEncodedHeaderAttachingClientInterceptor
+      implements ClientInterceptor {
+
+    private final PreEncodedMetadata extraHeaders;
+
+    // Non private to avoid synthetic class
+    PreEncodedHeaderAttachingClientInterceptor(PreEncodedMetadata extraHeaders) {
+      this.extraHeaders = checkNotNull(extraHeaders, "extraHeaders");
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+      return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          extraHeaders.mergeInto(headers);
+          super.start(responseListener, headers);
+        }
+      };
+    }
+  }
+
   private static final class HeaderAttachingClientInterceptor implements ClientInterceptor {
 
     private final Metadata extraHeaders;
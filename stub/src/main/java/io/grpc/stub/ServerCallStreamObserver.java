@@ -16,6 +16,8 @@
 
 package io.grpc.stub;
 
+import io.grpc.ExperimentalApi;
+
 /**
  * A refinement of {@link CallStreamObserver} to allows for interaction with call
  * cancellation events on the server side.
@@ -91,6 +93,24 @@ public abstract class ServerCallStreamObserver<V> extends CallStreamObserver<V>
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Makes automatic flow control request up to {@code messages} inbound messages ahead of {@link
+   * StreamObserver#onNext(Object)}, instead of one. Messages are requested again in batches of half
+   * that number as {@code onNext()} returns, which saves a flow-control update per message for
+   * streams of many small messages. At most {@code messages} messages are buffered for the call,
+   * so a slow {@code onNext()} still pushes back to the client.
+   *
+   * <p>It may only be called during the initial call to the application, before the service returns
+   * its {@code StreamObserver}. It has no effect if automatic flow control is disabled, nor for
+   * unary and server-streaming calls, which receive a single message.
+   *
+   * @param messages the number of messages to request ahead, positive
+   */
+  @ExperimentalApi("https://github.com/grpc/grpc-java/issues/1788")
+  public void setInboundPrefetch(int messages) {
+    throw new UnsupportedOperationException();
+  }
+
 
   /**
    * If {@code true}, indicates that the observer is capable of sending additional messages
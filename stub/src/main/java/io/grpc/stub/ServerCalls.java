@@ -16,6 +16,7 @@
 
 package io.grpc.stub;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -228,7 +229,7 @@ public final class ServerCalls {
       StreamObserver<ReqT> requestObserver = method.invoke(responseObserver);
       responseObserver.freeze();
       if (responseObserver.autoRequestEnabled) {
-        call.request(1);
+        call.request(responseObserver.inboundPrefetch);
       }
       return new StreamingServerCallListener(requestObserver, responseObserver, call);
     }
@@ -238,7 +239,10 @@ public final class ServerCalls {
       private final StreamObserver<ReqT> requestObserver;
       private final ServerCallStreamObserverImpl<ReqT, RespT> responseObserver;
       private final ServerCall<ReqT, RespT> call;
+      // Consumed messages are requested again once there are that many of them.
+      private final int replenishThreshold;
       private boolean halfClosed = false;
+      private int unrequested;
 
       // Non private to avoid synthetic class
       StreamingServerCallListener(
@@ -248,15 +252,17 @@ public final class ServerCalls {
         this.requestObserver = requestObserver;
         this.responseObserver = responseObserver;
         this.call = call;
+        this.replenishThreshold = Math.max(1, responseObserver.inboundPrefetch / 2);
       }
 
       @Override
       public void onMessage(ReqT request) {
         requestObserver.onNext(request);
 
-        // Request delivery of the next inbound message.
-        if (responseObserver.autoRequestEnabled) {
-          call.request(1);
+        // Request delivery of the next inbound messages.
+        if (responseObserver.autoRequestEnabled && ++unrequested >= replenishThreshold) {
+          call.request(unrequested);
+          unrequested = 0;
         }
       }
 
@@ -315,6 +321,7 @@ public final class ServerCalls {
     volatile boolean cancelled;
     private boolean frozen;
     private boolean autoRequestEnabled = true;
+    private int inboundPrefetch = 1;
     private boolean sentHeaders;
     private Runnable onReadyHandler;
     private Runnable onCancelHandler;
@@ -419,6 +426,13 @@ public final class ServerCalls {
       autoRequestEnabled = false;
     }
 
+    @Override
+    public void setInboundPrefetch(int messages) {
+      checkState(!frozen, "Cannot alter inbound prefetch after initialization");
+      checkArgument(messages > 0, "messages must be positive: %s", messages);
+      inboundPrefetch = messages;
+    }
+
     @Override
     public void request(int count) {
       call.request(count);
@@ -51,6 +51,30 @@ public class AbstractBlockingStubTest extends BaseAbstractStubTest<NoopBlockingS
         .isEqualTo(StubType.BLOCKING);
   }
 
+  @Test
+  public void withServerStreamingPrefetch() {
+    NoopBlockingStub stub = create(channel, CallOptions.DEFAULT);
+    assertThat(stub.getCallOptions().getOption(ClientCalls.BLOCKING_PREFETCH_OPTION))
+        .isEqualTo(1);
+
+    stub = stub.withServerStreamingPrefetch(16);
+
+    assertThat(stub.getCallOptions().getOption(ClientCalls.BLOCKING_PREFETCH_OPTION))
+        .isEqualTo(16);
+  }
+
+  @Test
+  public void withServerStreamingPrefetch_capped() {
+    NoopBlockingStub stub = create(channel, CallOptions.DEFAULT);
+
+    assertThat(stub.withServerStreamingPrefetch(Integer.MAX_VALUE).getCallOptions()
+        .getOption(ClientCalls.BLOCKING_PREFETCH_OPTION))
+        .isEqualTo(ClientCalls.MAX_BLOCKING_PREFETCH);
+    assertThat(stub.withServerStreamingPrefetch(Integer.MAX_VALUE - 1).getCallOptions()
+        .getOption(ClientCalls.BLOCKING_PREFETCH_OPTION))
+        .isEqualTo(ClientCalls.MAX_BLOCKING_PREFETCH);
+  }
+
   @Test
   @SuppressWarnings("AssertionFailureIgnored")
   public void newStub_asyncStub_throwsException() {
@@ -261,6 +261,78 @@ public class ClientCallsTest {
         .isEquivalentAccordingToCompareTo(StubType.BLOCKING);
   }
 
+  @Test
+  public void blockingServerStreamingCall_prefetchRequestsInBatches() {
+    final List<Integer> requests = new ArrayList<>();
+    NoopClientCall<Integer, Integer> call = new NoopClientCall<Integer, Integer>() {
+      ClientCall.Listener<Integer> listener;
+      int remaining = 8;
+
+      @Override
+      public void start(ClientCall.Listener<Integer> listener, Metadata headers) {
+        this.listener = listener;
+      }
+
+      @Override
+      public void request(int numMessages) {
+        requests.add(numMessages);
+        for (int i = 0; i < numMessages && remaining > 0; i++) {
+          listener.onMessage(remaining--);
+        }
+        if (remaining == 0) {
+          remaining = -1;
+          listener.onClose(Status.OK, new Metadata());
+        }
+      }
+    };
+    when(mockChannel.newCall(
+        ArgumentMatchers.<MethodDescriptor<Integer, Integer>>any(), any(CallOptions.class)))
+        .thenReturn(call);
+
+    Iterator<Integer> iter = ClientCalls.blockingServerStreamingCall(
+        mockChannel, UNARY_METHOD,
+        CallOptions.DEFAULT.withOption(ClientCalls.BLOCKING_PREFETCH_OPTION, 4), 1);
+    List<Integer> responses = new ArrayList<>();
+    while (iter.hasNext()) {
+      responses.add(iter.next());
+    }
+
+    assertThat(responses).containsExactly(8, 7, 6, 5, 4, 3, 2, 1).inOrder();
+    assertThat(requests).containsExactly(4, 2, 2, 2, 2).inOrder();
+  }
+
+  @Test
+  public void blockingServerStreamingCall_maxPrefetchCapped() {
+    final List<Integer> requests = new ArrayList<>();
+    NoopClientCall<Integer, Integer> call = new NoopClientCall<Integer, Integer>() {
+      ClientCall.Listener<Integer> listener;
+
+      @Override
+      public void start(ClientCall.Listener<Integer> listener, Metadata headers) {
+        this.listener = listener;
+      }
+
+      @Override
+      public void request(int numMessages) {
+        requests.add(numMessages);
+        listener.onMessage(1);
+        listener.onClose(Status.OK, new Metadata());
+      }
+    };
+    when(mockChannel.newCall(
+        ArgumentMatchers.<MethodDescriptor<Integer, Integer>>any(), any(CallOptions.class)))
+        .thenReturn(call);
+
+    Iterator<Integer> iter = ClientCalls.blockingServerStreamingCall(
+        mockChannel, UNARY_METHOD,
+        CallOptions.DEFAULT.withOption(ClientCalls.BLOCKING_PREFETCH_OPTION, Integer.MAX_VALUE),
+        1);
+
+    assertThat(iter.next()).isEqualTo(1);
+    assertThat(iter.hasNext()).isFalse();
+    assertThat(requests).containsExactly(ClientCalls.MAX_BLOCKING_PREFETCH);
+  }
+
   @Test
   public void unaryFutureCallSuccess() throws Exception {
     final AtomicReference<ClientCall.Listener<String>> listener =
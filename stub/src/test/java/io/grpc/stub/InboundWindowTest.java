@@ -0,0 +1,278 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.stub;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallsTest.IntegerMarshaller;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/** Unit tests for {@link InboundWindow}. */
+@RunWith(JUnit4.class)
+public class InboundWindowTest {
+  private static final MethodDescriptor<Integer, Integer> SERVER_STREAMING_METHOD =
+      MethodDescriptor.<Integer, Integer>newBuilder()
+          .setType(MethodDescriptor.MethodType.SERVER_STREAMING)
+          .setFullMethodName("some/serverStreaming")
+          .setRequestMarshaller(new IntegerMarshaller())
+          .setResponseMarshaller(new IntegerMarshaller())
+          .build();
+  private static final MethodDescriptor<Integer, Integer> CLIENT_STREAMING_METHOD =
+      SERVER_STREAMING_METHOD.toBuilder()
+          .setType(MethodDescriptor.MethodType.CLIENT_STREAMING)
+          .setFullMethodName("some/clientStreaming")
+          .build();
+
+  @Rule
+  public final MockitoRule mocks = MockitoJUnit.rule();
+
+  @Mock
+  private CallStreamObserver<Integer> call;
+  private Server server;
+  private ManagedChannel channel;
+
+  @After
+  public void tearDown() {
+    if (server != null) {
+      server.shutdownNow();
+    }
+    if (channel != null) {
+      channel.shutdownNow();
+    }
+  }
+
+  @Test
+  public void open_requestsWindow() {
+    InboundWindow.open(call, 8);
+
+    verify(call).request(8);
+  }
+
+  @Test
+  public void forInitialRequest_requestsNothing() {
+    InboundWindow window = InboundWindow.forInitialRequest(call, 8);
+    verifyNoInteractions(call);
+
+    window.processed(4);
+    verify(call).request(4);
+  }
+
+  @Test
+  public void processed_requestsInBatches() {
+    InboundWindow window = InboundWindow.open(call, 8);
+    InOrder inOrder = inOrder(call);
+    inOrder.verify(call).request(8);
+
+    window.processed(1);
+    window.processed(2);
+    inOrder.verify(call, never()).request(anyInt());
+    window.processed(1);
+    inOrder.verify(call).request(4);
+    window.processed(5);
+    inOrder.verify(call).request(5);
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void processed_windowOfOne() {
+    InboundWindow window = InboundWindow.open(call, 1);
+    window.processed(1);
+    window.processed(1);
+
+    verify(call, times(3)).request(1);
+  }
+
+  @Test
+  public void open_invalidSize() {
+    try {
+      InboundWindow.open(call, 0);
+      fail("Should have thrown");
+    } catch (IllegalArgumentException e) {
+      assertThat(e).hasMessageThat().contains("size");
+    }
+  }
+
+  @Test
+  public void clientCall_windowBoundsReceivedMessages() throws Exception {
+    ServerServiceDefinition service = ServerServiceDefinition.builder(
+        new ServiceDescriptor("some", SERVER_STREAMING_METHOD))
+        .addMethod(SERVER_STREAMING_METHOD, ServerCalls.asyncServerStreamingCall(
+            new ServerCalls.ServerStreamingMethod<Integer, Integer>() {
+              @Override
+              public void invoke(Integer request, StreamObserver<Integer> responseObserver) {
+                for (int i = 0; i < request; i++) {
+                  responseObserver.onNext(i);
+                }
+                responseObserver.onCompleted();
+              }
+            }))
+        .build();
+    startServer(service);
+    final AtomicReference<InboundWindow> windowRef = new AtomicReference<>();
+    final BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    ClientResponseObserver<Integer, Integer> responseObserver =
+        new ClientResponseObserver<Integer, Integer>() {
+          @Override
+          public void beforeStart(ClientCallStreamObserver<Integer> requestStream) {
+            requestStream.disableAutoRequestWithInitial(4);
+            windowRef.set(InboundWindow.forInitialRequest(requestStream, 4));
+          }
+
+          @Override
+          public void onNext(Integer value) {
+            received.add(value);
+          }
+
+          @Override
+          public void onError(Throwable t) {
+            throw new AssertionError(t);
+          }
+
+          @Override
+          public void onCompleted() {
+            completed.countDown();
+          }
+        };
+
+    ClientCalls.asyncServerStreamingCall(
+        channel.newCall(SERVER_STREAMING_METHOD, CallOptions.DEFAULT), 10, responseObserver);
+    assertThat(take(received, 4)).containsExactly(0, 1, 2, 3).inOrder();
+    windowRef.get().processed(1);
+    assertThat(received).isEmpty();
+    windowRef.get().processed(1);
+    assertThat(take(received, 2)).containsExactly(4, 5).inOrder();
+    assertThat(received).isEmpty();
+    windowRef.get().processed(4);
+    windowRef.get().processed(4);
+    assertThat(take(received, 4)).containsExactly(6, 7, 8, 9).inOrder();
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void serverCall_windowBoundsReceivedMessages() throws Exception {
+    final AtomicReference<InboundWindow> windowRef = new AtomicReference<>();
+    final BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+    ServerServiceDefinition service = ServerServiceDefinition.builder(
+        new ServiceDescriptor("some", CLIENT_STREAMING_METHOD))
+        .addMethod(CLIENT_STREAMING_METHOD, ServerCalls.asyncClientStreamingCall(
+            new ServerCalls.ClientStreamingMethod<Integer, Integer>() {
+              @Override
+              public StreamObserver<Integer> invoke(
+                  final StreamObserver<Integer> responseObserver) {
+                ServerCallStreamObserver<Integer> serverCallObserver =
+                    (ServerCallStreamObserver<Integer>) responseObserver;
+                serverCallObserver.disableAutoRequest();
+                windowRef.set(InboundWindow.open(serverCallObserver, 4));
+                return new StreamObserver<Integer>() {
+                  @Override
+                  public void onNext(Integer value) {
+                    received.add(value);
+                  }
+
+                  @Override
+                  public void onError(Throwable t) {}
+
+                  @Override
+                  public void onCompleted() {
+                    responseObserver.onNext(0);
+                    responseObserver.onCompleted();
+                  }
+                };
+              }
+            }))
+        .build();
+    startServer(service);
+    final CountDownLatch completed = new CountDownLatch(1);
+    StreamObserver<Integer> requestObserver = ClientCalls.asyncClientStreamingCall(
+        channel.newCall(CLIENT_STREAMING_METHOD, CallOptions.DEFAULT),
+        new StreamObserver<Integer>() {
+          @Override
+          public void onNext(Integer value) {}
+
+          @Override
+          public void onError(Throwable t) {
+            throw new AssertionError(t);
+          }
+
+          @Override
+          public void onCompleted() {
+            completed.countDown();
+          }
+        });
+    for (int i = 0; i < 10; i++) {
+      requestObserver.onNext(i);
+    }
+    requestObserver.onCompleted();
+    assertThat(take(received, 4)).containsExactly(0, 1, 2, 3).inOrder();
+    assertThat(received).isEmpty();
+    windowRef.get().processed(2);
+    assertThat(take(received, 2)).containsExactly(4, 5).inOrder();
+    assertThat(received).isEmpty();
+    windowRef.get().processed(4);
+    assertThat(take(received, 4)).containsExactly(6, 7, 8, 9).inOrder();
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+  }
+
+  private static List<Integer> take(BlockingQueue<Integer> queue, int count) throws Exception {
+    List<Integer> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Integer value = queue.poll(5, TimeUnit.SECONDS);
+      assertThat(value).isNotNull();
+      values.add(value);
+    }
+    return values;
+  }
+
+  private void startServer(ServerServiceDefinition service) throws Exception {
+    String name = "inbound-window-" + System.nanoTime();
+    server = InProcessServerBuilder.forName(name).directExecutor()
+        .addService(service).build().start();
+    channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+  }
+}
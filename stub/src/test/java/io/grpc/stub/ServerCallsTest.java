@@ -302,6 +302,49 @@ public class ServerCallsTest {
     assertThat(serverCall.requestCalls).isEmpty();
   }
 
+  @Test
+  public void inboundPrefetchRequestsInBatches() throws Exception {
+    ServerCallHandler<Integer, Integer> callHandler =
+        ServerCalls.asyncClientStreamingCall(
+            new ServerCalls.ClientStreamingMethod<Integer, Integer>() {
+              @Override
+              public StreamObserver<Integer> invoke(StreamObserver<Integer> responseObserver) {
+                ServerCallStreamObserver<Integer> serverCallObserver =
+                    (ServerCallStreamObserver<Integer>) responseObserver;
+                serverCallObserver.setInboundPrefetch(8);
+                return new ServerCalls.NoopStreamObserver<>();
+              }
+            });
+    ServerCall.Listener<Integer> callListener =
+        callHandler.startCall(serverCall, new Metadata());
+    for (int i = 0; i < 10; i++) {
+      callListener.onMessage(i);
+    }
+
+    assertThat(serverCall.requestCalls).containsExactly(8, 4, 4).inOrder();
+  }
+
+  @Test
+  public void inboundPrefetchIgnoredWhenAutoRequestDisabled() throws Exception {
+    ServerCallHandler<Integer, Integer> callHandler =
+        ServerCalls.asyncBidiStreamingCall(
+            new ServerCalls.BidiStreamingMethod<Integer, Integer>() {
+              @Override
+              public StreamObserver<Integer> invoke(StreamObserver<Integer> responseObserver) {
+                ServerCallStreamObserver<Integer> serverCallObserver =
+                    (ServerCallStreamObserver<Integer>) responseObserver;
+                serverCallObserver.setInboundPrefetch(8);
+                serverCallObserver.disableAutoRequest();
+                return new ServerCalls.NoopStreamObserver<>();
+              }
+            });
+    ServerCall.Listener<Integer> callListener =
+        callHandler.startCall(serverCall, new Metadata());
+    callListener.onMessage(1);
+
+    assertThat(serverCall.requestCalls).isEmpty();
+  }
+
   @Test
   public void disablingInboundAutoRequestSuppressesRequestsForMoreMessages() throws Exception {
     ServerCallHandler<Integer, Integer> callHandler =
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.core.v3.AggregatedConfigSource;
+import io.envoyproxy.envoy.config.core.v3.ConfigSource;
+import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.internal.ExponentialBackoffPolicy;
+import io.grpc.internal.GrpcUtil;
+import io.grpc.internal.NoopClientCall;
+import io.grpc.xds.AbstractXdsClient.ResourceType;
+import io.grpc.xds.XdsClient.CdsResourceWatcher;
+import io.grpc.xds.XdsClient.CdsUpdate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Handling of a state-of-the-world CDS response by {@link ClientXdsClient}, when the clusters are
+ * the same as the ones already accepted and when all of them changed.
+ */
+@State(Scope.Benchmark)
+public class CdsResponseBenchmark {
+
+  @Param({"1000", "10000"})
+  public int clusterCount;
+
+  private ScheduledExecutorService timeService;
+  private ClientXdsClient xdsClient;
+  private byte[][] responses;
+  private int responseIndex;
+
+  /**
+   * Subscribes to {@code clusterCount} clusters and accepts a first response.
+   */
+  @Setup
+  public void setUp() throws Exception {
+    timeService = Executors.newSingleThreadScheduledExecutor();
+    xdsClient = new ClientXdsClient(new NoopChannel(), true,
+        EnvoyProtoData.Node.newBuilder().build(), timeService,
+        new ExponentialBackoffPolicy.Provider(), GrpcUtil.STOPWATCH_SUPPLIER);
+    CdsResourceWatcher watcher = new CdsResourceWatcher() {
+      @Override
+      public void onChanged(CdsUpdate update) {}
+
+      @Override
+      public void onResourceDoesNotExist(String resourceName) {}
+
+      @Override
+      public void onError(Status error) {}
+    };
+    for (int i = 0; i < clusterCount; i++) {
+      xdsClient.watchCdsResource(clusterName(i), watcher);
+    }
+    responses = new byte[][] {buildResponse("1", ""), buildResponse("2", "-v2")};
+    handleResponse(responses[0]);
+  }
+
+  /**
+   * Shuts down the client.
+   */
+  @TearDown
+  public void tearDown() {
+    xdsClient.shutdown();
+    timeService.shutdownNow();
+  }
+
+  /**
+   * Receives the clusters already accepted, with a new version.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void unchangedClusters() throws Exception {
+    handleResponse(responses[0]);
+  }
+
+  /**
+   * Receives clusters all different from the ones already accepted.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void changedClusters() throws Exception {
+    responseIndex ^= 1;
+    handleResponse(responses[responseIndex]);
+  }
+
+  private void handleResponse(byte[] serialized) throws Exception {
+    // Parsed on each invocation, like a response received from the management server.
+    final DiscoveryResponse response = DiscoveryResponse.parseFrom(serialized);
+    xdsClient.getSyncContext().execute(new Runnable() {
+      @Override
+      public void run() {
+        xdsClient.handleCdsResponse(
+            response.getVersionInfo(), response.getResourcesList(), response.getNonce());
+      }
+    });
+  }
+
+  private byte[] buildResponse(String version, String edsServiceNameSuffix) {
+    DiscoveryResponse.Builder builder = DiscoveryResponse.newBuilder()
+        .setVersionInfo(version)
+        .setTypeUrl(ResourceType.CDS.typeUrl())
+        .setNonce(version);
+    for (int i = 0; i < clusterCount; i++) {
+      Cluster cluster = Cluster.newBuilder()
+          .setName(clusterName(i))
+          .setType(DiscoveryType.EDS)
+          .setEdsClusterConfig(
+              EdsClusterConfig.newBuilder()
+                  .setEdsConfig(
+                      ConfigSource.newBuilder()
+                          .setAds(AggregatedConfigSource.getDefaultInstance()))
+                  .setServiceName(clusterName(i) + edsServiceNameSuffix))
+          .setLbPolicy(LbPolicy.ROUND_ROBIN)
+          .build();
+      builder.addResources(Any.pack(cluster));
+    }
+    return builder.build().toByteArray();
+  }
+
+  private static String clusterName(int i) {
+    return "cluster-" + i + ".googleapis.com";
+  }
+
+  /** A channel whose calls discard the requests and never receive responses. */
+  private static final class NoopChannel extends ManagedChannel {
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+      return new NoopClientCall<>();
+    }
+
+    @Override
+    public String authority() {
+      return "xds.googleapis.com";
+    }
+
+    @Override
+    public ManagedChannel shutdown() {
+      return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public ManagedChannel shutdownNow() {
+      return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import io.grpc.CallOptions;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.Metadata;
+import io.grpc.internal.PickSubchannelArgsImpl;
+import io.grpc.testing.TestMethodDescriptors;
+import io.grpc.xds.WeightedRandomPicker.WeightedChildPicker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Picks of a {@link WeightedRandomPicker} with children of different weights.
+ */
+@State(Scope.Benchmark)
+public class WeightedRandomPickerBenchmark {
+
+  @Param({"2", "10", "100", "1000"})
+  public int childCount;
+
+  private WeightedRandomPicker picker;
+  private PickSubchannelArgs args;
+
+  /**
+   * Creates a picker of {@code childCount} children with weights from 1 to 10.
+   */
+  @Setup
+  public void setUp() {
+    final PickResult pickResult = PickResult.withNoResult();
+    SubchannelPicker childPicker = new SubchannelPicker() {
+      @Override
+      public PickResult pickSubchannel(PickSubchannelArgs args) {
+        return pickResult;
+      }
+    };
+    List<WeightedChildPicker> weightedChildPickers = new ArrayList<>(childCount);
+    for (int i = 0; i < childCount; i++) {
+      weightedChildPickers.add(new WeightedChildPicker(i % 10 + 1, childPicker));
+    }
+    picker = new WeightedRandomPicker(weightedChildPickers);
+    args = new PickSubchannelArgsImpl(
+        TestMethodDescriptors.voidMethod(), new Metadata(), CallOptions.DEFAULT);
+  }
+
+  /**
+   * Picks a child.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public PickResult pickSubchannel() {
+    return picker.pickSubchannel(args);
+  }
+}
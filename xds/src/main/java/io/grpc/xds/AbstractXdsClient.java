@@ -26,8 +26,11 @@ import com.google.common.base.Supplier;
 import com.google.protobuf.Any;
 import com.google.rpc.Code;
 import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryRequest;
 import io.envoyproxy.envoy.service.discovery.v3.DiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
 import io.grpc.InternalLogId;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
@@ -37,9 +40,16 @@ import io.grpc.internal.BackoffPolicy;
 import io.grpc.stub.StreamObserver;
 import io.grpc.xds.EnvoyProtoData.Node;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
@@ -83,6 +93,7 @@ abstract class AbstractXdsClient extends XdsClient {
   private final XdsLogger logger;
   private final ManagedChannel channel;
   private final boolean useProtocolV3;
+  private final boolean useDeltaProtocol;
   private final ScheduledExecutorService timeService;
   private final BackoffPolicy.Provider backoffPolicyProvider;
   private final Stopwatch stopwatch;
@@ -100,6 +111,11 @@ abstract class AbstractXdsClient extends XdsClient {
   private String rdsVersion = "";
   private String cdsVersion = "";
   private String edsVersion = "";
+  // Versions of the resources accepted through the incremental protocol, for each resource type.
+  // Sent as the initial resource versions of a new ADS stream, so that the management server
+  // doesn't resend the resources the client already has.
+  private final Map<ResourceType, Map<String, String>> resourceVersions =
+      new EnumMap<>(ResourceType.class);
 
   private boolean shutdown;
   @Nullable
@@ -112,8 +128,17 @@ abstract class AbstractXdsClient extends XdsClient {
   AbstractXdsClient(ManagedChannel channel, boolean useProtocolV3, Node node,
       ScheduledExecutorService timeService, BackoffPolicy.Provider backoffPolicyProvider,
       Supplier<Stopwatch> stopwatchSupplier) {
+    this(channel, useProtocolV3, false, node, timeService, backoffPolicyProvider,
+        stopwatchSupplier);
+  }
+
+  AbstractXdsClient(ManagedChannel channel, boolean useProtocolV3, boolean useDeltaProtocol,
+      Node node, ScheduledExecutorService timeService,
+      BackoffPolicy.Provider backoffPolicyProvider, Supplier<Stopwatch> stopwatchSupplier) {
+    checkArgument(useProtocolV3 || !useDeltaProtocol, "incremental xDS requires xDS v3");
     this.channel = checkNotNull(channel, "channel");
     this.useProtocolV3 = useProtocolV3;
+    this.useDeltaProtocol = useDeltaProtocol;
     this.node = checkNotNull(node, "node");
     this.timeService = checkNotNull(timeService, "timeService");
     this.backoffPolicyProvider = checkNotNull(backoffPolicyProvider, "backoffPolicyProvider");
@@ -151,6 +176,16 @@ abstract class AbstractXdsClient extends XdsClient {
   protected void handleEdsResponse(String versionInfo, List<Any> resources, String nonce) {
   }
 
+  /**
+   * Called when a response is received on an incremental ADS stream, with the resources of the
+   * given type that were added or changed since the previous response and the names of the
+   * removed ones.
+   */
+  // Must be synchronized.
+  protected void handleDeltaResponse(ResourceType type, String systemVersionInfo,
+      List<Any> resources, List<String> removedResources, String nonce) {
+  }
+
   /**
    * Called when the ADS stream is closed passively.
    */
@@ -225,6 +260,8 @@ abstract class AbstractXdsClient extends XdsClient {
     Collection<String> resources = getSubscribedResources(type);
     if (resources != null) {
       adsStream.sendDiscoveryRequest(type, resources);
+    } else {
+      adsStream.unsubscribeAll(type);
     }
   }
 
@@ -303,7 +340,9 @@ abstract class AbstractXdsClient extends XdsClient {
   // Must be synchronized.
   private void startRpcStream() {
     checkState(adsStream == null, "Previous adsStream has not been cleared yet");
-    if (useProtocolV3) {
+    if (useDeltaProtocol) {
+      adsStream = new DeltaAdsStream();
+    } else if (useProtocolV3) {
       adsStream = new AdsStreamV3();
     } else {
       adsStream = new AdsStreamV2();
@@ -506,6 +545,28 @@ abstract class AbstractXdsClient extends XdsClient {
       }
     }
 
+    /**
+     * Stops the subscription to all the resources of the given type. Only supported by
+     * incremental streams, state-of-the-world streams keep the last subscription.
+     */
+    void unsubscribeAll(ResourceType type) {
+    }
+
+    final void handleDeltaRpcResponse(ResourceType type, String systemVersionInfo,
+        List<Any> resources, List<String> removedResources, String nonce) {
+      if (closed) {
+        return;
+      }
+      responseReceived = true;
+      // Nonces only identify the response being ACKed or NACKed in the incremental protocol,
+      // client-initiated requests don't carry any.
+      if (type == ResourceType.UNKNOWN) {
+        logger.log(XdsLogLevel.WARNING, "Ignore an unknown type of DeltaDiscoveryResponse");
+        return;
+      }
+      handleDeltaResponse(type, systemVersionInfo, resources, removedResources, nonce);
+    }
+
     final void handleRpcError(Throwable t) {
       handleRpcStreamClosed(Status.fromThrowable(t));
     }
@@ -715,4 +776,177 @@ abstract class AbstractXdsClient extends XdsClient {
       requestWriter.onError(error);
     }
   }
+
+  /**
+   * ADS stream of the incremental xDS protocol. Subscriptions are updated by sending the names of
+   * the resources subscribed to or unsubscribed from, and responses only carry the resources that
+   * changed along with the names of the removed ones.
+   */
+  private final class DeltaAdsStream extends AbstractAdsStream {
+    private StreamObserver<DeltaDiscoveryRequest> requestWriter;
+    private boolean nodeSent;
+    // Resources subscribed to on this stream, for each resource type requested on it.
+    private final Map<ResourceType, Set<String>> subscribedResources =
+        new EnumMap<>(ResourceType.class);
+    // Nonce and resource versions of the last response of each resource type, until it is ACKed
+    // or NACKed. Removed resources map to null.
+    private final Map<ResourceType, String> pendingNonces = new EnumMap<>(ResourceType.class);
+    private final Map<ResourceType, Map<String, String>> pendingVersions =
+        new EnumMap<>(ResourceType.class);
+
+    @Override
+    void start() {
+      AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceStub stub =
+          AggregatedDiscoveryServiceGrpc.newStub(channel);
+      StreamObserver<DeltaDiscoveryResponse> responseReader =
+          new StreamObserver<DeltaDiscoveryResponse>() {
+            @Override
+            public void onNext(final DeltaDiscoveryResponse response) {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  ResourceType type = ResourceType.fromTypeUrl(response.getTypeUrl());
+                  if (logger.isLoggable(XdsLogLevel.DEBUG)) {
+                    logger.log(XdsLogLevel.DEBUG, "Received {0} delta response:\n{1}",
+                        type, msgPrinter.print(response));
+                  }
+                  handleResponse(type, response);
+                }
+              });
+            }
+
+            @Override
+            public void onError(final Throwable t) {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  handleRpcError(t);
+                }
+              });
+            }
+
+            @Override
+            public void onCompleted() {
+              syncContext.execute(new Runnable() {
+                @Override
+                public void run() {
+                  handleRpcCompleted();
+                }
+              });
+            }
+          };
+      requestWriter = stub.withWaitForReady().deltaAggregatedResources(responseReader);
+    }
+
+    private void handleResponse(ResourceType type, DeltaDiscoveryResponse response) {
+      List<Any> resources = new ArrayList<>(response.getResourcesCount());
+      Map<String, String> versions = new HashMap<>();
+      for (Resource resource : response.getResourcesList()) {
+        if (resource.hasResource()) {
+          resources.add(resource.getResource());
+          versions.put(resource.getName(), resource.getVersion());
+        }
+      }
+      for (String name : response.getRemovedResourcesList()) {
+        versions.put(name, null);
+      }
+      if (type != ResourceType.UNKNOWN) {
+        pendingNonces.put(type, response.getNonce());
+        pendingVersions.put(type, versions);
+      }
+      handleDeltaRpcResponse(type, response.getSystemVersionInfo(), resources,
+          response.getRemovedResourcesList(), response.getNonce());
+    }
+
+    @Override
+    void sendDiscoveryRequest(ResourceType type, String versionInfo, Collection<String> resources,
+        String nonce, @Nullable String errorDetail) {
+      checkState(requestWriter != null, "ADS stream has not been started");
+      DeltaDiscoveryRequest.Builder builder =
+          DeltaDiscoveryRequest.newBuilder()
+              .setTypeUrl(type.typeUrl())
+              .setResponseNonce(nonce);
+      if (!nodeSent) {
+        // Only required in the first request of the stream.
+        builder.setNode(node.toEnvoyProtoNode());
+        nodeSent = true;
+      }
+      if (!nonce.isEmpty() && nonce.equals(pendingNonces.get(type))) {
+        pendingNonces.remove(type);
+        Map<String, String> versions = pendingVersions.remove(type);
+        if (errorDetail == null) {
+          acceptVersions(type, versions);
+        }
+      }
+      Set<String> subscribed = subscribedResources.get(type);
+      if (subscribed == null) {
+        subscribed = new HashSet<>();
+        subscribedResources.put(type, subscribed);
+        Map<String, String> versions = resourceVersions.get(type);
+        if (versions != null) {
+          builder.putAllInitialResourceVersions(versions);
+        }
+      }
+      for (String resource : resources) {
+        if (subscribed.add(resource)) {
+          builder.addResourceNamesSubscribe(resource);
+        }
+      }
+      for (Iterator<String> it = subscribed.iterator(); it.hasNext(); ) {
+        String resource = it.next();
+        if (!resources.contains(resource)) {
+          it.remove();
+          builder.addResourceNamesUnsubscribe(resource);
+          forgetVersion(type, resource);
+        }
+      }
+      if (errorDetail != null) {
+        com.google.rpc.Status error =
+            com.google.rpc.Status.newBuilder()
+                .setCode(Code.INVALID_ARGUMENT_VALUE)  // FIXME(chengyuanzhang): use correct code
+                .setMessage(errorDetail)
+                .build();
+        builder.setErrorDetail(error);
+      }
+      DeltaDiscoveryRequest request = builder.build();
+      requestWriter.onNext(request);
+      logger.log(XdsLogLevel.DEBUG, "Sent DeltaDiscoveryRequest\n{0}", msgPrinter.print(request));
+    }
+
+    @Override
+    void unsubscribeAll(ResourceType type) {
+      Set<String> subscribed = subscribedResources.get(type);
+      if (subscribed != null && !subscribed.isEmpty()) {
+        logger.log(XdsLogLevel.INFO, "Unsubscribing from all {0} resources", type);
+        sendDiscoveryRequest(type, "", Collections.<String>emptyList(), "", null);
+      }
+    }
+
+    private void acceptVersions(ResourceType type, Map<String, String> versions) {
+      Map<String, String> accepted = resourceVersions.get(type);
+      if (accepted == null) {
+        accepted = new HashMap<>();
+        resourceVersions.put(type, accepted);
+      }
+      for (Map.Entry<String, String> entry : versions.entrySet()) {
+        if (entry.getValue() == null) {
+          accepted.remove(entry.getKey());
+        } else {
+          accepted.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
+    private void forgetVersion(ResourceType type, String resource) {
+      Map<String, String> accepted = resourceVersions.get(type);
+      if (accepted != null) {
+        accepted.remove(resource);
+      }
+    }
+
+    @Override
+    void sendError(Exception error) {
+      requestWriter.onError(error);
+    }
+  }
 }
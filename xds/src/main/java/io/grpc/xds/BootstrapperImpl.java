@@ -58,6 +58,7 @@ public class BootstrapperImpl extends Bootstrapper {
   @VisibleForTesting
   static String bootstrapConfigFromSysProp = System.getProperty(BOOTSTRAP_CONFIG_SYS_PROPERTY_VAR);
   private static final String XDS_V3_SERVER_FEATURE = "xds_v3";
+  private static final String XDS_DELTA_SERVER_FEATURE = "xds_delta";
   @VisibleForTesting
   static final String CLIENT_FEATURE_DISABLE_OVERPROVISIONING =
       "envoy.lb.does_not_support_overprovisioning";
@@ -149,12 +150,16 @@ public class BootstrapperImpl extends Bootstrapper {
       }
 
       boolean useProtocolV3 = false;
+      boolean useDeltaProtocol = false;
       List<String> serverFeatures = JsonUtil.getListOfStrings(serverConfig, "server_features");
       if (serverFeatures != null) {
         logger.log(XdsLogLevel.INFO, "Server features: {0}", serverFeatures);
         useProtocolV3 = serverFeatures.contains(XDS_V3_SERVER_FEATURE);
+        // The incremental protocol is only defined for xDS v3.
+        useDeltaProtocol = useProtocolV3 && serverFeatures.contains(XDS_DELTA_SERVER_FEATURE);
       }
-      servers.add(new ServerInfo(serverUri, channelCredentials, useProtocolV3));
+      servers.add(
+          new ServerInfo(serverUri, channelCredentials, useProtocolV3, useDeltaProtocol));
     }
 
     Node.Builder nodeBuilder = Node.newBuilder();
@@ -70,11 +70,13 @@ import io.grpc.xds.VirtualHost.Route.RouteAction;
 import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
 import io.grpc.xds.VirtualHost.Route.RouteAction.HashPolicy;
 import io.grpc.xds.VirtualHost.Route.RouteMatch;
+import io.grpc.xds.XdsClient.CdsUpdate.ClusterType;
 import io.grpc.xds.XdsClient.CdsUpdate.HashFunction;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -129,7 +131,15 @@ final class ClientXdsClient extends AbstractXdsClient {
   ClientXdsClient(ManagedChannel channel, boolean useProtocolV3, Node node,
       ScheduledExecutorService timeService, BackoffPolicy.Provider backoffPolicyProvider,
       Supplier<Stopwatch> stopwatchSupplier) {
-    super(channel, useProtocolV3, node, timeService, backoffPolicyProvider, stopwatchSupplier);
+    this(channel, useProtocolV3, false, node, timeService, backoffPolicyProvider,
+        stopwatchSupplier);
+  }
+
+  ClientXdsClient(ManagedChannel channel, boolean useProtocolV3, boolean useDeltaProtocol,
+      Node node, ScheduledExecutorService timeService,
+      BackoffPolicy.Provider backoffPolicyProvider, Supplier<Stopwatch> stopwatchSupplier) {
+    super(channel, useProtocolV3, useDeltaProtocol, node, timeService, backoffPolicyProvider,
+        stopwatchSupplier);
     loadStatsManager = new LoadStatsManager2(stopwatchSupplier);
     lrsClient = new LoadReportClient(loadStatsManager, channel, useProtocolV3, node,
         getSyncContext(), timeService, backoffPolicyProvider, stopwatchSupplier);
@@ -137,6 +147,48 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleLdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    List<Any> changedResources = new ArrayList<>(resources.size());
+    Map<String, ResourceUpdate> unchangedUpdates =
+        filterUnchanged(resources, ldsResourceSubscribers, changedResources);
+    Set<String> rdsNames = new HashSet<>();
+    Map<String, Any> rawResources = new HashMap<>();
+    Map<String, LdsUpdate> ldsUpdates =
+        parseLdsResources(changedResources, nonce, rdsNames, rawResources);
+    if (ldsUpdates == null) {
+      return;
+    }
+    for (ResourceUpdate update : unchangedUpdates.values()) {
+      String rdsName = ((LdsUpdate) update).rdsName;
+      if (rdsName != null) {
+        rdsNames.add(rdsName);
+      }
+    }
+    ackResponse(ResourceType.LDS, versionInfo, nonce);
+
+    for (String resource : ldsResourceSubscribers.keySet()) {
+      ResourceSubscriber subscriber = ldsResourceSubscribers.get(resource);
+      if (ldsUpdates.containsKey(resource)) {
+        subscriber.onData(ldsUpdates.get(resource), rawResources.get(resource));
+      } else if (!unchangedUpdates.containsKey(resource)) {
+        subscriber.onAbsent();
+      }
+    }
+    for (String resource : rdsResourceSubscribers.keySet()) {
+      if (!rdsNames.contains(resource)) {
+        ResourceSubscriber subscriber = rdsResourceSubscribers.get(resource);
+        subscriber.onAbsent();
+      }
+    }
+  }
+
+  /**
+   * Parses the Listeners of an LDS response, collecting the names of the RouteConfigurations they
+   * refer to in {@code rdsNames} and the resources they were parsed from in {@code rawResources}.
+   * Returns {@code null} if the response has been NACKed.
+   */
+  @Nullable
+  private Map<String, LdsUpdate> parseLdsResources(List<Any> resources, String nonce,
+      Set<String> rdsNames, Map<String, Any> rawResources) {
     // Unpack Listener messages.
     List<Listener> listeners = new ArrayList<>(resources.size());
     List<String> listenerNames = new ArrayList<>(resources.size());
@@ -146,11 +198,12 @@ final class ClientXdsClient extends AbstractXdsClient {
             ResourceType.LDS.typeUrlV2());
         listeners.add(listener);
         listenerNames.add(listener.getName());
+        rawResources.put(listener.getName(), res);
       }
     } catch (InvalidProtocolBufferException e) {
       getLogger().log(XdsLogLevel.WARNING, "Failed to unpack Listeners in LDS response {0}", e);
       nackResponse(ResourceType.LDS, nonce, "Malformed LDS response: " + e);
-      return;
+      return null;
     }
     getLogger().log(XdsLogLevel.INFO, "Received LDS response for resources: {0}", listenerNames);
 
@@ -168,11 +221,10 @@ final class ClientXdsClient extends AbstractXdsClient {
           XdsLogLevel.WARNING,
           "Failed to unpack HttpConnectionManagers in Listeners of LDS response {0}", e);
       nackResponse(ResourceType.LDS, nonce, "Malformed LDS response: " + e);
-      return;
+      return null;
     }
 
     Map<String, LdsUpdate> ldsUpdates = new HashMap<>();
-    Set<String> rdsNames = new HashSet<>();
     for (Map.Entry<String, HttpConnectionManager> entry : httpConnectionManagers.entrySet()) {
       LdsUpdate update;
       String listenerName = entry.getKey();
@@ -199,7 +251,7 @@ final class ClientXdsClient extends AbstractXdsClient {
                   nackResponse(ResourceType.LDS, nonce,
                       "Listener " + listenerName + " contains invalid HttpFault filter: "
                           + httpFaultOrError.getErrorDetail());
-                  return;
+                  return null;
                 }
                 httpFault = httpFaultOrError.getStruct();
               }
@@ -217,7 +269,7 @@ final class ClientXdsClient extends AbstractXdsClient {
             nackResponse(ResourceType.LDS, nonce,
                 "Listener " + listenerName + " contains invalid virtual host: "
                     + virtualHost.getErrorDetail());
-            return;
+            return null;
           }
           virtualHosts.add(virtualHost.getStruct());
         }
@@ -227,7 +279,7 @@ final class ClientXdsClient extends AbstractXdsClient {
         if (!rds.getConfigSource().hasAds()) {
           nackResponse(ResourceType.LDS, nonce,
               "Listener " + listenerName + " with RDS config_source not set to ADS");
-          return;
+          return null;
         }
         update = new LdsUpdate(
             maxStreamDuration, rds.getRouteConfigName(), hasFaultInjection, httpFault);
@@ -235,26 +287,11 @@ final class ClientXdsClient extends AbstractXdsClient {
       } else {
         nackResponse(ResourceType.LDS, nonce,
             "Listener " + listenerName + " without inline RouteConfiguration or RDS");
-        return;
+        return null;
       }
       ldsUpdates.put(listenerName, update);
     }
-    ackResponse(ResourceType.LDS, versionInfo, nonce);
-
-    for (String resource : ldsResourceSubscribers.keySet()) {
-      ResourceSubscriber subscriber = ldsResourceSubscribers.get(resource);
-      if (ldsUpdates.containsKey(resource)) {
-        subscriber.onData(ldsUpdates.get(resource));
-      } else {
-        subscriber.onAbsent();
-      }
-    }
-    for (String resource : rdsResourceSubscribers.keySet()) {
-      if (!rdsNames.contains(resource)) {
-        ResourceSubscriber subscriber = rdsResourceSubscribers.get(resource);
-        subscriber.onAbsent();
-      }
-    }
+    return ldsUpdates;
   }
 
   private static StructOrError<VirtualHost> parseVirtualHost(
@@ -663,6 +700,30 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleRdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    List<Any> changedResources = new ArrayList<>(resources.size());
+    filterUnchanged(resources, rdsResourceSubscribers, changedResources);
+    Map<String, Any> rawResources = new HashMap<>();
+    Map<String, RdsUpdate> rdsUpdates = parseRdsResources(changedResources, nonce, rawResources);
+    if (rdsUpdates == null) {
+      return;
+    }
+    ackResponse(ResourceType.RDS, versionInfo, nonce);
+
+    for (String resource : rdsResourceSubscribers.keySet()) {
+      if (rdsUpdates.containsKey(resource)) {
+        ResourceSubscriber subscriber = rdsResourceSubscribers.get(resource);
+        subscriber.onData(rdsUpdates.get(resource), rawResources.get(resource));
+      }
+    }
+  }
+
+  /**
+   * Parses the RouteConfigurations of an RDS response, collecting the resources they were parsed
+   * from in {@code rawResources}. Returns {@code null} if the response has been NACKed.
+   */
+  @Nullable
+  private Map<String, RdsUpdate> parseRdsResources(
+      List<Any> resources, String nonce, Map<String, Any> rawResources) {
     // Unpack RouteConfiguration messages.
     Map<String, RouteConfiguration> routeConfigs = new HashMap<>(resources.size());
     try {
@@ -671,12 +732,13 @@ final class ClientXdsClient extends AbstractXdsClient {
             unpackCompatibleType(res, RouteConfiguration.class, ResourceType.RDS.typeUrl(),
                 ResourceType.RDS.typeUrlV2());
         routeConfigs.put(rc.getName(), rc);
+        rawResources.put(rc.getName(), res);
       }
     } catch (InvalidProtocolBufferException e) {
       getLogger().log(
           XdsLogLevel.WARNING, "Failed to unpack RouteConfiguration in RDS response {0}", e);
       nackResponse(ResourceType.RDS, nonce, "Malformed RDS response: " + e);
-      return;
+      return null;
     }
     getLogger().log(
         XdsLogLevel.INFO, "Received RDS response for resources: {0}", routeConfigs.keySet());
@@ -693,24 +755,62 @@ final class ClientXdsClient extends AbstractXdsClient {
         if (virtualHost.getErrorDetail() != null) {
           nackResponse(ResourceType.RDS, nonce, "RouteConfiguration " + routeConfigName
               + " contains invalid virtual host: " + virtualHost.getErrorDetail());
-          return;
+          return null;
         }
         virtualHosts.add(virtualHost.getStruct());
       }
       rdsUpdates.put(routeConfigName, new RdsUpdate(virtualHosts));
     }
-    ackResponse(ResourceType.RDS, versionInfo, nonce);
+    return rdsUpdates;
+  }
 
-    for (String resource : rdsResourceSubscribers.keySet()) {
-      if (rdsUpdates.containsKey(resource)) {
-        ResourceSubscriber subscriber = rdsResourceSubscribers.get(resource);
-        subscriber.onData(rdsUpdates.get(resource));
+  @Override
+  protected void handleCdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    // CDS responses represents the state of the world, EDS resources not referenced in CDS
+    // resources should be deleted.
+    Set<String> edsResources = new HashSet<>();  // retained EDS resources
+    List<Any> changedResources = new ArrayList<>(resources.size());
+    Map<String, ResourceUpdate> unchangedUpdates =
+        filterUnchanged(resources, cdsResourceSubscribers, changedResources);
+    Map<String, Any> rawResources = new HashMap<>();
+    Map<String, CdsUpdate> cdsUpdates =
+        parseCdsResources(changedResources, nonce, edsResources, rawResources);
+    if (cdsUpdates == null) {
+      return;
+    }
+    for (ResourceUpdate update : unchangedUpdates.values()) {
+      CdsUpdate cdsUpdate = (CdsUpdate) update;
+      if (cdsUpdate.clusterType() == ClusterType.EDS) {
+        edsResources.add(cdsUpdate.edsServiceName() != null
+            ? cdsUpdate.edsServiceName() : cdsUpdate.clusterName());
+      }
+    }
+    ackResponse(ResourceType.CDS, versionInfo, nonce);
+
+    for (String resource : cdsResourceSubscribers.keySet()) {
+      ResourceSubscriber subscriber = cdsResourceSubscribers.get(resource);
+      if (cdsUpdates.containsKey(resource)) {
+        subscriber.onData(cdsUpdates.get(resource), rawResources.get(resource));
+      } else if (!unchangedUpdates.containsKey(resource)) {
+        subscriber.onAbsent();
+      }
+    }
+    for (String resource : edsResourceSubscribers.keySet()) {
+      ResourceSubscriber subscriber = edsResourceSubscribers.get(resource);
+      if (!edsResources.contains(resource)) {
+        subscriber.onAbsent();
       }
     }
   }
 
-  @Override
-  protected void handleCdsResponse(String versionInfo, List<Any> resources, String nonce) {
+  /**
+   * Parses the subscribed Clusters of a CDS response, collecting the names of the EDS resources
+   * they refer to in {@code edsResources} and the resources they were parsed from in {@code
+   * rawResources}. Returns {@code null} if the response has been NACKed.
+   */
+  @Nullable
+  private Map<String, CdsUpdate> parseCdsResources(List<Any> resources, String nonce,
+      Set<String> edsResources, Map<String, Any> rawResources) {
     // Unpack Cluster messages.
     List<Cluster> clusters = new ArrayList<>(resources.size());
     List<String> clusterNames = new ArrayList<>(resources.size());
@@ -720,18 +820,16 @@ final class ClientXdsClient extends AbstractXdsClient {
             ResourceType.CDS.typeUrlV2());
         clusters.add(cluster);
         clusterNames.add(cluster.getName());
+        rawResources.put(cluster.getName(), res);
       }
     } catch (InvalidProtocolBufferException e) {
       getLogger().log(XdsLogLevel.WARNING, "Failed to unpack Clusters in CDS response {0}", e);
       nackResponse(ResourceType.CDS, nonce, "Malformed CDS response: " + e);
-      return;
+      return null;
     }
     getLogger().log(XdsLogLevel.INFO, "Received CDS response for resources: {0}", clusterNames);
 
     Map<String, CdsUpdate> cdsUpdates = new HashMap<>();
-    // CDS responses represents the state of the world, EDS resources not referenced in CDS
-    // resources should be deleted.
-    Set<String> edsResources = new HashSet<>();  // retained EDS resources
     for (Cluster cluster : clusters) {
       String clusterName = cluster.getName();
       // Management server is required to always send newly requested resources, even if they
@@ -752,11 +850,11 @@ final class ClientXdsClient extends AbstractXdsClient {
         default:
           nackResponse(ResourceType.CDS, nonce,
               "Cluster " + clusterName + ": cluster discovery type unspecified");
-          return;
+          return null;
       }
       if (structOrError.getErrorDetail() != null) {
         nackResponse(ResourceType.CDS, nonce, structOrError.errorDetail);
-        return;
+        return null;
       }
       CdsUpdate.Builder updateBuilder = structOrError.getStruct();
       String lbPolicy = CaseFormat.UPPER_UNDERSCORE.to(
@@ -770,7 +868,7 @@ final class ClientXdsClient extends AbstractXdsClient {
           nackResponse(ResourceType.CDS, nonce,
               "Cluster " + clusterName + ": unsupported ring hash function: "
                   + lbConfig.getHashFunction());
-          return;
+          return null;
         }
         updateBuilder.lbPolicy(lbPolicy, lbConfig.getMinimumRingSize().getValue(),
             lbConfig.getMaximumRingSize().getValue(), hashFunction);
@@ -779,22 +877,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       }
       cdsUpdates.put(clusterName, updateBuilder.build());
     }
-    ackResponse(ResourceType.CDS, versionInfo, nonce);
-
-    for (String resource : cdsResourceSubscribers.keySet()) {
-      ResourceSubscriber subscriber = cdsResourceSubscribers.get(resource);
-      if (cdsUpdates.containsKey(resource)) {
-        subscriber.onData(cdsUpdates.get(resource));
-      } else {
-        subscriber.onAbsent();
-      }
-    }
-    for (String resource : edsResourceSubscribers.keySet()) {
-      ResourceSubscriber subscriber = edsResourceSubscribers.get(resource);
-      if (!edsResources.contains(resource)) {
-        subscriber.onAbsent();
-      }
-    }
+    return cdsUpdates;
   }
 
   private static StructOrError<CdsUpdate.Builder> parseAggregateCluster(Cluster cluster) {
@@ -882,6 +965,31 @@ final class ClientXdsClient extends AbstractXdsClient {
 
   @Override
   protected void handleEdsResponse(String versionInfo, List<Any> resources, String nonce) {
+    List<Any> changedResources = new ArrayList<>(resources.size());
+    filterUnchanged(resources, edsResourceSubscribers, changedResources);
+    Map<String, Any> rawResources = new HashMap<>();
+    Map<String, EdsUpdate> edsUpdates = parseEdsResources(changedResources, nonce, rawResources);
+    if (edsUpdates == null) {
+      return;
+    }
+    ackResponse(ResourceType.EDS, versionInfo, nonce);
+
+    for (String resource : edsResourceSubscribers.keySet()) {
+      ResourceSubscriber subscriber = edsResourceSubscribers.get(resource);
+      if (edsUpdates.containsKey(resource)) {
+        subscriber.onData(edsUpdates.get(resource), rawResources.get(resource));
+      }
+    }
+  }
+
+  /**
+   * Parses the subscribed ClusterLoadAssignments of an EDS response, collecting the resources they
+   * were parsed from in {@code rawResources}. Returns {@code null} if the response has been
+   * NACKed.
+   */
+  @Nullable
+  private Map<String, EdsUpdate> parseEdsResources(
+      List<Any> resources, String nonce, Map<String, Any> rawResources) {
     // Unpack ClusterLoadAssignment messages.
     List<ClusterLoadAssignment> clusterLoadAssignments = new ArrayList<>(resources.size());
     List<String> claNames = new ArrayList<>(resources.size());
@@ -892,12 +1000,13 @@ final class ClientXdsClient extends AbstractXdsClient {
                 ResourceType.EDS.typeUrlV2());
         clusterLoadAssignments.add(assignment);
         claNames.add(assignment.getClusterName());
+        rawResources.put(assignment.getClusterName(), res);
       }
     } catch (InvalidProtocolBufferException e) {
       getLogger().log(
           XdsLogLevel.WARNING, "Failed to unpack ClusterLoadAssignments in EDS response {0}", e);
       nackResponse(ResourceType.EDS, nonce, "Malformed EDS response: " + e);
-      return;
+      return null;
     }
     getLogger().log(XdsLogLevel.INFO, "Received EDS response for resources: {0}", claNames);
 
@@ -925,7 +1034,7 @@ final class ClientXdsClient extends AbstractXdsClient {
         if (localityLbEndpoints.getErrorDetail() != null) {
           nackResponse(ResourceType.EDS, nonce, "ClusterLoadAssignment " + clusterName + ": "
               + localityLbEndpoints.getErrorDetail());
-          return;
+          return null;
         }
         maxPriority = Math.max(maxPriority, localityLbEndpoints.getStruct().priority());
         priorities.add(localityLbEndpoints.getStruct().priority());
@@ -939,7 +1048,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       if (priorities.size() != maxPriority + 1) {
         nackResponse(ResourceType.EDS, nonce,
             "ClusterLoadAssignment " + clusterName + " : sparse priorities.");
-        return;
+        return null;
       }
       for (ClusterLoadAssignment.Policy.DropOverload dropOverloadProto
           : assignment.getPolicy().getDropOverloadsList()) {
@@ -948,14 +1057,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       EdsUpdate update = new EdsUpdate(clusterName, localityLbEndpointsMap, dropOverloads);
       edsUpdates.put(clusterName, update);
     }
-    ackResponse(ResourceType.EDS, versionInfo, nonce);
-
-    for (String resource : edsResourceSubscribers.keySet()) {
-      ResourceSubscriber subscriber = edsResourceSubscribers.get(resource);
-      if (edsUpdates.containsKey(resource)) {
-        subscriber.onData(edsUpdates.get(resource));
-      }
-    }
+    return edsUpdates;
   }
 
   private static Locality parseLocality(io.envoyproxy.envoy.config.core.v3.Locality proto) {
@@ -1045,6 +1147,100 @@ final class ClientXdsClient extends AbstractXdsClient {
     return numerator;
   }
 
+  /**
+   * Returns the current data of the subscribers whose resource is identical to one of {@code
+   * resources}, and adds the other resources to {@code changedResources}. Unchanged resources have
+   * been validated when first accepted, so they are neither parsed nor notified again.
+   */
+  private Map<String, ResourceUpdate> filterUnchanged(List<Any> resources,
+      Map<String, ResourceSubscriber> subscribers, List<Any> changedResources) {
+    Map<Any, ResourceSubscriber> acceptedResources = new HashMap<>();
+    for (ResourceSubscriber subscriber : subscribers.values()) {
+      if (subscriber.rawData != null) {
+        acceptedResources.put(subscriber.rawData, subscriber);
+      }
+    }
+    if (acceptedResources.isEmpty()) {
+      changedResources.addAll(resources);
+      return Collections.emptyMap();
+    }
+    Map<String, ResourceUpdate> unchangedUpdates = new HashMap<>();
+    for (Any resource : resources) {
+      ResourceSubscriber subscriber = acceptedResources.get(resource);
+      if (subscriber != null) {
+        unchangedUpdates.put(subscriber.resource, subscriber.data);
+      } else {
+        changedResources.add(resource);
+      }
+    }
+    return unchangedUpdates;
+  }
+
+  @Override
+  protected void handleDeltaResponse(ResourceType type, String systemVersionInfo,
+      List<Any> resources, List<String> removedResources, String nonce) {
+    // Incremental responses only carry the resources that changed, and removals are explicit:
+    // resources not mentioned keep their current state.
+    Map<String, ResourceSubscriber> subscribers;
+    switch (type) {
+      case LDS:
+        subscribers = ldsResourceSubscribers;
+        break;
+      case RDS:
+        subscribers = rdsResourceSubscribers;
+        break;
+      case CDS:
+        subscribers = cdsResourceSubscribers;
+        break;
+      case EDS:
+        subscribers = edsResourceSubscribers;
+        break;
+      case UNKNOWN:
+      default:
+        throw new AssertionError("Unknown resource type: " + type);
+    }
+    List<Any> changedResources = new ArrayList<>(resources.size());
+    filterUnchanged(resources, subscribers, changedResources);
+    Map<String, Any> rawResources = new HashMap<>();
+    Map<String, ? extends ResourceUpdate> updates;
+    switch (type) {
+      case LDS:
+        updates = parseLdsResources(
+            changedResources, nonce, new HashSet<String>(), rawResources);
+        break;
+      case RDS:
+        updates = parseRdsResources(changedResources, nonce, rawResources);
+        break;
+      case CDS:
+        updates = parseCdsResources(
+            changedResources, nonce, new HashSet<String>(), rawResources);
+        break;
+      case EDS:
+      default:
+        updates = parseEdsResources(changedResources, nonce, rawResources);
+        break;
+    }
+    if (updates == null) {
+      return;
+    }
+    ackResponse(type, systemVersionInfo, nonce);
+
+    for (Map.Entry<String, ? extends ResourceUpdate> entry : updates.entrySet()) {
+      ResourceSubscriber subscriber = subscribers.get(entry.getKey());
+      if (subscriber != null) {
+        subscriber.onData(entry.getValue(), rawResources.get(entry.getKey()));
+      }
+    }
+    for (String resource : removedResources) {
+      ResourceSubscriber subscriber = subscribers.get(resource);
+      if (subscriber != null) {
+        // The removal is authoritative, no need to wait for the initial fetch timeout.
+        subscriber.stopTimer();
+        subscriber.onAbsent();
+      }
+    }
+  }
+
   @Override
   protected void handleStreamClosed(Status error) {
     cleanUpResourceTimers();
@@ -1296,6 +1492,9 @@ final class ClientXdsClient extends AbstractXdsClient {
     private final String resource;
     private final Set<ResourceWatcher> watchers = new HashSet<>();
     private ResourceUpdate data;
+    // The resource data has been parsed from, to recognize it when it is sent again unchanged.
+    @Nullable
+    private Any rawData;
     private boolean absent;
     private ScheduledHandle respTimer;
 
@@ -1358,13 +1557,14 @@ final class ClientXdsClient extends AbstractXdsClient {
       return !watchers.isEmpty();
     }
 
-    void onData(ResourceUpdate data) {
+    void onData(ResourceUpdate data, Any rawData) {
       if (respTimer != null && respTimer.isPending()) {
         respTimer.cancel();
         respTimer = null;
       }
       ResourceUpdate oldData = this.data;
       this.data = data;
+      this.rawData = rawData;
       absent = false;
       if (!Objects.equals(oldData, data)) {
         for (ResourceWatcher watcher : watchers) {
@@ -1380,6 +1580,7 @@ final class ClientXdsClient extends AbstractXdsClient {
       getLogger().log(XdsLogLevel.INFO, "Conclude {0} resource {1} not exist", type, resource);
       if (!absent) {
         data = null;
+        rawData = null;
         absent = true;
         for (ResourceWatcher watcher : watchers) {
           watcher.onResourceDoesNotExist(resource);
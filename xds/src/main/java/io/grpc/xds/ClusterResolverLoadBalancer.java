@@ -23,6 +23,8 @@ import static io.grpc.xds.XdsLbPolicies.PRIORITY_POLICY_NAME;
 import static io.grpc.xds.XdsSubchannelPickers.BUFFER_PICKER;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.grpc.Attributes;
 import io.grpc.EquivalentAddressGroup;
 import io.grpc.InternalLogId;
@@ -55,11 +57,16 @@ import io.grpc.xds.XdsClient.EdsResourceWatcher;
 import io.grpc.xds.XdsClient.EdsUpdate;
 import io.grpc.xds.XdsLogger.XdsLogLevel;
 import io.grpc.xds.XdsSubchannelPickers.ErrorPicker;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +85,10 @@ import javax.annotation.Nullable;
 final class ClusterResolverLoadBalancer extends LoadBalancer {
 
   private static final Locality LOGICAL_DNS_CLUSTER_LOCALITY = Locality.create("", "", "");
+  // Number of endpoints of each priority of an EDS cluster the client connects to, 0 to connect
+  // to all of them.
+  @VisibleForTesting
+  static int subsetSize = parseSubsetSize(System.getenv("GRPC_XDS_EXPERIMENTAL_SUBSET_SIZE"));
   private final XdsLogger logger;
   private final String authority;
   private final SynchronizationContext syncContext;
@@ -85,6 +96,8 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
   private final LoadBalancerRegistry lbRegistry;
   private final BackoffPolicy.Provider backoffPolicyProvider;
   private final GracefulSwitchLoadBalancer delegate;
+  // Identifies the subset of the endpoints the client connects to.
+  private final long subsetSeed;
   private ObjectPool<XdsClient> xdsClientPool;
   private XdsClient xdsClient;
   private ClusterResolverConfig config;
@@ -97,6 +110,14 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
   @VisibleForTesting
   ClusterResolverLoadBalancer(Helper helper, LoadBalancerRegistry lbRegistry,
       BackoffPolicy.Provider backoffPolicyProvider) {
+    this(helper, lbRegistry, backoffPolicyProvider,
+        ThreadSafeRandom.ThreadSafeRandomImpl.instance.nextLong());
+  }
+
+  @VisibleForTesting
+  ClusterResolverLoadBalancer(Helper helper, LoadBalancerRegistry lbRegistry,
+      BackoffPolicy.Provider backoffPolicyProvider, long subsetSeed) {
+    this.subsetSeed = subsetSeed;
     this.lbRegistry = checkNotNull(lbRegistry, "lbRegistry");
     this.backoffPolicyProvider = checkNotNull(backoffPolicyProvider, "backoffPolicyProvider");
     this.authority = checkNotNull(checkNotNull(helper, "helper").getAuthority(), "authority");
@@ -382,12 +403,26 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
             List<DropOverload> dropOverloads = update.dropPolicies;
             List<EquivalentAddressGroup> addresses = new ArrayList<>();
             Map<String, Map<Locality, Integer>> prioritizedLocalityWeights = new HashMap<>();
+            Map<Integer, Integer> healthyEndpointCounts = new HashMap<>();
+            if (subsetSize > 0) {
+              for (LocalityLbEndpoints localityLbInfo : localityLbEndpoints.values()) {
+                Integer count = healthyEndpointCounts.get(localityLbInfo.priority());
+                healthyEndpointCounts.put(localityLbInfo.priority(),
+                    (count == null ? 0 : count) + countHealthy(localityLbInfo.endpoints()));
+              }
+            }
             for (Locality locality : localityLbEndpoints.keySet()) {
               LocalityLbEndpoints localityLbInfo = localityLbEndpoints.get(locality);
               int priority = localityLbInfo.priority();
               String priorityName = priorityName(name, priority);
+              List<LbEndpoint> endpoints = localityLbInfo.endpoints();
+              Integer priorityEndpointCount = healthyEndpointCounts.get(priority);
+              if (priorityEndpointCount != null && priorityEndpointCount > subsetSize) {
+                endpoints =
+                    selectSubset(endpoints, subsetSize, priorityEndpointCount, subsetSeed);
+              }
               boolean discard = true;
-              for (LbEndpoint endpoint : localityLbInfo.endpoints()) {
+              for (LbEndpoint endpoint : endpoints) {
                 if (endpoint.isHealthy()) {
                   discard = false;
                   Attributes attr = endpoint.eag().getAttributes().toBuilder()
@@ -668,6 +703,104 @@ final class ClusterResolverLoadBalancer extends LoadBalancer {
     return configs;
   }
 
+  @VisibleForTesting
+  static int parseSubsetSize(@Nullable String value) {
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Math.max(Integer.parseInt(value), 0);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static int countHealthy(List<LbEndpoint> endpoints) {
+    int count = 0;
+    for (LbEndpoint endpoint : endpoints) {
+      if (endpoint.isHealthy()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Selects the healthy endpoints of a locality the client connects to, when it connects to
+   * {@code subsetSize} of the {@code priorityEndpointCount} healthy endpoints of the priority. The
+   * locality keeps its share of the subset, and at least one endpoint so that it still receives
+   * its share of the traffic.
+   *
+   * <p>Endpoints are selected with weighted rendezvous hashing of their addresses and the seed
+   * of the client: the subset changes only for the endpoints added or removed, and clients with
+   * different seeds select each endpoint in proportion to its load balancing weight, so that the
+   * load of the fleet stays even.
+   */
+  @VisibleForTesting
+  static List<LbEndpoint> selectSubset(
+      List<LbEndpoint> endpoints, int subsetSize, int priorityEndpointCount, long seed) {
+    List<LbEndpoint> healthyEndpoints = new ArrayList<>(endpoints.size());
+    for (LbEndpoint endpoint : endpoints) {
+      if (endpoint.isHealthy()) {
+        healthyEndpoints.add(endpoint);
+      }
+    }
+    int size = (int) Math.max(
+        (long) subsetSize * healthyEndpoints.size() / priorityEndpointCount, 1);
+    if (healthyEndpoints.size() <= size) {
+      return healthyEndpoints;
+    }
+    final double[] scores = new double[healthyEndpoints.size()];
+    Integer[] indexes = new Integer[scores.length];
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = rendezvousScore(healthyEndpoints.get(i), seed);
+      indexes[i] = i;
+    }
+    Arrays.sort(indexes, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Double.compare(scores[a], scores[b]);
+      }
+    });
+    boolean[] selected = new boolean[scores.length];
+    for (int i = 0; i < size; i++) {
+      selected[indexes[i]] = true;
+    }
+    List<LbEndpoint> subset = new ArrayList<>(size);
+    for (int i = 0; i < scores.length; i++) {
+      if (selected[i]) {
+        subset.add(healthyEndpoints.get(i));
+      }
+    }
+    return subset;
+  }
+
+  /**
+   * Returns {@code -ln(u) / weight}, with {@code u} uniform in (0, 1] derived from the addresses
+   * of the endpoint and the seed. The endpoints with the lowest scores are selected.
+   */
+  @VisibleForTesting
+  static double rendezvousScore(LbEndpoint endpoint, long seed) {
+    // Hashes the raw IP and port of each address rather than combining hash codes, which collide
+    // for addresses such as 10.0.0.1:8081 and 10.0.0.2:8080.
+    Hasher hasher = Hashing.murmur3_128().newHasher().putLong(seed);
+    for (SocketAddress address : endpoint.eag().getAddresses()) {
+      InetAddress ip = address instanceof InetSocketAddress
+          ? ((InetSocketAddress) address).getAddress() : null;
+      if (ip != null) {
+        byte[] ipBytes = ip.getAddress();
+        hasher.putInt(ipBytes.length).putBytes(ipBytes)
+            .putInt(((InetSocketAddress) address).getPort());
+      } else {
+        String name = address.toString();
+        hasher.putInt(name.length()).putString(name, StandardCharsets.UTF_8);
+      }
+    }
+    long hash = hasher.hash().asLong();
+    double uniform = ((hash >>> 11) + 1) * 0x1.0p-53;
+    return -Math.log(uniform) / Math.max(endpoint.loadBalancingWeight(), 1);
+  }
+
   /**
    * Generates a string that represents the priority in the LB policy config. The string is unique
    * across priorities in all clusters and priorityName(c, p1) < priorityName(c, p2) iff p1 < p2.
@@ -166,7 +166,7 @@ abstract class OrcaOobUtil {
 
     return new OrcaReportingHelperWrapper() {
       @Override
-      public void setReportingConfig(OrcaReportingConfig config) {
+      public void setReportingConfig(@Nullable OrcaReportingConfig config) {
         orcaHelper.setReportingConfig(config);
       }
 
@@ -215,9 +215,9 @@ abstract class OrcaOobUtil {
      * <p>If multiple load balancing policies configure reporting with different intervals, reports
      * come with the minimum of those intervals.
      *
-     * @param config the configuration to be set.
+     * @param config the configuration to be set, or {@code null} to stop receiving reports.
      */
-    public abstract void setReportingConfig(OrcaReportingConfig config);
+    public abstract void setReportingConfig(@Nullable OrcaReportingConfig config);
 
     /**
      * Returns a wrapped {@link LoadBalancer.Helper}. Subchannels created through it will retrieve
@@ -286,7 +286,7 @@ abstract class OrcaOobUtil {
       return subchannel;
     }
 
-    void setReportingConfig(final OrcaReportingConfig config) {
+    void setReportingConfig(@Nullable final OrcaReportingConfig config) {
       syncContext.throwIfNotInThisSynchronizationContext();
       orcaConfig = config;
       for (OrcaReportingState state : orcaStates) {
@@ -349,9 +349,20 @@ abstract class OrcaOobUtil {
         this.stateListener = checkNotNull(stateListener, "stateListener");
       }
 
-      void setReportingConfig(OrcaReportingHelper helper, OrcaReportingConfig config) {
+      void setReportingConfig(OrcaReportingHelper helper, @Nullable OrcaReportingConfig config) {
         boolean reconfigured = false;
-        configs.put(helper, config);
+        if (config == null) {
+          if (configs.remove(helper) == null) {
+            return;
+          }
+          if (configs.isEmpty()) {
+            overallConfig = null;
+            adjustOrcaReporting();
+            return;
+          }
+        } else {
+          configs.put(helper, config);
+        }
         // Real reporting interval is the minimum of intervals requested by all participating
         // helpers.
         if (overallConfig == null) {
@@ -88,7 +88,7 @@ final class SharedXdsClientPoolProvider implements XdsClientPoolFactory {
           ServerInfo serverInfo = bootstrapInfo.getServers().get(0);  // use first server
           ref = xdsClientPool = new RefCountedXdsClientObjectPool(serverInfo.getTarget(),
               serverInfo.getChannelCredentials(), serverInfo.isUseProtocolV3(),
-              bootstrapInfo.getNode());
+              serverInfo.isUseDeltaProtocol(), bootstrapInfo.getNode());
         }
       }
     }
@@ -106,6 +106,7 @@ final class SharedXdsClientPoolProvider implements XdsClientPoolFactory {
     private final ChannelCredentials channelCredentials;
     private final Node node;
     private final boolean useProtocolV3;
+    private final boolean useDeltaProtocol;
     private final Object lock = new Object();
     @GuardedBy("lock")
     private ScheduledExecutorService scheduler;
@@ -119,9 +120,15 @@ final class SharedXdsClientPoolProvider implements XdsClientPoolFactory {
     @VisibleForTesting
     RefCountedXdsClientObjectPool(String target, ChannelCredentials channelCredentials,
         boolean useProtocolV3, Node node) {
+      this(target, channelCredentials, useProtocolV3, false, node);
+    }
+
+    RefCountedXdsClientObjectPool(String target, ChannelCredentials channelCredentials,
+        boolean useProtocolV3, boolean useDeltaProtocol, Node node) {
       this.target = checkNotNull(target, "target");
       this.channelCredentials = checkNotNull(channelCredentials, "channelCredentials");
       this.useProtocolV3 = useProtocolV3;
+      this.useDeltaProtocol = useDeltaProtocol;
       this.node = checkNotNull(node, "node");
     }
 
@@ -133,8 +140,8 @@ final class SharedXdsClientPoolProvider implements XdsClientPoolFactory {
               .keepAliveTime(5, TimeUnit.MINUTES)
               .build();
           scheduler = SharedResourceHolder.get(GrpcUtil.TIMER_SERVICE);
-          xdsClient = new ClientXdsClient(channel, useProtocolV3, node, scheduler,
-              new ExponentialBackoffPolicy.Provider(), GrpcUtil.STOPWATCH_SUPPLIER);
+          xdsClient = new ClientXdsClient(channel, useProtocolV3, useDeltaProtocol, node,
+              scheduler, new ExponentialBackoffPolicy.Provider(), GrpcUtil.STOPWATCH_SUPPLIER);
         }
         refCount++;
         return xdsClient;
@@ -35,6 +35,9 @@ final class WeightedRandomPicker extends SubchannelPicker {
 
   private final ThreadSafeRandom random;
   private final int totalWeight;
+  // accumulatedWeights[i] is the sum of the weights of the first i + 1 child pickers.
+  private final int[] accumulatedWeights;
+  private final SubchannelPicker[] childPickers;
 
   static final class WeightedChildPicker {
     private final int weight;
@@ -93,10 +96,15 @@ final class WeightedRandomPicker extends SubchannelPicker {
 
     this.weightedChildPickers = Collections.unmodifiableList(weightedChildPickers);
 
+    int size = weightedChildPickers.size();
+    accumulatedWeights = new int[size];
+    childPickers = new SubchannelPicker[size];
     int totalWeight = 0;
-    for (WeightedChildPicker weightedChildPicker : weightedChildPickers) {
-      int weight = weightedChildPicker.getWeight();
-      totalWeight += weight;
+    for (int i = 0; i < size; i++) {
+      WeightedChildPicker weightedChildPicker = weightedChildPickers.get(i);
+      totalWeight += weightedChildPicker.getWeight();
+      accumulatedWeights[i] = totalWeight;
+      childPickers[i] = weightedChildPicker.getPicker();
     }
     this.totalWeight = totalWeight;
 
@@ -105,30 +113,35 @@ final class WeightedRandomPicker extends SubchannelPicker {
 
   @Override
   public final PickResult pickSubchannel(PickSubchannelArgs args) {
-    SubchannelPicker childPicker = null;
+    SubchannelPicker childPicker;
 
     if (totalWeight == 0) {
-      childPicker =
-          weightedChildPickers.get(random.nextInt(weightedChildPickers.size())).getPicker();
+      childPicker = childPickers[random.nextInt(childPickers.length)];
     } else {
-      int rand = random.nextInt(totalWeight);
-
-      // Find the first idx such that rand < accumulatedWeights[idx]
-      // Not using Arrays.binarySearch for better readability.
-      int accumulatedWeight = 0;
-      for (int idx = 0; idx < weightedChildPickers.size(); idx++) {
-        accumulatedWeight += weightedChildPickers.get(idx).getWeight();
-        if (rand < accumulatedWeight) {
-          childPicker = weightedChildPickers.get(idx).getPicker();
-          break;
-        }
-      }
-      checkNotNull(childPicker, "childPicker not found");
+      childPicker = childPickers[findChild(random.nextInt(totalWeight))];
     }
 
     return childPicker.pickSubchannel(args);
   }
 
+  /**
+   * Finds the first idx such that rand < accumulatedWeights[idx]. Not using Arrays.binarySearch
+   * since it may return any of the equal entries left by zero-weight children.
+   */
+  private int findChild(int rand) {
+    int low = 0;
+    int high = accumulatedWeights.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (rand < accumulatedWeights[mid]) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -0,0 +1,542 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.grpc.ConnectivityState.CONNECTING;
+import static io.grpc.ConnectivityState.IDLE;
+import static io.grpc.ConnectivityState.READY;
+import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
+
+import com.github.udpa.udpa.data.orca.v1.OrcaLoadReport;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import com.google.common.math.IntMath;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.NameResolver;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.SynchronizationContext.ScheduledHandle;
+import io.grpc.xds.OrcaOobUtil.OrcaOobReportListener;
+import io.grpc.xds.OrcaOobUtil.OrcaReportingConfig;
+import io.grpc.xds.OrcaOobUtil.OrcaReportingHelperWrapper;
+import io.grpc.xds.OrcaPerRequestUtil.OrcaPerRequestReportListener;
+import io.grpc.xds.WeightedRoundRobinLoadBalancerProvider.WeightedRoundRobinConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * A {@link LoadBalancer} that provides weighted round-robin load-balancing over the {@link
+ * EquivalentAddressGroup}s from the {@link NameResolver}. The weight of each backend is its
+ * queries per second divided by its CPU utilization, as reported with ORCA either in the trailers
+ * of each RPC or out-of-band, so that backends with more headroom receive more of the load.
+ * Backends without a usable weight get the mean weight of the others.
+ */
+final class WeightedRoundRobinLoadBalancer extends LoadBalancer {
+  private static final Status EMPTY_OK = Status.OK.withDescription("no subchannels ready");
+
+  private final Helper helper;
+  private final SynchronizationContext syncContext;
+  private final ScheduledExecutorService timeService;
+  private final Ticker ticker;
+  private final Random random;
+  private final Map<EquivalentAddressGroup, WeightedSubchannel> subchannels = new HashMap<>();
+
+  private WeightedRoundRobinConfig config = WeightedRoundRobinLoadBalancerProvider.DEFAULT_CONFIG;
+  @Nullable
+  private ScheduledHandle weightUpdateTimer;
+  private ConnectivityState currentState;
+  private SubchannelPicker currentPicker = new EmptyPicker(EMPTY_OK);
+
+  WeightedRoundRobinLoadBalancer(Helper helper, Ticker ticker, Random random) {
+    this.helper = checkNotNull(helper, "helper");
+    this.syncContext = checkNotNull(helper.getSynchronizationContext(), "syncContext");
+    this.timeService = checkNotNull(helper.getScheduledExecutorService(), "timeService");
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.random = checkNotNull(random, "random");
+  }
+
+  @Override
+  public void handleResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+    Object lbConfig = resolvedAddresses.getLoadBalancingPolicyConfig();
+    if (lbConfig != null) {
+      config = (WeightedRoundRobinConfig) lbConfig;
+    }
+    Map<EquivalentAddressGroup, EquivalentAddressGroup> latestAddrs =
+        stripAttrs(resolvedAddresses.getAddresses());
+
+    for (Map.Entry<EquivalentAddressGroup, EquivalentAddressGroup> latestEntry :
+        latestAddrs.entrySet()) {
+      EquivalentAddressGroup strippedAddressGroup = latestEntry.getKey();
+      EquivalentAddressGroup originalAddressGroup = latestEntry.getValue();
+      WeightedSubchannel existingSubchannel = subchannels.get(strippedAddressGroup);
+      if (existingSubchannel != null) {
+        // EAG's Attributes may have changed.
+        existingSubchannel.subchannel.updateAddresses(
+            Collections.singletonList(originalAddressGroup));
+        continue;
+      }
+      WeightedSubchannel subchannel = createSubchannel(originalAddressGroup);
+      subchannels.put(strippedAddressGroup, subchannel);
+      subchannel.subchannel.requestConnection();
+    }
+
+    List<WeightedSubchannel> removedSubchannels = new ArrayList<>();
+    for (EquivalentAddressGroup addressGroup : new ArrayList<>(subchannels.keySet())) {
+      if (!latestAddrs.containsKey(addressGroup)) {
+        removedSubchannels.add(subchannels.remove(addressGroup));
+      }
+    }
+
+    OrcaReportingConfig orcaConfig = null;
+    if (config.enableOobLoadReport) {
+      orcaConfig = OrcaReportingConfig.newBuilder()
+          .setReportInterval(config.oobReportingPeriodNanos, TimeUnit.NANOSECONDS)
+          .build();
+    }
+    for (WeightedSubchannel subchannel : subchannels.values()) {
+      // A null config stops the reports a previous config enabled.
+      subchannel.orcaHelper.setReportingConfig(orcaConfig);
+    }
+
+    // Update the picker before shutting down the subchannels, to reduce the chance of the race
+    // between picking a subchannel and shutting it down.
+    updateBalancingState();
+
+    for (WeightedSubchannel removedSubchannel : removedSubchannels) {
+      removedSubchannel.subchannel.shutdown();
+    }
+    if (weightUpdateTimer == null) {
+      scheduleWeightUpdate();
+    }
+  }
+
+  @Override
+  public void handleNameResolutionError(Status error) {
+    if (currentState != READY) {
+      updateBalancingState(TRANSIENT_FAILURE, new EmptyPicker(error));
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    if (weightUpdateTimer != null) {
+      weightUpdateTimer.cancel();
+      weightUpdateTimer = null;
+    }
+    for (WeightedSubchannel subchannel : subchannels.values()) {
+      subchannel.subchannel.shutdown();
+    }
+    subchannels.clear();
+  }
+
+  private WeightedSubchannel createSubchannel(EquivalentAddressGroup addressGroup) {
+    final SubchannelWeight weight = new SubchannelWeight(ticker);
+    // One wrapper per subchannel, since out-of-band reports do not tell which backend sent them.
+    OrcaReportingHelperWrapper orcaHelper = OrcaOobUtil.getInstance().newOrcaReportingHelperWrapper(
+        helper,
+        new OrcaOobReportListener() {
+          @Override
+          public void onLoadReport(OrcaLoadReport report) {
+            if (config.enableOobLoadReport) {
+              weight.onLoadReport(report);
+            }
+          }
+        });
+    Subchannel subchannel = checkNotNull(
+        orcaHelper.asHelper().createSubchannel(
+            CreateSubchannelArgs.newBuilder().setAddresses(addressGroup).build()),
+        "subchannel");
+    final WeightedSubchannel weightedSubchannel = new WeightedSubchannel(
+        subchannel, orcaHelper, weight,
+        OrcaPerRequestUtil.getInstance().newOrcaClientStreamTracerFactory(weight));
+    subchannel.start(new SubchannelStateListener() {
+      @Override
+      public void onSubchannelState(ConnectivityStateInfo newState) {
+        processSubchannelState(weightedSubchannel, newState);
+      }
+    });
+    return weightedSubchannel;
+  }
+
+  private void processSubchannelState(
+      WeightedSubchannel subchannel, ConnectivityStateInfo stateInfo) {
+    if (subchannels.get(stripAttrs(subchannel.subchannel.getAddresses())) != subchannel) {
+      return;
+    }
+    if (stateInfo.getState() == IDLE) {
+      subchannel.subchannel.requestConnection();
+    }
+    if (subchannel.stateInfo.getState() == TRANSIENT_FAILURE
+        && (stateInfo.getState() == CONNECTING || stateInfo.getState() == IDLE)) {
+      return;
+    }
+    if (stateInfo.getState() == READY && subchannel.stateInfo.getState() != READY) {
+      // A reconnected backend goes through the blackout period again.
+      subchannel.weight.reset();
+    }
+    subchannel.stateInfo = stateInfo;
+    updateBalancingState();
+  }
+
+  private void scheduleWeightUpdate() {
+    weightUpdateTimer = syncContext.schedule(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (currentState == READY) {
+              updateBalancingState();
+            }
+            scheduleWeightUpdate();
+          }
+        },
+        config.weightUpdatePeriodNanos, TimeUnit.NANOSECONDS, timeService);
+  }
+
+  /**
+   * Updates the picker with the ready subchannels and their current weights.
+   */
+  private void updateBalancingState() {
+    List<WeightedSubchannel> activeList = new ArrayList<>(subchannels.size());
+    for (WeightedSubchannel subchannel : subchannels.values()) {
+      if (subchannel.stateInfo.getState() == READY) {
+        activeList.add(subchannel);
+      }
+    }
+    if (activeList.isEmpty()) {
+      boolean isConnecting = false;
+      Status aggStatus = EMPTY_OK;
+      for (WeightedSubchannel subchannel : subchannels.values()) {
+        ConnectivityStateInfo stateInfo = subchannel.stateInfo;
+        if (stateInfo.getState() == CONNECTING || stateInfo.getState() == IDLE) {
+          isConnecting = true;
+        }
+        if (aggStatus == EMPTY_OK || !aggStatus.isOk()) {
+          aggStatus = stateInfo.getStatus();
+        }
+      }
+      ConnectivityState state = isConnecting ? CONNECTING : TRANSIENT_FAILURE;
+      if (state != currentState || !(currentPicker instanceof EmptyPicker)
+          || !((EmptyPicker) currentPicker).status.equals(aggStatus)) {
+        updateBalancingState(state, new EmptyPicker(aggStatus));
+      }
+      return;
+    }
+    double[] weights = new double[activeList.size()];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = activeList.get(i).weight.getWeight(
+          config.blackoutPeriodNanos, config.weightExpirationPeriodNanos);
+    }
+    if (currentPicker instanceof WeightedRoundRobinPicker
+        && ((WeightedRoundRobinPicker) currentPicker).isEquivalentTo(
+            activeList, weights, config.enableOobLoadReport)) {
+      // Keep the current picker and its schedule.
+      updateBalancingState(READY, currentPicker);
+      return;
+    }
+    updateBalancingState(READY,
+        new WeightedRoundRobinPicker(activeList, weights, !config.enableOobLoadReport, random));
+  }
+
+  private void updateBalancingState(ConnectivityState state, SubchannelPicker picker) {
+    if (state != currentState || picker != currentPicker) {
+      helper.updateBalancingState(state, picker);
+      currentState = state;
+      currentPicker = picker;
+    }
+  }
+
+  /**
+   * Converts list of {@link EquivalentAddressGroup} to {@link EquivalentAddressGroup} set and
+   * remove all attributes. The values are the original EAGs.
+   */
+  private static Map<EquivalentAddressGroup, EquivalentAddressGroup> stripAttrs(
+      List<EquivalentAddressGroup> groupList) {
+    Map<EquivalentAddressGroup, EquivalentAddressGroup> addrs = new HashMap<>(groupList.size() * 2);
+    for (EquivalentAddressGroup group : groupList) {
+      addrs.put(stripAttrs(group), group);
+    }
+    return addrs;
+  }
+
+  private static EquivalentAddressGroup stripAttrs(EquivalentAddressGroup eag) {
+    return new EquivalentAddressGroup(eag.getAddresses());
+  }
+
+  private static final class WeightedSubchannel {
+    final Subchannel subchannel;
+    final OrcaReportingHelperWrapper orcaHelper;
+    final SubchannelWeight weight;
+    // Receives the per-request reports of the RPCs sent on the subchannel.
+    final ClientStreamTracer.Factory tracerFactory;
+    ConnectivityStateInfo stateInfo = ConnectivityStateInfo.forNonError(IDLE);
+
+    WeightedSubchannel(Subchannel subchannel, OrcaReportingHelperWrapper orcaHelper,
+        SubchannelWeight weight, ClientStreamTracer.Factory tracerFactory) {
+      this.subchannel = subchannel;
+      this.orcaHelper = orcaHelper;
+      this.weight = weight;
+      this.tracerFactory = tracerFactory;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("subchannel", subchannel)
+          .add("weight", weight)
+          .toString();
+    }
+  }
+
+  /**
+   * The weight of a backend, from the ORCA reports it sent. Per-request reports are received from
+   * the network threads.
+   */
+  @VisibleForTesting
+  static final class SubchannelWeight implements OrcaPerRequestReportListener {
+    private final Ticker ticker;
+    @GuardedBy("this")
+    private boolean hasWeight;
+    @GuardedBy("this")
+    private double weight;
+    @GuardedBy("this")
+    private long nonEmptySinceNanos;
+    @GuardedBy("this")
+    private long lastUpdatedNanos;
+
+    SubchannelWeight(Ticker ticker) {
+      this.ticker = ticker;
+    }
+
+    @Override
+    public void onLoadReport(OrcaLoadReport report) {
+      if (report.getCpuUtilization() <= 0 || report.getRps() <= 0) {
+        return;
+      }
+      double newWeight = report.getRps() / report.getCpuUtilization();
+      long now = ticker.read();
+      synchronized (this) {
+        if (!hasWeight) {
+          hasWeight = true;
+          nonEmptySinceNanos = now;
+        }
+        weight = newWeight;
+        lastUpdatedNanos = now;
+      }
+    }
+
+    /**
+     * Returns the weight of the backend, or 0 if it is not usable: the backend has not reported
+     * for {@code weightExpirationPeriodNanos}, or began reporting less than {@code
+     * blackoutPeriodNanos} ago.
+     */
+    synchronized double getWeight(long blackoutPeriodNanos, long weightExpirationPeriodNanos) {
+      if (!hasWeight) {
+        return 0;
+      }
+      long now = ticker.read();
+      if (now - lastUpdatedNanos >= weightExpirationPeriodNanos) {
+        hasWeight = false;
+        return 0;
+      }
+      if (now - nonEmptySinceNanos < blackoutPeriodNanos) {
+        return 0;
+      }
+      return weight;
+    }
+
+    synchronized void reset() {
+      hasWeight = false;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("hasWeight", hasWeight)
+          .add("weight", weight)
+          .toString();
+    }
+  }
+
+  @VisibleForTesting
+  static final class WeightedRoundRobinPicker extends SubchannelPicker {
+    private final List<WeightedSubchannel> list; // non-empty
+    private final double[] weights;
+    private final boolean perRequestReport;
+    private final EdfScheduler scheduler;
+
+    WeightedRoundRobinPicker(List<WeightedSubchannel> list, double[] weights,
+        boolean perRequestReport, Random random) {
+      checkArgument(!list.isEmpty(), "empty list");
+      this.list = list;
+      this.weights = weights;
+      this.perRequestReport = perRequestReport;
+      this.scheduler = new EdfScheduler(fillMissingWeights(weights), random);
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      WeightedSubchannel subchannel = list.get(scheduler.pick());
+      if (perRequestReport) {
+        return PickResult.withSubchannel(subchannel.subchannel, subchannel.tracerFactory);
+      }
+      return PickResult.withSubchannel(subchannel.subchannel);
+    }
+
+    boolean isEquivalentTo(
+        List<WeightedSubchannel> list, double[] weights, boolean enableOobLoadReport) {
+      return this.list.equals(list) && Arrays.equals(this.weights, weights)
+          && perRequestReport != enableOobLoadReport;
+    }
+
+    /**
+     * Gives the backends without a weight the mean weight of the others, or the same weight to
+     * all of them if none has one.
+     */
+    private static double[] fillMissingWeights(double[] weights) {
+      double sum = 0;
+      int count = 0;
+      for (double weight : weights) {
+        if (weight > 0) {
+          sum += weight;
+          count++;
+        }
+      }
+      double meanWeight = count == 0 ? 1 : sum / count;
+      double[] filledWeights = new double[weights.length];
+      for (int i = 0; i < weights.length; i++) {
+        filledWeights[i] = weights[i] > 0 ? weights[i] : meanWeight;
+      }
+      return filledWeights;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("list", list)
+          .add("weights", Arrays.toString(weights))
+          .toString();
+    }
+  }
+
+  /**
+   * An earliest deadline first scheduler. Each entry is due again {@code 1 / weight} after it was
+   * picked, and the entry due first is picked next, so that entries are picked in proportion to
+   * their weights and evenly interleaved. The picks of a whole cycle are computed up front, so
+   * that a pick is a lock-free lookup. Weights are rounded to hundredths of the largest one, which
+   * bounds the cycle to 100 picks per entry.
+   */
+  @VisibleForTesting
+  static final class EdfScheduler {
+    private static final int WEIGHT_RESOLUTION = 100;
+
+    private final int[] schedule;
+    private final AtomicInteger sequence;
+
+    EdfScheduler(double[] weights, Random random) {
+      double maxWeight = 0;
+      for (double weight : weights) {
+        checkArgument(weight > 0, "weight must be positive");
+        maxWeight = Math.max(maxWeight, weight);
+      }
+      int[] picks = new int[weights.length];
+      int gcd = 0;
+      for (int i = 0; i < weights.length; i++) {
+        picks[i] = Math.max(1, (int) Math.round(weights[i] / maxWeight * WEIGHT_RESOLUTION));
+        gcd = IntMath.gcd(gcd, picks[i]);
+      }
+      int length = 0;
+      for (int i = 0; i < picks.length; i++) {
+        picks[i] /= gcd;
+        length += picks[i];
+      }
+      Entry[] entries = new Entry[length];
+      int next = 0;
+      for (int i = 0; i < picks.length; i++) {
+        double period = 1.0 / picks[i];
+        // Random initial deadlines, so that a new schedule does not always interleave the entries
+        // the same way.
+        double deadline = random.nextDouble() * period;
+        for (int j = 0; j < picks[i]; j++) {
+          entries[next++] = new Entry(i, deadline);
+          deadline += period;
+        }
+      }
+      Arrays.sort(entries);
+      schedule = new int[length];
+      for (int i = 0; i < length; i++) {
+        schedule[i] = entries[i].index;
+      }
+      sequence = new AtomicInteger(random.nextInt(length));
+    }
+
+    /** Returns the index of the next entry. */
+    int pick() {
+      return schedule[(sequence.getAndIncrement() & Integer.MAX_VALUE) % schedule.length];
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+      final int index;
+      final double deadline;
+
+      Entry(int index, double deadline) {
+        this.index = index;
+        this.deadline = deadline;
+      }
+
+      @Override
+      public int compareTo(Entry other) {
+        int result = Double.compare(deadline, other.deadline);
+        return result != 0 ? result : Integer.compare(index, other.index);
+      }
+    }
+  }
+
+  private static final class EmptyPicker extends SubchannelPicker {
+    private final Status status;
+
+    EmptyPicker(Status status) {
+      this.status = checkNotNull(status, "status");
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      return status.isOk() ? PickResult.withNoResult() : PickResult.withError(status);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("status", status).toString();
+    }
+  }
+}
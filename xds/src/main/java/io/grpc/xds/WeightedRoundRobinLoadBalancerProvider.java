@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Ticker;
+import io.grpc.Internal;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.internal.JsonUtil;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The provider for the weighted_round_robin balancing policy.  This class should not be
+ * directly referenced in code.  The policy should be accessed through {@link
+ * LoadBalancerRegistry#getProvider} with the name "weighted_round_robin_experimental".
+ */
+@Internal
+public final class WeightedRoundRobinLoadBalancerProvider extends LoadBalancerProvider {
+
+  static final long DEFAULT_OOB_REPORTING_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
+  static final long DEFAULT_BLACKOUT_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
+  static final long DEFAULT_WEIGHT_EXPIRATION_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(3);
+  static final long DEFAULT_WEIGHT_UPDATE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+  // Weights are not recomputed more often than that, whatever the config says.
+  static final long MIN_WEIGHT_UPDATE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  static final WeightedRoundRobinConfig DEFAULT_CONFIG = new WeightedRoundRobinConfig(
+      false, DEFAULT_OOB_REPORTING_PERIOD_NANOS, DEFAULT_BLACKOUT_PERIOD_NANOS,
+      DEFAULT_WEIGHT_EXPIRATION_PERIOD_NANOS, DEFAULT_WEIGHT_UPDATE_PERIOD_NANOS);
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  public int getPriority() {
+    return 5;
+  }
+
+  @Override
+  public String getPolicyName() {
+    return XdsLbPolicies.WEIGHTED_ROUND_ROBIN_POLICY_NAME;
+  }
+
+  @Override
+  public LoadBalancer newLoadBalancer(Helper helper) {
+    return new WeightedRoundRobinLoadBalancer(helper, Ticker.systemTicker(), new Random());
+  }
+
+  @Override
+  public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+    try {
+      Boolean enableOobLoadReport = JsonUtil.getBoolean(rawConfig, "enableOobLoadReport");
+      Long oobReportingPeriodNanos = JsonUtil.getStringAsDuration(rawConfig, "oobReportingPeriod");
+      Long blackoutPeriodNanos = JsonUtil.getStringAsDuration(rawConfig, "blackoutPeriod");
+      Long weightExpirationPeriodNanos =
+          JsonUtil.getStringAsDuration(rawConfig, "weightExpirationPeriod");
+      Long weightUpdatePeriodNanos = JsonUtil.getStringAsDuration(rawConfig, "weightUpdatePeriod");
+      if (oobReportingPeriodNanos != null && oobReportingPeriodNanos <= 0) {
+        return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+            "oobReportingPeriod must be positive in weighted_round_robin LB policy:\n "
+                + rawConfig));
+      }
+      if (weightExpirationPeriodNanos != null && weightExpirationPeriodNanos <= 0) {
+        return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+            "weightExpirationPeriod must be positive in weighted_round_robin LB policy:\n "
+                + rawConfig));
+      }
+      if (blackoutPeriodNanos != null && blackoutPeriodNanos < 0) {
+        return ConfigOrError.fromError(Status.INTERNAL.withDescription(
+            "blackoutPeriod must not be negative in weighted_round_robin LB policy:\n "
+                + rawConfig));
+      }
+      return ConfigOrError.fromConfig(new WeightedRoundRobinConfig(
+          enableOobLoadReport != null && enableOobLoadReport,
+          oobReportingPeriodNanos != null
+              ? oobReportingPeriodNanos : DEFAULT_OOB_REPORTING_PERIOD_NANOS,
+          blackoutPeriodNanos != null ? blackoutPeriodNanos : DEFAULT_BLACKOUT_PERIOD_NANOS,
+          weightExpirationPeriodNanos != null
+              ? weightExpirationPeriodNanos : DEFAULT_WEIGHT_EXPIRATION_PERIOD_NANOS,
+          weightUpdatePeriodNanos != null
+              ? Math.max(weightUpdatePeriodNanos, MIN_WEIGHT_UPDATE_PERIOD_NANOS)
+              : DEFAULT_WEIGHT_UPDATE_PERIOD_NANOS));
+    } catch (RuntimeException e) {
+      return ConfigOrError.fromError(
+          Status.fromThrowable(e).withDescription(
+              "Failed to parse weighted_round_robin LB config: " + rawConfig));
+    }
+  }
+
+  /** The lb config for WeightedRoundRobinLoadBalancer. */
+  static final class WeightedRoundRobinConfig {
+
+    // Whether backends report their load out-of-band, instead of in the trailers of each RPC.
+    final boolean enableOobLoadReport;
+    final long oobReportingPeriodNanos;
+    // How long a backend must have been reporting before its weight is used.
+    final long blackoutPeriodNanos;
+    // How long the weight of a backend is used after its last report.
+    final long weightExpirationPeriodNanos;
+    final long weightUpdatePeriodNanos;
+
+    WeightedRoundRobinConfig(boolean enableOobLoadReport, long oobReportingPeriodNanos,
+        long blackoutPeriodNanos, long weightExpirationPeriodNanos,
+        long weightUpdatePeriodNanos) {
+      this.enableOobLoadReport = enableOobLoadReport;
+      this.oobReportingPeriodNanos = oobReportingPeriodNanos;
+      this.blackoutPeriodNanos = blackoutPeriodNanos;
+      this.weightExpirationPeriodNanos = weightExpirationPeriodNanos;
+      this.weightUpdatePeriodNanos = weightUpdatePeriodNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      WeightedRoundRobinConfig that = (WeightedRoundRobinConfig) o;
+      return enableOobLoadReport == that.enableOobLoadReport
+          && oobReportingPeriodNanos == that.oobReportingPeriodNanos
+          && blackoutPeriodNanos == that.blackoutPeriodNanos
+          && weightExpirationPeriodNanos == that.weightExpirationPeriodNanos
+          && weightUpdatePeriodNanos == that.weightUpdatePeriodNanos;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(enableOobLoadReport, oobReportingPeriodNanos, blackoutPeriodNanos,
+          weightExpirationPeriodNanos, weightUpdatePeriodNanos);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("enableOobLoadReport", enableOobLoadReport)
+          .add("oobReportingPeriodNanos", oobReportingPeriodNanos)
+          .add("blackoutPeriodNanos", blackoutPeriodNanos)
+          .add("weightExpirationPeriodNanos", weightExpirationPeriodNanos)
+          .add("weightUpdatePeriodNanos", weightUpdatePeriodNanos)
+          .toString();
+    }
+  }
+}
@@ -24,6 +24,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
@@ -69,7 +71,6 @@ import io.grpc.xds.XdsNameResolverProvider.XdsClientPoolFactory;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -121,6 +122,12 @@ final class XdsNameResolver extends NameResolver {
       Metadata.Key.of("x-envoy-fault-abort-request-percentage", Metadata.ASCII_STRING_MARSHALLER);
   @VisibleForTesting
   static AtomicLong activeFaultInjectedStreamCounter = new AtomicLong();
+  // Routes derived from the virtual hosts of LDS and RDS updates, for each host name. Updates are
+  // shared by all the channels watching the same resource, so channels to the same target derive
+  // their routes once per update instead of once per channel. Keys are compared by identity and
+  // weakly referenced, the entries go away with the updates.
+  private static final ConcurrentMap<List<VirtualHost>, ConcurrentMap<String, VirtualHostRoutes>>
+      sharedRoutes = new MapMaker().weakKeys().makeMap();
 
   private final InternalLogId logId;
   private final XdsLogger logger;
@@ -290,6 +297,32 @@ final class XdsNameResolver extends NameResolver {
     return targetVirtualHost;
   }
 
+  /**
+   * Returns the routes of the virtual host matching {@code hostName}, computing them only if no
+   * other channel did it for the same {@code virtualHosts} before.
+   */
+  @VisibleForTesting
+  static VirtualHostRoutes getSharedRoutes(List<VirtualHost> virtualHosts, String hostName) {
+    ConcurrentMap<String, VirtualHostRoutes> routesByHostName = sharedRoutes.get(virtualHosts);
+    if (routesByHostName == null) {
+      routesByHostName = new ConcurrentHashMap<>();
+      ConcurrentMap<String, VirtualHostRoutes> existing =
+          sharedRoutes.putIfAbsent(virtualHosts, routesByHostName);
+      if (existing != null) {
+        routesByHostName = existing;
+      }
+    }
+    VirtualHostRoutes routes = routesByHostName.get(hostName);
+    if (routes == null) {
+      routes = new VirtualHostRoutes(findVirtualHostForHostName(virtualHosts, hostName));
+      VirtualHostRoutes existing = routesByHostName.putIfAbsent(hostName, routes);
+      if (existing != null) {
+        routes = existing;
+      }
+    }
+    return routes;
+  }
+
   /**
    * Returns {@code true} iff {@code hostName} matches the domain name {@code pattern} with
    * case-insensitive.
@@ -951,7 +984,8 @@ final class XdsNameResolver extends NameResolver {
     }
 
     private void updateRoutes(List<VirtualHost> virtualHosts) {
-      VirtualHost virtualHost = findVirtualHostForHostName(virtualHosts, authority);
+      VirtualHostRoutes hostRoutes = getSharedRoutes(virtualHosts, authority);
+      VirtualHost virtualHost = hostRoutes.virtualHost;
       if (virtualHost == null) {
         logger.log(XdsLogLevel.WARNING,
             "Failed to find virtual host matching hostname {0}", authority);
@@ -963,17 +997,7 @@ final class XdsNameResolver extends NameResolver {
       if (applyFaultInjection && virtualHost.httpFault() != null) {
         faultConfig = virtualHost.httpFault();
       }
-      Set<String> clusters = new HashSet<>();
-      for (Route route : routes) {
-        RouteAction action = route.routeAction();
-        if (action.cluster() != null) {
-          clusters.add(action.cluster());
-        } else if (action.weightedClusters() != null) {
-          for (ClusterWeight weighedCluster : action.weightedClusters()) {
-            clusters.add(weighedCluster.name());
-          }
-        }
-      }
+      Set<String> clusters = hostRoutes.clusters;
       Set<String> addedClusters =
           existingClusters == null ? clusters : Sets.difference(clusters, existingClusters);
       Set<String> deletedClusters =
@@ -1066,6 +1090,37 @@ final class XdsNameResolver extends NameResolver {
     }
   }
 
+  /**
+   * The virtual host selected for a host name and the clusters its routes refer to. Immutable,
+   * shared by the channels to the same host name.
+   */
+  @VisibleForTesting
+  static final class VirtualHostRoutes {
+    @Nullable
+    final VirtualHost virtualHost;
+    final Set<String> clusters;
+
+    VirtualHostRoutes(@Nullable VirtualHost virtualHost) {
+      this.virtualHost = virtualHost;
+      if (virtualHost == null) {
+        clusters = Collections.emptySet();
+        return;
+      }
+      ImmutableSet.Builder<String> clustersBuilder = ImmutableSet.builder();
+      for (Route route : virtualHost.routes()) {
+        RouteAction action = route.routeAction();
+        if (action.cluster() != null) {
+          clustersBuilder.add(action.cluster());
+        } else if (action.weightedClusters() != null) {
+          for (ClusterWeight weighedCluster : action.weightedClusters()) {
+            clustersBuilder.add(weighedCluster.name());
+          }
+        }
+      }
+      clusters = clustersBuilder.build();
+    }
+  }
+
   /**
    * VirtualHost-level configuration for request routing.
    */
@@ -599,6 +599,48 @@ public class BootstrapperImplTest {
     assertThat(serverInfo.isUseProtocolV3()).isTrue();
   }
 
+  @Test
+  public void useDeltaProtocolIfV3AndDeltaFeaturesPresent() throws XdsInitializationException {
+    String rawData = "{\n"
+        + "  \"xds_servers\": [\n"
+        + "    {\n"
+        + "      \"server_uri\": \"" + SERVER_URI + "\",\n"
+        + "      \"channel_creds\": [\n"
+        + "        {\"type\": \"insecure\"}\n"
+        + "      ],\n"
+        + "      \"server_features\": [\"xds_v3\", \"xds_delta\"]\n"
+        + "    }\n"
+        + "  ]\n"
+        + "}";
+
+    bootstrapper.setFileReader(createFileReader(BOOTSTRAP_FILE_PATH, rawData));
+    BootstrapInfo info = bootstrapper.bootstrap();
+    ServerInfo serverInfo = Iterables.getOnlyElement(info.getServers());
+    assertThat(serverInfo.isUseProtocolV3()).isTrue();
+    assertThat(serverInfo.isUseDeltaProtocol()).isTrue();
+  }
+
+  @Test
+  public void ignoreDeltaFeatureWithoutV3() throws XdsInitializationException {
+    String rawData = "{\n"
+        + "  \"xds_servers\": [\n"
+        + "    {\n"
+        + "      \"server_uri\": \"" + SERVER_URI + "\",\n"
+        + "      \"channel_creds\": [\n"
+        + "        {\"type\": \"insecure\"}\n"
+        + "      ],\n"
+        + "      \"server_features\": [\"xds_delta\"]\n"
+        + "    }\n"
+        + "  ]\n"
+        + "}";
+
+    bootstrapper.setFileReader(createFileReader(BOOTSTRAP_FILE_PATH, rawData));
+    BootstrapInfo info = bootstrapper.bootstrap();
+    ServerInfo serverInfo = Iterables.getOnlyElement(info.getServers());
+    assertThat(serverInfo.isUseProtocolV3()).isFalse();
+    assertThat(serverInfo.isUseDeltaProtocol()).isFalse();
+  }
+
   @Test
   public void notFound() {
     BootstrapperImpl.bootstrapPathFromEnvVar = null;
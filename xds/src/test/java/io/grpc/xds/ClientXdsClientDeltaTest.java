@@ -0,0 +1,300 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.protobuf.Any;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.DiscoveryType;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.EdsClusterConfig;
+import io.envoyproxy.envoy.config.cluster.v3.Cluster.LbPolicy;
+import io.envoyproxy.envoy.config.core.v3.AggregatedConfigSource;
+import io.envoyproxy.envoy.config.core.v3.ConfigSource;
+import io.envoyproxy.envoy.service.discovery.v3.AggregatedDiscoveryServiceGrpc.AggregatedDiscoveryServiceImplBase;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryRequest;
+import io.envoyproxy.envoy.service.discovery.v3.DeltaDiscoveryResponse;
+import io.envoyproxy.envoy.service.discovery.v3.Resource;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.BackoffPolicy;
+import io.grpc.internal.FakeClock;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import io.grpc.xds.AbstractXdsClient.ResourceType;
+import io.grpc.xds.XdsClient.CdsResourceWatcher;
+import io.grpc.xds.XdsClient.CdsUpdate;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+/**
+ * Tests for {@link ClientXdsClient} with the incremental variant of the xDS protocol.
+ */
+@RunWith(JUnit4.class)
+public class ClientXdsClientDeltaTest {
+  private static final String CDS_RESOURCE = "cluster.googleapis.com";
+  private static final String CDS_RESOURCE_2 = "cluster2.googleapis.com";
+
+  @Rule
+  public final GrpcCleanupRule cleanupRule = new GrpcCleanupRule();
+  @Rule
+  public final MockitoRule mocks = MockitoJUnit.rule();
+
+  private final FakeClock fakeClock = new FakeClock();
+  private final Queue<DeltaRpcCall> calls = new ArrayDeque<>();
+
+  @Mock
+  private BackoffPolicy.Provider backoffPolicyProvider;
+  @Mock
+  private BackoffPolicy backoffPolicy;
+  @Mock
+  private CdsResourceWatcher cdsResourceWatcher;
+  @Mock
+  private CdsResourceWatcher cdsResourceWatcher2;
+
+  private ManagedChannel channel;
+  private ClientXdsClient xdsClient;
+
+  @Before
+  public void setUp() throws IOException {
+    when(backoffPolicyProvider.get()).thenReturn(backoffPolicy);
+    when(backoffPolicy.nextBackoffNanos()).thenReturn(10L);
+    String serverName = InProcessServerBuilder.generateName();
+    cleanupRule.register(
+        InProcessServerBuilder.forName(serverName)
+            .addService(new AggregatedDiscoveryServiceImplBase() {
+              @Override
+              public StreamObserver<DeltaDiscoveryRequest> deltaAggregatedResources(
+                  StreamObserver<DeltaDiscoveryResponse> responseObserver) {
+                DeltaRpcCall call = new DeltaRpcCall(responseObserver);
+                calls.offer(call);
+                return call;
+              }
+            })
+            .directExecutor()
+            .build()
+            .start());
+    channel =
+        cleanupRule.register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    xdsClient = new ClientXdsClient(channel, true, true, EnvoyProtoData.Node.newBuilder().build(),
+        fakeClock.getScheduledExecutorService(), backoffPolicyProvider,
+        fakeClock.getStopwatchSupplier());
+  }
+
+  @After
+  public void tearDown() {
+    xdsClient.shutdown();
+    channel.shutdown();
+  }
+
+  @Test
+  public void subscribeAndAck() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaRpcCall call = calls.poll();
+    DeltaDiscoveryRequest request = call.requests.remove(0);
+    assertThat(request.hasNode()).isTrue();
+    assertThat(request.getTypeUrl()).isEqualTo(ResourceType.CDS.typeUrl());
+    assertThat(request.getResourceNamesSubscribeList()).containsExactly(CDS_RESOURCE);
+    assertThat(request.getInitialResourceVersionsMap()).isEmpty();
+
+    call.sendResponse(ResourceType.CDS, "0000", buildCluster(CDS_RESOURCE, "1"));
+    ArgumentCaptor<CdsUpdate> updateCaptor = ArgumentCaptor.forClass(CdsUpdate.class);
+    verify(cdsResourceWatcher).onChanged(updateCaptor.capture());
+    assertThat(updateCaptor.getValue().clusterName()).isEqualTo(CDS_RESOURCE);
+
+    request = call.requests.remove(0);
+    assertThat(request.hasNode()).isFalse();
+    assertThat(request.getResponseNonce()).isEqualTo("0000");
+    assertThat(request.hasErrorDetail()).isFalse();
+    assertThat(request.getResourceNamesSubscribeList()).isEmpty();
+    assertThat(request.getResourceNamesUnsubscribeList()).isEmpty();
+    assertThat(call.requests).isEmpty();
+  }
+
+  @Test
+  public void onlyChangedResourcesNotified() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    xdsClient.watchCdsResource(CDS_RESOURCE_2, cdsResourceWatcher2);
+    DeltaRpcCall call = calls.poll();
+    call.sendResponse(ResourceType.CDS, "0000", buildCluster(CDS_RESOURCE, "1"));
+    verify(cdsResourceWatcher).onChanged(any(CdsUpdate.class));
+
+    // A response without the other resource leaves it as it is.
+    call.sendResponse(ResourceType.CDS, "0001", buildCluster(CDS_RESOURCE_2, "1"));
+    verify(cdsResourceWatcher2).onChanged(any(CdsUpdate.class));
+    verify(cdsResourceWatcher, never()).onResourceDoesNotExist(CDS_RESOURCE);
+  }
+
+  @Test
+  public void removedResource() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaRpcCall call = calls.poll();
+    call.sendResponse(ResourceType.CDS, "0000", buildCluster(CDS_RESOURCE, "1"));
+
+    call.responseObserver.onNext(
+        DeltaDiscoveryResponse.newBuilder()
+            .setTypeUrl(ResourceType.CDS.typeUrl())
+            .addRemovedResources(CDS_RESOURCE)
+            .setNonce("0001")
+            .build());
+    verify(cdsResourceWatcher).onResourceDoesNotExist(CDS_RESOURCE);
+  }
+
+  @Test
+  public void removalOfUnresolvedResource_noTimeout() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaRpcCall call = calls.poll();
+
+    call.responseObserver.onNext(
+        DeltaDiscoveryResponse.newBuilder()
+            .setTypeUrl(ResourceType.CDS.typeUrl())
+            .addRemovedResources(CDS_RESOURCE)
+            .setNonce("0000")
+            .build());
+    verify(cdsResourceWatcher).onResourceDoesNotExist(CDS_RESOURCE);
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  @Test
+  public void cancelWatch_unsubscribes() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    xdsClient.watchCdsResource(CDS_RESOURCE_2, cdsResourceWatcher2);
+    DeltaRpcCall call = calls.poll();
+    call.requests.clear();
+
+    xdsClient.cancelCdsResourceWatch(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaDiscoveryRequest request = call.requests.remove(0);
+    assertThat(request.getResourceNamesSubscribeList()).isEmpty();
+    assertThat(request.getResourceNamesUnsubscribeList()).containsExactly(CDS_RESOURCE);
+
+    xdsClient.cancelCdsResourceWatch(CDS_RESOURCE_2, cdsResourceWatcher2);
+    request = call.requests.remove(0);
+    assertThat(request.getResourceNamesUnsubscribeList()).containsExactly(CDS_RESOURCE_2);
+    assertThat(call.requests).isEmpty();
+  }
+
+  @Test
+  public void nack_versionNotAccepted() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaRpcCall call = calls.poll();
+    call.sendResponse(ResourceType.CDS, "0000", buildCluster(CDS_RESOURCE, "1"));
+    Any invalidCluster = Any.pack(Cluster.newBuilder().setName(CDS_RESOURCE).build());
+    call.responseObserver.onNext(
+        DeltaDiscoveryResponse.newBuilder()
+            .setTypeUrl(ResourceType.CDS.typeUrl())
+            .addResources(
+                Resource.newBuilder()
+                    .setName(CDS_RESOURCE).setVersion("2").setResource(invalidCluster))
+            .setNonce("0001")
+            .build());
+    DeltaDiscoveryRequest nack = call.requests.get(call.requests.size() - 1);
+    assertThat(nack.getResponseNonce()).isEqualTo("0001");
+    assertThat(nack.hasErrorDetail()).isTrue();
+
+    // The new stream only advertises the accepted version.
+    call.responseObserver.onError(Status.UNAVAILABLE.asException());
+    fakeClock.forwardNanos(10L);
+    DeltaRpcCall call2 = calls.poll();
+    assertThat(call2.requests.get(0).getInitialResourceVersionsMap())
+        .containsExactly(CDS_RESOURCE, "1");
+  }
+
+  @Test
+  public void streamRestart_sendsInitialResourceVersions() {
+    xdsClient.watchCdsResource(CDS_RESOURCE, cdsResourceWatcher);
+    DeltaRpcCall call = calls.poll();
+    call.sendResponse(ResourceType.CDS, "0000", buildCluster(CDS_RESOURCE, "1"));
+    verify(cdsResourceWatcher).onChanged(any(CdsUpdate.class));
+
+    call.responseObserver.onError(Status.UNAVAILABLE.asException());
+    verify(cdsResourceWatcher).onError(any(Status.class));
+    fakeClock.forwardNanos(10L);
+    DeltaRpcCall call2 = calls.poll();
+    DeltaDiscoveryRequest request = call2.requests.get(0);
+    assertThat(request.hasNode()).isTrue();
+    assertThat(request.getResourceNamesSubscribeList()).containsExactly(CDS_RESOURCE);
+    assertThat(request.getInitialResourceVersionsMap()).containsExactly(CDS_RESOURCE, "1");
+    // The server has nothing to resend, the cached resource stays valid.
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  private static Resource buildCluster(String name, String version) {
+    Cluster cluster = Cluster.newBuilder()
+        .setName(name)
+        .setType(DiscoveryType.EDS)
+        .setEdsClusterConfig(
+            EdsClusterConfig.newBuilder()
+                .setEdsConfig(
+                    ConfigSource.newBuilder()
+                        .setAds(AggregatedConfigSource.getDefaultInstance())))
+        .setLbPolicy(LbPolicy.ROUND_ROBIN)
+        .build();
+    return Resource.newBuilder()
+        .setName(name)
+        .setVersion(version)
+        .setResource(Any.pack(cluster))
+        .build();
+  }
+
+  private static final class DeltaRpcCall implements StreamObserver<DeltaDiscoveryRequest> {
+    private final StreamObserver<DeltaDiscoveryResponse> responseObserver;
+    private final List<DeltaDiscoveryRequest> requests = new ArrayList<>();
+
+    DeltaRpcCall(StreamObserver<DeltaDiscoveryResponse> responseObserver) {
+      this.responseObserver = responseObserver;
+    }
+
+    void sendResponse(ResourceType type, String nonce, Resource... resources) {
+      DeltaDiscoveryResponse.Builder builder =
+          DeltaDiscoveryResponse.newBuilder().setTypeUrl(type.typeUrl()).setNonce(nonce);
+      for (Resource resource : resources) {
+        builder.addResources(resource);
+      }
+      responseObserver.onNext(builder.build());
+    }
+
+    @Override
+    public void onNext(DeltaDiscoveryRequest request) {
+      requests.add(request);
+    }
+
+    @Override
+    public void onError(Throwable t) {}
+
+    @Override
+    public void onCompleted() {}
+  }
+}
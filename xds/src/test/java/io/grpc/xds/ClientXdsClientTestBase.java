@@ -567,6 +567,46 @@ public abstract class ClientXdsClientTestBase {
     verify(rdsResourceWatcher).onResourceDoesNotExist(RDS_RESOURCE);
   }
 
+  @Test
+  public void rdsResourceRetainedByUnchangedLds() {
+    xdsClient.watchLdsResource(LDS_RESOURCE, ldsResourceWatcher);
+    xdsClient.watchRdsResource(RDS_RESOURCE, rdsResourceWatcher);
+
+    DiscoveryRpcCall call = resourceDiscoveryCalls.poll();
+    call.sendResponse(LDS, testListenerRds, VERSION_1, "0000");
+    verify(ldsResourceWatcher).onChanged(ldsUpdateCaptor.capture());
+    call.sendResponse(RDS, testRouteConfig, VERSION_1, "0000");
+    verify(rdsResourceWatcher).onChanged(rdsUpdateCaptor.capture());
+
+    // The same Listener, sent again with a new version, is neither parsed nor notified again.
+    Any sameListener = Any.pack(mf.buildListenerForRds(LDS_RESOURCE, RDS_RESOURCE));
+    call.sendResponse(LDS, sameListener, VERSION_2, "0001");
+    call.verifyRequest(LDS, LDS_RESOURCE, VERSION_2, "0001", NODE);
+    call.sendResponse(RDS, testRouteConfig, VERSION_2, "0001");
+    call.verifyRequest(RDS, RDS_RESOURCE, VERSION_2, "0001", NODE);
+    verifyNoMoreInteractions(ldsResourceWatcher, rdsResourceWatcher);
+  }
+
+  @Test
+  public void ldsResourceUnchanged_notParsedAgain() {
+    Assume.assumeTrue(useProtocolV3());
+    DiscoveryRpcCall call = startResourceWatcher(LDS, LDS_RESOURCE, ldsResourceWatcher);
+    Any listener = Any.pack(
+        mf.buildListener(
+            LDS_RESOURCE,
+            mf.buildRouteConfiguration("do not care", mf.buildOpaqueVirtualHosts(VHOST_SIZE)),
+            ImmutableList.of(mf.buildHttpFilter("envoy.fault", null))));
+    call.sendResponse(LDS, listener, VERSION_1, "0000");
+    verify(ldsResourceWatcher).onChanged(ldsUpdateCaptor.capture());
+    assertThat(ldsUpdateCaptor.getValue().hasFaultInjection).isTrue();
+
+    // Parsing the same Listener again would now drop the fault filter and notify the change.
+    ClientXdsClient.enableFaultInjection = false;
+    call.sendResponse(LDS, listener, VERSION_2, "0001");
+    call.verifyRequest(LDS, LDS_RESOURCE, VERSION_2, "0001", NODE);
+    verifyNoMoreInteractions(ldsResourceWatcher);
+  }
+
   @Test
   public void multipleRdsWatchers() {
     String rdsResourceTwo = "route-bar.googleapis.com";
@@ -30,6 +30,7 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Range;
 import io.grpc.Attributes;
 import io.grpc.ChannelLogger;
 import io.grpc.ConnectivityState;
@@ -68,6 +69,8 @@ import io.grpc.xds.PriorityLoadBalancerProvider.PriorityLbConfig.PriorityChildCo
 import io.grpc.xds.WeightedTargetLoadBalancerProvider.WeightedPolicySelection;
 import io.grpc.xds.WeightedTargetLoadBalancerProvider.WeightedTargetConfig;
 import io.grpc.xds.internal.sds.CommonTlsContextTestsUtil;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -383,6 +386,120 @@ public class ClusterResolverLoadBalancerTest {
     assertThat(weightedTargetConfig.targets.keySet()).containsExactly(locality2.toString());
   }
 
+  @Test
+  public void handleEdsResource_subsetting() {
+    ClusterResolverLoadBalancer.subsetSize = 4;
+    try {
+      deliverConfigWithSingleEdsCluster();  // CLUSTER1
+      Map<EquivalentAddressGroup, Boolean> endpoints1 = new HashMap<>();
+      for (int i = 0; i < 6; i++) {
+        endpoints1.put(makeAddress("endpoint-addr-1-" + i), true);
+      }
+      endpoints1.put(makeAddress("endpoint-addr-1-unhealthy"), false);
+      Map<EquivalentAddressGroup, Boolean> endpoints2 = ImmutableMap.of(
+          makeAddress("endpoint-addr-2-0"), true, makeAddress("endpoint-addr-2-1"), true);
+      String priority = CLUSTER1 + "[priority1]";
+      xdsClient.deliverClusterLoadAssignment(
+          EDS_SERVICE_NAME1,
+          ImmutableMap.of(
+              locality1, buildLocalityLbEndpoints(1, 10, endpoints1),
+              locality2, buildLocalityLbEndpoints(1, 10, endpoints2)));
+
+      // 4 of the 8 healthy endpoints, in proportion to the endpoints of each locality.
+      FakeLoadBalancer childBalancer = Iterables.getOnlyElement(childBalancers);
+      List<EquivalentAddressGroup> priorityAddrs =
+          AddressFilter.filter(childBalancer.addresses, priority);
+      assertThat(AddressFilter.filter(priorityAddrs, locality1.toString())).hasSize(3);
+      assertThat(AddressFilter.filter(priorityAddrs, locality2.toString())).hasSize(1);
+    } finally {
+      ClusterResolverLoadBalancer.subsetSize = 0;
+    }
+  }
+
+  @Test
+  public void selectSubset_stableAcrossUpdates() {
+    List<LbEndpoint> endpoints = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      endpoints.add(LbEndpoint.create(makeAddress("endpoint-addr-" + i), 1, true));
+    }
+    List<LbEndpoint> subset = ClusterResolverLoadBalancer.selectSubset(endpoints, 5, 20, 42L);
+    assertThat(subset).hasSize(5);
+    assertThat(ClusterResolverLoadBalancer.selectSubset(endpoints, 5, 20, 42L))
+        .containsExactlyElementsIn(subset);
+
+    // Removing an endpoint out of the subset does not change it.
+    List<LbEndpoint> remainingEndpoints = new ArrayList<>(endpoints);
+    for (LbEndpoint endpoint : endpoints) {
+      if (!subset.contains(endpoint)) {
+        remainingEndpoints.remove(endpoint);
+        break;
+      }
+    }
+    assertThat(ClusterResolverLoadBalancer.selectSubset(remainingEndpoints, 5, 19, 42L))
+        .containsExactlyElementsIn(subset);
+
+    // Removing an endpoint of the subset replaces only that one.
+    remainingEndpoints.remove(subset.get(0));
+    List<LbEndpoint> newSubset =
+        ClusterResolverLoadBalancer.selectSubset(remainingEndpoints, 5, 18, 42L);
+    assertThat(newSubset).hasSize(5);
+    assertThat(newSubset).containsAtLeastElementsIn(subset.subList(1, 5));
+  }
+
+  @Test
+  public void selectSubset_balancedAcrossClients() {
+    List<LbEndpoint> endpoints = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      // The last endpoint has 3 times the weight of the others.
+      endpoints.add(LbEndpoint.create(makeAddress("endpoint-addr-" + i), i == 19 ? 3 : 1, true));
+    }
+    Map<LbEndpoint, Integer> selections = new HashMap<>();
+    for (long seed = 0; seed < 2000; seed++) {
+      for (LbEndpoint endpoint : ClusterResolverLoadBalancer.selectSubset(endpoints, 2, 20, seed)) {
+        Integer count = selections.get(endpoint);
+        selections.put(endpoint, count == null ? 1 : count + 1);
+      }
+    }
+    for (int i = 0; i < 19; i++) {
+      // 182 expected.
+      assertThat(selections.get(endpoints.get(i))).isIn(Range.closed(130, 230));
+    }
+    // 545 expected.
+    assertThat(selections.get(endpoints.get(19))).isIn(Range.closed(460, 630));
+  }
+
+  @Test
+  public void rendezvousScore_distinguishesAddressesWithEqualHashCodes() throws Exception {
+    EquivalentAddressGroup address1 = new EquivalentAddressGroup(new InetSocketAddress(
+        InetAddress.getByAddress(new byte[] {10, 0, 0, 1}), 8081));
+    EquivalentAddressGroup address2 = new EquivalentAddressGroup(new InetSocketAddress(
+        InetAddress.getByAddress(new byte[] {10, 0, 0, 2}), 8080));
+    assertThat(address1.getAddresses().hashCode()).isEqualTo(address2.getAddresses().hashCode());
+    LbEndpoint endpoint1 = LbEndpoint.create(address1, 1, true);
+    LbEndpoint endpoint2 = LbEndpoint.create(address2, 1, true);
+
+    Map<LbEndpoint, Integer> selections = new HashMap<>();
+    for (long seed = 0; seed < 100; seed++) {
+      assertThat(ClusterResolverLoadBalancer.rendezvousScore(endpoint1, seed))
+          .isNotEqualTo(ClusterResolverLoadBalancer.rendezvousScore(endpoint2, seed));
+      LbEndpoint selected = Iterables.getOnlyElement(ClusterResolverLoadBalancer.selectSubset(
+          Arrays.asList(endpoint1, endpoint2), 1, 2, seed));
+      Integer count = selections.get(selected);
+      selections.put(selected, count == null ? 1 : count + 1);
+    }
+    // Each is selected by about half the clients.
+    assertThat(selections.get(endpoint1)).isIn(Range.closed(30, 70));
+    assertThat(selections.get(endpoint2)).isIn(Range.closed(30, 70));
+  }
+
+  @Test
+  public void parseSubsetSize() {
+    assertThat(ClusterResolverLoadBalancer.parseSubsetSize(null)).isEqualTo(0);
+    assertThat(ClusterResolverLoadBalancer.parseSubsetSize("100")).isEqualTo(100);
+    assertThat(ClusterResolverLoadBalancer.parseSubsetSize("-1")).isEqualTo(0);
+    assertThat(ClusterResolverLoadBalancer.parseSubsetSize("many")).isEqualTo(0);
+  }
+
   @Test
   public void handleEdsResource_ignorePrioritiesWithNoHealthyEndpoints() {
     deliverConfigWithSingleEdsCluster();   // CLUSTER1
@@ -156,6 +156,36 @@ public class WeightedRandomPickerTest {
     assertThat(fakeRandom.bound).isEqualTo(25);
   }
 
+  @Test
+  public void pickWithFakeRandom_manyChildren() {
+    List<WeightedChildPicker> weightedChildPickers = new ArrayList<>();
+    List<PickResult> pickResults = new ArrayList<>();
+    List<Integer> expectedChildren = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      final PickResult pickResult = PickResult.withSubchannel(mock(Subchannel.class));
+      int weight = i % 3 == 0 ? 0 : i % 7 + 1;
+      weightedChildPickers.add(new WeightedChildPicker(weight, new SubchannelPicker() {
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+          return pickResult;
+        }
+      }));
+      pickResults.add(pickResult);
+      for (int j = 0; j < weight; j++) {
+        expectedChildren.add(i);
+      }
+    }
+
+    WeightedRandomPicker xdsPicker = new WeightedRandomPicker(weightedChildPickers, fakeRandom);
+
+    for (int rand = 0; rand < expectedChildren.size(); rand++) {
+      fakeRandom.nextInt = rand;
+      assertThat(xdsPicker.pickSubchannel(pickSubchannelArgs))
+          .isSameInstanceAs(pickResults.get(expectedChildren.get(rand)));
+      assertThat(fakeRandom.bound).isEqualTo(expectedChildren.size());
+    }
+  }
+
   @Test
   public void allZeroWeights() {
     WeightedChildPicker weightedChildPicker0 = new WeightedChildPicker(0, childPicker0);
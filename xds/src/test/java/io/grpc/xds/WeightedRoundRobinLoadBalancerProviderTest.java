@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import io.grpc.internal.JsonParser;
+import io.grpc.xds.WeightedRoundRobinLoadBalancerProvider.WeightedRoundRobinConfig;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link WeightedRoundRobinLoadBalancerProvider}. */
+@RunWith(JUnit4.class)
+public class WeightedRoundRobinLoadBalancerProviderTest {
+  private final WeightedRoundRobinLoadBalancerProvider provider =
+      new WeightedRoundRobinLoadBalancerProvider();
+
+  @Test
+  public void providesLoadBalancer() {
+    assertThat(LoadBalancerRegistry.getDefaultRegistry()
+        .getProvider("weighted_round_robin_experimental"))
+        .isInstanceOf(WeightedRoundRobinLoadBalancerProvider.class);
+  }
+
+  @Test
+  public void parseConfig() throws Exception {
+    String rawConfig = "{"
+        + "\"enableOobLoadReport\": true, "
+        + "\"oobReportingPeriod\": \"5s\", "
+        + "\"blackoutPeriod\": \"0s\", "
+        + "\"weightExpirationPeriod\": \"60s\", "
+        + "\"weightUpdatePeriod\": \"2s\""
+        + "}";
+
+    ConfigOrError configOrError = provider.parseLoadBalancingPolicyConfig(parse(rawConfig));
+
+    assertThat(configOrError.getConfig()).isEqualTo(new WeightedRoundRobinConfig(
+        true, TimeUnit.SECONDS.toNanos(5), 0, TimeUnit.SECONDS.toNanos(60),
+        TimeUnit.SECONDS.toNanos(2)));
+  }
+
+  @Test
+  public void parseConfig_defaults() throws Exception {
+    ConfigOrError configOrError = provider.parseLoadBalancingPolicyConfig(parse("{}"));
+
+    assertThat(configOrError.getConfig())
+        .isEqualTo(WeightedRoundRobinLoadBalancerProvider.DEFAULT_CONFIG);
+  }
+
+  @Test
+  public void parseConfig_weightUpdatePeriodTooShort() throws Exception {
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parse("{\"weightUpdatePeriod\": \"0.01s\"}"));
+
+    assertThat(((WeightedRoundRobinConfig) configOrError.getConfig()).weightUpdatePeriodNanos)
+        .isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  @Test
+  public void parseConfig_invalidWeightExpirationPeriod() throws Exception {
+    ConfigOrError configOrError =
+        provider.parseLoadBalancingPolicyConfig(parse("{\"weightExpirationPeriod\": \"0s\"}"));
+
+    assertThat(configOrError.getError().getCode()).isEqualTo(Status.Code.INTERNAL);
+    assertThat(configOrError.getError().getDescription())
+        .startsWith("weightExpirationPeriod must be positive");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, ?> parse(String rawConfig) throws Exception {
+    return (Map<String, ?>) JsonParser.parse(rawConfig);
+  }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2021 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.xds;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.github.udpa.udpa.data.orca.v1.OrcaLoadReport;
+import com.google.common.collect.Range;
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ChannelLogger;
+import io.grpc.ClientCall;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer.CreateSubchannelArgs;
+import io.grpc.LoadBalancer.Helper;
+import io.grpc.LoadBalancer.PickResult;
+import io.grpc.LoadBalancer.PickSubchannelArgs;
+import io.grpc.LoadBalancer.ResolvedAddresses;
+import io.grpc.LoadBalancer.Subchannel;
+import io.grpc.LoadBalancer.SubchannelPicker;
+import io.grpc.LoadBalancer.SubchannelStateListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import io.grpc.internal.FakeClock;
+import io.grpc.internal.NoopClientCall;
+import io.grpc.xds.OrcaPerRequestUtil.OrcaReportingTracerFactory;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.EdfScheduler;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.SubchannelWeight;
+import io.grpc.xds.WeightedRoundRobinLoadBalancer.WeightedRoundRobinPicker;
+import io.grpc.xds.WeightedRoundRobinLoadBalancerProvider.WeightedRoundRobinConfig;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link WeightedRoundRobinLoadBalancer}. */
+@RunWith(JUnit4.class)
+public class WeightedRoundRobinLoadBalancerTest {
+  private static final ClientStreamTracer.StreamInfo STREAM_INFO =
+      ClientStreamTracer.StreamInfo.newBuilder().build();
+  private static final WeightedRoundRobinConfig PER_REQUEST_CONFIG =
+      new WeightedRoundRobinConfig(false, TimeUnit.SECONDS.toNanos(10),
+          TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), TimeUnit.SECONDS.toNanos(1));
+
+  private final SynchronizationContext syncContext = new SynchronizationContext(
+      new Thread.UncaughtExceptionHandler() {
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+          throw new AssertionError(e);
+        }
+      });
+  private final FakeClock fakeClock = new FakeClock();
+  private final FakeHelper helper = new FakeHelper();
+  private final Map<SocketAddress, FakeSubchannel> subchannels = new HashMap<>();
+  private final List<EquivalentAddressGroup> addresses = new ArrayList<>();
+  private WeightedRoundRobinLoadBalancer loadBalancer;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 3; i++) {
+      addresses.add(new EquivalentAddressGroup(
+          InetSocketAddress.createUnresolved("backend" + i, 8080)));
+    }
+    loadBalancer =
+        new WeightedRoundRobinLoadBalancer(helper, fakeClock.getTicker(), new Random(1));
+  }
+
+  @After
+  public void tearDown() {
+    syncContext.execute(new Runnable() {
+      @Override
+      public void run() {
+        loadBalancer.shutdown();
+      }
+    });
+    assertThat(fakeClock.getPendingTasks()).isEmpty();
+  }
+
+  @Test
+  public void pickInProportionToReportedWeights() {
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+    for (EquivalentAddressGroup address : addresses) {
+      deliverSubchannelState(address, ConnectivityState.READY);
+    }
+    assertThat(helper.state).isEqualTo(ConnectivityState.READY);
+    // No weight reported yet, all backends get the same share.
+    assertThat(countPicks(300)).containsExactly(
+        addresses.get(0).getAddresses().get(0), 100,
+        addresses.get(1).getAddresses().get(0), 100,
+        addresses.get(2).getAddresses().get(0), 100);
+
+    for (int i = 0; i < 30; i++) {
+      PickResult result = helper.picker.pickSubchannel(mock(PickSubchannelArgs.class));
+      int backend = addresses.indexOf(result.getSubchannel().getAddresses());
+      // Weights 200, 400 and 600.
+      reportLoad(result, OrcaLoadReport.newBuilder()
+          .setRps(100 * (backend + 1)).setCpuUtilization(0.5).build());
+    }
+    SubchannelPicker picker = helper.picker;
+    fakeClock.forwardTime(9, TimeUnit.SECONDS);
+    // Still in the blackout period.
+    assertThat(helper.picker).isSameInstanceAs(picker);
+
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    assertThat(helper.picker).isNotSameInstanceAs(picker);
+    assertThat(helper.picker).isInstanceOf(WeightedRoundRobinPicker.class);
+    Map<SocketAddress, Integer> counts = countPicks(600);
+    assertThat(counts.get(addresses.get(0).getAddresses().get(0)))
+        .isIn(Range.closed(98, 102));
+    assertThat(counts.get(addresses.get(1).getAddresses().get(0)))
+        .isIn(Range.closed(198, 202));
+    assertThat(counts.get(addresses.get(2).getAddresses().get(0)))
+        .isIn(Range.closed(298, 302));
+  }
+
+  @Test
+  public void backendWithoutWeight_getsMeanWeight() {
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+    for (EquivalentAddressGroup address : addresses) {
+      deliverSubchannelState(address, ConnectivityState.READY);
+    }
+    for (int i = 0; i < 30; i++) {
+      PickResult result = helper.picker.pickSubchannel(mock(PickSubchannelArgs.class));
+      int backend = addresses.indexOf(result.getSubchannel().getAddresses());
+      if (backend != 2) {
+        // Weights 200 and 600, the mean is 400.
+        reportLoad(result, OrcaLoadReport.newBuilder()
+            .setRps(backend == 0 ? 100 : 300).setCpuUtilization(0.5).build());
+      }
+    }
+    fakeClock.forwardTime(10, TimeUnit.SECONDS);
+
+    Map<SocketAddress, Integer> counts = countPicks(600);
+    assertThat(counts.get(addresses.get(0).getAddresses().get(0)))
+        .isIn(Range.closed(98, 102));
+    assertThat(counts.get(addresses.get(1).getAddresses().get(0)))
+        .isIn(Range.closed(298, 302));
+    assertThat(counts.get(addresses.get(2).getAddresses().get(0)))
+        .isIn(Range.closed(198, 202));
+  }
+
+  @Test
+  public void oobLoadReport_noPerRequestTracer() {
+    deliverResolvedAddresses(new WeightedRoundRobinConfig(true, TimeUnit.SECONDS.toNanos(10),
+        TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), TimeUnit.SECONDS.toNanos(1)));
+    deliverSubchannelState(addresses.get(0), ConnectivityState.READY);
+
+    PickResult result = helper.picker.pickSubchannel(mock(PickSubchannelArgs.class));
+    assertThat(result.getSubchannel().getAddresses()).isEqualTo(addresses.get(0));
+    assertThat(result.getStreamTracerFactory()).isNull();
+  }
+
+  @Test
+  public void oobLoadReport_stoppedWhenDisabled() {
+    deliverResolvedAddresses(new WeightedRoundRobinConfig(true, TimeUnit.SECONDS.toNanos(10),
+        TimeUnit.SECONDS.toNanos(10), TimeUnit.MINUTES.toNanos(3), TimeUnit.SECONDS.toNanos(1)));
+    deliverSubchannelState(addresses.get(0), ConnectivityState.READY);
+    FakeSubchannel subchannel = subchannels.get(addresses.get(0).getAddresses().get(0));
+    assertThat(subchannel.oobCallsStarted).isEqualTo(1);
+    assertThat(subchannel.oobCallsCancelled).isEqualTo(0);
+
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+    assertThat(subchannel.oobCallsCancelled).isEqualTo(1);
+    assertThat(subchannel.oobCallsStarted).isEqualTo(1);
+  }
+
+  @Test
+  public void noReadySubchannel() {
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+    assertThat(helper.state).isEqualTo(ConnectivityState.CONNECTING);
+    assertThat(helper.picker.pickSubchannel(mock(PickSubchannelArgs.class)).hasResult())
+        .isFalse();
+
+    Status error = Status.UNAVAILABLE.withDescription("unreachable");
+    for (EquivalentAddressGroup address : addresses) {
+      deliverSubchannelState(address, ConnectivityStateInfo.forTransientFailure(error));
+    }
+    assertThat(helper.state).isEqualTo(ConnectivityState.TRANSIENT_FAILURE);
+    assertThat(helper.picker.pickSubchannel(mock(PickSubchannelArgs.class)).getStatus())
+        .isEqualTo(error);
+  }
+
+  @Test
+  public void removedSubchannelShutdown() {
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+    FakeSubchannel removed = subchannels.get(addresses.get(2).getAddresses().get(0));
+    addresses.remove(2);
+    deliverResolvedAddresses(PER_REQUEST_CONFIG);
+
+    assertThat(removed.shutdown).isTrue();
+    assertThat(subchannels.get(addresses.get(0).getAddresses().get(0)).shutdown).isFalse();
+  }
+
+  @Test
+  public void subchannelWeight_blackoutAndExpiration() {
+    SubchannelWeight weight = new SubchannelWeight(fakeClock.getTicker());
+    long blackoutNanos = TimeUnit.SECONDS.toNanos(10);
+    long expirationNanos = TimeUnit.MINUTES.toNanos(3);
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(0.0);
+
+    weight.onLoadReport(OrcaLoadReport.newBuilder().setRps(100).setCpuUtilization(0.5).build());
+    fakeClock.forwardTime(9, TimeUnit.SECONDS);
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(0.0);
+    fakeClock.forwardTime(1, TimeUnit.SECONDS);
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(200.0);
+
+    // A report without utilization is ignored.
+    weight.onLoadReport(OrcaLoadReport.newBuilder().setRps(100).build());
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(200.0);
+
+    fakeClock.forwardTime(3, TimeUnit.MINUTES);
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(0.0);
+    // The blackout period applies again.
+    weight.onLoadReport(OrcaLoadReport.newBuilder().setRps(100).setCpuUtilization(0.5).build());
+    assertThat(weight.getWeight(blackoutNanos, expirationNanos)).isEqualTo(0.0);
+  }
+
+  @Test
+  public void edfScheduler_interleavesInProportionToWeights() {
+    EdfScheduler scheduler = new EdfScheduler(new double[] {1, 2, 4}, new Random(1));
+    int[] counts = new int[3];
+    for (int i = 0; i < 700; i++) {
+      counts[scheduler.pick()]++;
+      if (i % 7 == 6) {
+        // Picks are interleaved, the counts never drift away from the weights.
+        int round = (i + 1) / 7;
+        assertThat(counts[0]).isIn(Range.closed(round - 1, round + 1));
+        assertThat(counts[1]).isIn(Range.closed(2 * round - 2, 2 * round + 2));
+        assertThat(counts[2]).isIn(Range.closed(4 * round - 2, 4 * round + 2));
+      }
+    }
+    assertThat(counts).asList().containsExactly(100, 200, 400).inOrder();
+  }
+
+  @Test
+  public void edfScheduler_weightsRoundedToHundredthsOfLargest() {
+    EdfScheduler scheduler = new EdfScheduler(new double[] {1, 3, 1000}, new Random(1));
+    int[] counts = new int[3];
+    for (int i = 0; i < 102 * 10; i++) {
+      counts[scheduler.pick()]++;
+    }
+    // The small weights round to less than a hundredth, but are still picked once per cycle.
+    assertThat(counts).asList().containsExactly(10, 10, 1000).inOrder();
+  }
+
+  private void deliverResolvedAddresses(final WeightedRoundRobinConfig config) {
+    syncContext.execute(new Runnable() {
+      @Override
+      public void run() {
+        loadBalancer.handleResolvedAddresses(
+            ResolvedAddresses.newBuilder()
+                .setAddresses(new ArrayList<>(addresses))
+                .setLoadBalancingPolicyConfig(config)
+                .build());
+      }
+    });
+  }
+
+  private void deliverSubchannelState(EquivalentAddressGroup address, ConnectivityState state) {
+    deliverSubchannelState(address, ConnectivityStateInfo.forNonError(state));
+  }
+
+  private void deliverSubchannelState(
+      EquivalentAddressGroup address, final ConnectivityStateInfo state) {
+    final FakeSubchannel subchannel = subchannels.get(address.getAddresses().get(0));
+    syncContext.execute(new Runnable() {
+      @Override
+      public void run() {
+        subchannel.listener.onSubchannelState(state);
+      }
+    });
+  }
+
+  private Map<SocketAddress, Integer> countPicks(int picks) {
+    Map<SocketAddress, Integer> counts = new HashMap<>();
+    for (int i = 0; i < picks; i++) {
+      PickResult result = helper.picker.pickSubchannel(mock(PickSubchannelArgs.class));
+      SocketAddress address = result.getSubchannel().getAddresses().getAddresses().get(0);
+      Integer count = counts.get(address);
+      counts.put(address, count == null ? 1 : count + 1);
+    }
+    return counts;
+  }
+
+  private static void reportLoad(PickResult result, OrcaLoadReport report) {
+    Metadata trailers = new Metadata();
+    trailers.put(OrcaReportingTracerFactory.ORCA_ENDPOINT_LOAD_METRICS_KEY, report);
+    result.getStreamTracerFactory()
+        .newClientStreamTracer(STREAM_INFO, new Metadata())
+        .inboundTrailers(trailers);
+  }
+
+  private final class FakeHelper extends Helper {
+    ConnectivityState state;
+    SubchannelPicker picker;
+
+    @Override
+    public Subchannel createSubchannel(CreateSubchannelArgs args) {
+      FakeSubchannel subchannel = new FakeSubchannel(args.getAddresses());
+      subchannels.put(args.getAddresses().get(0).getAddresses().get(0), subchannel);
+      return subchannel;
+    }
+
+    @Override
+    public void updateBalancingState(ConnectivityState newState, SubchannelPicker newPicker) {
+      state = newState;
+      picker = newPicker;
+    }
+
+    @Override
+    public SynchronizationContext getSynchronizationContext() {
+      return syncContext;
+    }
+
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+      return fakeClock.getScheduledExecutorService();
+    }
+
+    @Override
+    public ManagedChannel createOobChannel(EquivalentAddressGroup eag, String authority) {
+      throw new UnsupportedOperationException("should not be called");
+    }
+
+    @Override
+    public String getAuthority() {
+      return "api.google.com";
+    }
+  }
+
+  private static final class FakeSubchannel extends Subchannel {
+    private final List<EquivalentAddressGroup> eags;
+    private final ChannelLogger logger = mock(ChannelLogger.class);
+    SubchannelStateListener listener;
+    boolean shutdown;
+    int oobCallsStarted;
+    int oobCallsCancelled;
+
+    FakeSubchannel(List<EquivalentAddressGroup> eags) {
+      this.eags = eags;
+    }
+
+    @Override
+    public void start(SubchannelStateListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+    }
+
+    @Override
+    public void requestConnection() {
+    }
+
+    @Override
+    public List<EquivalentAddressGroup> getAllAddresses() {
+      return eags;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return Attributes.EMPTY;
+    }
+
+    @Override
+    public ChannelLogger getChannelLogger() {
+      return logger;
+    }
+
+    @Override
+    public Channel asChannel() {
+      return new Channel() {
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+            MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+          return new NoopClientCall<ReqT, RespT>() {
+            @Override
+            public void start(ClientCall.Listener<RespT> listener, Metadata headers) {
+              oobCallsStarted++;
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+              oobCallsCancelled++;
+            }
+          };
+        }
+
+        @Override
+        public String authority() {
+          return "api.google.com";
+        }
+      };
+    }
+  }
+}
@@ -73,6 +73,7 @@ import io.grpc.xds.VirtualHost.Route.RouteAction.ClusterWeight;
 import io.grpc.xds.VirtualHost.Route.RouteAction.HashPolicy;
 import io.grpc.xds.VirtualHost.Route.RouteMatch;
 import io.grpc.xds.XdsClient.RdsResourceWatcher;
+import io.grpc.xds.XdsNameResolver.VirtualHostRoutes;
 import io.grpc.xds.XdsNameResolverProvider.XdsClientPoolFactory;
 import java.io.IOException;
 import java.util.Arrays;
@@ -826,6 +827,30 @@ public class XdsNameResolverTest {
         .isEqualTo(vHost1);;
   }
 
+  @Test
+  public void getSharedRoutes_derivedOncePerUpdate() {
+    Route route = Route.create(RouteMatch.withPathExactOnly(call1.getFullMethodNameForPath()),
+        RouteAction.forCluster(cluster1, Collections.<HashPolicy>emptyList(), null), null);
+    VirtualHost vHost1 = VirtualHost.create("virtualhost01.googleapis.com",
+        Collections.singletonList("a.googleapis.com"), Collections.singletonList(route), null);
+    VirtualHost vHost2 = VirtualHost.create("virtualhost02.googleapis.com",
+        Collections.singletonList("*"), Collections.<Route>emptyList(), null);
+    List<VirtualHost> virtualHosts = Arrays.asList(vHost1, vHost2);
+
+    VirtualHostRoutes routes = XdsNameResolver.getSharedRoutes(virtualHosts, "a.googleapis.com");
+    assertThat(routes.virtualHost).isEqualTo(vHost1);
+    assertThat(routes.clusters).containsExactly(cluster1);
+    assertThat(XdsNameResolver.getSharedRoutes(virtualHosts, "a.googleapis.com"))
+        .isSameInstanceAs(routes);
+    VirtualHostRoutes otherRoutes =
+        XdsNameResolver.getSharedRoutes(virtualHosts, "b.googleapis.com");
+    assertThat(otherRoutes.virtualHost).isEqualTo(vHost2);
+    assertThat(otherRoutes.clusters).isEmpty();
+    // Equal, but not the same update.
+    assertThat(XdsNameResolver.getSharedRoutes(Arrays.asList(vHost1, vHost2), "a.googleapis.com"))
+        .isNotSameInstanceAs(routes);
+  }
+
   @Test
   public void resolved_faultAbortInLdsUpdate() {
     resolver.start(mockListener);